@@ -5,10 +5,10 @@ import android.support.annotation.Nullable;
 import android.util.Log;
 
 import com.voxeet.toolkit.activities.notification.DefaultIncomingCallActivity;
+import com.voxeet.toolkit.application.StartupGraph;
 import com.voxeet.toolkit.application.VoxeetApplication;
 import com.voxeet.toolkit.controllers.VoxeetToolkit;
 import com.voxeet.toolkit.implementation.overlays.OverlayState;
-import com.voxeet.toolkit.utils.EventDebugger;
 
 import org.greenrobot.eventbus.EventBus;
 
@@ -34,8 +34,10 @@ public class SampleApplication extends VoxeetApplication {
 
     private static final String TAG = SampleApplication.class.getSimpleName();
 
+    private static final String TASK_TOOLKIT = "toolkit";
+    private static final String TASK_EVENT_DEBUGGER = "event_debugger";
+
     private UserInfo _current_user;
-    private EventDebugger mEventDebugger;
     private boolean sdkInitialized;
 
     @Override
@@ -46,20 +48,8 @@ public class SampleApplication extends VoxeetApplication {
 
         sdkInitialized = false;
 
-        mEventDebugger = new EventDebugger();
-        mEventDebugger.register();
-
-        VoxeetToolkit.initialize(this, EventBus.getDefault())
-                .enableOverlay(true);
-
-        FirebaseController.getInstance().enable(true);
-
-        //change the overlay used by default
-        VoxeetToolkit.getInstance().getConferenceToolkit().setScreenShareEnabled(true)
-                .setDefaultOverlayState(OverlayState.EXPANDED);
-
         //the default case of this SDK is to have the SDK with consumerKey and consumerSecret embedded
-        uniqueInitializeSDK().then(new PromiseExec<Boolean, Object>() {
+        initializeSDK().then(new PromiseExec<Boolean, Object>() {
             @Override
             public void onCall(@Nullable Boolean result, @NonNull Solver<Object> solver) {
                 Log.d(TAG, "onCall: SDK initialized using keys");
@@ -72,6 +62,38 @@ public class SampleApplication extends VoxeetApplication {
         });
     }
 
+    @Override
+    protected void onCreateStartupGraph(@NonNull StartupGraph graph) {
+        //the toolkit and the SDK both need the main thread, the graph only orders them
+        graph.add(TASK_TOOLKIT, StartupGraph.Schedule.MAIN, new StartupGraph.Task() {
+            @NonNull
+            @Override
+            public Promise<Boolean> run() {
+                initializeToolkit();
+                return resolved();
+            }
+        }).addWhenIdle(TASK_EVENT_DEBUGGER, StartupGraph.Schedule.MAIN, new StartupGraph.Task() {
+            @NonNull
+            @Override
+            public Promise<Boolean> run() {
+                //the instance of the application, reachable through getEventDebugger() to dump it
+                enableLogs();
+                return resolved();
+            }
+        }).dependOn(TASK_SDK, TASK_TOOLKIT);
+    }
+
+    private void initializeToolkit() {
+        VoxeetToolkit.initialize(this, EventBus.getDefault())
+                .enableOverlay(true);
+
+        FirebaseController.getInstance().enable(true);
+
+        //change the overlay used by default
+        VoxeetToolkit.getInstance().getConferenceToolkit().setScreenShareEnabled(true)
+                .setDefaultOverlayState(OverlayState.EXPANDED);
+    }
+
     /**
      * Select an user, tells the sdk to wether validate or
      * log the selected user
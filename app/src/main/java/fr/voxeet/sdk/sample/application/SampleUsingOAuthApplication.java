@@ -6,10 +6,10 @@ import android.util.Log;
 import android.widget.Toast;
 
 import com.voxeet.toolkit.activities.notification.DefaultIncomingCallActivity;
+import com.voxeet.toolkit.application.StartupGraph;
 import com.voxeet.toolkit.application.VoxeetApplication;
 import com.voxeet.toolkit.controllers.VoxeetToolkit;
 import com.voxeet.toolkit.implementation.overlays.OverlayState;
-import com.voxeet.toolkit.utils.EventDebugger;
 
 import org.greenrobot.eventbus.EventBus;
 
@@ -21,9 +21,7 @@ import eu.codlab.simplepromise.solve.Solver;
 import fr.voxeet.sdk.sample.BuildConfig;
 import fr.voxeet.sdk.sample.oauth.OAuthCalls;
 import fr.voxeet.sdk.sample.oauth.OAuthCallsFactory;
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
+import fr.voxeet.sdk.sample.oauth.OAuthTokenProvider;
 import voxeet.com.sdk.core.FirebaseController;
 import voxeet.com.sdk.core.VoxeetSdk;
 import voxeet.com.sdk.core.preferences.VoxeetPreferences;
@@ -42,9 +40,13 @@ public class SampleUsingOAuthApplication extends VoxeetApplication {
 
     private static final String TAG = SampleUsingOAuthApplication.class.getSimpleName();
 
+    private static final String TASK_TOKEN = "token";
+    private static final String TASK_TOOLKIT = "toolkit";
+    private static final String TASK_EVENT_DEBUGGER = "event_debugger";
+
     private UserInfo _current_user;
-    private EventDebugger mEventDebugger;
     private boolean sdkInitialized;
+    private OAuthTokenProvider mTokenProvider;
 
     @Override
     public void onCreate() {
@@ -53,10 +55,47 @@ public class SampleUsingOAuthApplication extends VoxeetApplication {
         Log.d(TAG, "onCreate: starting Voxeet Sample");
 
         sdkInitialized = false;
+    }
 
-        mEventDebugger = new EventDebugger();
-        mEventDebugger.register();
+    @Override
+    protected void onCreateStartupGraph(@NonNull StartupGraph graph) {
+        //the token is fetched while the toolkit is created, the SDK initialization waits for both
+        graph.add(TASK_TOKEN, StartupGraph.Schedule.BACKGROUND, new StartupGraph.Task() {
+            @NonNull
+            @Override
+            public Promise<Boolean> run() {
+                return fetchAccessToken();
+            }
+        }).add(TASK_TOOLKIT, StartupGraph.Schedule.MAIN, new StartupGraph.Task() {
+            @NonNull
+            @Override
+            public Promise<Boolean> run() {
+                initializeToolkit();
+                return resolved();
+            }
+        }).addWhenIdle(TASK_EVENT_DEBUGGER, StartupGraph.Schedule.MAIN, new StartupGraph.Task() {
+            @NonNull
+            @Override
+            public Promise<Boolean> run() {
+                //the instance of the application, reachable through getEventDebugger() to dump it
+                enableLogs();
+                return resolved();
+            }
+        }).dependOn(TASK_SDK, TASK_TOKEN, TASK_TOOLKIT);
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+
+        //no need to keep the token fresh in background, the next request fetches a new one
+        if (level >= TRIM_MEMORY_UI_HIDDEN) {
+            OAuthTokenProvider provider = mTokenProvider;
+            if (null != provider) provider.stop();
+        }
+    }
 
+    private void initializeToolkit() {
         VoxeetToolkit.initialize(this, EventBus.getDefault());
         VoxeetToolkit.getInstance().enableOverlay(true);
 
@@ -81,7 +120,7 @@ public class SampleUsingOAuthApplication extends VoxeetApplication {
         if (_current_user == null || !sdkInitialized) {
             //if we are in a OAuth management, we must wait for the initialization
             //and then, log the user !
-            uniqueInitializeSDK().then(new PromiseExec<Boolean, Object>() {
+            initializeSDK().then(new PromiseExec<Boolean, Object>() {
                 @Override
                 public void onCall(@Nullable Boolean result, @NonNull Solver<Object> solver) {
                     logSelectedUser();
@@ -149,29 +188,26 @@ public class SampleUsingOAuthApplication extends VoxeetApplication {
     public Promise<Boolean> uniqueInitializeSDK() {
         return new Promise<>(new PromiseSolver<Boolean>() {
             @Override
-            public void onCall(@NonNull Solver<Boolean> solver) {
-                retrieveAccessToken().then(new PromiseExec<String, Boolean>() {
+            public void onCall(@NonNull final Solver<Boolean> solver) {
+                //the startup graph already cached the token, unless it expired since
+                getTokenProvider().getToken().then(new PromiseExec<String, Object>() {
                     @Override
-                    public void onCall(@Nullable String accessToken, @NonNull Solver<Boolean> internal_solver) {
-
+                    public void onCall(@Nullable String accessToken, @NonNull Solver<Object> internal_solver) {
                         VoxeetSdk.initialize(SampleUsingOAuthApplication.this,
                                 accessToken,
                                 new RefreshTokenCallback() {
                                     @Override
-                                    public void onRequired(TokenCallback callback) {
-                                        Call<String> call = createOAuthCalls().retrieveAccessToken();
-                                        call.enqueue(new Callback<String>() {
+                                    public void onRequired(final TokenCallback callback) {
+                                        //concurrent requests from the SDK share the same call
+                                        getTokenProvider().refresh().then(new PromiseExec<String, Object>() {
                                             @Override
-                                            public void onResponse(Call<String> call, Response<String> response) {
-                                                String body = response.body();
-                                                if(null == body) body = "";
-                                                else body = body.replaceAll("\"", "");
-                                                callback.ok(body);
+                                            public void onCall(@Nullable String token, @NonNull Solver<Object> refresh_solver) {
+                                                callback.ok(null != token ? token : "");
                                             }
-
+                                        }).error(new ErrorPromise() {
                                             @Override
-                                            public void onFailure(Call<String> call, Throwable t) {
-                                                callback.error(t);
+                                            public void onError(@NonNull Throwable error) {
+                                                callback.error(error);
                                             }
                                         });
                                     }
@@ -185,7 +221,7 @@ public class SampleUsingOAuthApplication extends VoxeetApplication {
                 }).error(new ErrorPromise() {
                     @Override
                     public void onError(@NonNull Throwable error) {
-                        error.printStackTrace();
+                        solver.reject(error);
                     }
                 });
             }
@@ -221,29 +257,35 @@ public class SampleUsingOAuthApplication extends VoxeetApplication {
     }
 
     /**
-     * Retrieve the current third party accessToken given the OAuthCalls interface
+     * Get the provider caching the accessToken, created on first use since the startup graph
+     * may need it before onCreate() returns
      *
-     * @return
+     * @return a valid instance
      */
-    private Promise<String> retrieveAccessToken() {
-        return new Promise<>(new PromiseSolver<String>() {
+    @NonNull
+    private synchronized OAuthTokenProvider getTokenProvider() {
+        if (null == mTokenProvider) mTokenProvider = new OAuthTokenProvider(createOAuthCalls());
+        return mTokenProvider;
+    }
+
+    /**
+     * Fetch the accessToken used to initialize the SDK, so that it is cached when needed
+     *
+     * @return a promise resolved once the token is cached
+     */
+    private Promise<Boolean> fetchAccessToken() {
+        return new Promise<>(new PromiseSolver<Boolean>() {
             @Override
-            public void onCall(@NonNull Solver<String> solver) {
-                Call<String> call = createOAuthCalls().retrieveAccessToken();
-                call.enqueue(new Callback<String>() {
+            public void onCall(@NonNull final Solver<Boolean> solver) {
+                getTokenProvider().getToken().then(new PromiseExec<String, Object>() {
                     @Override
-                    public void onResponse(@NonNull Call<String> call, @NonNull Response<String> response) {
-                        //when using the Web Sample, the tokens are surrounded by "
-                        //we remove them here, but in production, it should be injected into your objects
-                        String accessToken = response.body();
-                        if (null != accessToken)
-                            accessToken = accessToken.replaceAll("\"", "");
-                        solver.resolve(accessToken);
+                    public void onCall(@Nullable String accessToken, @NonNull Solver<Object> internal_solver) {
+                        solver.resolve(true);
                     }
-
+                }).error(new ErrorPromise() {
                     @Override
-                    public void onFailure(@NonNull Call<String> call, @NonNull Throwable e) {
-                        solver.reject(e);
+                    public void onError(@NonNull Throwable error) {
+                        solver.reject(error);
                     }
                 });
             }
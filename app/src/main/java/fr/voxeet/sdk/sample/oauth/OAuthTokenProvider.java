@@ -0,0 +1,372 @@
+package fr.voxeet.sdk.sample.oauth;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import eu.codlab.simplepromise.Promise;
+import eu.codlab.simplepromise.solve.PromiseSolver;
+import eu.codlab.simplepromise.solve.Solver;
+import okio.ByteString;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Provide the thirdparty accessToken retrieved through an OAuthCalls instance
+ * <p>
+ * - concurrent callers share the same in-flight request
+ * - the token is cached with its expiry, read from the JWT "exp" claim when possible
+ * - the token is refreshed in background before it expires
+ * - failed requests are retried with an exponential backoff
+ * <p>
+ * The OAuthCalls instance can point to any url, for instance a local mock server. The scheduler
+ * of the retries and refreshes and the clock can be replaced, e.g. to test it on the JVM
+ */
+public class OAuthTokenProvider {
+
+    private final static String TAG = OAuthTokenProvider.class.getSimpleName();
+
+    private final static long DEFAULT_LIFETIME = 10 * 60 * 1000;
+    private final static long REFRESH_MARGIN = 60 * 1000;
+    private final static int MAX_ATTEMPTS = 4;
+    private final static long BASE_BACKOFF = 500;
+    private final static long MAX_BACKOFF = 8 * 1000;
+
+    /**
+     * Run the delayed retries and refreshes
+     */
+    public interface Scheduler {
+        void postDelayed(@NonNull Runnable runnable, long delay);
+
+        void cancel(@NonNull Runnable runnable);
+    }
+
+    /**
+     * Current time in ms since the epoch
+     */
+    public interface Clock {
+        long now();
+    }
+
+    /**
+     * Told about the result of a token request
+     */
+    interface TokenListener {
+        void onToken(@NonNull String token);
+
+        void onError(@NonNull Throwable error);
+    }
+
+    @NonNull
+    private final OAuthCalls mCalls;
+
+    @NonNull
+    private final Scheduler mScheduler;
+
+    @NonNull
+    private final Clock mClock;
+
+    @NonNull
+    private final Random mRandom = new Random();
+
+    /**
+     * Callers waiting for the in-flight request
+     */
+    @NonNull
+    private final List<TokenListener> mWaiting = new ArrayList<>();
+
+    @Nullable
+    private String mToken;
+    private long mExpiresAt;
+    private boolean mDelivered;
+
+    private boolean mFetching;
+    private int mAttempt;
+
+    //incremented by stop(), the answers of the requests sent before are ignored
+    private int mGeneration;
+
+    @NonNull
+    private final Runnable mProactiveRefresh = new Runnable() {
+        @Override
+        public void run() {
+            synchronized (OAuthTokenProvider.this) {
+                if (!mFetching) fetch();
+            }
+        }
+    };
+
+    @NonNull
+    private final Runnable mRetry = new Runnable() {
+        @Override
+        public void run() {
+            synchronized (OAuthTokenProvider.this) {
+                if (mFetching) fetch();
+            }
+        }
+    };
+
+    public OAuthTokenProvider(@NonNull OAuthCalls calls) {
+        this(calls, new HandlerScheduler(), new Clock() {
+            @Override
+            public long now() {
+                return System.currentTimeMillis();
+            }
+        });
+    }
+
+    public OAuthTokenProvider(@NonNull OAuthCalls calls, @NonNull Scheduler scheduler, @NonNull Clock clock) {
+        mCalls = calls;
+        mScheduler = scheduler;
+        mClock = clock;
+    }
+
+    /**
+     * Get a valid token, the cached one if it does not expire soon
+     *
+     * @return a promise resolving the token
+     */
+    @NonNull
+    public Promise<String> getToken() {
+        return new Promise<>(new PromiseSolver<String>() {
+            @Override
+            public void onCall(@NonNull Solver<String> solver) {
+                getToken(new SolverListener(solver));
+            }
+        });
+    }
+
+    /**
+     * Get a new token, when the previous one was rejected
+     * <p>
+     * A token refreshed in background and not delivered yet is resolved right away, any other
+     * call shares the same request
+     *
+     * @return a promise resolving the token
+     */
+    @NonNull
+    public Promise<String> refresh() {
+        return new Promise<>(new PromiseSolver<String>() {
+            @Override
+            public void onCall(@NonNull Solver<String> solver) {
+                refresh(new SolverListener(solver));
+            }
+        });
+    }
+
+    void getToken(@NonNull TokenListener listener) {
+        String token = null;
+
+        synchronized (this) {
+            if (isValid()) {
+                mDelivered = true;
+                token = mToken;
+            } else {
+                await(listener);
+            }
+        }
+
+        if (null != token) listener.onToken(token);
+    }
+
+    void refresh(@NonNull TokenListener listener) {
+        String token = null;
+
+        synchronized (this) {
+            if (isValid() && !mDelivered) {
+                mDelivered = true;
+                token = mToken;
+            } else {
+                await(listener);
+            }
+        }
+
+        if (null != token) listener.onToken(token);
+    }
+
+    /**
+     * Stop the background refresh, the pending retry and ignore the request in flight
+     * <p>
+     * The callers still waiting for a token are rejected. The next request fetches a new token if
+     * the cached one expired meanwhile
+     */
+    public void stop() {
+        List<TokenListener> waiting;
+
+        synchronized (this) {
+            mScheduler.cancel(mProactiveRefresh);
+            mScheduler.cancel(mRetry);
+            mGeneration++;
+            mFetching = false;
+            mAttempt = 0;
+
+            waiting = new ArrayList<>(mWaiting);
+            mWaiting.clear();
+        }
+
+        for (TokenListener listener : waiting) {
+            listener.onError(new IllegalStateException("token provider stopped"));
+        }
+    }
+
+    private boolean isValid() {
+        return null != mToken && mClock.now() < mExpiresAt - REFRESH_MARGIN;
+    }
+
+    private void await(@NonNull TokenListener listener) {
+        mWaiting.add(listener);
+        if (!mFetching) fetch();
+    }
+
+    private void fetch() {
+        mFetching = true;
+        mScheduler.cancel(mProactiveRefresh);
+        final int generation = mGeneration;
+
+        mCalls.retrieveAccessToken().enqueue(new Callback<String>() {
+            @Override
+            public void onResponse(@NonNull Call<String> call, @NonNull Response<String> response) {
+                //when using the Web Sample, the tokens are surrounded by "
+                String token = response.body();
+                if (null != token) token = token.replaceAll("\"", "");
+
+                if (response.isSuccessful() && null != token && !token.isEmpty()) {
+                    onToken(generation, token);
+                } else if (response.code() >= 500 || response.isSuccessful()) {
+                    onError(generation, new IllegalStateException("invalid token response " + response.code()), true);
+                } else {
+                    onError(generation, new IllegalStateException("token refused " + response.code()), false);
+                }
+            }
+
+            @Override
+            public void onFailure(@NonNull Call<String> call, @NonNull Throwable e) {
+                onError(generation, e, true);
+            }
+        });
+    }
+
+    private void onToken(int generation, @NonNull String token) {
+        List<TokenListener> waiting;
+
+        synchronized (this) {
+            if (generation != mGeneration) return;
+
+            mToken = token;
+            mExpiresAt = readExpiry(token, mClock.now());
+            mDelivered = !mWaiting.isEmpty();
+            mFetching = false;
+            mAttempt = 0;
+
+            waiting = new ArrayList<>(mWaiting);
+            mWaiting.clear();
+
+            long delay = Math.max(0, mExpiresAt - REFRESH_MARGIN - mClock.now());
+            mScheduler.postDelayed(mProactiveRefresh, delay);
+        }
+
+        for (TokenListener listener : waiting) listener.onToken(token);
+    }
+
+    private void onError(int generation, @NonNull Throwable error, boolean retry) {
+        List<TokenListener> waiting;
+
+        synchronized (this) {
+            if (generation != mGeneration) return;
+
+            if (retry && ++mAttempt < MAX_ATTEMPTS) {
+                long backoff = Math.min(MAX_BACKOFF, BASE_BACKOFF << (mAttempt - 1));
+                //jitter the delay so that clients do not retry all at once
+                backoff += mRandom.nextInt((int) (backoff / 4) + 1);
+                Log.d(TAG, "onError: " + error.getMessage() + ", retry in " + backoff + "ms");
+
+                mScheduler.postDelayed(mRetry, backoff);
+                return;
+            }
+
+            Log.e(TAG, "onError: giving up " + error.getMessage());
+            mFetching = false;
+            mAttempt = 0;
+
+            waiting = new ArrayList<>(mWaiting);
+            mWaiting.clear();
+
+            //a background refresh failed, it runs within the refresh margin : try again before
+            //the current token expires, halving the remaining time
+            long remaining = mExpiresAt - mClock.now();
+            if (waiting.isEmpty() && null != mToken && remaining > 0) {
+                mScheduler.postDelayed(mProactiveRefresh, Math.max(BASE_BACKOFF, remaining / 2));
+            }
+        }
+
+        for (TokenListener listener : waiting) listener.onError(error);
+    }
+
+    /**
+     * Read the expiry of a JWT token, or consider it valid for DEFAULT_LIFETIME
+     *
+     * @param token the token to read
+     * @param now   the current time in ms since the epoch
+     * @return the expiry in ms since the epoch
+     */
+    private static long readExpiry(@NonNull String token, long now) {
+        try {
+            String[] parts = token.split("\\.");
+            //the url safe alphabet without padding is accepted
+            ByteString payload = parts.length == 3 ? ByteString.decodeBase64(parts[1]) : null;
+            if (null != payload) {
+                long exp = new JSONObject(payload.utf8()).optLong("exp", 0);
+                if (exp > 0) return exp * 1000;
+            }
+        } catch (Exception e) {
+            Log.d(TAG, "readExpiry: not a JWT token " + e.getMessage());
+        }
+        return now + DEFAULT_LIFETIME;
+    }
+
+    private static class SolverListener implements TokenListener {
+        @NonNull
+        private final Solver<String> mSolver;
+
+        private SolverListener(@NonNull Solver<String> solver) {
+            mSolver = solver;
+        }
+
+        @Override
+        public void onToken(@NonNull String token) {
+            mSolver.resolve(token);
+        }
+
+        @Override
+        public void onError(@NonNull Throwable error) {
+            mSolver.reject(error);
+        }
+    }
+
+    /**
+     * Default scheduler, on the main thread
+     */
+    private static class HandlerScheduler implements Scheduler {
+        @NonNull
+        private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+        @Override
+        public void postDelayed(@NonNull Runnable runnable, long delay) {
+            mHandler.postDelayed(runnable, delay);
+        }
+
+        @Override
+        public void cancel(@NonNull Runnable runnable) {
+            mHandler.removeCallbacks(runnable);
+        }
+    }
+}
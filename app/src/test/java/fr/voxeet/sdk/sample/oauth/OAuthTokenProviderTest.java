@@ -0,0 +1,268 @@
+package fr.voxeet.sdk.sample.oauth;
+
+import android.support.annotation.NonNull;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okio.ByteString;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Check the OAuthTokenProvider against a local server, the delayed tasks are run by the tests
+ */
+public class OAuthTokenProviderTest {
+
+    private final static long NOW = 1500000000000L;
+    private final static long TIMEOUT = 5;
+
+    private MockWebServer mServer;
+    private ManualScheduler mScheduler;
+    private AtomicLong mNow;
+    private OAuthTokenProvider mProvider;
+
+    @Before
+    public void setUp() throws Exception {
+        mServer = new MockWebServer();
+        mServer.start();
+
+        mScheduler = new ManualScheduler();
+        mNow = new AtomicLong(NOW);
+        mProvider = new OAuthTokenProvider(OAuthCallsFactory.createOAuthCalls(mServer.url("/").toString()),
+                mScheduler,
+                new OAuthTokenProvider.Clock() {
+                    @Override
+                    public long now() {
+                        return mNow.get();
+                    }
+                });
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        mServer.shutdown();
+    }
+
+    @Test
+    public void concurrentRequestsShareOneCall() throws Exception {
+        String token = jwt(NOW / 1000 + 3600);
+        //keep the call in flight while the second request comes
+        mServer.enqueue(new MockResponse().setBody(token).setBodyDelay(200, TimeUnit.MILLISECONDS));
+
+        Result first = new Result();
+        Result second = new Result();
+        mProvider.getToken(first);
+        mProvider.refresh(second);
+
+        assertEquals(token, first.awaitToken());
+        assertEquals(token, second.awaitToken());
+        assertEquals(1, mServer.getRequestCount());
+
+        Result cached = new Result();
+        mProvider.getToken(cached);
+        assertEquals(token, cached.awaitToken());
+        assertEquals(1, mServer.getRequestCount());
+    }
+
+    @Test
+    public void expiredTokenIsFetchedAgain() throws Exception {
+        long exp = NOW / 1000 + 120;
+        String first = jwt(exp);
+        String second = jwt(exp + 3600);
+        mServer.enqueue(new MockResponse().setBody("\"" + first + "\""));
+        mServer.enqueue(new MockResponse().setBody(second));
+
+        Result result = new Result();
+        mProvider.getToken(result);
+        assertEquals(first, result.awaitToken());
+
+        //refreshed in background one minute before it expires
+        Scheduled refresh = mScheduler.take();
+        assertEquals(exp * 1000 - 60 * 1000 - NOW, refresh.delay);
+
+        Result valid = new Result();
+        mProvider.getToken(valid);
+        assertEquals(first, valid.awaitToken());
+        assertEquals(1, mServer.getRequestCount());
+
+        mNow.addAndGet(90 * 1000);
+
+        Result expired = new Result();
+        mProvider.getToken(expired);
+        assertEquals(second, expired.awaitToken());
+        assertEquals(2, mServer.getRequestCount());
+    }
+
+    @Test
+    public void refusedTokenIsNotRetried() throws Exception {
+        mServer.enqueue(new MockResponse().setResponseCode(401));
+
+        Result result = new Result();
+        mProvider.getToken(result);
+
+        assertNotNull(result.awaitError());
+        assertEquals(1, mServer.getRequestCount());
+        assertTrue(mScheduler.isEmpty());
+    }
+
+    @Test
+    public void serverErrorsAreRetriedThenRejected() throws Exception {
+        for (int i = 0; i < 4; i++) mServer.enqueue(new MockResponse().setResponseCode(500));
+
+        Result result = new Result();
+        mProvider.getToken(result);
+
+        for (int i = 0; i < 3; i++) {
+            Scheduled retry = mScheduler.take();
+            assertTrue(retry.delay >= 500);
+            assertNull(result.token);
+            retry.runnable.run();
+        }
+
+        assertNotNull(result.awaitError());
+        assertEquals(4, mServer.getRequestCount());
+        assertTrue(mScheduler.isEmpty());
+    }
+
+    @Test
+    public void stopCancelsThePendingRetry() throws Exception {
+        mServer.enqueue(new MockResponse().setResponseCode(500));
+        mServer.enqueue(new MockResponse().setBody(jwt(NOW / 1000 + 3600)));
+
+        Result result = new Result();
+        mProvider.getToken(result);
+        mScheduler.awaitScheduled();
+
+        mProvider.stop();
+
+        assertNotNull(result.awaitError());
+        assertTrue(mScheduler.isEmpty());
+        assertEquals(1, mServer.getRequestCount());
+    }
+
+    @Test
+    public void failedRefreshIsRetriedBeforeExpiry() throws Exception {
+        long exp = NOW / 1000 + 120;
+        mServer.enqueue(new MockResponse().setBody(jwt(exp)));
+        for (int i = 0; i < 4; i++) mServer.enqueue(new MockResponse().setResponseCode(500));
+
+        Result result = new Result();
+        mProvider.getToken(result);
+        result.awaitToken();
+
+        //the background refresh runs 30s before the expiry and keeps failing
+        Scheduled refresh = mScheduler.take();
+        mNow.set(exp * 1000 - 30 * 1000);
+        refresh.runnable.run();
+        for (int i = 0; i < 3; i++) mScheduler.take().runnable.run();
+
+        Scheduled again = mScheduler.take();
+        assertEquals(15 * 1000, again.delay);
+        assertEquals(5, mServer.getRequestCount());
+    }
+
+    @NonNull
+    private static String jwt(long exp) {
+        return encode("{\"alg\":\"none\"}") + "." + encode("{\"exp\":" + exp + "}") + ".signature";
+    }
+
+    @NonNull
+    private static String encode(@NonNull String json) {
+        return ByteString.encodeUtf8(json).base64Url().replace("=", "");
+    }
+
+    private static class Scheduled {
+        private final Runnable runnable;
+        private final long delay;
+
+        private Scheduled(Runnable runnable, long delay) {
+            this.runnable = runnable;
+            this.delay = delay;
+        }
+    }
+
+    /**
+     * Keep the delayed tasks, posted from the threads of the http client, until a test runs them
+     */
+    private static class ManualScheduler implements OAuthTokenProvider.Scheduler {
+        private final List<Scheduled> mScheduled = new ArrayList<>();
+
+        @Override
+        public synchronized void postDelayed(@NonNull Runnable runnable, long delay) {
+            mScheduled.add(new Scheduled(runnable, delay));
+            notifyAll();
+        }
+
+        @Override
+        public synchronized void cancel(@NonNull Runnable runnable) {
+            for (int i = mScheduled.size() - 1; i >= 0; i--) {
+                if (mScheduled.get(i).runnable == runnable) mScheduled.remove(i);
+            }
+        }
+
+        private Scheduled take(boolean remove) throws InterruptedException {
+            long end = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT);
+            while (mScheduled.isEmpty()) {
+                long remaining = end - System.currentTimeMillis();
+                if (remaining <= 0) throw new AssertionError("nothing scheduled");
+                wait(remaining);
+            }
+            return remove ? mScheduled.remove(0) : mScheduled.get(0);
+        }
+
+        synchronized void awaitScheduled() throws InterruptedException {
+            take(false);
+        }
+
+        synchronized Scheduled take() throws InterruptedException {
+            return take(true);
+        }
+
+        synchronized boolean isEmpty() {
+            return mScheduled.isEmpty();
+        }
+    }
+
+    private static class Result implements OAuthTokenProvider.TokenListener {
+        private final CountDownLatch mDone = new CountDownLatch(1);
+        private volatile String token;
+        private volatile Throwable error;
+
+        @Override
+        public void onToken(@NonNull String token) {
+            this.token = token;
+            mDone.countDown();
+        }
+
+        @Override
+        public void onError(@NonNull Throwable error) {
+            this.error = error;
+            mDone.countDown();
+        }
+
+        String awaitToken() throws InterruptedException {
+            assertTrue(mDone.await(TIMEOUT, TimeUnit.SECONDS));
+            assertNull(error);
+            return token;
+        }
+
+        Throwable awaitError() throws InterruptedException {
+            assertTrue(mDone.await(TIMEOUT, TimeUnit.SECONDS));
+            assertNull(token);
+            return error;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+# Rules applied to the applications using the toolkit
+
+# strip the debug logs of the toolkit, with the strings built for them
+-assumenosideeffects class com.voxeet.toolkit.utils.ToolkitLog {
+    public static void v(...);
+    public static void d(...);
+}
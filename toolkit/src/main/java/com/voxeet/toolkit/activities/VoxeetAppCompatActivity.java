@@ -6,11 +6,11 @@ import android.os.Bundle;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.v7.app.AppCompatActivity;
-import android.util.Log;
 
 import com.voxeet.android.media.audio.AudioManager;
 import com.voxeet.toolkit.activities.notification.IncomingBundleChecker;
 import com.voxeet.toolkit.activities.notification.IncomingCallFactory;
+import com.voxeet.toolkit.utils.ToolkitLog;
 
 import org.greenrobot.eventbus.EventBus;
 import org.greenrobot.eventbus.Subscribe;
@@ -124,7 +124,7 @@ public class VoxeetAppCompatActivity extends AppCompatActivity {
 
         switch (requestCode) {
             case PermissionRefusedEvent.RESULT_CAMERA: {
-                Log.d(TAG, "onActivityResult: camera is ok now");
+                ToolkitLog.d(TAG, "onActivityResult: camera is ok now");
                 if (null != VoxeetSdk.getInstance() && VoxeetSdk.getInstance().getConferenceService().isLive()) {
                     VoxeetSdk.getInstance().getConferenceService().startVideo()
                             .then(new PromiseExec<Boolean, Object>() {
@@ -12,17 +12,17 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.v7.app.AppCompatActivity;
 import android.text.TextUtils;
-import android.util.Log;
 import android.view.View;
 import android.view.WindowManager;
 import android.widget.TextView;
 import android.widget.Toast;
 
-import com.squareup.picasso.Picasso;
 import com.voxeet.toolkit.R;
 import com.voxeet.toolkit.application.VoxeetApplication;
+import com.voxeet.toolkit.utils.AvatarCache;
 import com.voxeet.toolkit.utils.LoadLastSavedOverlayStateEvent;
 import com.voxeet.toolkit.views.internal.rounded.RoundedImageView;
+import com.voxeet.toolkit.utils.ToolkitLog;
 
 import org.greenrobot.eventbus.EventBus;
 import org.greenrobot.eventbus.Subscribe;
@@ -88,6 +88,12 @@ public class DefaultIncomingCallActivity extends AppCompatActivity implements In
         mAcceptTextView = (TextView) findViewById(R.id.voxeet_incoming_accept);
         mDeclineTextView = (TextView) findViewById(R.id.voxeet_incoming_decline);
 
+        //the avatar is known from the intent, start loading it while the SDK initializes
+        if (mIncomingBundleChecker.isBundleValid()) {
+            AvatarCache.getInstance(this)
+                    .load(mIncomingBundleChecker.getAvatarUrl(), getAvatarSize(), mAvatar);
+        }
+
         mDeclineTextView.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View view) {
@@ -119,10 +125,10 @@ public class DefaultIncomingCallActivity extends AppCompatActivity implements In
         tryInitializedSDK().then(new PromiseExec<Boolean, Boolean>() {
             @Override
             public void onCall(@Nullable Boolean result, @NonNull Solver<Boolean> solver) {
-                Log.d(TAG, "onCall: initialized ? " + result);
+                ToolkitLog.d(TAG, "onCall: initialized ? %s", result);
                 
                 if(!VoxeetSdk.getInstance().isSocketOpen()) {
-                    Log.d(TAG, "onCall: try to log user");
+                    ToolkitLog.d(TAG, "onCall: try to log user");
                     UserInfo userInfo = VoxeetPreferences.getSavedUserInfo();
 
                     if (null != userInfo) {
@@ -137,7 +143,7 @@ public class DefaultIncomingCallActivity extends AppCompatActivity implements In
         }).then(new PromiseExec<Boolean, Object>() {
             @Override
             public void onCall(@Nullable Boolean result, @NonNull Solver<Object> solver) {
-                Log.d(TAG, "onCall: user logged !");
+                ToolkitLog.d(TAG, "onCall: user logged !");
             }
         }).error(simpleError(false));
     }
@@ -157,7 +163,7 @@ public class DefaultIncomingCallActivity extends AppCompatActivity implements In
             @Override
             public void onCall(@Nullable Boolean result, @NonNull Solver<Object> solver) {
                 if(!isResumed) {
-                    Log.d(TAG, "onCall: not resumed, quit promise");
+                    ToolkitLog.d(TAG, "onCall: not resumed, quit promise");
                     return;
                 }
 
@@ -171,9 +177,8 @@ public class DefaultIncomingCallActivity extends AppCompatActivity implements In
                     }
 
                     mUsername.setText(mIncomingBundleChecker.getUserName());
-                    Picasso.get()
-                            .load(mIncomingBundleChecker.getAvatarUrl())
-                            .into(mAvatar);
+                    AvatarCache.getInstance(activity)
+                            .load(mIncomingBundleChecker.getAvatarUrl(), getAvatarSize(), mAvatar);
                 } else {
                     Toast.makeText(activity, getString(R.string.invalid_bundle), Toast.LENGTH_SHORT).show();
                     finish();
@@ -303,6 +308,15 @@ public class DefaultIncomingCallActivity extends AppCompatActivity implements In
         return mIncomingBundleChecker;
     }
 
+    /**
+     * Size in pixels of the avatar, as set in the layout
+     *
+     * @return the size used to load the avatar
+     */
+    protected int getAvatarSize() {
+        return null != mAvatar.getLayoutParams() ? mAvatar.getLayoutParams().width : 0;
+    }
+
     /**
      * Initialize the SDK if needed
      * Resolves true if the SDK is initialized
@@ -323,7 +337,7 @@ public class DefaultIncomingCallActivity extends AppCompatActivity implements In
                     ((VoxeetApplication) app).initializeSDK().then(new PromiseExec<Boolean, Object>() {
                         @Override
                         public void onCall(@Nullable Boolean result, @NonNull Solver<Object> sss) {
-                            Log.d(TAG, "onCall: sdk initialized now");
+                            ToolkitLog.d(TAG, "onCall: sdk initialized now");
                             solver.resolve(result);
                         }
                     }).error(new ErrorPromise() {
@@ -334,7 +348,7 @@ public class DefaultIncomingCallActivity extends AppCompatActivity implements In
                     });
                 } else {
                     //if we are
-                    Log.d(TAG, "onCall: sdk not initialized, please make your App override VoxeetApplication and follow the README.md");
+                    ToolkitLog.d(TAG, "onCall: sdk not initialized, please make your App override VoxeetApplication and follow the README.md");
                     solver.resolve(false);
                 }
             }
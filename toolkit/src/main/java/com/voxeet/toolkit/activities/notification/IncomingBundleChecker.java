@@ -5,10 +5,10 @@ import android.content.Intent;
 import android.os.Bundle;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
-import android.util.Log;
 
 import com.voxeet.toolkit.activities.VoxeetAppCompatActivity;
 import com.voxeet.toolkit.controllers.VoxeetToolkit;
+import com.voxeet.toolkit.utils.ToolkitLog;
 
 import eu.codlab.simplepromise.Promise;
 import eu.codlab.simplepromise.solve.ErrorPromise;
@@ -75,14 +75,14 @@ public class IncomingBundleChecker {
                     getExternalUserId(),
                     getAvatarUrl());
 
-            Log.d(TAG, "onAccept: mConferenceId := " + mConferenceId);
+            ToolkitLog.d(TAG, "onAccept: mConferenceId := %s", mConferenceId);
             //join the conference
             Promise<Boolean> join = VoxeetToolkit.getInstance()
                     .getConferenceToolkit()
                     .joinUsingConferenceId(mConferenceId, info);
             //only when error() is called
 
-            Log.d(TAG, "onAccept: isSocketOpen := " + VoxeetSdk.getInstance().isSocketOpen());
+            ToolkitLog.d(TAG, "onAccept: isSocketOpen := %s", VoxeetSdk.getInstance().isSocketOpen());
             if (!VoxeetSdk.getInstance().isSocketOpen()) {
                 UserInfo userInfo = VoxeetPreferences.getSavedUserInfo();
 
@@ -91,14 +91,14 @@ public class IncomingBundleChecker {
                             .then(new PromiseExec<Boolean, Boolean>() {
                                 @Override
                                 public void onCall(@Nullable Boolean result, @NonNull Solver<Boolean> solver) {
-                                    Log.d(TAG, "onCall: log user info := " + result);
+                                    ToolkitLog.d(TAG, "onCall: log user info := %s", result);
                                     solver.resolve(join);
                                 }
                             })
                             .then(new PromiseExec<Boolean, Object>() {
                                 @Override
                                 public void onCall(@Nullable Boolean result, @NonNull Solver<Object> solver) {
-                                    Log.d(TAG, "onCall: join conference := " + result);
+                                    ToolkitLog.d(TAG, "onCall: join conference := %s", result);
                                 }
                             })
                             .error(new ErrorPromise() {
@@ -108,7 +108,7 @@ public class IncomingBundleChecker {
                                 }
                             });
                 } else {
-                    Log.d(TAG, "onAccept: unable to log the user");
+                    ToolkitLog.d(TAG, "onAccept: unable to log the user");
                 }
             } else if (VoxeetSdk.getInstance().getConferenceService().isLive()) {
                 VoxeetSdk.getInstance().getConferenceService()
@@ -116,11 +116,11 @@ public class IncomingBundleChecker {
                         .then(new PromiseExec<Boolean, Object>() {
                             @Override
                             public void onCall(@Nullable Boolean result, @NonNull Solver<Object> solver) {
-                                Log.d(TAG, "onCall: previous conference left, joining the new conference");
+                                ToolkitLog.d(TAG, "onCall: previous conference left, joining the new conference");
                                 solver.resolve(join.then(new PromiseExec<Boolean, Object>() {
                                     @Override
                                     public void onCall(@Nullable Boolean result, @NonNull Solver<Object> solver) {
-                                        Log.d(TAG, "onCall: resolved 1");
+                                        ToolkitLog.d(TAG, "onCall: resolved 1");
                                     }
                                 }));
                             }
@@ -135,7 +135,7 @@ public class IncomingBundleChecker {
                 join.then(new PromiseExec<Boolean, Object>() {
                     @Override
                     public void onCall(@Nullable Boolean result, @NonNull Solver<Object> solver) {
-                        Log.d(TAG, "onCall: resolved");
+                        ToolkitLog.d(TAG, "onCall: resolved");
                     }
                 }).error(new ErrorPromise() {
                     @Override
@@ -205,13 +205,13 @@ public class IncomingBundleChecker {
     final public Intent createActivityAccepted(@NonNull Activity caller) {
         Class<? extends VoxeetAppCompatActivity> klass = IncomingCallFactory.getAcceptedIncomingActivityKlass();
         if (null == klass) {
-            Log.d(TAG, "createActivityAccepted: no klass defined ! we'll now try to load from the AndroidManifest");
+            ToolkitLog.d(TAG, "createActivityAccepted: no klass defined ! we'll now try to load from the AndroidManifest");
             String klass_fully_qualified = AndroidManifest.readMetadata(caller, "voxeet_incoming_accepted_class", null);
             if (null != klass_fully_qualified) {
                 try {
                     klass = (Class<? extends VoxeetAppCompatActivity>) Class.forName(klass_fully_qualified);
                 } catch (ClassNotFoundException e) {
-                    Log.d(TAG, "createActivityAccepted: ERROR !! IS THE KLASS VALID AND INHERITING VoxeetAppCompatActivity");
+                    ToolkitLog.d(TAG, "createActivityAccepted: ERROR !! IS THE KLASS VALID AND INHERITING VoxeetAppCompatActivity");
                     e.printStackTrace();
                 }
             }
@@ -0,0 +1,452 @@
+package com.voxeet.toolkit.application;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.voxeet.toolkit.utils.ToolkitLog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import eu.codlab.simplepromise.Promise;
+import eu.codlab.simplepromise.solve.ErrorPromise;
+import eu.codlab.simplepromise.solve.PromiseExec;
+import eu.codlab.simplepromise.solve.PromiseSolver;
+import eu.codlab.simplepromise.solve.Solver;
+
+/**
+ * Declarative startup of an application
+ * <p>
+ * Each task is declared with a name, the thread it runs on and the tasks it depends on. A task
+ * runs as soon as its dependencies are done :
+ * - eager tasks are started by start()
+ * - idle tasks are started once the main thread is idle after start()
+ * - on demand tasks are only started when required, directly or by a dependent task
+ * <p>
+ * The graph orders the startup and defers what is not needed yet, it does not make the work
+ * itself faster : the main tasks still run one after the other on the main thread. Only the
+ * background tasks run in parallel, with each other and with the main thread, declare there
+ * what does not need it, e.g. network calls or disk reads
+ * <p>
+ * A task runs once, every require() made while it runs waits for the same result. A failed task
+ * is run again on the next require(). Tasks depending on each other are rejected when requested
+ * <p>
+ * The duration of each task is logged and available through getDurations()
+ */
+public class StartupGraph {
+
+    private final static String TAG = StartupGraph.class.getSimpleName();
+
+    private final static int THREADS = 2;
+
+    public enum Schedule {
+        MAIN,
+        BACKGROUND
+    }
+
+    private enum Start {
+        EAGER,
+        IDLE,
+        ON_DEMAND
+    }
+
+    private enum State {
+        WAITING,
+        REQUESTED,
+        RUNNING,
+        DONE,
+        FAILED
+    }
+
+    /**
+     * A startup task, the returned promise must resolve once the task is done
+     */
+    public interface Task {
+        @NonNull
+        Promise<Boolean> run();
+    }
+
+    @NonNull
+    private final Map<String, Node> mNodes = new LinkedHashMap<>();
+
+    @NonNull
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    @Nullable
+    private ExecutorService mExecutor;
+
+    private boolean mStarted;
+
+    /**
+     * Declare a task started by start()
+     *
+     * @param name         the unique name of the task
+     * @param schedule     the thread to run the task on
+     * @param task         the task to run
+     * @param dependencies the tasks which must be done before this one
+     * @return the current instance
+     */
+    @NonNull
+    public StartupGraph add(@NonNull String name, @NonNull Schedule schedule,
+                            @NonNull Task task, @NonNull String... dependencies) {
+        return add(name, schedule, Start.EAGER, task, dependencies);
+    }
+
+    /**
+     * Declare a task started once the main thread is idle, for work nothing needs yet
+     *
+     * @param name         the unique name of the task
+     * @param schedule     the thread to run the task on
+     * @param task         the task to run
+     * @param dependencies the tasks which must be done before this one
+     * @return the current instance
+     */
+    @NonNull
+    public StartupGraph addWhenIdle(@NonNull String name, @NonNull Schedule schedule,
+                                    @NonNull Task task, @NonNull String... dependencies) {
+        return add(name, schedule, Start.IDLE, task, dependencies);
+    }
+
+    /**
+     * Declare a task only started when required
+     *
+     * @param name         the unique name of the task
+     * @param schedule     the thread to run the task on
+     * @param task         the task to run
+     * @param dependencies the tasks which must be done before this one
+     * @return the current instance
+     */
+    @NonNull
+    public StartupGraph addOnDemand(@NonNull String name, @NonNull Schedule schedule,
+                                    @NonNull Task task, @NonNull String... dependencies) {
+        return add(name, schedule, Start.ON_DEMAND, task, dependencies);
+    }
+
+    /**
+     * Add dependencies to an already declared task
+     *
+     * @param name         the name of the task
+     * @param dependencies the tasks which must be done before this one
+     * @return the current instance
+     */
+    @NonNull
+    public synchronized StartupGraph dependOn(@NonNull String name, @NonNull String... dependencies) {
+        Node node = mNodes.get(name);
+        if (null == node) throw new IllegalStateException("unknown startup task " + name);
+        if (State.WAITING != node.state) throw new IllegalStateException("startup task " + name + " already requested");
+
+        node.dependencies.addAll(Arrays.asList(dependencies));
+        return this;
+    }
+
+    /**
+     * Start the eager tasks and schedule the idle ones
+     * <p>
+     * Must be called from the main thread, main tasks without dependencies run before it returns
+     */
+    public void start() {
+        List<Node> ready = new ArrayList<>();
+        boolean idle = false;
+
+        synchronized (this) {
+            if (mStarted) return;
+            mStarted = true;
+
+            for (Node node : mNodes.values()) {
+                if (Start.EAGER == node.start) request(node, ready);
+                else if (Start.IDLE == node.start) idle = true;
+            }
+        }
+
+        if (idle) {
+            Looper.myQueue().addIdleHandler(new MessageQueue.IdleHandler() {
+                @Override
+                public boolean queueIdle() {
+                    requestIdleTasks();
+                    return false;
+                }
+            });
+        }
+
+        dispatch(ready);
+    }
+
+    /**
+     * Get a promise resolved once the given task and its dependencies are done
+     *
+     * @param name the name of the task
+     * @return a valid promise
+     */
+    @NonNull
+    public Promise<Boolean> require(@NonNull final String name) {
+        return new Promise<>(new PromiseSolver<Boolean>() {
+            @Override
+            public void onCall(@NonNull Solver<Boolean> solver) {
+                List<Node> ready = new ArrayList<>();
+
+                synchronized (StartupGraph.this) {
+                    Node node = mNodes.get(name);
+                    if (null == node) {
+                        solver.reject(new IllegalStateException("unknown startup task " + name));
+                        return;
+                    }
+
+                    if (State.DONE == node.state) {
+                        solver.resolve(true);
+                        return;
+                    }
+
+                    node.solvers.add(solver);
+                    request(node, ready);
+                }
+
+                dispatch(ready);
+            }
+        });
+    }
+
+    public synchronized boolean isDone(@NonNull String name) {
+        Node node = mNodes.get(name);
+        return null != node && State.DONE == node.state;
+    }
+
+    /**
+     * Get the duration in ms of the finished tasks, in declaration order
+     *
+     * @return a copy of the durations
+     */
+    @NonNull
+    public synchronized Map<String, Long> getDurations() {
+        Map<String, Long> durations = new LinkedHashMap<>();
+        for (Node node : mNodes.values()) {
+            if (node.duration >= 0) durations.put(node.name, node.duration);
+        }
+        return Collections.unmodifiableMap(durations);
+    }
+
+    @NonNull
+    private synchronized StartupGraph add(@NonNull String name, @NonNull Schedule schedule, @NonNull Start start,
+                                          @NonNull Task task, @NonNull String... dependencies) {
+        if (mNodes.containsKey(name)) throw new IllegalStateException("startup task " + name + " already declared");
+
+        mNodes.put(name, new Node(name, schedule, start, task, dependencies));
+        return this;
+    }
+
+    private void requestIdleTasks() {
+        List<Node> ready = new ArrayList<>();
+
+        synchronized (this) {
+            for (Node node : mNodes.values()) {
+                if (Start.IDLE == node.start) request(node, ready);
+            }
+        }
+
+        dispatch(ready);
+    }
+
+    /**
+     * Request a task and its dependencies, the tasks ready to run are added to the list
+     * <p>
+     * Must be called with the lock held
+     */
+    private void request(@NonNull Node node, @NonNull List<Node> ready) {
+        request(node, ready, new ArrayList<Node>());
+    }
+
+    /**
+     * @param path the tasks being requested, from the first one to the dependent of this one
+     */
+    private void request(@NonNull Node node, @NonNull List<Node> ready, @NonNull List<Node> path) {
+        if (State.WAITING != node.state && State.FAILED != node.state) return;
+        node.state = State.REQUESTED;
+
+        path.add(node);
+        try {
+            for (String name : node.dependencies) {
+                Node dependency = mNodes.get(name);
+                if (null == dependency) {
+                    fail(node, new IllegalStateException("unknown startup task " + name), null);
+                    return;
+                }
+
+                //a task of the path would wait for itself, failing this one fails the whole cycle
+                int index = path.indexOf(dependency);
+                if (index >= 0) {
+                    fail(node, new IllegalStateException("startup task cycle " + describe(path, index)), null);
+                    return;
+                }
+
+                request(dependency, ready, path);
+            }
+        } finally {
+            path.remove(path.size() - 1);
+        }
+
+        if (isReady(node)) {
+            node.state = State.RUNNING;
+            ready.add(node);
+        }
+    }
+
+    @NonNull
+    private static String describe(@NonNull List<Node> path, int from) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = from; i < path.size(); i++) {
+            builder.append(path.get(i).name).append(" -> ");
+        }
+        return builder.append(path.get(from).name).toString();
+    }
+
+    private boolean isReady(@NonNull Node node) {
+        if (State.REQUESTED != node.state) return false;
+
+        for (String name : node.dependencies) {
+            Node dependency = mNodes.get(name);
+            if (null == dependency || State.DONE != dependency.state) return false;
+        }
+        return true;
+    }
+
+    private void dispatch(@NonNull List<Node> ready) {
+        for (final Node node : ready) {
+            Runnable runnable = new Runnable() {
+                @Override
+                public void run() {
+                    execute(node);
+                }
+            };
+
+            if (Schedule.BACKGROUND == node.schedule) {
+                getExecutor().execute(runnable);
+            } else if (Looper.myLooper() == Looper.getMainLooper()) {
+                runnable.run();
+            } else {
+                mHandler.post(runnable);
+            }
+        }
+    }
+
+    private void execute(@NonNull final Node node) {
+        final long start = SystemClock.elapsedRealtime();
+
+        Promise<Boolean> promise;
+        try {
+            promise = node.task.run();
+        } catch (Throwable e) {
+            onFinished(node, start, e);
+            return;
+        }
+
+        promise.then(new PromiseExec<Boolean, Object>() {
+            @Override
+            public void onCall(@Nullable Boolean result, @NonNull Solver<Object> solver) {
+                onFinished(node, start, null);
+            }
+        }).error(new ErrorPromise() {
+            @Override
+            public void onError(@NonNull Throwable error) {
+                onFinished(node, start, error);
+            }
+        });
+    }
+
+    private void onFinished(@NonNull Node node, long start, @Nullable Throwable error) {
+        List<Node> ready = new ArrayList<>();
+        List<Solver<Boolean>> resolved = new ArrayList<>();
+        Map<Solver<Boolean>, Throwable> rejected = new LinkedHashMap<>();
+
+        synchronized (this) {
+            node.duration = SystemClock.elapsedRealtime() - start;
+
+            if (null == error) {
+                ToolkitLog.d(TAG, "onFinished: %s done in %sms", node.name, node.duration);
+                node.state = State.DONE;
+                resolved.addAll(node.solvers);
+                node.solvers.clear();
+
+                for (Node other : mNodes.values()) {
+                    if (other.dependencies.contains(node.name) && isReady(other)) {
+                        other.state = State.RUNNING;
+                        ready.add(other);
+                    }
+                }
+            } else {
+                ToolkitLog.e(TAG, "onFinished: %s failed after %sms %s", node.name, node.duration, error.getMessage());
+                fail(node, error, rejected);
+            }
+        }
+
+        for (Solver<Boolean> solver : resolved) solver.resolve(true);
+        for (Map.Entry<Solver<Boolean>, Throwable> entry : rejected.entrySet()) {
+            entry.getKey().reject(entry.getValue());
+        }
+
+        dispatch(ready);
+    }
+
+    /**
+     * Mark a task and the tasks waiting for it as failed
+     * <p>
+     * Must be called with the lock held, if no map is given the solvers are rejected right away
+     */
+    private void fail(@NonNull Node node, @NonNull Throwable error, @Nullable Map<Solver<Boolean>, Throwable> rejected) {
+        node.state = State.FAILED;
+
+        for (Solver<Boolean> solver : node.solvers) {
+            if (null != rejected) rejected.put(solver, error);
+            else solver.reject(error);
+        }
+        node.solvers.clear();
+
+        for (Node other : mNodes.values()) {
+            if (State.REQUESTED == other.state && other.dependencies.contains(node.name)) {
+                fail(other, error, rejected);
+            }
+        }
+    }
+
+    @NonNull
+    private synchronized ExecutorService getExecutor() {
+        if (null == mExecutor) mExecutor = Executors.newFixedThreadPool(THREADS);
+        return mExecutor;
+    }
+
+    private static class Node {
+        @NonNull
+        final String name;
+        @NonNull
+        final Schedule schedule;
+        @NonNull
+        final Start start;
+        @NonNull
+        final Task task;
+        @NonNull
+        final List<String> dependencies;
+        @NonNull
+        final List<Solver<Boolean>> solvers = new ArrayList<>();
+
+        @NonNull
+        State state = State.WAITING;
+        long duration = -1;
+
+        Node(@NonNull String name, @NonNull Schedule schedule, @NonNull Start start,
+             @NonNull Task task, @NonNull String... dependencies) {
+            this.name = name;
+            this.schedule = schedule;
+            this.start = start;
+            this.task = task;
+            this.dependencies = new ArrayList<>(Arrays.asList(dependencies));
+        }
+    }
+}
@@ -3,7 +3,10 @@ package com.voxeet.toolkit.application;
 import android.support.annotation.NonNull;
 import android.support.multidex.MultiDexApplication;
 
+import com.voxeet.toolkit.R;
+import com.voxeet.toolkit.utils.AvatarCache;
 import com.voxeet.toolkit.utils.EventDebugger;
+import com.voxeet.toolkit.utils.ToolkitLog;
 
 import eu.codlab.simplepromise.Promise;
 import eu.codlab.simplepromise.solve.PromiseSolver;
@@ -18,14 +21,73 @@ import voxeet.com.sdk.json.UserInfo;
 
 public abstract class VoxeetApplication extends MultiDexApplication {
 
+    /**
+     * Name of the startup task initializing the SDK, on demand by default
+     */
+    public final static String TASK_SDK = "sdk";
+
+    /**
+     * Name of the startup task loading the default avatar at the size of the participant lists,
+     * once the main thread is idle. The avatar is read or made in background by the AvatarCache
+     */
+    public final static String TASK_AVATAR_CACHE = "avatar_cache";
 
     private EventDebugger eventDebugger;
+    private StartupGraph mStartupGraph;
 
     @Override
     public void onCreate() {
         super.onCreate();
 
+        //the startup tasks log before the toolkit is initialized
+        ToolkitLog.setDefaultLevel(this);
+
         eventDebugger = new EventDebugger();
+
+        mStartupGraph = new StartupGraph();
+        mStartupGraph.addOnDemand(TASK_SDK, StartupGraph.Schedule.MAIN, new StartupGraph.Task() {
+            @NonNull
+            @Override
+            public Promise<Boolean> run() {
+                return uniqueInitializeSDK();
+            }
+        }).addWhenIdle(TASK_AVATAR_CACHE, StartupGraph.Schedule.MAIN, new StartupGraph.Task() {
+            @NonNull
+            @Override
+            public Promise<Boolean> run() {
+                //same parameters as ParticipantViewAdapter, so that the first bind hits the memory cache
+                int size = getResources().getDimensionPixelSize(R.dimen.meeting_list_avatar_double);
+                AvatarCache.getInstance(VoxeetApplication.this).prefetch(null, size, true, 0);
+                return resolved();
+            }
+        });
+
+        onCreateStartupGraph(mStartupGraph);
+        mStartupGraph.start();
+    }
+
+    /**
+     * Declare the startup tasks of the application, called from onCreate() before the graph starts
+     * <p>
+     * It is called by super.onCreate(), before the rest of the onCreate() of the subclass : the
+     * fields initialized there are not set yet, and the eager main tasks without dependencies
+     * already ran when super.onCreate() returns. Initialize what the tasks need in the
+     * constructor or in a task they depend on.
+     * <p>
+     * The SDK initialization is declared as TASK_SDK, use dependOn() to run it after other tasks
+     * and add() a task depending on it to initialize it eagerly. It runs on the main thread like
+     * the toolkit initialization, only the work which does not need them gains from being declared
+     * as a background task
+     *
+     * @param graph the graph to declare the tasks into
+     */
+    protected void onCreateStartupGraph(@NonNull StartupGraph graph) {
+
+    }
+
+    @NonNull
+    protected StartupGraph getStartupGraph() {
+        return mStartupGraph;
     }
 
     public void enableLogs() {
@@ -37,51 +99,38 @@ public abstract class VoxeetApplication extends MultiDexApplication {
     }
 
     /**
-     * Initialize the SDK. This promise is used by the DefaultiIncomingActivity for instance
-     * <p>
-     * This way, it can make sure that the SDK is properly initialized when using the various features
-     * of the Voxeet SDK
-     * <p>
-     * TODO make every call to this method to possibly wait for any other attempt to call it
-     * In fact, for now, every attempt to use this method will lead to creating 1 call
-     * So... many parallel calls for the "token" based implementation could lead to many attempts
-     * We should barrier calls in such case !
-     * Such implementation will, in the f
+     * Get the recorder of the events, to dump them after enableLogs()
      *
-     * @return a valid promise which will initialize the SDK
+     * @return a valid instance
      */
     @NonNull
-    protected abstract Promise<Boolean> uniqueInitializeSDK();
+    public EventDebugger getEventDebugger() {
+        return eventDebugger;
+    }
 
     /**
-     * Initialize the SDK. This promise is used by the DefaultIncomingActivity for instance
-     *
+     * Initialize the SDK. This promise is used by the DefaultiIncomingActivity for instance
+     * <p>
      * This way, it can make sure that the SDK is properly initialized when using the various features
      * of the Voxeet SDK
+     * <p>
+     * Called once by the startup graph, use initializeSDK() instead of calling it directly
      *
      * @return a valid promise which will initialize the SDK
      */
+    @NonNull
+    protected abstract Promise<Boolean> uniqueInitializeSDK();
 
     /**
      * Initialize the SDK. This promise is used by the DefaultIncomingActivity for instance
      * <p>
-     * TODO make every call to this method to possibly wait for any other attempt to call it
-     * In fact, for now, every attempt to use this method will lead to creating 1 call
-     * So... many parallel calls for the "token" based implementation could lead to many attempts
-     * We should barrier calls in such case !
+     * Every call made while the initialization runs waits for the same attempt, once done the
+     * promise resolves right away
      *
      * @return a valid promise which will initialize the SDK
      */
     public Promise<Boolean> initializeSDK() {
-        return new Promise<>(new PromiseSolver<Boolean>() {
-            @Override
-            public void onCall(@NonNull Solver<Boolean> solver) {
-                //TODO as said right above, for now, the implementation does not check for multiple calls
-                //TODO append the current 'solver' in a list and call uniqueInitialSDK if no solver existed
-                //when the uniqueInitialize resoles, simply flush the awaiting 'solver's
-                solver.resolve(uniqueInitializeSDK());
-            }
-        });
+        return mStartupGraph.require(TASK_SDK);
     }
 
     public boolean hasDefaultUser() {
@@ -105,6 +154,11 @@ public abstract class VoxeetApplication extends MultiDexApplication {
         UserInfo userInfos = VoxeetPreferences.getSavedUserInfo();
         if (null != userInfos)
             return VoxeetSdk.getInstance().logUserWithChain(userInfos);
+        return resolved();
+    }
+
+    @NonNull
+    protected static Promise<Boolean> resolved() {
         return new Promise<>(new PromiseSolver<Boolean>() {
             @Override
             public void onCall(@NonNull Solver<Boolean> solver) {
@@ -6,8 +6,8 @@ import android.os.Handler;
 import android.os.Looper;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
-import android.util.Log;
 import android.view.Gravity;
+import android.view.View;
 import android.view.ViewGroup;
 import android.widget.FrameLayout;
 
@@ -20,7 +20,12 @@ import com.voxeet.toolkit.implementation.overlays.abs.AbstractVoxeetOverlayView;
 import com.voxeet.toolkit.providers.containers.IVoxeetOverlayViewProvider;
 import com.voxeet.toolkit.providers.logics.IVoxeetSubViewProvider;
 import com.voxeet.toolkit.providers.rootview.AbstractRootViewProvider;
+import com.voxeet.toolkit.utils.ActivityContextWrapper;
 import com.voxeet.toolkit.utils.LoadLastSavedOverlayStateEvent;
+import com.voxeet.toolkit.utils.ParticipantViewAdapter;
+import com.voxeet.toolkit.views.video.VoxeetRenderer;
+import com.voxeet.toolkit.utils.ToolkitLog;
+import com.voxeet.toolkit.utils.WindowMetricsTracker;
 
 import org.greenrobot.eventbus.EventBus;
 import org.greenrobot.eventbus.Subscribe;
@@ -81,6 +86,11 @@ import voxeet.com.sdk.utils.ScreenHelper;
 
 public abstract class AbstractConferenceToolkitController {
 
+    /**
+     * Time given to join the next conference before the kept overlay is removed
+     */
+    private final static long CONFERENCE_SWITCH_TIMEOUT = 10000;
+
     private Context mContext;
     @NonNull
     private EventBus mEventBus = EventBus.getDefault();
@@ -127,9 +137,23 @@ public abstract class AbstractConferenceToolkitController {
     private boolean mEnabled;
     private String TAG = VoxeetConferenceView.class.getSimpleName();
     private boolean mIsViewRetainedOnLeave;
+    private boolean mIsOverlayPersistent;
+    private boolean mIsSwitchingConference;
+
+    private Runnable mConferenceSwitchTimeout = new Runnable() {
+        @Override
+        public void run() {
+            log("conference switch: timed out");
+            cancelConferenceSwitch();
+        }
+    };
     private AbstractRootViewProvider mRootViewProvider;
     private OverlayState mSavedOverlayState;
 
+    //context of the overlay views, switched to the activity they are displayed in
+    @Nullable
+    private ActivityContextWrapper mMainViewContext;
+
     private AbstractConferenceToolkitController() {
 
     }
@@ -162,17 +186,17 @@ public abstract class AbstractConferenceToolkitController {
         mMediaStreams = service.getMapOfStreams();
         mScreenShareMediaStreams = service.getMapOfScreenShareStreams();
 
-        mMainViewParent = new FrameLayout(activity);
+        mMainViewContext = new ActivityContextWrapper(activity);
+        mMainViewParent = new FrameLayout(mMainViewContext);
         mMainViewParent.setLayoutParams(createMatchParams());
 
         if (null == mSavedOverlayState) mSavedOverlayState = getDefaultOverlayState();
 
-        boolean is_new_conference = false; //TODO implement conference switch
-
         OverlayState state = mSavedOverlayState;
-        mMainView = mVoxeetOverlayViewProvider.createView(activity,
+        mMainView = mVoxeetOverlayViewProvider.createView(mMainViewContext,
                 mVoxeetSubViewProvider,
                 state);
+        notifyActiveStateChanged();
 
         List<DefaultConferenceUser> list = VoxeetSdk.getInstance().getConferenceService().getLastInvitationUsers();
         mergeConferenceUsers(list);
@@ -272,7 +296,7 @@ public abstract class AbstractConferenceToolkitController {
         }
 
 
-        Log.d(TAG, "displayView: " + mMainView + " " + in_conf + " " + isOverlayEnabled());
+        ToolkitLog.d(TAG, "displayView: %s %s %s", mMainView, in_conf, isOverlayEnabled());
 
         boolean should_send_user_join = false;
         if (mMainView == null && in_conf) {
@@ -292,7 +316,7 @@ public abstract class AbstractConferenceToolkitController {
                         service.setInVoiceCallSoundType();
                     }
 
-                    log("run: add view" + mMainView);
+                    ToolkitLog.d(TAG, "run: add view %s", mMainView);
                     if (mMainView != null) {
                         Activity activity = getRootViewProvider().getCurrentActivity();
                         ViewGroup root = getRootViewProvider().getRootView();
@@ -309,6 +333,7 @@ public abstract class AbstractConferenceToolkitController {
 
                         if (null != root && null != activity && !activity.isFinishing()) {
                             if (null == mMainViewParent.getParent()) {
+                                switchMainViewContext(activity);
                                 root.addView(mMainViewParent, createMatchParams());
                             }
 
@@ -326,7 +351,7 @@ public abstract class AbstractConferenceToolkitController {
                                         .getConferenceUsers();
 
                                 for (DefaultConferenceUser user : users) {
-                                    Log.d(TAG, "run: view added user := " + user);
+                                    ToolkitLog.d(TAG, "run: view added user := %s", user);
                                     mMainView.onConferenceUserJoined(user);
                                 }
                             } catch (Exception e) {
@@ -354,6 +379,8 @@ public abstract class AbstractConferenceToolkitController {
 
             mMainView = null;
             mMainViewParent = null;
+            mMainViewContext = null;
+            notifyActiveStateChanged();
         }
 
         Runnable runnable = new Runnable() {
@@ -376,13 +403,15 @@ public abstract class AbstractConferenceToolkitController {
                         //restore the saved state
                         mSavedOverlayState = null;
 
-                        Log.d(TAG, "run: AbstractConferenceToolkitController should release view " + view.getClass().getSimpleName());
+                        ToolkitLog.d(TAG, "run: AbstractConferenceToolkitController should release view %s", view);
                         view.onDestroy();
                         //if we still have the main view displayed
                         //but wanted to clear it
                         if (view == mMainView) {
                             mMainView = null;
                             mMainViewParent = null;
+                            mMainViewContext = null;
+                            notifyActiveStateChanged();
                         }
                     }
                 }
@@ -400,21 +429,167 @@ public abstract class AbstractConferenceToolkitController {
      */
     public void onActivityResumed(Activity activity) {
         if (mMainView != null) {
+            if (isOverlayPersistent() && moveView()) return;
+
             displayView();
         }
     }
 
     /**
      * When activity pause, remove the main view
+     * <p>
+     * In persistent mode, the view stays until the next activity takes it or until this one stops
      *
      * @param activity paused to
      */
     public void onActivityPaused(@NonNull Activity activity) {
-        if (mMainView != null) {
+        if (mMainView != null && !isOverlayPersistent()) {
+            removeView(false, RemoveViewType.FROM_HUD);
+        }
+    }
+
+    /**
+     * In persistent mode, remove the main view if its activity is stopped without any other
+     * activity taking it, e.g. when the application goes to background
+     *
+     * @param activity stopped
+     */
+    public void onActivityStopped(@NonNull Activity activity) {
+        if (mMainView != null && isOverlayPersistent() && null != mMainViewParent
+                && null != mMainViewParent.getParent()
+                && mMainViewParent.getRootView() == activity.getWindow().getDecorView()) {
             removeView(false, RemoveViewType.FROM_HUD);
         }
     }
 
+    /**
+     * Move the displayed view to the current root view, keeping it started
+     *
+     * @return true if the view was displayed and is now in the current root view
+     */
+    private boolean moveView() {
+        ViewGroup root = getRootViewProvider().getRootView();
+        Activity activity = getRootViewProvider().getCurrentActivity();
+        if (null == mMainViewParent || null == root || null == activity || activity.isFinishing()) {
+            return false;
+        }
+
+        ViewGroup viewHolder = (ViewGroup) mMainViewParent.getParent();
+        if (null == viewHolder || mMainView.getParent() != mMainViewParent) return false;
+        if (viewHolder == root) return true;
+
+        ToolkitLog.d(TAG, "moveView: moving the overlay to %s", activity);
+
+        //the renderers keep drawing in their surfaces, no video restart
+        retainRenderers(mMainView);
+        viewHolder.removeView(mMainViewParent);
+        switchMainViewContext(activity);
+        root.addView(mMainViewParent, createMatchParams());
+        return true;
+    }
+
+    /**
+     * Let the views of the overlay use the activity they are added to, the previous one must not
+     * be kept once finished
+     *
+     * @param activity the activity displaying the overlay
+     */
+    private void switchMainViewContext(@NonNull Activity activity) {
+        if (null != mMainViewContext) mMainViewContext.setBaseContext(activity);
+    }
+
+    private void retainRenderers(@NonNull View view) {
+        if (view instanceof VoxeetRenderer) {
+            ((VoxeetRenderer) view).retainSurfaceOnDetach();
+        } else if (view instanceof ViewGroup) {
+            ViewGroup group = (ViewGroup) view;
+            for (int i = 0; i < group.getChildCount(); i++) {
+                retainRenderers(group.getChildAt(i));
+            }
+        }
+    }
+
+    /**
+     * Keep the overlay for the next conference
+     * <p>
+     * Leaving the current conference will not remove the overlay. Its views, renderers and
+     * participant list are rebound to the users and streams of the next conference joined instead.
+     * If no conference is joined in time, the overlay is removed as usual
+     */
+    protected void beginConferenceSwitch() {
+        if (null == mMainView) return;
+
+        log("conference switch: keeping the overlay");
+        mIsSwitchingConference = true;
+        mHandler.removeCallbacks(mConferenceSwitchTimeout);
+        mHandler.postDelayed(mConferenceSwitchTimeout, CONFERENCE_SWITCH_TIMEOUT);
+    }
+
+    /**
+     * Stop waiting for the next conference, removing the overlay if no conference is running
+     */
+    protected void cancelConferenceSwitch() {
+        if (!mIsSwitchingConference) return;
+
+        clearConferenceSwitch();
+
+        boolean in_conf = null != VoxeetSdk.getInstance()
+                && (VoxeetSdk.getInstance().getConferenceService().isInConference()
+                || VoxeetSdk.getInstance().getConferenceService().isLive());
+        if (null != mMainView && !in_conf) {
+            removeView(true, RemoveViewType.FROM_EVENT);
+        }
+    }
+
+    /**
+     * Check if the overlay is currently kept for the next conference
+     */
+    public boolean isSwitchingConference() {
+        return mIsSwitchingConference;
+    }
+
+    /**
+     * Bind the kept overlay to the streams and users of the new conference
+     */
+    private void rebindConference() {
+        if (null == mMainView) return;
+
+        ConferenceSdkService service = VoxeetSdk.getInstance().getConferenceService();
+        mMediaStreams = service.getMapOfStreams();
+        mScreenShareMediaStreams = service.getMapOfScreenShareStreams();
+
+        List<DefaultConferenceUser> users = getConferenceUsers();
+        mMainView.onMediaStreamsListUpdated(mMediaStreams);
+        mMainView.onScreenShareMediaStreamUpdated(mScreenShareMediaStreams);
+        mMainView.onConferenceUsersListUpdate(users);
+
+        for (DefaultConferenceUser user : users) {
+            mMainView.onConferenceUserJoined(user);
+        }
+    }
+
+    private void completeConferenceSwitch() {
+        if (!mIsSwitchingConference) return;
+
+        log("conference switch: done");
+        clearConferenceSwitch();
+        rebindConference();
+    }
+
+    private void clearConferenceSwitch() {
+        mIsSwitchingConference = false;
+        mHandler.removeCallbacks(mConferenceSwitchTimeout);
+    }
+
+    /**
+     * Remove the view at the end of a conference, unless it is kept for the next one
+     */
+    private void removeViewUnlessSwitching() {
+        if (mIsSwitchingConference && null != mMainView) return;
+
+        removeView(true, RemoveViewType.FROM_EVENT);
+    }
+
     /**
      * Reset the state of the streams and conference users of this controller
      */
@@ -469,6 +644,22 @@ public abstract class AbstractConferenceToolkitController {
         //enable or disable depending
         if (mEnabled) register();
         else unregister();
+
+        notifyActiveStateChanged();
+    }
+
+    /**
+     * Check wether this controller must receive the activity lifecycle
+     *
+     * @return true if enabled or still displaying its view
+     */
+    boolean isActive() {
+        return mEnabled || null != mMainView;
+    }
+
+    private void notifyActiveStateChanged() {
+        VoxeetToolkit toolkit = VoxeetToolkit.getInstance();
+        if (null != toolkit) toolkit.onControllerStateChanged(this);
     }
 
     /**
@@ -487,6 +678,25 @@ public abstract class AbstractConferenceToolkitController {
         return mIsViewRetainedOnLeave;
     }
 
+    /**
+     * Keep the overlay started when switching activities
+     * <p>
+     * Instead of being stopped when an activity pauses and recreated when the next one resumes,
+     * the overlay and its video renderers are moved to the new activity as they are
+     *
+     * @param state true to move the overlay between activities
+     */
+    public void setOverlayPersistent(boolean state) {
+        mIsOverlayPersistent = state;
+    }
+
+    /**
+     * Check wether the overlay is moved between activities instead of being recreated
+     */
+    public boolean isOverlayPersistent() {
+        return mIsOverlayPersistent;
+    }
+
 
     /**
      * Check wether this controller can be called
@@ -526,7 +736,9 @@ public abstract class AbstractConferenceToolkitController {
                 getContext().getResources().getDimensionPixelSize(R.dimen.dimen_100),
                 getContext().getResources().getDimensionPixelSize(R.dimen.dimen_140));
         mParams.gravity = Gravity.END | Gravity.TOP;
-        mParams.topMargin = ScreenHelper.actionBar(getContext()) + ScreenHelper.getStatusBarHeight(getContext());
+        //the status bar does not cover a window which is not at the top of the screen
+        mParams.topMargin = ScreenHelper.actionBar(getContext())
+                + WindowMetricsTracker.getInstance().getBounds(getContext()).top;
     }
 
 
@@ -552,14 +764,14 @@ public abstract class AbstractConferenceToolkitController {
         //VoxeetSdk.getInstance().getAudioService().playSoundType(AudioType.RING);
         Activity activity = VoxeetToolkit.getInstance().getCurrentActivity();
 
-        log("onEvent: " + event.getClass().getSimpleName()
-                + " " + activity);
+        ToolkitLog.d(TAG, "onEvent: %s %s", event, activity);
         if (activity != null) {
             if (mMainView == null) init();
 
             setParams();
 
-            displayView();
+            //the kept overlay is rebound once, when the next conference is joined
+            if (!mIsSwitchingConference) displayView();
 
             if (mMainView != null) {
                 mMainView.onConferenceCreating();
@@ -577,15 +789,14 @@ public abstract class AbstractConferenceToolkitController {
         VoxeetSdk.getInstance().getAudioService().playSoundType(AudioType.RING);
         Activity activity = VoxeetToolkit.getInstance().getCurrentActivity();
 
-        log("onEvent: " + event.getClass().getSimpleName()
-                + " " + validFilter(event.getConferenceId())
-                + " " + activity);
+        ToolkitLog.d(TAG, "onEvent: %s %s %s", event, event.getConferenceId(), activity);
         if (activity != null && validFilter(event.getConferenceId())) {
             if (mMainView == null) init();
 
             setParams();
 
-            displayView();
+            //the kept overlay is rebound once, when the next conference is joined
+            if (!mIsSwitchingConference) displayView();
 
             if (mMainView != null) {
                 mMainView.onConferenceJoining(event.getConferenceId());
@@ -601,6 +812,7 @@ public abstract class AbstractConferenceToolkitController {
         List<DefaultConferenceUser> users = getConferenceUsers();
         for (DefaultUserProfile profile : profiles) {
             DefaultConferenceUser user = new DefaultConferenceUser(profile);
+            prefetchAvatar(user);
             if (!users.contains(user)) {
                 users.add(user);
 
@@ -623,6 +835,7 @@ public abstract class AbstractConferenceToolkitController {
             List<DefaultConferenceUser> users = getConferenceUsers();
             for (DefaultInvitation invite : event.getInvitations()) {
                 DefaultConferenceUser temp = new DefaultConferenceUser(invite.getProfile());
+                prefetchAvatar(temp);
 
                 if (mMainView != null) {
                     mMainView.onConferenceUserUpdated(temp);
@@ -650,7 +863,11 @@ public abstract class AbstractConferenceToolkitController {
             VoxeetSdk.getInstance().getConferenceService()
                     .setAudioRoute(AudioRoute.ROUTE_SPEAKER);
 
-            displayView();
+            if (mIsSwitchingConference) {
+                completeConferenceSwitch();
+            } else {
+                displayView();
+            }
 
             List<DefaultConferenceUser> users = VoxeetSdk.getInstance().getConferenceService().getConferenceUsers();
             log("onEvent: ConferenceJoinedSuccessEvent");
@@ -713,7 +930,7 @@ public abstract class AbstractConferenceToolkitController {
      */
     @Subscribe(threadMode = ThreadMode.MAIN)
     public void onEvent(@NonNull ConferenceUserUpdatedEvent event) {
-        log("onEvent: ConferenceUserUpdatedEvent " + event.getUser());
+        ToolkitLog.d(TAG, "onEvent: ConferenceUserUpdatedEvent %s", event.getUser());
         DefaultConferenceUser user = event.getUser();
 
         List<DefaultConferenceUser> users = getConferenceUsers();
@@ -747,7 +964,7 @@ public abstract class AbstractConferenceToolkitController {
     public void onEvent(final ConferenceUserJoinedEvent event) {
         checkStopOutgoingCall();
 
-        log("onEvent: ConferenceUserJoinedEvent " + event);
+        ToolkitLog.d(TAG, "onEvent: ConferenceUserJoinedEvent %s", event);
         DefaultConferenceUser user = event.getUser();
 
 
@@ -773,8 +990,7 @@ public abstract class AbstractConferenceToolkitController {
     @Subscribe(threadMode = ThreadMode.MAIN)
     public void onEvent(ScreenStreamAddedEvent event) {
         MediaStream mediaStream = event.getMediaStream();
-        Log.d(TAG, "onEvent: event " + mediaStream.isScreenShare() + " "
-                + (mediaStream.videoTracks().size() > 0));
+        ToolkitLog.d(TAG, "onEvent: event %s %s", mediaStream.isScreenShare(), mediaStream.videoTracks().size());
         //mScreenShareMediaStreams.put(event.getPeer(), event.getMediaStream());
 
 
@@ -849,14 +1065,15 @@ public abstract class AbstractConferenceToolkitController {
      */
     @Subscribe(threadMode = ThreadMode.MAIN)
     public void onEvent(ConferenceLeftSuccessEvent event) {
-        Log.d("SoundPool", "onEvent: " + event.getClass().getSimpleName());
+        ToolkitLog.d("SoundPool", "onEvent: %s", event);
         VoxeetSdk.getInstance().getAudioService().stop();
 
         if (null != mMainView) {
             reset();
-            mMainView.onConferenceLeft();
+            //the participants of the kept overlay are replaced when the next conference is joined
+            if (!mIsSwitchingConference) mMainView.onConferenceLeft();
 
-            removeView(true, RemoveViewType.FROM_EVENT);
+            removeViewUnlessSwitching();
         }
     }
 
@@ -867,39 +1084,42 @@ public abstract class AbstractConferenceToolkitController {
      */
     @Subscribe(threadMode = ThreadMode.MAIN)
     public void onEvent(ConferenceLeftError event) {
-        Log.d("SoundPool", "onEvent: " + event.getClass().getSimpleName());
+        ToolkitLog.d("SoundPool", "onEvent: %s", event);
         VoxeetSdk.getInstance().getAudioService().stop();
 
         if (null != mMainView) {
             reset();
-            mMainView.onConferenceLeft();
+            //the participants of the kept overlay are replaced when the next conference is joined
+            if (!mIsSwitchingConference) mMainView.onConferenceLeft();
 
-            removeView(true, RemoveViewType.FROM_EVENT);
+            removeViewUnlessSwitching();
         }
     }
 
     @Subscribe(threadMode = ThreadMode.MAIN)
     public void onEvent(ConferenceCreatedError event) {
-        Log.d("SoundPool", "onEvent: " + event.getClass().getSimpleName());
+        ToolkitLog.d("SoundPool", "onEvent: %s", event);
         VoxeetSdk.getInstance().getAudioService().stop();
 
         if (null != mMainView) {
             reset();
             mMainView.onConferenceDestroyed();
 
+            clearConferenceSwitch();
             removeView(true, RemoveViewType.FROM_EVENT);
         }
     }
 
     @Subscribe(threadMode = ThreadMode.MAIN)
     public void onEvent(ConferenceJoinedError event) {
-        Log.d("SoundPool", "onEvent: " + event.getClass().getSimpleName());
+        ToolkitLog.d("SoundPool", "onEvent: %s", event);
         VoxeetSdk.getInstance().getAudioService().stop();
 
         if (null != mMainView) {
             reset();
             mMainView.onConferenceDestroyed();
 
+            clearConferenceSwitch();
             removeView(true, RemoveViewType.FROM_EVENT);
         }
     }
@@ -911,7 +1131,7 @@ public abstract class AbstractConferenceToolkitController {
      */
     @Subscribe(threadMode = ThreadMode.MAIN)
     public void onEvent(ConferenceDestroyedPush event) {
-        Log.d("SoundPool", "onEvent: " + event.getClass().getSimpleName());
+        ToolkitLog.d("SoundPool", "onEvent: %s", event);
         if (null != VoxeetSdk.getInstance()) {
             VoxeetSdk.getInstance().getAudioService().stop();
         }
@@ -921,7 +1141,7 @@ public abstract class AbstractConferenceToolkitController {
             mMainView.onConferenceDestroyed();
         }
 
-        removeView(true, RemoveViewType.FROM_EVENT);
+        removeViewUnlessSwitching();
     }
 
     /**
@@ -931,7 +1151,7 @@ public abstract class AbstractConferenceToolkitController {
      */
     @Subscribe(threadMode = ThreadMode.MAIN)
     public void onEvent(ConferenceEndedEvent event) {
-        Log.d("SoundPool", "onEvent: " + event.getClass().getSimpleName());
+        ToolkitLog.d("SoundPool", "onEvent: %s", event);
         VoxeetSdk.getInstance().getAudioService().stop();
 
         reset();
@@ -939,12 +1159,12 @@ public abstract class AbstractConferenceToolkitController {
             mMainView.onConferenceDestroyed();
         }
 
-        removeView(true, RemoveViewType.FROM_EVENT);
+        removeViewUnlessSwitching();
     }
 
     @Subscribe(threadMode = ThreadMode.MAIN)
     public void onEvent(ReplayConferenceErrorEvent event) {
-        Log.d("SoundPool", "onEvent: " + event.getClass().getSimpleName());
+        ToolkitLog.d("SoundPool", "onEvent: %s", event);
         VoxeetSdk.getInstance().getAudioService().stop();
 
         reset();
@@ -953,6 +1173,7 @@ public abstract class AbstractConferenceToolkitController {
             mMainView.onConferenceDestroyed();
         }
 
+        clearConferenceSwitch();
         removeView(true, RemoveViewType.FROM_EVENT);
     }
 
@@ -1003,7 +1224,7 @@ public abstract class AbstractConferenceToolkitController {
     }
 
     private void log(@NonNull String value) {
-        Log.d(TAG, value);
+        ToolkitLog.d(TAG, value);
     }
 
     private void mergeConferenceUsers(@NonNull List<DefaultConferenceUser> users) {
@@ -1011,13 +1232,23 @@ public abstract class AbstractConferenceToolkitController {
         if (users != current_users) {
             for (DefaultConferenceUser user : users) {
                 if (null != user && !current_users.contains(user)) {
-                    log("init: adding " + user + " " + user.getUserInfo());
+                    ToolkitLog.d(TAG, "init: adding %s %s", user, user.getUserInfo());
                     current_users.add(user);
+                    prefetchAvatar(user);
                 }
             }
         }
     }
 
+    /**
+     * Warm the avatar cache before the participant list binds this user
+     *
+     * @param user the user who will be displayed
+     */
+    private void prefetchAvatar(@NonNull DefaultConferenceUser user) {
+        ParticipantViewAdapter.prefetchAvatar(getContext(), user);
+    }
+
     private void checkStopOutgoingCall() {
         boolean found = false;
 
@@ -1031,7 +1262,7 @@ public abstract class AbstractConferenceToolkitController {
         }
 
         if (found) {
-            Log.d("SoundPool", " checkOutgoingCall");
+            ToolkitLog.d("SoundPool", " checkOutgoingCall");
             VoxeetSdk.getInstance().getAudioService().stop();
         }
     }
@@ -3,12 +3,12 @@ package com.voxeet.toolkit.controllers;
 import android.content.Context;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
-import android.util.Log;
 
 import com.voxeet.toolkit.implementation.overlays.OverlayState;
 import com.voxeet.toolkit.implementation.overlays.abs.IExpandableViewProviderListener;
 import com.voxeet.toolkit.providers.containers.DefaultConferenceProvider;
 import com.voxeet.toolkit.providers.logics.DefaultConferenceSubViewProvider;
+import com.voxeet.toolkit.utils.ToolkitLog;
 
 import org.greenrobot.eventbus.EventBus;
 
@@ -56,7 +56,7 @@ public class ConferenceToolkitController extends AbstractConferenceToolkitContro
     }
 
     public Promise<Boolean> joinUsingConferenceId(@NonNull String conferenceId, @Nullable UserInfo from_invitation) {
-        Log.d("IncomingBundleChecker", "join: conferenceId := " + conferenceId);
+        ToolkitLog.d("IncomingBundleChecker", "join: conferenceId := %s", conferenceId);
         internalJoin(from_invitation);
 
         return VoxeetSdk.getInstance().getConferenceService().join(conferenceId);
@@ -92,7 +92,7 @@ public class ConferenceToolkitController extends AbstractConferenceToolkitContro
      */
     public Promise<Boolean> join(@NonNull String conferenceAlias,
                                  @Nullable MetadataHolder metadataHolder) {
-        Log.d("IncomingBundleChecker", "join: conferenceAlias := " + conferenceAlias);
+        ToolkitLog.d("IncomingBundleChecker", "join: conferenceAlias := %s", conferenceAlias);
 
         return join(conferenceAlias, metadataHolder, null, null);
     }
@@ -107,7 +107,7 @@ public class ConferenceToolkitController extends AbstractConferenceToolkitContro
     public Promise<Boolean> join(@NonNull String conferenceAlias,
                                  @Nullable MetadataHolder metadataHolder,
                                  @Nullable ParamsHolder paramsHolder) {
-        Log.d("IncomingBundleChecker", "join: conferenceAlias := " + conferenceAlias);
+        ToolkitLog.d("IncomingBundleChecker", "join: conferenceAlias := %s", conferenceAlias);
 
         return join(conferenceAlias, metadataHolder, paramsHolder, null);
     }
@@ -139,7 +139,7 @@ public class ConferenceToolkitController extends AbstractConferenceToolkitContro
                                  @Nullable MetadataHolder metadataHolder,
                                  @Nullable ParamsHolder paramsHolder,
                                  @Nullable UserInfo from_invitation) {
-        Log.d("IncomingBundleChecker", "join: conferenceAlias := " + conferenceAlias);
+        ToolkitLog.d("IncomingBundleChecker", "join: conferenceAlias := %s", conferenceAlias);
         internalJoin(from_invitation);
 
         return new Promise<>(new PromiseSolver<Boolean>() {
@@ -149,14 +149,14 @@ public class ConferenceToolkitController extends AbstractConferenceToolkitContro
                         .then(new PromiseExec<ConferenceResponse, Boolean>() {
                             @Override
                             public void onCall(@Nullable ConferenceResponse result, @NonNull Solver<Boolean> s) {
-                                Log.d("ConferenceToolkitController", "onCall: creating conference done");
+                                ToolkitLog.d("ConferenceToolkitController", "onCall: creating conference done");
                                 s.resolve(VoxeetSdk.getInstance().getConferenceService().join(result.getConfId()));
                             }
                         })
                         .then(new PromiseExec<Boolean, Object>() {
                             @Override
                             public void onCall(@Nullable Boolean result, @NonNull Solver<Object> s) {
-                                Log.d("ConferenceToolkitController", "onCall: joining done " + result);
+                                ToolkitLog.d("ConferenceToolkitController", "onCall: joining done %s", result);
                                 solver.resolve(result);
                             }
                         })
@@ -170,6 +170,50 @@ public class ConferenceToolkitController extends AbstractConferenceToolkitContro
         });
     }
 
+    /**
+     * Leave the current conference and join an other one, keeping the overlay
+     * <p>
+     * The overlay, its renderers and the participant list are rebound to the new conference
+     * instead of being destroyed and created again
+     *
+     * @param conferenceAlias the valid alias to join
+     * @return a promise to resolve
+     */
+    public Promise<Boolean> switchTo(@NonNull final String conferenceAlias) {
+        if (!VoxeetSdk.getInstance().getConferenceService().isInConference()) {
+            return join(conferenceAlias);
+        }
+
+        beginConferenceSwitch();
+
+        return new Promise<>(new PromiseSolver<Boolean>() {
+            @Override
+            public void onCall(@NonNull final Solver<Boolean> solver) {
+                VoxeetSdk.getInstance().getConferenceService().leave()
+                        .then(new PromiseExec<Boolean, Boolean>() {
+                            @Override
+                            public void onCall(@Nullable Boolean result, @NonNull Solver<Boolean> s) {
+                                s.resolve(join(conferenceAlias));
+                            }
+                        })
+                        .then(new PromiseExec<Boolean, Object>() {
+                            @Override
+                            public void onCall(@Nullable Boolean result, @NonNull Solver<Object> s) {
+                                ToolkitLog.d("ConferenceToolkitController", "onCall: switching done %s", result);
+                                solver.resolve(result);
+                            }
+                        })
+                        .error(new ErrorPromise() {
+                            @Override
+                            public void onError(@NonNull Throwable error) {
+                                cancelConferenceSwitch();
+                                solver.reject(error);
+                            }
+                        });
+            }
+        });
+    }
+
     public Promise<List<ConferenceRefreshedEvent>> invite(@NonNull List<UserInfo> to_invite) {
         return VoxeetSdk.getInstance().getConferenceService().inviteUserInfos(to_invite);
     }
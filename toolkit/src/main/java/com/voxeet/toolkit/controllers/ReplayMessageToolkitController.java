@@ -3,7 +3,6 @@ package com.voxeet.toolkit.controllers;
 import android.content.Context;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
-import android.util.Log;
 
 import com.voxeet.android.media.audio.AudioRoute;
 
@@ -19,6 +18,7 @@ import com.voxeet.toolkit.providers.containers.DefaultReplayMessageProvider;
 import com.voxeet.toolkit.providers.logics.DefaultReplayMessageSubViewProvider;
 import com.voxeet.toolkit.implementation.overlays.OverlayState;
 import com.voxeet.toolkit.implementation.overlays.abs.IExpandableViewProviderListener;
+import com.voxeet.toolkit.utils.ToolkitLog;
 import voxeet.com.sdk.core.VoxeetSdk;
 import voxeet.com.sdk.core.services.SdkConferenceService;
 import voxeet.com.sdk.events.success.ConferenceEndedEvent;
@@ -73,6 +73,9 @@ public class ReplayMessageToolkitController extends AbstractConferenceToolkitCon
     public final Promise<Boolean> replay(@NonNull String conferenceId, long offset) {
         VoxeetToolkit.getInstance().enable(this);
 
+        //replaying while a replay is displayed, keep the overlay for the new one
+        if (isShowing()) beginConferenceSwitch();
+
         _wait_for_history = true;
         _last_conference = conferenceId;
         _last_conference_duration = 0;
@@ -100,7 +103,7 @@ public class ReplayMessageToolkitController extends AbstractConferenceToolkitCon
         .error(new ErrorPromise() {
             @Override
             public void onError(@NonNull Throwable throwable) {
-                Log.d(TAG, "onHistoryError: " + throwable.getMessage());
+                ToolkitLog.d(TAG, "onHistoryError: %s", throwable.getMessage());
                 throwable.printStackTrace();
 
                 _wait_for_history = false;
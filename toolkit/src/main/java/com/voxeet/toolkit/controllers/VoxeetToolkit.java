@@ -5,16 +5,22 @@ import android.app.Application;
 import android.os.Bundle;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
-import android.util.Log;
 
 import org.greenrobot.eventbus.EventBus;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.voxeet.toolkit.providers.rootview.AbstractRootViewProvider;
 import com.voxeet.toolkit.providers.rootview.DefaultRootViewProvider;
 import com.voxeet.toolkit.implementation.overlays.OverlayState;
+import com.voxeet.toolkit.utils.MainThreadWatchdog;
+import com.voxeet.toolkit.utils.ToolkitLog;
+import com.voxeet.toolkit.views.video.RendererBackend;
 
 /**
  * Simple VoxeetToolkit implementation
@@ -29,7 +35,24 @@ public class VoxeetToolkit implements Application.ActivityLifecycleCallbacks {
     private AbstractRootViewProvider mProvider;
 
     private boolean mIsOverEnabled;
-    private List<AbstractConferenceToolkitController> mConferenceToolkitControllers;
+
+    @NonNull
+    private RendererBackend mStageRendererBackend = RendererBackend.TEXTURE_VIEW;
+
+    /**
+     * Registered controllers, one instance per class, in registration order
+     */
+    private Map<Class<? extends AbstractConferenceToolkitController>, AbstractConferenceToolkitController> mConferenceToolkitControllers;
+
+    /**
+     * Results of getAbstractToolkit, cleared when the registry changes
+     */
+    private Map<Class<?>, AbstractConferenceToolkitController> mLookups;
+
+    /**
+     * Controllers enabled or displaying their view, the only ones receiving the activity lifecycle
+     */
+    private AbstractConferenceToolkitController[] mActiveControllers = new AbstractConferenceToolkitController[0];
 
 
     /**
@@ -40,7 +63,8 @@ public class VoxeetToolkit implements Application.ActivityLifecycleCallbacks {
     public static synchronized VoxeetToolkit initialize(Application application, EventBus eventBus) {
 
         if(null == sInstance) {
-            Log.d(TAG, "initialize: toolkit initializing");
+            ToolkitLog.setDefaultLevel(application);
+            ToolkitLog.d(TAG, "initialize: toolkit initializing");
             sInstance = new VoxeetToolkit();
 
             DefaultRootViewProvider provider = new DefaultRootViewProvider(application, sInstance);
@@ -100,11 +124,43 @@ public class VoxeetToolkit implements Application.ActivityLifecycleCallbacks {
         mIsOverEnabled = enabled;
 
 
-        for (AbstractConferenceToolkitController controller : mConferenceToolkitControllers) {
+        for (AbstractConferenceToolkitController controller : getControllers()) {
             controller.onOverlayEnabled(enabled);
         }
     }
 
+    /**
+     * Watch the main thread for toolkit messages exceeding the budget
+     * <p>
+     * The stalls are available through MainThreadWatchdog.getInstance()
+     *
+     * @param enabled true to start watching
+     * @param budget  the maximum duration in ms of a message, e.g. MainThreadWatchdog.DEFAULT_BUDGET
+     */
+    public void enableStallWatchdog(boolean enabled, long budget) {
+        if (enabled) {
+            MainThreadWatchdog.getInstance().start(budget);
+        } else {
+            MainThreadWatchdog.getInstance().stop();
+        }
+    }
+
+    /**
+     * Set the backend of the main stage video of the conference views, the other tiles always use
+     * a TextureView. Applied to the views created afterwards
+     *
+     * @param backend RendererBackend.SURFACE_VIEW for a lower latency and power, the stage is then
+     *                not animated with the overlay
+     */
+    public void setStageRendererBackend(@NonNull RendererBackend backend) {
+        mStageRendererBackend = backend;
+    }
+
+    @NonNull
+    public RendererBackend getStageRendererBackend() {
+        return mStageRendererBackend;
+    }
+
     @NonNull
     public AbstractRootViewProvider getDefaultRootViewProvider() {
         return mProvider;
@@ -129,21 +185,23 @@ public class VoxeetToolkit implements Application.ActivityLifecycleCallbacks {
 
     @Override
     public void onActivityResumed(@NonNull Activity activity) {
-        for (AbstractConferenceToolkitController controller : mConferenceToolkitControllers) {
+        for (AbstractConferenceToolkitController controller : mActiveControllers) {
             controller.onActivityResumed(activity);
         }
     }
 
     @Override
     public void onActivityPaused(@NonNull Activity activity) {
-        for (AbstractConferenceToolkitController controller : mConferenceToolkitControllers) {
+        for (AbstractConferenceToolkitController controller : mActiveControllers) {
             controller.onActivityPaused(activity);
         }
     }
 
     @Override
-    public void onActivityStopped(Activity activity) {
-
+    public void onActivityStopped(@NonNull Activity activity) {
+        for (AbstractConferenceToolkitController controller : mActiveControllers) {
+            controller.onActivityStopped(activity);
+        }
     }
 
     @Override
@@ -160,8 +218,8 @@ public class VoxeetToolkit implements Application.ActivityLifecycleCallbacks {
      * Disable every com.voxeet.toolkit.controllers
      */
     public void disableAll() {
-        for (AbstractConferenceToolkitController internal_controller : mConferenceToolkitControllers) {
-            internal_controller.enable(false);
+        for (AbstractConferenceToolkitController internal_controller : mActiveControllers) {
+            if (internal_controller.isEnabled()) internal_controller.enable(false);
         }
     }
 
@@ -172,10 +230,11 @@ public class VoxeetToolkit implements Application.ActivityLifecycleCallbacks {
      * @return true if the controller was found and activated or already activated
      */
     public boolean enable(@NonNull AbstractConferenceToolkitController controller) {
-        if (mConferenceToolkitControllers.contains(controller)) {
-            for (AbstractConferenceToolkitController internal_controller : mConferenceToolkitControllers) {
+        if (isRegistered(controller)) {
+            //disabled controllers are not active, only the active ones need to be checked
+            for (AbstractConferenceToolkitController internal_controller : mActiveControllers) {
                 //only check for references
-                if (controller != internal_controller) { //if different, disable the current
+                if (controller != internal_controller && internal_controller.isEnabled()) { //if different, disable the current
                     internal_controller.enable(false);
                 }
             }
@@ -189,7 +248,8 @@ public class VoxeetToolkit implements Application.ActivityLifecycleCallbacks {
     private void init(@NonNull Application application,
                       EventBus eventBus) {
 
-        mConferenceToolkitControllers = new ArrayList<>();
+        mConferenceToolkitControllers = new LinkedHashMap<>();
+        mLookups = new HashMap<>();
 
         mIsInit = true;
 
@@ -209,17 +269,69 @@ public class VoxeetToolkit implements Application.ActivityLifecycleCallbacks {
     }
 
     private <CF extends AbstractConferenceToolkitController> CF getAbstractToolkit(Class<CF> klass) {
-        for (AbstractConferenceToolkitController controller : mConferenceToolkitControllers) {
+        AbstractConferenceToolkitController found = mConferenceToolkitControllers.get(klass);
+        if (null != found) return (CF) found;
+
+        found = mLookups.get(klass);
+        if (null != found) return (CF) found;
+
+        for (AbstractConferenceToolkitController controller : getControllers()) {
             if (controller.getClass().isAssignableFrom(klass)) {
+                mLookups.put(klass, controller);
                 return (CF) controller;
             }
         }
         return null;
     }
 
+    @NonNull
+    private Collection<AbstractConferenceToolkitController> getControllers() {
+        return mConferenceToolkitControllers.values();
+    }
+
+    private boolean isRegistered(@NonNull AbstractConferenceToolkitController controller) {
+        return mConferenceToolkitControllers.get(controller.getClass()) == controller;
+    }
+
+    /**
+     * Called by the controllers when they are enabled, disabled, or when they create or release their view
+     *
+     * @param controller the controller whose state changed
+     */
+    void onControllerStateChanged(@NonNull AbstractConferenceToolkitController controller) {
+        if (null != mConferenceToolkitControllers && isRegistered(controller)) {
+            updateActiveControllers();
+        }
+    }
+
+    private void updateActiveControllers() {
+        List<AbstractConferenceToolkitController> active = new ArrayList<>();
+        for (AbstractConferenceToolkitController controller : getControllers()) {
+            if (controller.isActive()) active.add(controller);
+        }
+        mActiveControllers = active.toArray(new AbstractConferenceToolkitController[active.size()]);
+    }
+
+    /**
+     * Register a controller
+     * <p>
+     * Only one controller per class can be registered, registering a new instance replaces the previous one.
+     * The replaced controller is disabled : its view is removed and it stops listening to the events
+     *
+     * @param controller the controller to register
+     */
     public void registerConferenceToolkitController(@NonNull AbstractConferenceToolkitController controller) {
-        if (mConferenceToolkitControllers.indexOf(controller) < 0) {
-            mConferenceToolkitControllers.add(controller);
+        if (!isRegistered(controller)) {
+            AbstractConferenceToolkitController previous = mConferenceToolkitControllers.get(controller.getClass());
+            if (null != previous) {
+                unregisterConferenceToolkitController(previous);
+                //it would stay subscribed to the bus, even if never enabled
+                previous.enable(false);
+            }
+
+            mConferenceToolkitControllers.put(controller.getClass(), controller);
+            mLookups.clear();
+            updateActiveControllers();
 
             //then call the current state of the activity for this one
             Activity activity = mProvider.getCurrentActivity();
@@ -233,8 +345,10 @@ public class VoxeetToolkit implements Application.ActivityLifecycleCallbacks {
     }
 
     private void unregisterConferenceToolkitController(@NonNull AbstractConferenceToolkitController controller) {
-        if (mConferenceToolkitControllers.indexOf(controller) >= 0) {
-            mConferenceToolkitControllers.remove(controller);
+        if (isRegistered(controller)) {
+            mConferenceToolkitControllers.remove(controller.getClass());
+            mLookups.clear();
+            updateActiveControllers();
 
 
             //then call the current state of the activity for this one
@@ -11,7 +11,6 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.v4.content.ContextCompat;
 import android.util.AttributeSet;
-import android.util.Log;
 import android.view.Gravity;
 import android.view.View;
 import android.view.ViewGroup;
@@ -22,6 +21,7 @@ import com.voxeet.android.media.MediaStream;
 import com.voxeet.android.media.audio.AudioRoute;
 import com.voxeet.toolkit.R;
 import com.voxeet.toolkit.controllers.VoxeetToolkit;
+import com.voxeet.toolkit.utils.ToolkitLog;
 
 import org.greenrobot.eventbus.EventBus;
 import org.greenrobot.eventbus.Subscribe;
@@ -288,12 +288,12 @@ public class VoxeetConferenceBarView extends VoxeetView {
                 service.startVideo().then(new PromiseExec<Boolean, Object>() {
                     @Override
                     public void onCall(@Nullable Boolean result, @NonNull Solver<Object> solver) {
-                        Log.d(TAG, "onAttachedToWindow: starting video ? success:=" + result);
+                        ToolkitLog.d(TAG, "onAttachedToWindow: starting video ? success:=%s", result);
                     }
                 }).error(new ErrorPromise() {
                     @Override
                     public void onError(@NonNull Throwable error) {
-                        Log.d(TAG, "onAttachedToWindow: starting video ? thrown:=" + error);
+                        ToolkitLog.d(TAG, "onAttachedToWindow: starting video ? thrown:=%s", error);
                         error.printStackTrace();
                     }
                 });
@@ -641,7 +641,7 @@ public class VoxeetConferenceBarView extends VoxeetView {
 
     private boolean checkPermission(@NonNull String permission, @NonNull String error_message, int result_code) {
         if (!Validate.hasPermissionInManifest(getContext(), permission)) {
-            Log.d(TAG, error_message);
+            ToolkitLog.d(TAG, error_message);
             return false;
         } else if (ContextCompat.checkSelfPermission(getContext(), permission) == PackageManager.PERMISSION_DENIED) {
             if (android.os.Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
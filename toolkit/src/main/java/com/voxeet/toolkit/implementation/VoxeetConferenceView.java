@@ -7,7 +7,6 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.annotation.StringRes;
 import android.util.AttributeSet;
-import android.util.Log;
 import android.util.TypedValue;
 import android.view.GestureDetector;
 import android.view.MotionEvent;
@@ -19,10 +18,13 @@ import android.widget.TextView;
 
 import com.voxeet.android.media.MediaStream;
 import com.voxeet.toolkit.R;
+import com.voxeet.toolkit.controllers.VoxeetToolkit;
 import com.voxeet.toolkit.implementation.overlays.abs.AbstractVoxeetExpandableView;
 import com.voxeet.toolkit.utils.IParticipantViewListener;
+import com.voxeet.toolkit.utils.LayoutTransaction;
 import com.voxeet.toolkit.views.NotchAvoidView;
 import com.voxeet.toolkit.views.VideoView;
+import com.voxeet.toolkit.utils.ToolkitLog;
 
 import org.webrtc.RendererCommon;
 
@@ -76,6 +78,16 @@ public class VoxeetConferenceView extends AbstractVoxeetExpandableView implement
     private boolean isExpanded = false;
     private ScaleGestureDetector mScaleOnPinchDetector;
 
+    /**
+     * Refresh the participants once the changes of an event are applied
+     */
+    private final Runnable mNotifyParticipants = new Runnable() {
+        @Override
+        public void run() {
+            participantView.notifyDatasetChanged();
+        }
+    };
+
     /**
      * Instantiates a new Voxeet conference view.
      *
@@ -96,7 +108,7 @@ public class VoxeetConferenceView extends AbstractVoxeetExpandableView implement
             @Override
             public boolean onScale(ScaleGestureDetector detector) {
                 float scaleFactor = detector.getScaleFactor();
-                Log.d(TAG, "onScale: " + scaleFactor);
+                ToolkitLog.d(TAG, "onScale: %s", scaleFactor);
                 while (mItems.size() > 5) mItems.remove(0);
                 mItems.add(scaleFactor);
 
@@ -156,9 +168,17 @@ public class VoxeetConferenceView extends AbstractVoxeetExpandableView implement
     protected void onAttachedToWindow() {
         super.onAttachedToWindow();
 
+        LayoutTransaction.getInstance().trackLayoutPasses(this);
         updateUi();
     }
 
+    @Override
+    protected void onDetachedFromWindow() {
+        LayoutTransaction.getInstance().untrackLayoutPasses(this);
+
+        super.onDetachedFromWindow();
+    }
+
     @Override
     public void onResume() {
         super.onResume();
@@ -167,35 +187,41 @@ public class VoxeetConferenceView extends AbstractVoxeetExpandableView implement
     }
 
     private void updateUi() {
-        Log.d(TAG, "updateUi: ");
+        LayoutTransaction transaction = LayoutTransaction.getInstance();
+        transaction.begin("updateUi");
+        try {
+            ToolkitLog.d(TAG, "updateUi: ");
 
-        //check for the conference state
-        checkStateValue();
+            //check for the conference state
+            checkStateValue();
 
-        refreshUIVisibility();
+            refreshUIVisibility();
 
-        //UPDATE participant adapter consequently
-        if (null != mPreviouslyAttachedPeerId) {
-            if (mPreviouslyScreenShare) {
-                onScreenShareMediaStreamUpdated(mPreviouslyAttachedPeerId,
-                        VoxeetSdk.getInstance().getConferenceService().getMapOfScreenShareStreams());
-            } else {
-                onMediaStreamUpdated(mPreviouslyAttachedPeerId,
-                        VoxeetSdk.getInstance().getConferenceService().getMapOfStreams());
+            //UPDATE participant adapter consequently
+            if (null != mPreviouslyAttachedPeerId) {
+                if (mPreviouslyScreenShare) {
+                    onScreenShareMediaStreamUpdated(mPreviouslyAttachedPeerId,
+                            VoxeetSdk.getInstance().getConferenceService().getMapOfScreenShareStreams());
+                } else {
+                    onMediaStreamUpdated(mPreviouslyAttachedPeerId,
+                            VoxeetSdk.getInstance().getConferenceService().getMapOfStreams());
+                }
             }
-        }
 
-        HashMap<String, MediaStream> streams = VoxeetSdk.getInstance()
-                .getConferenceService().getMapOfStreams();
-        HashMap<String, MediaStream> screenShareStreams = VoxeetSdk.getInstance()
-                .getConferenceService().getMapOfScreenShareStreams();
+            HashMap<String, MediaStream> streams = VoxeetSdk.getInstance()
+                    .getConferenceService().getMapOfStreams();
+            HashMap<String, MediaStream> screenShareStreams = VoxeetSdk.getInstance()
+                    .getConferenceService().getMapOfScreenShareStreams();
 
-        if (streams.containsKey(VoxeetPreferences.id())) {
-            onMediaStreamUpdated(VoxeetPreferences.id(), streams);
-        }
+            if (streams.containsKey(VoxeetPreferences.id())) {
+                onMediaStreamUpdated(VoxeetPreferences.id(), streams);
+            }
 
-        if (screenShareStreams.containsKey(VoxeetPreferences.id())) {
-            onScreenShareMediaStreamUpdated(VoxeetPreferences.id(), screenShareStreams);
+            if (screenShareStreams.containsKey(VoxeetPreferences.id())) {
+                onScreenShareMediaStreamUpdated(VoxeetPreferences.id(), screenShareStreams);
+            }
+        } finally {
+            transaction.commit();
         }
     }
 
@@ -236,13 +262,13 @@ public class VoxeetConferenceView extends AbstractVoxeetExpandableView implement
         super.onConferenceCreating();
 
         //expanded and minimized
-        conferenceState.setVisibility(View.VISIBLE);
-        speakerView.setVisibility(View.GONE);
-        selfView.setVisibility(View.GONE);
-        participantView.setVisibility(View.GONE);
-        voxeetTimer.setVisibility(View.GONE);
-        notchView.setVisibility(isExpanded ? View.VISIBLE : View.GONE);
-        Log.d(TAG, "onConferenceCreating: " + View.VISIBLE + " " + conferenceBarView.getVisibility());
+        setViewVisibility(conferenceState, View.VISIBLE);
+        setViewVisibility(speakerView, View.GONE);
+        setViewVisibility(selfView, View.GONE);
+        setViewVisibility(participantView, View.GONE);
+        setViewVisibility(voxeetTimer, View.GONE);
+        setViewVisibility(notchView, isExpanded ? View.VISIBLE : View.GONE);
+        ToolkitLog.d(TAG, "onConferenceCreating: %s", conferenceBarView.getVisibility());
     }
 
     @Override
@@ -251,13 +277,13 @@ public class VoxeetConferenceView extends AbstractVoxeetExpandableView implement
 
         //expanded and minimized
         updateTextState(R.string.voxeet_call);
-        conferenceState.setVisibility(View.VISIBLE);
-        speakerView.setVisibility(View.GONE);
-        selfView.setVisibility(View.GONE);
-        participantView.setVisibility(View.GONE);
-        voxeetTimer.setVisibility(View.GONE);
-        notchView.setVisibility(isExpanded ? View.VISIBLE : View.GONE);
-        Log.d(TAG, "onConferenceCreation: " + View.VISIBLE + " " + conferenceBarView.getVisibility());
+        setViewVisibility(conferenceState, View.VISIBLE);
+        setViewVisibility(speakerView, View.GONE);
+        setViewVisibility(selfView, View.GONE);
+        setViewVisibility(participantView, View.GONE);
+        setViewVisibility(voxeetTimer, View.GONE);
+        setViewVisibility(notchView, isExpanded ? View.VISIBLE : View.GONE);
+        ToolkitLog.d(TAG, "onConferenceCreation: %s", conferenceBarView.getVisibility());
     }
 
     @Override
@@ -266,13 +292,13 @@ public class VoxeetConferenceView extends AbstractVoxeetExpandableView implement
 
         //expanded and minimized
         updateTextState(R.string.voxeet_call);
-        conferenceState.setVisibility(View.VISIBLE);
-        speakerView.setVisibility(View.GONE);
-        selfView.setVisibility(View.GONE);
-        participantView.setVisibility(View.GONE);
-        voxeetTimer.setVisibility(View.GONE);
-        notchView.setVisibility(isExpanded ? View.VISIBLE : View.GONE);
-        Log.d(TAG, "onConferenceJoining: " + View.VISIBLE + " " + conferenceBarView.getVisibility());
+        setViewVisibility(conferenceState, View.VISIBLE);
+        setViewVisibility(speakerView, View.GONE);
+        setViewVisibility(selfView, View.GONE);
+        setViewVisibility(participantView, View.GONE);
+        setViewVisibility(voxeetTimer, View.GONE);
+        setViewVisibility(notchView, isExpanded ? View.VISIBLE : View.GONE);
+        ToolkitLog.d(TAG, "onConferenceJoining: %s", conferenceBarView.getVisibility());
     }
 
     @Override
@@ -280,48 +306,48 @@ public class VoxeetConferenceView extends AbstractVoxeetExpandableView implement
         super.onConferenceJoined(conference_id);
 
         updateTextState(R.string.voxeet_call);
-        conferenceState.setVisibility(View.VISIBLE);
+        setViewVisibility(conferenceState, View.VISIBLE);
         if (isExpanded) {
-            selectedView.setVisibility(View.GONE);
-            speakerView.setVisibility(View.GONE);
-            participantView.setVisibility(View.GONE);
-            voxeetTimer.setVisibility(View.GONE);
-            notchView.setVisibility(View.VISIBLE);
+            setViewVisibility(selectedView, View.GONE);
+            setViewVisibility(speakerView, View.GONE);
+            setViewVisibility(participantView, View.GONE);
+            setViewVisibility(voxeetTimer, View.GONE);
+            setViewVisibility(notchView, View.VISIBLE);
         } else {
-            selectedView.setVisibility(View.GONE);
-            speakerView.setVisibility(View.GONE);
-            participantView.setVisibility(View.GONE);
-            voxeetTimer.setVisibility(View.GONE);
-            notchView.setVisibility(View.GONE);
+            setViewVisibility(selectedView, View.GONE);
+            setViewVisibility(speakerView, View.GONE);
+            setViewVisibility(participantView, View.GONE);
+            setViewVisibility(voxeetTimer, View.GONE);
+            setViewVisibility(notchView, View.GONE);
         }
-        Log.d(TAG, "onConferenceJoined: " + View.VISIBLE + " " + conferenceBarView.getVisibility());
+        ToolkitLog.d(TAG, "onConferenceJoined: %s", conferenceBarView.getVisibility());
     }
 
     @Override
     public void onConferenceFromNoOneToOneUser() {
         super.onConferenceFromNoOneToOneUser();
 
-        conferenceState.setVisibility(View.GONE);
+        setViewVisibility(conferenceState, View.GONE);
         if (isExpanded) {
-            conferenceState.setVisibility(View.GONE);
-            if (selectedView.isAttached()) selectedView.setVisibility(View.VISIBLE);
+            setViewVisibility(conferenceState, View.GONE);
+            if (selectedView.isAttached()) setViewVisibility(selectedView, View.VISIBLE);
             else showSpeakerView();
-            participantView.setVisibility(View.VISIBLE);
-            voxeetTimer.setVisibility(View.GONE);
-            notchView.setVisibility(View.VISIBLE);
+            setViewVisibility(participantView, View.VISIBLE);
+            setViewVisibility(voxeetTimer, View.GONE);
+            setViewVisibility(notchView, View.VISIBLE);
         } else {
-            conferenceState.setVisibility(View.GONE);
-            participantView.setVisibility(View.GONE);
-            voxeetTimer.setVisibility(View.VISIBLE);
-            notchView.setVisibility(View.GONE);
+            setViewVisibility(conferenceState, View.GONE);
+            setViewVisibility(participantView, View.GONE);
+            setViewVisibility(voxeetTimer, View.VISIBLE);
+            setViewVisibility(notchView, View.GONE);
 
-            if (selectedView.isAttached()) selectedView.setVisibility(View.VISIBLE);
+            if (selectedView.isAttached()) setViewVisibility(selectedView, View.VISIBLE);
             else showSpeakerView();
         }
 
         //just in case
         updateSpeakerViewVisibility();
-        Log.d(TAG, "onConferenceFromNoOneToOneUser: " + View.VISIBLE + " " + conferenceBarView.getVisibility());
+        ToolkitLog.d(TAG, "onConferenceFromNoOneToOneUser: %s", conferenceBarView.getVisibility());
     }
 
     @Override
@@ -329,21 +355,21 @@ public class VoxeetConferenceView extends AbstractVoxeetExpandableView implement
         super.onConferenceNoMoreUser();
 
         updateTextState(R.string.voxeet_waiting_for_users);
-        conferenceState.setVisibility(View.VISIBLE);
+        setViewVisibility(conferenceState, View.VISIBLE);
         if (isExpanded) {
-            selectedView.setVisibility(View.GONE);
-            speakerView.setVisibility(View.GONE);
-            participantView.setVisibility(View.GONE);
-            voxeetTimer.setVisibility(View.GONE);
-            notchView.setVisibility(View.VISIBLE);
+            setViewVisibility(selectedView, View.GONE);
+            setViewVisibility(speakerView, View.GONE);
+            setViewVisibility(participantView, View.GONE);
+            setViewVisibility(voxeetTimer, View.GONE);
+            setViewVisibility(notchView, View.VISIBLE);
         } else {
-            selectedView.setVisibility(View.GONE);
-            speakerView.setVisibility(View.GONE);
-            participantView.setVisibility(View.GONE);
-            voxeetTimer.setVisibility(View.GONE);
-            notchView.setVisibility(View.GONE);
+            setViewVisibility(selectedView, View.GONE);
+            setViewVisibility(speakerView, View.GONE);
+            setViewVisibility(participantView, View.GONE);
+            setViewVisibility(voxeetTimer, View.GONE);
+            setViewVisibility(notchView, View.GONE);
         }
-        Log.d(TAG, "onConferenceNoMoreUser: " + View.VISIBLE + " " + conferenceBarView.getVisibility());
+        ToolkitLog.d(TAG, "onConferenceNoMoreUser: %s", conferenceBarView.getVisibility());
     }
 
     @Override
@@ -352,13 +378,13 @@ public class VoxeetConferenceView extends AbstractVoxeetExpandableView implement
 
         //expanded and minimized
         updateTextState(R.string.voxeet_leaving);
-        conferenceState.setVisibility(View.VISIBLE);
+        setViewVisibility(conferenceState, View.VISIBLE);
         showSpeakerView();
-        selfView.setVisibility(View.GONE);
-        participantView.setVisibility(View.GONE);
-        voxeetTimer.setVisibility(View.GONE);
-        notchView.setVisibility(isExpanded ? View.VISIBLE : View.GONE);
-        Log.d(TAG, "onConferenceLeaving: " + View.VISIBLE + " " + conferenceBarView.getVisibility());
+        setViewVisibility(selfView, View.GONE);
+        setViewVisibility(participantView, View.GONE);
+        setViewVisibility(voxeetTimer, View.GONE);
+        setViewVisibility(notchView, isExpanded ? View.VISIBLE : View.GONE);
+        ToolkitLog.d(TAG, "onConferenceLeaving: %s", conferenceBarView.getVisibility());
     }
 
     @Override
@@ -390,103 +416,115 @@ public class VoxeetConferenceView extends AbstractVoxeetExpandableView implement
     @Override
     public void onMediaStreamUpdated(@NonNull String userId,
                                      @NonNull Map<String, MediaStream> mediaStreams) {
-        super.onMediaStreamUpdated(userId, mediaStreams);
-
-        refreshUIVisibility();
+        LayoutTransaction transaction = LayoutTransaction.getInstance();
+        transaction.begin("onMediaStreamUpdated");
+        try {
+            super.onMediaStreamUpdated(userId, mediaStreams);
+
+            refreshUIVisibility();
+
+            boolean show = false;
+            MediaStream mediaStream = mediaStreams.get(userId);
+            if (null != mediaStream) {
+                if (userId.equalsIgnoreCase(VoxeetPreferences.id())) {
+                    if (mediaStream.videoTracks().size() > 0) {
+                        setViewVisibility(selfView, View.VISIBLE);
+                        selfView.attach(userId, mediaStream, true);
+                        show = true;
+                    } else {
+                        setViewVisibility(selfView, View.GONE);
+                        selfView.unAttach();
+                        show = true; //prevent modification from the center view
+                    }
+                } else if (null != selectedView /*&& (null == selectedView.getPeerId() || userId.equalsIgnoreCase(selectedView.getPeerId()))*/) {
+                    if (mediaStream.videoTracks().size() > 0) {
+                        setViewVisibility(selectedView, View.VISIBLE);
+                        selectedView.attach(userId, mediaStream, true);
+                        setViewVisibility(speakerView, View.GONE);
+                        show = true;
+                    } else if (!selectedView.isAttached() || !selectedView.isScreenShare()) {
+                        //if we are not showing any stream or ...
+                        //is not showing a screenshare, we do hide it...
+                        setViewVisibility(selectedView, View.GONE);
+                        selectedView.unAttach();
+                        showSpeakerView();
+                    }
+                }
+            }
 
-        boolean show = false;
-        MediaStream mediaStream = mediaStreams.get(userId);
-        if (null != mediaStream) {
-            if (userId.equalsIgnoreCase(VoxeetPreferences.id())) {
-                if (mediaStream.videoTracks().size() > 0) {
-                    selfView.setVisibility(View.VISIBLE);
-                    selfView.attach(userId, mediaStream, true);
-                    show = true;
-                } else {
-                    selfView.setVisibility(View.GONE);
-                    selfView.unAttach();
-                    show = true; //prevent modification from the center view
+            if (!show) {
+                String selectedUserId = speakerView.getSelectedUserId();
+                if (null != selectedUserId && selectedUserId.equals(userId)) {
+                    show = tryLoadScreenshare(userId);
                 }
-            } else if (null != selectedView /*&& (null == selectedView.getPeerId() || userId.equalsIgnoreCase(selectedView.getPeerId()))*/) {
-                if (mediaStream.videoTracks().size() > 0) {
-                    selectedView.setVisibility(View.VISIBLE);
-                    selectedView.attach(userId, mediaStream, true);
-                    speakerView.setVisibility(View.GONE);
-                    show = true;
-                } else if (!selectedView.isAttached() || !selectedView.isScreenShare()) {
-                    //if we are not showing any stream or ...
-                    //is not showing a screenshare, we do hide it...
-                    selectedView.setVisibility(View.GONE);
-                    selectedView.unAttach();
+
+                if (!show && VoxeetSdk.getInstance().getConferenceService().hasParticipants())
                     showSpeakerView();
-                }
+                //well.. does not modify the view if no users to show
             }
-        }
 
-        if (!show) {
-            String selectedUserId = speakerView.getSelectedUserId();
-            if (null != selectedUserId && selectedUserId.equals(userId)) {
-                show = tryLoadScreenshare(userId);
-            }
+            updateSpeakerViewVisibility();
 
-            if (!show && VoxeetSdk.getInstance().getConferenceService().hasParticipants())
-                showSpeakerView();
-            //well.. does not modify the view if no users to show
+            transaction.runOnCommit(mNotifyParticipants);
+            ToolkitLog.d(TAG, "onMediaStreamUpdated: %s %s", userId, mediaStream);
+        } finally {
+            transaction.commit();
         }
-
-        updateSpeakerViewVisibility();
-
-        participantView.notifyDatasetChanged();
-        Log.d(TAG, "onMediaStreamUpdated: " + userId + " " + mediaStream);
     }
 
     @Override
     public void onScreenShareMediaStreamUpdated(@NonNull String userId, @NonNull Map<String, MediaStream> screen_share_media_streams) {
-        super.onScreenShareMediaStreamUpdated(userId, screen_share_media_streams);
+        LayoutTransaction transaction = LayoutTransaction.getInstance();
+        transaction.begin("onScreenShareMediaStreamUpdated");
+        try {
+            super.onScreenShareMediaStreamUpdated(userId, screen_share_media_streams);
 
-        refreshUIVisibility();
+            refreshUIVisibility();
 
-        boolean show = false;
+            boolean show = false;
 
-        MediaStream mediaStream = screen_share_media_streams.get(userId);
-        Log.d(TAG, "onScreenShareMediaStreamUpdated: " + mediaStream + " " + userId);
+            MediaStream mediaStream = screen_share_media_streams.get(userId);
+            ToolkitLog.d(TAG, "onScreenShareMediaStreamUpdated: %s %s", mediaStream, userId);
 
-        if (null != mediaStream) {
-            Log.d(TAG, "onScreenShareMediaStreamUpdated: tracks ? " + (mediaStream.videoTracks().size() > 0));
-            if (!userId.equalsIgnoreCase(VoxeetPreferences.id())) {
-                if (mediaStream.videoTracks().size() > 0) {
-                    selectedView.setVisibility(View.VISIBLE);
-                    selectedView.attach(userId, mediaStream, true);
+            if (null != mediaStream) {
+                ToolkitLog.d(TAG, "onScreenShareMediaStreamUpdated: tracks ? %s", mediaStream.videoTracks().size() > 0);
+                if (!userId.equalsIgnoreCase(VoxeetPreferences.id())) {
+                    if (mediaStream.videoTracks().size() > 0) {
+                        setViewVisibility(selectedView, View.VISIBLE);
+                        selectedView.attach(userId, mediaStream, true);
 
-                    speakerView.setVisibility(View.GONE);
-                    show = true;
+                        setViewVisibility(speakerView, View.GONE);
+                        show = true;
+                    }
                 }
             }
-        }
 
-        if (!show) {
-            String selectedUserId = speakerView.getSelectedUserId();
-            if (null != selectedUserId && selectedUserId.equals(userId)) {
-                show = tryLoadCamera(userId);
+            if (!show) {
+                String selectedUserId = speakerView.getSelectedUserId();
+                if (null != selectedUserId && selectedUserId.equals(userId)) {
+                    show = tryLoadCamera(userId);
+                }
             }
-        }
 
-        Log.d(TAG, "onScreenShareMediaStreamUpdated: show := " + show);
+            ToolkitLog.d(TAG, "onScreenShareMediaStreamUpdated: show := %s", show);
 
-        HashMap<String, MediaStream> streams = VoxeetSdk.getInstance().getConferenceService().getMapOfStreams();
-        if (!show) {
-            if (null != streams && streams.containsKey(userId) && null != streams.get(userId)) {
-                onMediaStreamUpdated(userId, streams);
-            } else {
-                showSpeakerView();
+            HashMap<String, MediaStream> streams = VoxeetSdk.getInstance().getConferenceService().getMapOfStreams();
+            if (!show) {
+                if (null != streams && streams.containsKey(userId) && null != streams.get(userId)) {
+                    onMediaStreamUpdated(userId, streams);
+                } else {
+                    showSpeakerView();
 
-                selectedView.setVisibility(View.GONE);
-                selectedView.unAttach();
+                    setViewVisibility(selectedView, View.GONE);
+                    selectedView.unAttach();
+                }
             }
-        }
 
-        updateSpeakerViewVisibility();
-        participantView.notifyDatasetChanged();
+            updateSpeakerViewVisibility();
+            transaction.runOnCommit(mNotifyParticipants);
+        } finally {
+            transaction.commit();
+        }
     }
 
     private boolean tryLoadScreenshare(String userId) {
@@ -502,43 +540,43 @@ public class VoxeetConferenceView extends AbstractVoxeetExpandableView implement
     }
 
     private boolean tryLoadStream(HashMap<String, MediaStream> streams, String userId) {
-        Log.d(TAG, "tryLoadStream: loading " + userId);
+        ToolkitLog.d(TAG, "tryLoadStream: loading %s", userId);
         if (streams.containsKey(userId) && null != streams.get(userId)) {
             MediaStream mediaStream = streams.get(userId);
-            Log.d(TAG, "tryLoadStream: userId:=" + userId + " prefs:=" + VoxeetPreferences.id());
+            ToolkitLog.d(TAG, "tryLoadStream: userId:=%s prefs:=%s", userId, VoxeetPreferences.id());
             if (userId.equalsIgnoreCase(VoxeetPreferences.id())) {
                 if (mediaStream.videoTracks().size() > 0) {
-                    selfView.setVisibility(View.VISIBLE);
+                    setViewVisibility(selfView, View.VISIBLE);
                     selfView.attach(userId, mediaStream, true);
                     return true;
                 } else {
-                    selfView.setVisibility(View.GONE);
+                    setViewVisibility(selfView, View.GONE);
                     selfView.unAttach();
                 }
             } else if (null != selectedView/* && (null == selectedView.getPeerId() || userId.equalsIgnoreCase(selectedView.getPeerId()))*/) {
                 //above comments was preventing switch when left
-                Log.d(TAG, "tryLoadStream: screenshare ? " + selectedView.isScreenShare());
+                ToolkitLog.d(TAG, "tryLoadStream: screenshare ? %s", selectedView.isScreenShare());
                 if (mediaStream.videoTracks().size() > 0) {
-                    Log.d(TAG, "tryLoadStream: this user has a video stream");
-                    selectedView.setVisibility(View.VISIBLE);
+                    ToolkitLog.d(TAG, "tryLoadStream: this user has a video stream");
+                    setViewVisibility(selectedView, View.VISIBLE);
                     selectedView.attach(userId, mediaStream, true);
-                    speakerView.setVisibility(View.GONE);
+                    setViewVisibility(speakerView, View.GONE);
 
                     updateSpeakerViewVisibility();
                     return true;
                 } else if (!selectedView.isAttached() || !selectedView.isScreenShare()) {
-                    Log.d(TAG, "tryLoadStream: this user does not have any video stream");
+                    ToolkitLog.d(TAG, "tryLoadStream: this user does not have any video stream");
                     //if we are already showing a stream which is a screenshare, we do not hide it...
-                    selectedView.setVisibility(View.GONE);
+                    setViewVisibility(selectedView, View.GONE);
                     selectedView.unAttach();
                     showSpeakerView();
                 }
             }
         } else {
-            Log.d(TAG, "tryLoadStream: ");
+            ToolkitLog.d(TAG, "tryLoadStream: ");
             showSpeakerView();
 
-            selectedView.setVisibility(View.GONE);
+            setViewVisibility(selectedView, View.GONE);
             selectedView.unAttach();
         }
 
@@ -548,39 +586,45 @@ public class VoxeetConferenceView extends AbstractVoxeetExpandableView implement
 
     @Override
     public void onConferenceUserLeft(@NonNull DefaultConferenceUser conference_user) {
-        super.onConferenceUserLeft(conference_user);
-        Log.d(TAG, "onConferenceUserLeft: user " + conference_user.getUserId() + " left");
+        LayoutTransaction transaction = LayoutTransaction.getInstance();
+        transaction.begin("onConferenceUserLeft");
+        try {
+            super.onConferenceUserLeft(conference_user);
+            ToolkitLog.d(TAG, "onConferenceUserLeft: user %s left", conference_user.getUserId());
 
-        HashMap<String, MediaStream> mediaStreamMap = VoxeetSdk.getInstance().getConferenceService().getMapOfStreams();
-        HashMap<String, MediaStream> mediaScreenStreamMap = VoxeetSdk.getInstance().getConferenceService().getMapOfScreenShareStreams();
+            HashMap<String, MediaStream> mediaStreamMap = VoxeetSdk.getInstance().getConferenceService().getMapOfStreams();
+            HashMap<String, MediaStream> mediaScreenStreamMap = VoxeetSdk.getInstance().getConferenceService().getMapOfScreenShareStreams();
 
-        String userId = conference_user.getUserId();
-        Log.d(TAG, "onConferenceUserLeft: userId:=" + userId + " " + speakerView.getSelectedUserId() + " " + selectedView.getPeerId());
+            String userId = conference_user.getUserId();
+            ToolkitLog.d(TAG, "onConferenceUserLeft: userId:=%s %s %s", userId, speakerView.getSelectedUserId(), selectedView.getPeerId());
 
-        if (null != userId && userId.equals(selectedView.getPeerId())) {
-            if (!checkForReplacingStream(mediaScreenStreamMap, userId)) {
-                boolean fallback_success = checkForReplacingStream(mediaStreamMap, userId);
-                Log.d(TAG, "onConferenceUserLeft: new stream found ? " + fallback_success + " " + userId);
+            if (null != userId && userId.equals(selectedView.getPeerId())) {
+                if (!checkForReplacingStream(mediaScreenStreamMap, userId)) {
+                    boolean fallback_success = checkForReplacingStream(mediaStreamMap, userId);
+                    ToolkitLog.d(TAG, "onConferenceUserLeft: new stream found ? %s %s", fallback_success, userId);
 
-                if (!fallback_success) {
-                    showSpeakerView();
+                    if (!fallback_success) {
+                        showSpeakerView();
 
-                    selectedView.setVisibility(View.GONE);
-                    selectedView.unAttach();
+                        setViewVisibility(selectedView, View.GONE);
+                        selectedView.unAttach();
 
-                    Log.d(TAG, "onConferenceUserLeft: hiding....");
+                        ToolkitLog.d(TAG, "onConferenceUserLeft: hiding....");
+                    }
+                } else {
+                    ToolkitLog.d(TAG, "onConferenceUserLeft: new screenshare found");
                 }
             } else {
-                Log.d(TAG, "onConferenceUserLeft: new screenshare found");
+                ToolkitLog.d(TAG, "onConferenceUserLeft: no need to remove...");
             }
-        } else {
-            Log.d(TAG, "onConferenceUserLeft: no need to remove...");
-        }
 
-        updateSpeakerViewVisibility();
-        participantView.notifyDatasetChanged();
+            updateSpeakerViewVisibility();
+            transaction.runOnCommit(mNotifyParticipants);
 
-        refreshUIVisibility();
+            refreshUIVisibility();
+        } finally {
+            transaction.commit();
+        }
     }
 
     private boolean checkForReplacingStream(HashMap<String, MediaStream> mediaMap, String userId) {
@@ -590,7 +634,7 @@ public class VoxeetConferenceView extends AbstractVoxeetExpandableView implement
             if (null != key && !key.equals(userId)) {
                 MediaStream stream = mediaMap.get(key);
                 if (null != stream && stream.videoTracks().size() > 0) {
-                    Log.d(TAG, "checkForReplacingStream: replacing " + key + " " + userId);
+                    ToolkitLog.d(TAG, "checkForReplacingStream: replacing %s %s", key, userId);
                     tryLoadStream(mediaMap, key);
                     return true;
                 }
@@ -608,7 +652,7 @@ public class VoxeetConferenceView extends AbstractVoxeetExpandableView implement
     @Override
     public void onPreExpandedView() {
         if (selfView.isAttached()) {
-            selfView.setVisibility(View.VISIBLE);
+            setViewVisibility(selfView, View.VISIBLE);
         }
     }
 
@@ -624,16 +668,18 @@ public class VoxeetConferenceView extends AbstractVoxeetExpandableView implement
 
         refreshUIVisibility();
         selectedView.setCornerRadius(0);
+        selectedView.setZoomEnabled(true);
     }
 
     @Override
     public void onPreMinizedView() {
-        selfView.setVisibility(View.GONE);
+        setViewVisibility(selfView, View.GONE);
     }
 
     @Override
     public void onMinizedView() {
         isExpanded = false;
+        selectedView.setZoomEnabled(false);
         layoutTimer.setVisibility(View.VISIBLE);
 
         participantView.notifyDatasetChanged();
@@ -659,8 +705,13 @@ public class VoxeetConferenceView extends AbstractVoxeetExpandableView implement
 
             selectedView = (VideoView) view.findViewById(R.id.selected_video_view);
             selectedView.setAutoUnAttach(true);
+            selectedView.setTilePinned(true);
+            if (null != VoxeetToolkit.getInstance()) {
+                selectedView.setRendererBackend(VoxeetToolkit.getInstance().getStageRendererBackend());
+            }
 
             selfView = (VideoView) view.findViewById(R.id.self_video_view);
+            selfView.setTilePinned(true);
 
             selfView.setOnClickListener(new View.OnClickListener() {
                 @Override
@@ -717,7 +768,7 @@ public class VoxeetConferenceView extends AbstractVoxeetExpandableView implement
             addListener(participantView);
             addListener(voxeetTimer);
 
-            Log.d(TAG, "bindView: ");
+            ToolkitLog.d(TAG, "bindView: ");
 
             updateUi();
         } catch (Exception e) {
@@ -727,39 +778,51 @@ public class VoxeetConferenceView extends AbstractVoxeetExpandableView implement
 
     @Override
     public void onParticipantSelected(DefaultConferenceUser user, MediaStream mediaStream) {
-        if (null != user && null != VoxeetSdk.getInstance().getConferenceService().getUser(user.getUserId())) {
-            speakerView.lockScreen(user.getUserId());
+        LayoutTransaction transaction = LayoutTransaction.getInstance();
+        transaction.begin("onParticipantSelected");
+        try {
+            if (null != user && null != VoxeetSdk.getInstance().getConferenceService().getUser(user.getUserId())) {
+                speakerView.lockScreen(user.getUserId());
 
-            Log.d(TAG, "onParticipantSelected: onParticipantSelected");
-            if (mediaStream != null && (mediaStream.videoTracks().size() > 0 || mediaStream.isScreenShare())) {
-                selectedView.setVisibility(View.VISIBLE);
-                selectedView.setAutoUnAttach(true);
-                selectedView.attach(user.getUserId(), mediaStream, true);
+                ToolkitLog.d(TAG, "onParticipantSelected: onParticipantSelected");
+                if (mediaStream != null && (mediaStream.videoTracks().size() > 0 || mediaStream.isScreenShare())) {
+                    setViewVisibility(selectedView, View.VISIBLE);
+                    selectedView.setAutoUnAttach(true);
+                    selectedView.attach(user.getUserId(), mediaStream, true);
 
-                speakerView.setVisibility(View.GONE);
-                speakerView.onPause();
-            } else {
-                selectedView.setVisibility(View.GONE);
-                selectedView.unAttach();
+                    setViewVisibility(speakerView, View.GONE);
+                    speakerView.onPause();
+                } else {
+                    setViewVisibility(selectedView, View.GONE);
+                    selectedView.unAttach();
 
-                showSpeakerView();
+                    showSpeakerView();
+                }
             }
-        }
 
-        updateSpeakerViewVisibility();
+            updateSpeakerViewVisibility();
+        } finally {
+            transaction.commit();
+        }
     }
 
     @Override
     public void onParticipantUnselected(DefaultConferenceUser user) {
-        if (null != selectedView) {
-            selectedView.setVisibility(View.GONE);
-            selectedView.unAttach();
-        }
+        LayoutTransaction transaction = LayoutTransaction.getInstance();
+        transaction.begin("onParticipantUnselected");
+        try {
+            if (null != selectedView) {
+                setViewVisibility(selectedView, View.GONE);
+                selectedView.unAttach();
+            }
 
-        speakerView.unlockScreen();
-        showSpeakerView();
+            speakerView.unlockScreen();
+            showSpeakerView();
 
-        updateSpeakerViewVisibility();
+            updateSpeakerViewVisibility();
+        } finally {
+            transaction.commit();
+        }
     }
 
     private boolean hasParticipants() {
@@ -808,33 +871,40 @@ public class VoxeetConferenceView extends AbstractVoxeetExpandableView implement
         }
 
 
-        Log.d(TAG, "refreshUIVisibility: " + mState);
-        switch (mState) {
-            case CREATING:
-                onConferenceCreating();
-                break;
-            case CREATED:
-            case JOINING:
-                onConferenceJoining(conferenceId);
-                break;
-            case JOINED:
-                onConferenceJoined(conferenceId);
-                break;
-            case FIRST_PARTICIPANT:
-                onConferenceFromNoOneToOneUser();
-                break;
-            case NO_MORE_PARTICIPANT:
-                onConferenceNoMoreUser();
-                break;
-            case LEAVING:
-                onConferenceLeaving();
-                break;
-            case LEFT:
-                onConferenceLeft();
-                break;
-
-            default:
-                //snif
+        ToolkitLog.d(TAG, "refreshUIVisibility: %s", mState);
+        //the state callbacks change the visibility of many views, a single layout pass
+        LayoutTransaction transaction = LayoutTransaction.getInstance();
+        transaction.begin("refreshUIVisibility");
+        try {
+            switch (mState) {
+                case CREATING:
+                    onConferenceCreating();
+                    break;
+                case CREATED:
+                case JOINING:
+                    onConferenceJoining(conferenceId);
+                    break;
+                case JOINED:
+                    onConferenceJoined(conferenceId);
+                    break;
+                case FIRST_PARTICIPANT:
+                    onConferenceFromNoOneToOneUser();
+                    break;
+                case NO_MORE_PARTICIPANT:
+                    onConferenceNoMoreUser();
+                    break;
+                case LEAVING:
+                    onConferenceLeaving();
+                    break;
+                case LEFT:
+                    onConferenceLeft();
+                    break;
+
+                default:
+                    //snif
+            }
+        } finally {
+            transaction.commit();
         }
     }
 
@@ -871,20 +941,27 @@ public class VoxeetConferenceView extends AbstractVoxeetExpandableView implement
 
         if (null != selectedView && selectedView.isAttached()) {
             speakerView.onPause();
-            speakerView.setVisibility(View.GONE);
+            setViewVisibility(speakerView, View.GONE);
         } else if (VoxeetSdk.getInstance().getConferenceService().getConferenceUsers().size() > 0) {
-            if (null != selectedView) selectedView.setVisibility(View.GONE);
+            if (null != selectedView) setViewVisibility(selectedView, View.GONE);
             showSpeakerView();
         } else {
             speakerView.onPause();
-            speakerView.setVisibility(View.GONE);
-            if (null != selectedView) selectedView.setVisibility(View.GONE);
+            setViewVisibility(speakerView, View.GONE);
+            if (null != selectedView) setViewVisibility(selectedView, View.GONE);
         }
     }
 
+    /**
+     * Change the visibility of a view, once the current event is processed if any
+     */
+    private void setViewVisibility(@Nullable View view, int visibility) {
+        if (null != view) LayoutTransaction.getInstance().setVisibility(view, visibility);
+    }
+
     private void showSpeakerView() {
         if (VoxeetSdk.getInstance().getConferenceService().hasParticipants()) {
-            speakerView.setVisibility(View.VISIBLE);
+            setViewVisibility(speakerView, View.VISIBLE);
             speakerView.onResume();
         } else {
             onConferenceNoMoreUser();
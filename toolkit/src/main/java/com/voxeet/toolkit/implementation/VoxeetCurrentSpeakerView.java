@@ -4,13 +4,9 @@ import android.content.Context;
 import android.content.res.ColorStateList;
 import android.content.res.Configuration;
 import android.content.res.TypedArray;
-import android.os.Handler;
-import android.os.Looper;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
-import android.text.TextUtils;
 import android.util.AttributeSet;
-import android.util.Log;
 import android.view.Gravity;
 import android.view.View;
 import android.widget.FrameLayout;
@@ -19,10 +15,12 @@ import android.widget.TextView;
 
 import com.google.common.base.Predicate;
 import com.google.common.collect.Iterables;
-import com.squareup.picasso.Picasso;
 import com.voxeet.toolkit.R;
+import com.voxeet.toolkit.utils.AvatarCache;
+import com.voxeet.toolkit.utils.FrameTicker;
 import com.voxeet.toolkit.views.internal.VoxeetVuMeter;
 import com.voxeet.toolkit.views.internal.rounded.RoundedImageView;
+import com.voxeet.toolkit.views.video.VideoTileBudgetManager;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -41,8 +39,6 @@ public class VoxeetCurrentSpeakerView extends VoxeetView {
 
     private final int REFRESH_METER = 500;
 
-    private Handler handler = new Handler(Looper.getMainLooper());
-
     private int currentWidth;
 
     private int orientation = 1;
@@ -56,9 +52,9 @@ public class VoxeetCurrentSpeakerView extends VoxeetView {
 
     private boolean selected = false;
 
-    private Runnable updateSpeakerRunnable = new Runnable() {
+    private FrameTicker.Listener updateSpeakerListener = new FrameTicker.Listener() {
         @Override
-        public void run() {
+        public void onTick(long frameTimeMillis) {
             if (selected && currentSpeaker != null && currentSpeaker.getUserId() != null) {
                 //if we had a user but he disappeared...
                 selected = findUserById(currentSpeaker.getUserId()) != null;
@@ -75,20 +71,20 @@ public class VoxeetCurrentSpeakerView extends VoxeetView {
                 }
             }
 
-            if (currentSpeaker != null && currentWidth > 0)
-                loadViaPicasso(currentSpeaker, currentWidth / 2, currentSpeakerView);
+            //rank the tiles of the speaker first when the video budget is reached
+            VideoTileBudgetManager.getInstance(getContext())
+                    .setActiveSpeaker(null != currentSpeaker ? currentSpeaker.getUserId() : null);
 
-            if (mAttached) handler.postDelayed(this, REFRESH_SPEAKER);
+            if (currentSpeaker != null && currentWidth > 0)
+                loadAvatar(currentSpeaker, currentWidth / 2, currentSpeakerView);
         }
     };
 
-    private Runnable updateVuMeterRunnable = new Runnable() {
+    private FrameTicker.Listener updateVuMeterListener = new FrameTicker.Listener() {
         @Override
-        public void run() {
+        public void onTick(long frameTimeMillis) {
             if (currentSpeaker != null && null != VoxeetSdk.getInstance())
                 vuMeter.updateMeter(VoxeetSdk.getInstance().getConferenceService().getPeerVuMeter(currentSpeaker.getUserId()));
-
-            if (mAttached) handler.postDelayed(this, REFRESH_METER);
         }
     };
     private List<DefaultConferenceUser> mConferenceUsers;
@@ -175,8 +171,8 @@ public class VoxeetCurrentSpeakerView extends VoxeetView {
 
         vuMeter.reset();
 
-        handler.removeCallbacks(updateSpeakerRunnable);
-        handler.removeCallbacks(updateVuMeterRunnable);
+        FrameTicker.getInstance().unsubscribe(updateSpeakerListener);
+        FrameTicker.getInstance().unsubscribe(updateVuMeterListener);
     }
 
     @Override
@@ -273,31 +269,14 @@ public class VoxeetCurrentSpeakerView extends VoxeetView {
         }, null);
     }
 
-    private void loadViaPicasso(DefaultConferenceUser conferenceUser, int avatarSize, ImageView imageView) {
-        try {
-            String avatarUrl = null;
-            if (null != conferenceUser && null != conferenceUser.getUserInfo()) {
-                avatarUrl = conferenceUser.getUserInfo().getAvatarUrl();
-            }
-
-            if (!TextUtils.isEmpty(avatarUrl)) {
-                Picasso.get()
-                        .load(conferenceUser.getUserInfo().getAvatarUrl())
-                        .noFade()
-                        .resize(avatarSize, avatarSize)
-                        .placeholder(R.drawable.default_avatar)
-                        .error(R.color.transparent)
-                        .into(imageView);
-            } else {
-                Picasso.get()
-                        .load(R.drawable.default_avatar)
-                        .noFade()
-                        .resize(avatarSize, avatarSize)
-                        .into(imageView);
-            }
-        } catch (Exception e) {
-            Log.e(TAG, "error " + e.getMessage());
+    private void loadAvatar(DefaultConferenceUser conferenceUser, int avatarSize, ImageView imageView) {
+        String avatarUrl = null;
+        if (null != conferenceUser && null != conferenceUser.getUserInfo()) {
+            avatarUrl = conferenceUser.getUserInfo().getAvatarUrl();
         }
+
+        //memory lookup once loaded, called on every speaker refresh
+        AvatarCache.getInstance(getContext()).load(avatarUrl, avatarSize, imageView);
     }
 
     /**
@@ -344,18 +323,13 @@ public class VoxeetCurrentSpeakerView extends VoxeetView {
     public void onResume() {
         super.onResume();
 
-        handler.removeCallbacks(updateSpeakerRunnable);
-        handler.removeCallbacks(updateVuMeterRunnable);
-
-        handler.removeCallbacksAndMessages(updateSpeakerRunnable);
-        handler.removeCallbacksAndMessages(updateVuMeterRunnable);
-
-        handler.post(updateSpeakerRunnable);
-        handler.post(updateVuMeterRunnable);
+        //(re)subscribing triggers a refresh on the next frame
+        FrameTicker.getInstance().subscribe(this, updateSpeakerListener, REFRESH_SPEAKER);
+        FrameTicker.getInstance().subscribe(this, updateVuMeterListener, REFRESH_METER);
     }
 
     public void onPause() {
-        handler.removeCallbacks(null);
-        handler.removeCallbacksAndMessages(null);
+        FrameTicker.getInstance().unsubscribe(updateSpeakerListener);
+        FrameTicker.getInstance().unsubscribe(updateVuMeterListener);
     }
 }
@@ -1,17 +1,17 @@
 package com.voxeet.toolkit.implementation;
 
-import android.animation.AnimatorSet;
-import android.animation.ObjectAnimator;
-import android.animation.ValueAnimator;
 import android.content.Context;
 import android.content.res.ColorStateList;
 import android.content.res.TypedArray;
 import android.graphics.drawable.ColorDrawable;
 import android.util.AttributeSet;
 import android.view.View;
+import android.view.animation.AccelerateDecelerateInterpolator;
+import android.view.animation.Interpolator;
 
 import com.voxeet.toolkit.R;
 
+import com.voxeet.toolkit.utils.FrameTicker;
 import com.voxeet.toolkit.views.internal.rounded.RoundedImageView;
 
 /**
@@ -23,6 +23,31 @@ public class VoxeetLoadingView extends VoxeetView {
 
     private RoundedImageView images[];
 
+    private Interpolator interpolator = new AccelerateDecelerateInterpolator();
+
+    private long startTime = -1;
+
+    /**
+     * Fades every dot in and out, each one delayed by a third of the fade duration
+     */
+    private FrameTicker.Listener fadeListener = new FrameTicker.Listener() {
+        @Override
+        public void onTick(long frameTimeMillis) {
+            if (startTime < 0) startTime = frameTimeMillis;
+
+            for (int i = 0; i < images.length; i++) {
+                long elapsed = frameTimeMillis - startTime - (i * FADE_DURATION) / images.length;
+                if (elapsed < 0) continue;
+
+                //fade in then reverse
+                float fraction = (elapsed % (2 * FADE_DURATION)) / (float) FADE_DURATION;
+                if (fraction > 1) fraction = 2 - fraction;
+
+                images[i].setAlpha(interpolator.getInterpolation(fraction));
+            }
+        }
+    };
+
     public VoxeetLoadingView(Context context) {
         super(context);
     }
@@ -61,31 +86,20 @@ public class VoxeetLoadingView extends VoxeetView {
     }
 
     public void onStop() {
-        for (RoundedImageView imageView : images)
-            if (imageView.getAnimation() != null)
-                imageView.getAnimation().cancel();
+        FrameTicker.getInstance().unsubscribe(fadeListener);
+    }
+
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+
+        FrameTicker.getInstance().unsubscribe(fadeListener);
     }
 
     @Override
     public void init() {
-        ObjectAnimator first = ObjectAnimator.ofFloat(images[0], View.ALPHA, 1);
-        first.setRepeatCount(ValueAnimator.INFINITE);
-        first.setRepeatMode(ValueAnimator.REVERSE);
-
-        ObjectAnimator second = ObjectAnimator.ofFloat(images[1], View.ALPHA, 1);
-        second.setRepeatCount(ValueAnimator.INFINITE);
-        second.setStartDelay(FADE_DURATION / 3);
-        second.setRepeatMode(ValueAnimator.REVERSE);
-
-        ObjectAnimator third = ObjectAnimator.ofFloat(images[2], View.ALPHA, 1);
-        third.setRepeatCount(ValueAnimator.INFINITE);
-        third.setStartDelay((2 * FADE_DURATION) / 3);
-        third.setRepeatMode(ValueAnimator.REVERSE);
-
-        AnimatorSet animatorSet = new AnimatorSet();
-        animatorSet.setDuration(FADE_DURATION);
-        animatorSet.playTogether(first, second, third);
-        animatorSet.start();
+        //only animated while visible, the ticker suspends itself otherwise
+        FrameTicker.getInstance().subscribe(this, fadeListener, FrameTicker.EVERY_FRAME);
     }
 
     @Override
@@ -192,6 +192,7 @@ public class VoxeetParticipantView extends VoxeetView {
                         userId = null; //reset if invalid stream
                 }
 
+                adapter.onStreamsReset();
                 adapter.onMediaStreamUpdated(userId, screenShareMediaStreams);
                 adapter.notifyDataSetChanged();
             }
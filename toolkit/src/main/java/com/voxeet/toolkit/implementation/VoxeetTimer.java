@@ -5,7 +5,6 @@ import android.animation.ValueAnimator;
 import android.content.Context;
 import android.content.res.ColorStateList;
 import android.content.res.TypedArray;
-import android.os.Handler;
 import android.os.SystemClock;
 import android.support.annotation.ColorRes;
 import android.util.AttributeSet;
@@ -15,6 +14,7 @@ import android.widget.TextView;
 
 import com.voxeet.toolkit.R;
 
+import com.voxeet.toolkit.utils.FrameTicker;
 import com.voxeet.toolkit.views.internal.rounded.RoundedImageView;
 import voxeet.com.sdk.core.VoxeetSdk;
 
@@ -23,7 +23,8 @@ import voxeet.com.sdk.core.VoxeetSdk;
  */
 public class VoxeetTimer extends VoxeetView {
 
-    private Handler handler = new Handler();
+    private final static long REFRESH_TIMER = 1000;
+
     private final String TAG = VoxeetTimer.class.getSimpleName();
 
     private final int DEFAULT_MODE = 0;
@@ -49,14 +50,14 @@ public class VoxeetTimer extends VoxeetView {
 
     private int textColor = getResources().getColor(R.color.lightestGrey);
 
-    private Runnable updateTimerThread = new Runnable() {
-        public void run() {
+    private FrameTicker.Listener updateTimerListener = new FrameTicker.Listener() {
+        @Override
+        public void onTick(long frameTimeMillis) {
             long timeInMilliseconds = SystemClock.uptimeMillis() - startTime;
             int secs = (int) (timeInMilliseconds / 1000);
             int mins = secs / 60;
             secs = secs % 60;
             timer.setText(getResources().getString(R.string.format_timer, mins, secs));
-            handler.postDelayed(this, 1000);
         }
     };
 
@@ -218,7 +219,7 @@ public class VoxeetTimer extends VoxeetView {
         if (action == CONFERENCE_MODE) {
             startTime = SystemClock.uptimeMillis();
 
-            handler.post(updateTimerThread);
+            FrameTicker.getInstance().subscribe(this, updateTimerListener, REFRESH_TIMER);
         }
 
         colorAnimation(notInConferenceColor, inConferenceColor);
@@ -254,7 +255,7 @@ public class VoxeetTimer extends VoxeetView {
         if (action == CONFERENCE_MODE) {
             recordingImage.clearAnimation();
 
-            handler.removeCallbacks(updateTimerThread);
+            FrameTicker.getInstance().unsubscribe(updateTimerListener);
         }
     }
 
@@ -262,7 +263,7 @@ public class VoxeetTimer extends VoxeetView {
     public void onConferenceLeft() {
         super.onConferenceLeft();
         if (action == CONFERENCE_MODE)
-            handler.removeCallbacks(updateTimerThread);
+            FrameTicker.getInstance().unsubscribe(updateTimerListener);
 
         colorAnimation(inConferenceColor, notInConferenceColor);
     }
@@ -271,8 +272,7 @@ public class VoxeetTimer extends VoxeetView {
     public void onDestroy() {
         super.onDestroy();
 
-        handler.removeCallbacks(null);
-        handler.removeCallbacksAndMessages(null);
+        FrameTicker.getInstance().unsubscribe(updateTimerListener);
     }
 
     @Override
@@ -306,7 +306,7 @@ public class VoxeetTimer extends VoxeetView {
         if (startTime == -1) {
             startTime = SystemClock.uptimeMillis();
 
-            handler.post(updateTimerThread);
+            FrameTicker.getInstance().subscribe(this, updateTimerListener, REFRESH_TIMER);
         }
     }
 
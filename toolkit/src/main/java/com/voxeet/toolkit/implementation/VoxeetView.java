@@ -8,6 +8,7 @@ import android.view.View;
 import android.widget.FrameLayout;
 
 import com.voxeet.android.media.MediaStream;
+import com.voxeet.toolkit.utils.FrameTicker;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -311,6 +312,14 @@ public abstract class VoxeetView extends FrameLayout
         init();
     }
 
+    @Override
+    protected void onVisibilityChanged(@NonNull View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+
+        //resume the ticker which may have been suspended while this view was hidden
+        if (VISIBLE == visibility) FrameTicker.getInstance().wakeUp();
+    }
+
     protected void addListener(@NonNull VoxeetView voxeetView) {
         if (mListeners.indexOf(voxeetView) < 0) {
             mListeners.add(voxeetView);
@@ -1,19 +1,23 @@
 package com.voxeet.toolkit.implementation.overlays.abs;
 
 import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
 import android.animation.AnimatorSet;
-import android.animation.ValueAnimator;
+import android.animation.ObjectAnimator;
 import android.content.Context;
-import android.content.res.Configuration;
+import android.graphics.Point;
+import android.graphics.Rect;
+import android.support.animation.DynamicAnimation;
+import android.support.animation.SpringAnimation;
+import android.support.animation.SpringForce;
 import android.support.annotation.NonNull;
-import android.util.DisplayMetrics;
-import android.util.Log;
+import android.support.annotation.Nullable;
 import android.view.GestureDetector;
 import android.view.MotionEvent;
+import android.view.VelocityTracker;
 import android.view.View;
 import android.view.ViewGroup;
 import android.view.ViewTreeObserver;
-import android.view.WindowManager;
 import android.view.animation.AccelerateInterpolator;
 
 import com.voxeet.toolkit.R;
@@ -21,7 +25,9 @@ import com.voxeet.toolkit.implementation.overlays.OverlayState;
 import com.voxeet.toolkit.providers.logics.IVoxeetSubViewProvider;
 import com.voxeet.toolkit.utils.CornerHelper;
 import com.voxeet.toolkit.utils.WindowHelper;
+import com.voxeet.toolkit.utils.WindowMetricsTracker;
 import com.voxeet.toolkit.views.internal.rounded.RoundedFrameLayout;
+import com.voxeet.toolkit.utils.ToolkitLog;
 
 import java.util.ArrayList;
 
@@ -54,14 +60,33 @@ public abstract class AbstractVoxeetOverlayView extends AbstractVoxeetExpandable
 
     private GestureDetector gestureDetector;
 
-    private DisplayMetrics dm;
+    //size of the window the overlay is displayed in, updated once per window change
+    private final Point windowSize = new Point();
 
-    private WindowManager windowManager;
+    @Nullable
+    private View trackedContainer;
     private AbstractVoxeetExpandableView mSubView;
     private ViewGroup sub_container;
     private boolean mRemainExpanded;
     private boolean mCanBeMinizedByTouch;
 
+    private SpringAnimation mSpringX;
+    private SpringAnimation mSpringY;
+
+    private Runnable mSendToCorner = new Runnable() {
+        @Override
+        public void run() {
+            snapToCorner(0, 0);
+        }
+    };
+
+    private WindowMetricsTracker.Listener mWindowListener = new WindowMetricsTracker.Listener() {
+        @Override
+        public void onWindowChanged(@NonNull Rect bounds, @NonNull Point size) {
+            reflow(size);
+        }
+    };
+
     /**
      * Instantiates a new Voxeet conference view.
      *
@@ -136,23 +161,43 @@ public abstract class AbstractVoxeetOverlayView extends AbstractVoxeetExpandable
         super.onAttachedToWindow();
 
         WindowHelper.hideKeyboard(this);
+
+        //rotations, split-screen and folds resize the container, the overlay follows it
+        if (getParent() instanceof View) {
+            trackedContainer = (View) getParent();
+            WindowMetricsTracker.getInstance().track(trackedContainer);
+        }
+        WindowMetricsTracker.getInstance().addListener(mWindowListener);
     }
 
     @Override
-    protected void onConfigurationChanged(Configuration newConfig) {
-        super.onConfigurationChanged(newConfig);
-
-        int previousWidth = dm.widthPixels;
-        int previousHeight = dm.heightPixels;
+    protected void onDetachedFromWindow() {
+        WindowMetricsTracker.getInstance().removeListener(mWindowListener);
+        if (null != trackedContainer) {
+            WindowMetricsTracker.getInstance().untrack(trackedContainer);
+            trackedContainer = null;
+        }
 
-        windowManager = (WindowManager) getContext().getSystemService(Context.WINDOW_SERVICE);
-        windowManager.getDefaultDisplay().getMetrics(dm);
+        super.onDetachedFromWindow();
+    }
 
-        if (isExpanded())
-            animationHandler.toLandScape(250, previousWidth, dm.widthPixels, previousHeight, dm.heightPixels);
-        else
-            CornerHelper.sendToCorner(this, windowManager, getContext());
+    /**
+     * Lay the overlay out for the new window, once the window stopped changing
+     *
+     * @param size the new size of the window
+     */
+    private void reflow(@NonNull Point size) {
+        int previousWidth = windowSize.x;
+        int previousHeight = windowSize.y;
+        windowSize.set(size.x, size.y);
 
+        if (isExpanded()) {
+            if (previousWidth != size.x || previousHeight != size.y)
+                animationHandler.toLandScape(size.x, size.y);
+        } else {
+            removeCallbacks(mSendToCorner);
+            post(mSendToCorner);
+        }
     }
 
     /**
@@ -170,10 +215,7 @@ public abstract class AbstractVoxeetOverlayView extends AbstractVoxeetExpandable
     public void init() {
         animationHandler = new AnimationHandler();
 
-        dm = new DisplayMetrics();
-
-        windowManager = (WindowManager) getContext().getSystemService(Context.WINDOW_SERVICE);
-        windowManager.getDefaultDisplay().getMetrics(dm);
+        WindowHelper.getWindowSize(getContext(), windowSize);
 
         gestureDetector = new GestureDetector(getContext(), new SingleTapConfirm());
 
@@ -182,39 +224,116 @@ public abstract class AbstractVoxeetOverlayView extends AbstractVoxeetExpandable
 
             private float dY;
 
+            private VelocityTracker velocityTracker;
+
             @Override
             public boolean onTouch(View v, MotionEvent event) {
                 //if the view can be minized by touch or it is not expanded
                 if ((mCanBeMinizedByTouch || !isExpanded()) && gestureDetector.onTouchEvent(event)) {
+                    recycleVelocityTracker();
                     toggleSize();
                 } else if (!isExpanded()) { // drag n drop only when minimized
-                    switch (event.getAction()) {
+                    switch (event.getActionMasked()) {
                         case MotionEvent.ACTION_DOWN:
+                            //catch the view where it is
+                            cancelSprings();
                             dX = getX() - event.getRawX();
                             dY = getY() - event.getRawY();
+
+                            recycleVelocityTracker();
+                            velocityTracker = VelocityTracker.obtain();
+                            addMovement(event);
                             break;
                         case MotionEvent.ACTION_MOVE:
-                            float x = event.getRawX() + dX;
-                            float y = event.getRawY() + dY;
-                            if (x < 0)
-                                x = 0;
-                            if (y < ScreenHelper.getStatusBarHeight(getContext()))
-                                y = ScreenHelper.getStatusBarHeight(getContext());
-
-                            animate().x(event.getRawX() + dX).y(event.getRawY() + dY)
-                                    .setDuration(0).start();
+                            //direct translation, no layout pass nor animator per event
+                            Rect bounds = CornerHelper.getBounds(getContext());
+                            float x = clamp(event.getRawX() + dX, bounds.left, bounds.right - getWidth());
+                            float y = clamp(event.getRawY() + dY, bounds.top, bounds.bottom - getHeight());
+
+                            setX(x);
+                            setY(y);
+                            addMovement(event);
                             break;
                         case MotionEvent.ACTION_UP:
-                            CornerHelper.sendToCorner(AbstractVoxeetOverlayView.this, windowManager, getContext());
+                            addMovement(event);
+                            float velocityX = 0;
+                            float velocityY = 0;
+                            if (null != velocityTracker) {
+                                velocityTracker.computeCurrentVelocity(1000);
+                                velocityX = velocityTracker.getXVelocity();
+                                velocityY = velocityTracker.getYVelocity();
+                            }
+                            recycleVelocityTracker();
+                            snapToCorner(velocityX, velocityY);
+                            return false;
+                        case MotionEvent.ACTION_CANCEL:
+                            recycleVelocityTracker();
+                            snapToCorner(0, 0);
+                            return false;
                         default:
                             return false;
                     }
                 }
                 return true;
             }
+
+            private void addMovement(@NonNull MotionEvent event) {
+                if (null == velocityTracker) return;
+
+                //the view moves under the finger, track in screen coordinates
+                MotionEvent screenEvent = MotionEvent.obtain(event);
+                screenEvent.setLocation(event.getRawX(), event.getRawY());
+                velocityTracker.addMovement(screenEvent);
+                screenEvent.recycle();
+            }
+
+            private void recycleVelocityTracker() {
+                if (null != velocityTracker) {
+                    velocityTracker.recycle();
+                    velocityTracker = null;
+                }
+            }
         });
     }
 
+    private static float clamp(float value, float min, float max) {
+        if (value > max) value = max;
+        if (value < min) value = min;
+        return value;
+    }
+
+    /**
+     * Send the view to the corner it was thrown to, using springs started with the velocity
+     *
+     * @param velocityX the horizontal velocity in pixels per second
+     * @param velocityY the vertical velocity in pixels per second
+     */
+    private void snapToCorner(float velocityX, float velocityY) {
+        Point corner = CornerHelper.getCornerPosition(this, velocityX, velocityY);
+
+        if (null == mSpringX) mSpringX = createSpring(DynamicAnimation.X);
+        if (null == mSpringY) mSpringY = createSpring(DynamicAnimation.Y);
+
+        mSpringX.setStartVelocity(velocityX);
+        mSpringY.setStartVelocity(velocityY);
+        mSpringX.animateToFinalPosition(corner.x);
+        mSpringY.animateToFinalPosition(corner.y);
+    }
+
+    @NonNull
+    private SpringAnimation createSpring(@NonNull DynamicAnimation.ViewProperty property) {
+        SpringForce force = new SpringForce()
+                .setStiffness(SpringForce.STIFFNESS_LOW * 2)
+                .setDampingRatio(SpringForce.DAMPING_RATIO_LOW_BOUNCY);
+        return new SpringAnimation(this, property).setSpring(force);
+    }
+
+    private void cancelSprings() {
+        removeCallbacks(mSendToCorner);
+        if (null != mSpringX) mSpringX.cancel();
+        if (null != mSpringY) mSpringY.cancel();
+    }
+
     /**
      * Toggles view's size to full screen or default size.
      */
@@ -274,13 +393,13 @@ public abstract class AbstractVoxeetOverlayView extends AbstractVoxeetExpandable
         action_button.setVisibility(View.VISIBLE);
         ViewGroup view = (ViewGroup) getParent();
         if (view != null)
-            animationHandler.expand(1000, view.getWidth(), view.getHeight());
+            animationHandler.expand(view.getWidth(), view.getHeight());
     }
 
     protected void minizeView() {
         if (!mRemainExpanded) {
             action_button.setVisibility(View.GONE);
-            animationHandler.collapse(1000, defaultWidth, defaultHeight);
+            animationHandler.collapse(defaultWidth, defaultHeight);
         }
     }
 
@@ -368,97 +487,167 @@ public abstract class AbstractVoxeetOverlayView extends AbstractVoxeetExpandable
         private final long animatonDuration = 200;
 
         /**
-         * Animation when orientation changed to landscape.
-         *
-         * @param duration       the duration
-         * @param previousWidth  the previous width
-         * @param targetWidth    the target width
-         * @param previousHeight the previous height
-         * @param targetHeight   the target height
+         * Incremented on every transition, to ignore the end of the replaced ones
          */
-        void toLandScape(int duration, final int previousWidth, final int targetWidth, final int previousHeight, final int targetHeight) {
-            cancelAnimations();
-
-            animate().x(0).y(0).setDuration(0).start();
-
-            ValueAnimator height = ValueAnimator.ofInt(previousHeight, targetHeight);
-            height.setDuration(duration);
-            height.addUpdateListener(HEIGHT_LISTENER);
-
-            ValueAnimator width = ValueAnimator.ofInt(previousWidth, targetWidth);
-            width.setDuration(duration);
-            width.addUpdateListener(WIDTH_LISTENER);
+        private int transition = 0;
 
-            AnimatorSet animatorSet = new AnimatorSet();
-            animatorSet.addListener(ANIMATOR_LISTENER);
-            animatorSet.setDuration(animatonDuration);
-            animatorSet.setInterpolator(new AccelerateInterpolator());
-            animatorSet.playTogether(width, height);
-            appendAndStart(animatorSet);
+        /**
+         * Animation when orientation changed to landscape, every transition lasts animatonDuration
+         *
+         * @param targetWidth  the target width
+         * @param targetHeight the target height
+         */
+        void toLandScape(final int targetWidth, final int targetHeight) {
+            animateTo(0, 0, targetWidth, targetHeight);
         }
 
         /**
          * Expand animation.
          *
-         * @param duration     the duration
          * @param targetWidth  the target width
          * @param targetHeight the target height
          */
-        void expand(int duration, final int targetWidth, final int targetHeight) {
-            cancelAnimations();
-
-            animate().x(0).y(0).setDuration(300).start();
-
-            ValueAnimator height = ValueAnimator.ofInt(getHeight(), targetHeight);
-            height.setDuration(duration);
-            height.addUpdateListener(HEIGHT_LISTENER);
-
-            ValueAnimator width = ValueAnimator.ofInt(getWidth(), targetWidth);
-            width.setDuration(duration);
-            width.addUpdateListener(WIDTH_LISTENER);
-
-            AnimatorSet animatorSet = new AnimatorSet();
-            animatorSet.addListener(ANIMATOR_LISTENER);
-            animatorSet.setDuration(animatonDuration);
-            animatorSet.setInterpolator(new AccelerateInterpolator());
-            animatorSet.playTogether(width, height);
-            appendAndStart(animatorSet);
+        void expand(final int targetWidth, final int targetHeight) {
+            animateTo(0, 0, targetWidth, targetHeight);
         }
 
         /**
          * Collapse the view to default size.
          *
-         * @param duration     the duration
          * @param targetWidth  the target width
          * @param targetHeight the target height
          */
-        void collapse(int duration, final int targetWidth, final int targetHeight) {
-            cancelAnimations();
+        void collapse(final int targetWidth, final int targetHeight) {
+            float x = getX();
+            float y = getY();
 
             if (isOverlay()) {
-                animate().x(dm.widthPixels - defaultWidth).y(ScreenHelper.actionBar(getContext()) + ScreenHelper.getStatusBarHeight(getContext())).setDuration(300).start();
+                x = windowSize.x - defaultWidth;
+                y = ScreenHelper.actionBar(getContext()) + CornerHelper.getBounds(getContext()).top;
             } else if (getParent() != null) {
                 ViewGroup view = (ViewGroup) getParent();
-                animate().x(dm.widthPixels - defaultWidth - view.getPaddingRight()).y(view.getPaddingTop()).setDuration(200).start();
+                x = windowSize.x - defaultWidth - view.getPaddingRight();
+                y = view.getPaddingTop();
             }
 
-            ValueAnimator height = ValueAnimator.ofInt(getHeight(), targetHeight);
-            height.setDuration(duration);
-            height.addUpdateListener(HEIGHT_LISTENER);
+            animateTo(x, y, targetWidth, targetHeight);
+        }
 
-            ValueAnimator width = ValueAnimator.ofInt(getWidth(), targetWidth);
-            width.setDuration(duration);
-            width.addUpdateListener(WIDTH_LISTENER);
+        /**
+         * Move and scale the view to the target bounds, on a hardware layer
+         * <p>
+         * The view is scaled uniformly to fit the target bounds, centered in them, so that its
+         * content is not stretched when the aspect ratio changes. The layout, and so the size of
+         * the children and of their video surfaces, is only changed once the animation is done.
+         * A transition replacing this one starts from the current transformation
+         */
+        private void animateTo(final float targetX, final float targetY, final int targetWidth, final int targetHeight) {
+            cancelAnimations();
+
+            final int current = ++transition;
+
+            int width = getLayoutWidth();
+            int height = getLayoutHeight();
+            float scale = 1;
+            if (width > 0 && height > 0) {
+                scale = Math.min(targetWidth / (float) width, targetHeight / (float) height);
+            }
+            //the scaled view is centered in the target bounds until the layout is applied
+            float x = width > 0 ? targetX + (targetWidth - width * scale) / 2 : targetX;
+            float y = height > 0 ? targetY + (targetHeight - height * scale) / 2 : targetY;
+
+            setPivotX(0);
+            setPivotY(0);
 
             AnimatorSet animatorSet = new AnimatorSet();
-            animatorSet.addListener(ANIMATOR_LISTENER);
+            animatorSet.addListener(new AnimatorListenerAdapter() {
+                private boolean cancelled = false;
+
+                @Override
+                public void onAnimationStart(Animator animator) {
+                    setLayerType(LAYER_TYPE_HARDWARE, null);
+                }
+
+                @Override
+                public void onAnimationCancel(Animator animator) {
+                    cancelled = true;
+                }
+
+                @Override
+                public void onAnimationEnd(Animator animator) {
+                    if (!cancelled) applyLayout(current, targetX, targetY, targetWidth, targetHeight);
+                }
+            });
             animatorSet.setDuration(animatonDuration);
             animatorSet.setInterpolator(new AccelerateInterpolator());
-            animatorSet.playTogether(width, height);
-
+            animatorSet.playTogether(
+                    ObjectAnimator.ofFloat(AbstractVoxeetOverlayView.this, View.X, x),
+                    ObjectAnimator.ofFloat(AbstractVoxeetOverlayView.this, View.Y, y),
+                    ObjectAnimator.ofFloat(AbstractVoxeetOverlayView.this, View.SCALE_X, scale),
+                    ObjectAnimator.ofFloat(AbstractVoxeetOverlayView.this, View.SCALE_Y, scale));
             appendAndStart(animatorSet);
         }
 
+        /**
+         * Apply the size reached by the animation in one layout pass, then remove the
+         * transformation right before the first frame drawn with the new layout
+         */
+        private void applyLayout(final int current, final float targetX, final float targetY, int targetWidth, int targetHeight) {
+            ViewGroup.LayoutParams params = getLayoutParams();
+            if (null != params) {
+                params.width = targetWidth;
+                params.height = targetHeight;
+            }
+            if (null != container && null != container.getLayoutParams()) {
+                container.getLayoutParams().width = targetWidth;
+                container.getLayoutParams().height = targetHeight;
+            }
+
+            if (null == params) {
+                onLayoutApplied(current, targetX, targetY);
+                return;
+            }
+
+            requestLayout();
+            getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+                @Override
+                public boolean onPreDraw() {
+                    getViewTreeObserver().removeOnPreDrawListener(this);
+                    onLayoutApplied(current, targetX, targetY);
+                    return true;
+                }
+            });
+        }
+
+        private void onLayoutApplied(int current, float targetX, float targetY) {
+            //an other transition started meanwhile, it now owns the transformation
+            if (current != transition) return;
+
+            setScaleX(1);
+            setScaleY(1);
+            setX(targetX);
+            setY(targetY);
+            setLayerType(LAYER_TYPE_NONE, null);
+
+            onViewToggled();
+
+            if (!isExpanded()) {
+                snapToCorner(0, 0);
+            }
+        }
+    }
+
+    /**
+     * Size the view will have once the pending layout is done
+     */
+    private int getLayoutWidth() {
+        ViewGroup.LayoutParams params = getLayoutParams();
+        return null != params && params.width > 0 ? params.width : getWidth();
+    }
+
+    private int getLayoutHeight() {
+        ViewGroup.LayoutParams params = getLayoutParams();
+        return null != params && params.height > 0 ? params.height : getHeight();
     }
 
     protected IExpandableViewProviderListener getExpandableViewProviderListener() {
@@ -482,73 +671,12 @@ public abstract class AbstractVoxeetOverlayView extends AbstractVoxeetExpandable
 
         boolean expanded = getWidth() > metrics.widthPixels * 0.8 || getHeight() > metrics.heightPixels * 0.8;
 
-        Log.d(TAG, "isExpanded: " + expanded + " " + getWidth() + " " + metrics.widthPixels + " " + getHeight() + " " + metrics.heightPixels);
+        ToolkitLog.d(TAG, "isExpanded: %s %sx%s in %s", expanded, getWidth(), getHeight(), metrics);
         return expanded;*/
 
         return OverlayState.EXPANDED.equals(overlayState);
     }
 
-    private ValueAnimator.AnimatorUpdateListener HEIGHT_LISTENER = new ValueAnimator.AnimatorUpdateListener() {
-        @Override
-        public void onAnimationUpdate(ValueAnimator animation) {
-            ViewGroup.LayoutParams params = getLayoutParams();
-            if (null != params) {
-                int value = (int) animation.getAnimatedValue();
-                params.height = value;
-                if (null != container && null != container.getLayoutParams()) {
-                    container.getLayoutParams().height = value;
-                }
-
-                requestLayout();
-                Log.d(TAG, "onAnimationUpdate: height " + value);
-            }
-        }
-    };
-
-    private ValueAnimator.AnimatorUpdateListener WIDTH_LISTENER = new ValueAnimator.AnimatorUpdateListener() {
-        @Override
-        public void onAnimationUpdate(ValueAnimator animation) {
-            int value = (int) animation.getAnimatedValue();
-            ViewGroup.LayoutParams params = getLayoutParams();
-            if (null != params) {
-                params.width = value;
-                if (null != container && null != container.getLayoutParams()) {
-                    container.getLayoutParams().width = value;
-                }
-
-                requestLayout();
-                Log.d(TAG, "onAnimationUpdate: width " + value);
-            }
-        }
-    };
-
-    private Animator.AnimatorListener ANIMATOR_LISTENER = new Animator.AnimatorListener() {
-        @Override
-        public void onAnimationStart(Animator animator) {
-        }
-
-        @Override
-        public void onAnimationEnd(Animator animator) {
-            onViewToggled();
-
-            if (!isExpanded()) {
-                CornerHelper.sendToCorner(AbstractVoxeetOverlayView.this, windowManager, getContext());
-            } else {
-                animate().x(0).y(0).setDuration(0).start();
-            }
-        }
-
-        @Override
-        public void onAnimationCancel(Animator animator) {
-
-        }
-
-        @Override
-        public void onAnimationRepeat(Animator animator) {
-
-        }
-    };
-
     /**
      * Cancel any animations which could have been put in motion
      * <p>
@@ -558,6 +686,8 @@ public abstract class AbstractVoxeetOverlayView extends AbstractVoxeetExpandable
      * note that it is not done to deal with non-ui thread calls
      */
     private void cancelAnimations() {
+        cancelSprings();
+
         try {
             for (AnimatorSet animator : mCurrentAnimations) {
                 if (animator.isStarted() && animator.isRunning()) {
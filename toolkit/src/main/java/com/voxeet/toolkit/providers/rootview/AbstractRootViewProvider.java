@@ -5,10 +5,10 @@ import android.app.Application;
 import android.os.Bundle;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
-import android.util.Log;
 import android.view.ViewGroup;
 
 import com.voxeet.toolkit.controllers.VoxeetToolkit;
+import com.voxeet.toolkit.utils.ToolkitLog;
 
 /**
  * Abstract class which can manage the state of its parent activity
@@ -54,7 +54,7 @@ public abstract class AbstractRootViewProvider implements Application.ActivityLi
     }
 
     public void registerLifecycleListener(Application.ActivityLifecycleCallbacks listener) {
-        Log.d(TAG, "registerLifecycleListener: " + listener);
+        ToolkitLog.d(TAG, "registerLifecycleListener: %s", listener);
         mListener = listener;
     }
 
@@ -66,7 +66,7 @@ public abstract class AbstractRootViewProvider implements Application.ActivityLi
      * Can be null if current activity is finishing or event the mApp.
      */
     public void setCurrentActivity(Activity activity) {
-        Log.d(TAG, "setCurrentActivity: " + getClass() + " " + activity.getClass().getSimpleName());
+        ToolkitLog.d(TAG, "setCurrentActivity: %s %s", getClass(), activity);
         mCurrentActivity = activity;
     }
 
@@ -78,7 +78,7 @@ public abstract class AbstractRootViewProvider implements Application.ActivityLi
      */
     @Nullable
     public Activity getCurrentActivity() {
-        Log.d(TAG, "getCurrentActivity: " + getClass() + " " + mCurrentActivity);
+        ToolkitLog.d(TAG, "getCurrentActivity: %s %s", getClass(), mCurrentActivity);
         return mCurrentActivity;
     }
 
@@ -93,7 +93,7 @@ public abstract class AbstractRootViewProvider implements Application.ActivityLi
 
     @Override
     public void onActivityResumed(@NonNull Activity activity) {
-        Log.d(TAG, "onActivityResumed: " + activity.getClass().getSimpleName());
+        ToolkitLog.d(TAG, "onActivityResumed: %s", activity);
         mIsActivityResumed = true;
         setCurrentActivity(activity);
 
@@ -104,7 +104,7 @@ public abstract class AbstractRootViewProvider implements Application.ActivityLi
 
     @Override
     public void onActivityPaused(@NonNull Activity activity) {
-        Log.d(TAG, "onActivityPaused: " + activity.getClass().getSimpleName());
+        ToolkitLog.d(TAG, "onActivityPaused: %s", activity);
         mIsActivityResumed = false;
 
         if (mListener != null) {
@@ -114,19 +114,22 @@ public abstract class AbstractRootViewProvider implements Application.ActivityLi
 
     @Override
     public void onActivityCreated(Activity activity, Bundle bundle) {
-        Log.d(TAG, "onActivityCreated: " + activity.getClass().getSimpleName());
+        ToolkitLog.d(TAG, "onActivityCreated: %s", activity);
     }
 
     @Override
     public void onActivityStarted(Activity activity) {
-        Log.d(TAG, "onActivityStarted: " + activity.getClass().getSimpleName());
+        ToolkitLog.d(TAG, "onActivityStarted: %s", activity);
 
     }
 
     @Override
     public void onActivityStopped(Activity activity) {
-        Log.d(TAG, "onActivityStopped: " + activity.getClass().getSimpleName());
+        ToolkitLog.d(TAG, "onActivityStopped: %s", activity);
 
+        if (mListener != null) {
+            mListener.onActivityStopped(activity);
+        }
     }
 
     @Override
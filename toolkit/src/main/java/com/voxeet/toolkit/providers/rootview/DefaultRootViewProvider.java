@@ -4,10 +4,10 @@ import android.app.Activity;
 import android.app.Application;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
-import android.util.Log;
 import android.view.ViewGroup;
 
 import com.voxeet.toolkit.controllers.VoxeetToolkit;
+import com.voxeet.toolkit.utils.ToolkitLog;
 
 /**
  * Created by kevinleperf on 12/03/2018.
@@ -29,7 +29,7 @@ public class DefaultRootViewProvider extends AbstractRootViewProvider {
     @Override
     public ViewGroup getRootView() {
         Activity activity = getCurrentActivity();
-        Log.d(TAG, "getDefaultRootView: " + activity);
+        ToolkitLog.d(TAG, "getDefaultRootView: %s", activity);
         if (null != activity) {
             return (ViewGroup) activity.getWindow().getDecorView().getRootView();
         } else {
@@ -0,0 +1,61 @@
+package com.voxeet.toolkit.utils;
+
+import android.app.Activity;
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.content.MutableContextWrapper;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.view.LayoutInflater;
+
+/**
+ * Context of the views moved from one activity to an other, e.g. the persistent overlay
+ * <p>
+ * The views inflated with it keep this wrapper instead of the activity. Switching its base to the
+ * activity the views are moved to lets the previous one be destroyed and collected
+ */
+public class ActivityContextWrapper extends MutableContextWrapper {
+
+    @Nullable
+    private LayoutInflater mInflater;
+
+    public ActivityContextWrapper(@NonNull Activity activity) {
+        super(activity);
+    }
+
+    @Override
+    public void setBaseContext(Context base) {
+        if (base == getBaseContext()) return;
+
+        super.setBaseContext(base);
+        //the factories of the previous inflater belong to the previous activity
+        mInflater = null;
+    }
+
+    @Override
+    public Object getSystemService(String name) {
+        //inflate the views in this context, not in the one of the base activity
+        if (LAYOUT_INFLATER_SERVICE.equals(name)) {
+            if (null == mInflater) {
+                mInflater = LayoutInflater.from(getBaseContext()).cloneInContext(this);
+            }
+            return mInflater;
+        }
+        return super.getSystemService(name);
+    }
+
+    /**
+     * Find the activity behind a context
+     *
+     * @param context a context, possibly wrapped
+     * @return the activity or null if the context does not belong to one
+     */
+    @Nullable
+    public static Activity getActivity(@Nullable Context context) {
+        while (context instanceof ContextWrapper) {
+            if (context instanceof Activity) return (Activity) context;
+            context = ((ContextWrapper) context).getBaseContext();
+        }
+        return null;
+    }
+}
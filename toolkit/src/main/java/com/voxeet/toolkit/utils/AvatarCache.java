@@ -0,0 +1,433 @@
+package com.voxeet.toolkit.utils;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapShader;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.graphics.Shader;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.text.TextUtils;
+import android.util.LruCache;
+import android.widget.ImageView;
+
+import com.squareup.picasso.MemoryPolicy;
+import com.squareup.picasso.Picasso;
+import com.squareup.picasso.RequestCreator;
+import com.voxeet.toolkit.R;
+import com.voxeet.toolkit.views.internal.rounded.RoundedImageView;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Cache of the avatars displayed by the toolkit
+ * <p>
+ * Avatars are stored already resized and rounded, keyed by url, size and shape :
+ * - in memory, using a LRU bounded to a fraction of the heap
+ * - on disk, in the application cache directory
+ * <p>
+ * Concurrent requests for the same key are coalesced into a single load. Once an avatar has been
+ * loaded, binding it again to the view displaying it does nothing. A failed load is not tried
+ * again before a backoff, the default avatar is displayed meanwhile.
+ * <p>
+ * Must be called from the main thread
+ */
+public class AvatarCache {
+
+    private final static String TAG = AvatarCache.class.getSimpleName();
+
+    private final static String DISK_DIRECTORY = "voxeet_avatars";
+    private final static long DISK_MAX_SIZE = 10 * 1024 * 1024;
+    private final static int MEMORY_FRACTION = 16;
+    private final static int THREADS = 2;
+    private final static long FAILURE_BACKOFF = 5 * 1000;
+    private final static long MAX_FAILURE_BACKOFF = 5 * 60 * 1000;
+
+    private static AvatarCache sInstance;
+
+    @NonNull
+    private final LruCache<String, Bitmap> mMemory;
+
+    @NonNull
+    private final File mDiskDirectory;
+
+    @NonNull
+    private final ExecutorService mExecutor = Executors.newFixedThreadPool(THREADS);
+
+    @NonNull
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * Keys being loaded, used to coalesce the requests
+     */
+    @NonNull
+    private final Set<String> mPending = new HashSet<>();
+
+    /**
+     * Keys whose load failed, with the time they can be loaded again
+     */
+    @NonNull
+    private final Map<String, Failure> mFailures = new HashMap<>();
+
+    /**
+     * Last avatar requested for each view, weak to not leak recycled views
+     */
+    @NonNull
+    private final Map<ImageView, Target> mTargets = new WeakHashMap<>();
+
+    private static class Failure {
+        private int count;
+        private long retryAt;
+    }
+
+    /**
+     * An avatar requested by a view, its key is only built when the avatar changes
+     */
+    private static class Target {
+        @Nullable
+        private final String url;
+        private final int size;
+        private final boolean oval;
+        private final float radius;
+        @NonNull
+        private final String key;
+
+        //the drawable set by this cache, the avatar if loaded or else the default one
+        @Nullable
+        private Drawable drawable;
+        private boolean loaded;
+
+        private Target(@Nullable String url, int size, boolean oval, float radius) {
+            this.url = url;
+            this.size = size;
+            this.oval = oval;
+            this.radius = radius;
+            key = createKey(url, size, oval, radius);
+        }
+
+        private boolean matches(@Nullable String url, int size, boolean oval, float radius) {
+            return this.size == size && this.oval == oval && this.radius == radius
+                    && TextUtils.equals(this.url, url);
+        }
+    }
+
+    public static synchronized AvatarCache getInstance(@NonNull Context context) {
+        if (null == sInstance) sInstance = new AvatarCache(context.getApplicationContext());
+        return sInstance;
+    }
+
+    private AvatarCache(@NonNull Context context) {
+        int max = (int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / MEMORY_FRACTION);
+        mMemory = new LruCache<String, Bitmap>(max) {
+            @Override
+            protected int sizeOf(String key, Bitmap value) {
+                return value.getRowBytes() * value.getHeight();
+            }
+        };
+
+        mDiskDirectory = new File(context.getCacheDir(), DISK_DIRECTORY);
+    }
+
+    /**
+     * Display an avatar into the given view
+     * <p>
+     * The shape is read from the view : oval or rounded corners for a RoundedImageView, square otherwise
+     *
+     * @param url  the avatar url, the default avatar is used if empty
+     * @param size the size in pixels of the avatar
+     * @param view the view to display the avatar into
+     */
+    public void load(@Nullable String url, int size, @NonNull ImageView view) {
+        boolean oval = false;
+        float radius = 0;
+        if (view instanceof RoundedImageView) {
+            oval = ((RoundedImageView) view).isOval();
+            radius = ((RoundedImageView) view).getCornerRadius();
+        }
+
+        Target target = mTargets.get(view);
+        if (null == target || !target.matches(url, size, oval, radius)) {
+            target = new Target(url, size, oval, radius);
+            mTargets.put(view, target);
+        }
+        String key = target.key;
+
+        boolean displayed = null != target.drawable && view.getDrawable() == target.drawable;
+        //already displayed, or the default avatar is displayed until the load ends or can be retried
+        if (displayed && (target.loaded || mPending.contains(key) || isFailing(key))) return;
+
+        Bitmap bitmap = mMemory.get(key);
+        if (null != bitmap) {
+            display(view, target, bitmap);
+            return;
+        }
+
+        //display the default avatar while loading
+        if (!displayed) {
+            Bitmap placeholder = mMemory.get(createKey(null, size, oval, radius));
+            if (null != placeholder) {
+                display(view, placeholder);
+            } else {
+                view.setImageResource(R.drawable.default_avatar);
+            }
+            target.drawable = view.getDrawable();
+            target.loaded = false;
+        }
+
+        if (!isFailing(key)) request(key, url, size, oval, radius);
+    }
+
+    /**
+     * Load an avatar in background, without any view to display it into
+     * <p>
+     * Used to warm the cache before the views bind. The parameters must match the ones the
+     * views will use, otherwise the key will differ
+     *
+     * @param url    the avatar url, the default avatar is used if empty
+     * @param size   the size in pixels of the avatar
+     * @param oval   true if the avatar will be displayed as an oval
+     * @param radius the corner radius, if not oval
+     */
+    public void prefetch(@Nullable String url, int size, boolean oval, float radius) {
+        String key = createKey(url, size, oval, radius);
+
+        if (null == mMemory.get(key) && !isFailing(key)) {
+            request(key, url, size, oval, radius);
+        }
+    }
+
+    /**
+     * Remove every avatar kept in memory
+     * <p>
+     * To be called when the application is asked to trim its memory
+     */
+    public void clearMemory() {
+        mMemory.evictAll();
+    }
+
+    private void request(@NonNull final String key, @Nullable final String url, final int size,
+                         final boolean oval, final float radius) {
+        if (mPending.contains(key)) return;
+        mPending.add(key);
+
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                Bitmap bitmap = readFromDisk(key);
+
+                if (null == bitmap) {
+                    bitmap = fetch(url, size, oval, radius);
+                    if (null != bitmap) writeToDisk(key, bitmap);
+                }
+
+                final Bitmap result = bitmap;
+                mHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        onLoaded(key, result);
+                    }
+                });
+            }
+        });
+    }
+
+    private void onLoaded(@NonNull String key, @Nullable Bitmap bitmap) {
+        mPending.remove(key);
+
+        if (null == bitmap) {
+            onFailed(key);
+            return;
+        }
+        mFailures.remove(key);
+        mMemory.put(key, bitmap);
+
+        //dispatch to every view still waiting for this key
+        for (Map.Entry<ImageView, Target> entry : mTargets.entrySet()) {
+            ImageView view = entry.getKey();
+            if (null != view && key.equals(entry.getValue().key)) {
+                display(view, entry.getValue(), bitmap);
+            }
+        }
+    }
+
+    private void onFailed(@NonNull String key) {
+        Failure failure = mFailures.get(key);
+        if (null == failure) {
+            failure = new Failure();
+            mFailures.put(key, failure);
+        }
+
+        long backoff = Math.min(MAX_FAILURE_BACKOFF, FAILURE_BACKOFF << Math.min(failure.count, 16));
+        failure.count++;
+        failure.retryAt = SystemClock.uptimeMillis() + backoff;
+        ToolkitLog.d(TAG, "onFailed: %s, retry in %sms", key, backoff);
+    }
+
+    private boolean isFailing(@NonNull String key) {
+        Failure failure = mFailures.get(key);
+        return null != failure && SystemClock.uptimeMillis() < failure.retryAt;
+    }
+
+    private void display(@NonNull ImageView view, @NonNull Target target, @NonNull Bitmap bitmap) {
+        display(view, bitmap);
+        target.drawable = view.getDrawable();
+        target.loaded = true;
+    }
+
+    private void display(@NonNull ImageView view, @NonNull Bitmap bitmap) {
+        //nothing to do if this avatar is already displayed
+        Drawable current = view.getDrawable();
+        if (current instanceof BitmapDrawable && ((BitmapDrawable) current).getBitmap() == bitmap) {
+            return;
+        }
+
+        if (view instanceof RoundedImageView) {
+            ((RoundedImageView) view).setRoundedBitmap(bitmap);
+        } else {
+            view.setImageBitmap(bitmap);
+        }
+    }
+
+    @Nullable
+    private Bitmap fetch(@Nullable String url, int size, boolean oval, float radius) {
+        try {
+            RequestCreator creator;
+            if (TextUtils.isEmpty(url)) {
+                creator = Picasso.get().load(R.drawable.default_avatar);
+            } else {
+                creator = Picasso.get().load(url);
+            }
+
+            if (size > 0) creator.resize(size, size).centerCrop();
+
+            //the rounded result is cached here, no need for picasso to keep the source in memory
+            Bitmap source = creator.memoryPolicy(MemoryPolicy.NO_CACHE, MemoryPolicy.NO_STORE)
+                    .get();
+
+            if (null == source) return null;
+            if (!oval && radius <= 0) return source;
+
+            return round(source, oval, radius);
+        } catch (Exception e) {
+            ToolkitLog.e(TAG, "fetch: error %s", e.getMessage());
+            return null;
+        }
+    }
+
+    @NonNull
+    private Bitmap round(@NonNull Bitmap source, boolean oval, float radius) {
+        Bitmap output = Bitmap.createBitmap(source.getWidth(), source.getHeight(), Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(output);
+
+        Paint paint = new Paint();
+        paint.setAntiAlias(true);
+        paint.setShader(new BitmapShader(source, Shader.TileMode.CLAMP, Shader.TileMode.CLAMP));
+
+        RectF rect = new RectF(0, 0, source.getWidth(), source.getHeight());
+        if (oval) {
+            canvas.drawOval(rect, paint);
+        } else {
+            canvas.drawRoundRect(rect, radius, radius, paint);
+        }
+        return output;
+    }
+
+    @Nullable
+    private Bitmap readFromDisk(@NonNull String key) {
+        File file = getDiskFile(key);
+        if (!file.exists()) return null;
+
+        Bitmap bitmap = BitmapFactory.decodeFile(file.getAbsolutePath());
+        //keep the file as recently used
+        if (null != bitmap) file.setLastModified(System.currentTimeMillis());
+        return bitmap;
+    }
+
+    private void writeToDisk(@NonNull String key, @NonNull Bitmap bitmap) {
+        if (!mDiskDirectory.exists() && !mDiskDirectory.mkdirs()) return;
+
+        FileOutputStream stream = null;
+        try {
+            stream = new FileOutputStream(getDiskFile(key));
+            bitmap.compress(Bitmap.CompressFormat.PNG, 100, stream);
+        } catch (Exception e) {
+            ToolkitLog.e(TAG, "writeToDisk: error %s", e.getMessage());
+        } finally {
+            if (null != stream) {
+                try {
+                    stream.close();
+                } catch (Exception e) {
+                    ToolkitLog.e(TAG, "writeToDisk: error while closing %s", e.getMessage());
+                }
+            }
+        }
+
+        trimDisk();
+    }
+
+    private void trimDisk() {
+        File[] files = mDiskDirectory.listFiles();
+        if (null == files) return;
+
+        long total = 0;
+        for (File file : files) total += file.length();
+        if (total <= DISK_MAX_SIZE) return;
+
+        //remove the least recently used files first
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File left, File right) {
+                long diff = left.lastModified() - right.lastModified();
+                return diff < 0 ? -1 : (diff > 0 ? 1 : 0);
+            }
+        });
+
+        for (File file : files) {
+            if (total <= DISK_MAX_SIZE) break;
+            total -= file.length();
+            file.delete();
+        }
+    }
+
+    @NonNull
+    private File getDiskFile(@NonNull String key) {
+        return new File(mDiskDirectory, hash(key));
+    }
+
+    @NonNull
+    private static String createKey(@Nullable String url, int size, boolean oval, float radius) {
+        String shape = oval ? "oval" : String.valueOf(radius);
+        return (TextUtils.isEmpty(url) ? "default" : url) + "|" + size + "|" + shape;
+    }
+
+    @NonNull
+    private static String hash(@NonNull String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(key.getBytes("UTF-8"));
+            StringBuilder builder = new StringBuilder();
+            for (byte b : digest) builder.append(String.format("%02x", b));
+            return builder.toString();
+        } catch (Exception e) {
+            return String.valueOf(key.hashCode());
+        }
+    }
+}
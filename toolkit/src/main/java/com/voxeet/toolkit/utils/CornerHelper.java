@@ -1,94 +1,117 @@
 package com.voxeet.toolkit.utils;
 
 import android.content.Context;
+import android.content.res.Configuration;
 import android.graphics.Point;
+import android.graphics.Rect;
 import android.os.Handler;
 import android.os.Looper;
-import android.view.Display;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.view.View;
 import android.view.WindowManager;
 
 import com.voxeet.toolkit.R;
 import com.voxeet.toolkit.implementation.VoxeetView;
-import voxeet.com.sdk.utils.ScreenHelper;
 
 /**
  * Created by kevinleperf on 15/01/2018.
+ * <p>
+ * The window geometry is cached by {@link WindowMetricsTracker}, every method must be called
+ * from the main thread
  */
 
 public class CornerHelper {
 
+    /**
+     * Time, in seconds, during which the release velocity is projected to choose the corner
+     */
+    private static final float FLING_PROJECTION = 0.2f;
+
     private static final Handler mHandler = new Handler(Looper.getMainLooper());
     private static int mCornerMargin;
 
-    private CornerHelper() {
+    @Nullable
+    private static Configuration mConfiguration;
+    private static final Point mTarget = new Point();
 
-    }
-
-    private static Point getCenterPosition(VoxeetView view) {
-        Point point = new Point();
-        point.x = (int) (view.getX() + view.getWidth() / 2);
-        point.y = (int) (view.getY() + view.getHeight() / 2);
+    private CornerHelper() {
 
-        return point;
     }
 
-    private static Corner getClosestCorner(VoxeetView view, WindowManager windowManager, Context context) {
-        Point center = getCenterPosition(view);
-        Display display = windowManager.getDefaultDisplay();
-        int statusHeight = ScreenHelper.getStatusBarHeight(context);
-
-        int top = statusHeight;
-        int left = 0;
-        int bottom = display.getHeight();
-        int right = display.getWidth();
-
-        mCornerMargin = (int) view.getContext().getResources().getDimension(R.dimen.voxeet_overlay_margin);
-        if(mCornerMargin < 0) mCornerMargin = 0;
-
-        Point topLeft = new Point(left, top);
-        Point topRight = new Point(right, top);
-        Point bottomLeft = new Point(left, bottom);
-        Point bottomRight = new Point(right, bottom);
-
-        Corner doubleTopLeft = new Corner(Corner.Type.TopLeft, topLeft);
-        Corner doubleTopRight = new Corner(Corner.Type.TopRight, topRight);
-        Corner doubleBottomLeft = new Corner(Corner.Type.BottomLeft, bottomLeft);
-        Corner doubleBottomRight = new Corner(Corner.Type.BottomRight, bottomRight);
-
-        Corner max = doubleTopLeft;
-
-        if (doubleTopRight.isCloser(max, center)) max = doubleTopRight;
-        if (doubleBottomLeft.isCloser(max, center)) max = doubleBottomLeft;
-        if (doubleBottomRight.isCloser(max, center)) max = doubleBottomRight;
-
-        return max;
+    /**
+     * Get the area in which the overlay can be moved
+     *
+     * @param context a valid context
+     * @return the cached bounds, must not be modified
+     */
+    @NonNull
+    public static Rect getBounds(@NonNull Context context) {
+        updateMargin(context);
+        return WindowMetricsTracker.getInstance().getBounds(context);
     }
 
-    private static Point getFinalPositionForCorner(VoxeetView view, WindowManager windowManager, Context context, Corner corner) {
-        Display display = windowManager.getDefaultDisplay();
-        int statusHeight = ScreenHelper.getStatusBarHeight(context);
-
-        switch (corner.getType()) {
-            case TopRight:
-                return new Point(display.getWidth() - view.getWidth() - mCornerMargin, statusHeight + mCornerMargin);
-            case BottomLeft:
-                return new Point(mCornerMargin, display.getHeight() - view.getHeight() - mCornerMargin);
-            case BottomRight:
-                return new Point(display.getWidth() - view.getWidth() - mCornerMargin, display.getHeight() - view.getHeight() - mCornerMargin);
-            case TopLeft:
-            default:
-                return new Point(mCornerMargin, statusHeight + mCornerMargin);
-        }
+    /**
+     * Get the position of the corner the view should go to
+     * <p>
+     * The center of the view is projected using the given velocity, a fling sends the view to
+     * the corner it was thrown to
+     *
+     * @param view      the view to move
+     * @param velocityX the horizontal velocity in pixels per second
+     * @param velocityY the vertical velocity in pixels per second
+     * @return the top left position of the view once in the corner, valid until the next call
+     */
+    @NonNull
+    public static Point getCornerPosition(@NonNull View view, float velocityX, float velocityY) {
+        Rect bounds = getBounds(view.getContext());
+
+        float centerX = view.getX() + view.getWidth() / 2f + velocityX * FLING_PROJECTION;
+        float centerY = view.getY() + view.getHeight() / 2f + velocityY * FLING_PROJECTION;
+
+        boolean right = centerX > bounds.centerX();
+        boolean bottom = centerY > bounds.centerY();
+
+        mTarget.x = right ? bounds.right - view.getWidth() - mCornerMargin : bounds.left + mCornerMargin;
+        mTarget.y = bottom ? bounds.bottom - view.getHeight() - mCornerMargin : bounds.top + mCornerMargin;
+        return mTarget;
     }
 
-    public static void sendToCorner(final VoxeetView view, final WindowManager windowManager, final Context context) {
+    /**
+     * Animate a view to its closest corner
+     * <p>
+     * Prefer a spring started with the release velocity and {@link #getCornerPosition(View, float, float)}
+     *
+     * @param view the view to move
+     */
+    public static void sendToCorner(@NonNull final View view) {
         mHandler.post(new Runnable() {
             @Override
             public void run() {
-                Corner corner = CornerHelper.getClosestCorner(view, windowManager, context);
-                Point closest_corner = CornerHelper.getFinalPositionForCorner(view, windowManager, context, corner);
+                Point closest_corner = CornerHelper.getCornerPosition(view, 0, 0);
                 view.animate().x(closest_corner.x).y(closest_corner.y).setDuration(200).start();
             }
         });
     }
+
+    /**
+     * The window manager and the context are not needed, the geometry is read from the view
+     * <p>
+     * will be removed later, use {@link #sendToCorner(View)}
+     */
+    @Deprecated
+    public static void sendToCorner(@NonNull VoxeetView view, @Nullable WindowManager windowManager,
+                                    @Nullable Context context) {
+        sendToCorner(view);
+    }
+
+    private static void updateMargin(@NonNull Context context) {
+        Configuration configuration = context.getResources().getConfiguration();
+        if (null != mConfiguration && mConfiguration.equals(configuration)) return;
+
+        mConfiguration = new Configuration(configuration);
+
+        mCornerMargin = (int) context.getResources().getDimension(R.dimen.voxeet_overlay_margin);
+        if (mCornerMargin < 0) mCornerMargin = 0;
+    }
 }
@@ -1,11 +1,14 @@
 package com.voxeet.toolkit.utils;
 
-import android.util.Log;
+import android.support.annotation.NonNull;
 
 import org.greenrobot.eventbus.EventBus;
 import org.greenrobot.eventbus.Subscribe;
 import org.greenrobot.eventbus.ThreadMode;
 
+import java.io.File;
+import java.io.IOException;
+
 import voxeet.com.sdk.events.ConferenceTimeoutUserJoinedEvent;
 import voxeet.com.sdk.events.success.BadgeUpdate;
 import voxeet.com.sdk.events.success.ConferenceDestroyedPushEvent;
@@ -45,16 +48,114 @@ import voxeet.com.sdk.json.ConferenceDestroyedPush;
 import voxeet.com.sdk.json.FileAdded;
 import voxeet.com.sdk.json.FileDeleted;
 import voxeet.com.sdk.json.MeetingAddedOrUpdatedEvent;
-import voxeet.com.sdk.json.OfferCreated;
 
 /**
- * Simple class with the sole purpose of tracing the different events
- * sent through the default event bus
+ * Records the different events sent through the default event bus
+ * <p>
+ * Each event is stored as its type id and a monotonic timestamp into a preallocated ring buffer,
+ * on the posting thread, without allocation nor logging. The buffer is dumped on demand,
+ * which makes it cheap enough to stay registered in production
  */
 
 public class EventDebugger {
 
-    private static final String TAG = EventDebugger.class.getSimpleName();
+    private static final int DEFAULT_CAPACITY = 4096;
+
+    private static final int OFFER_CREATED_EVENT = 0;
+    private static final int CONFERENCE_DESTROYED_PUSH_EVENT = 1;
+    private static final int CONFERENCE_DESTROYED_PUSH = 2;
+    private static final int PROFILE_UPDATED = 3;
+    private static final int PARTICIPANT_UPDATED_EVENT = 4;
+    private static final int OWN_CONFERENCE_STARTED_EVENT = 5;
+    private static final int OWN_PROFILE_UPDATED_EVENT = 6;
+    private static final int OWN_EXTERNAL_INVITATION_SENT = 7;
+    private static final int OWN_CONTACT_REMOVED = 8;
+    private static final int MEETING_ADDED_OR_UPDATED_EVENT = 9;
+    private static final int MEETING_DELETED = 10;
+    private static final int BADGE_UPDATE = 11;
+    private static final int RENEGOCIATION_UPDATE = 12;
+    private static final int RECORDING_STATUS_UPDATE = 13;
+    private static final int MEETING_ACTIVITY_DELETED = 14;
+    private static final int MEETING_ACTIVITY_UPDATED = 15;
+    private static final int MEETING_ACTIVITY_ADDED = 16;
+    private static final int MEETING_READ_TIME_STAMP_UPDATED = 17;
+    private static final int INVITATION_RECEIVED = 18;
+    private static final int MEETING_EVENT_ADDED_OR_UPDATED = 19;
+    private static final int FILE_DELETED = 20;
+    private static final int FILE_ADDED = 21;
+    private static final int QUALITY_UPDATED_EVENT = 22;
+    private static final int WHISPER_INVITE_RECEIVED_EVENT = 23;
+    private static final int WHISPER_INVITE_ACCEPTED_EVENT = 24;
+    private static final int WHISPER_INVITE_DECLINED_EVENT = 25;
+    private static final int WHISPER_LEFT_EVENT = 26;
+    private static final int OWN_USER_INVITED_EVENT = 27;
+    private static final int USER_INVITED_EVENT = 28;
+    private static final int CONFERENCE_USER_SWITCH_EVENT = 29;
+    private static final int CONFERENCE_USER_ADDED_EVENT = 30;
+    private static final int OWN_CONFERENCE_USER_SWITCH_EVENT = 31;
+    private static final int CONFERENCE_ENDED_EVENT = 32;
+    private static final int CONFERENCE_UPDATED_EVENT = 33;
+    private static final int FILE_CONVERTED_EVENT = 34;
+    private static final int CONTACT_ADDED_EVENT = 35;
+    private static final int PEER_CONNECTION_STATUS_UPDATED_EVENT = 36;
+    private static final int CONFERENCE_TIMEOUT_USER_JOINED_EVENT = 37;
+    private static final int CONFERENCE_USER_CALL_DECLINED_EVENT = 38;
+
+    private static final String[] NAMES = {
+            "OfferCreatedEvent",
+            "ConferenceDestroyedPushEvent",
+            "ConferenceDestroyedPush",
+            "ProfileUpdated",
+            "ParticipantUpdatedEvent",
+            "OwnConferenceStartedEvent",
+            "OwnProfileUpdatedEvent",
+            "OwnExternalInvitationSent",
+            "OwnContactRemoved",
+            "MeetingAddedOrUpdatedEvent",
+            "MeetingDeleted",
+            "BadgeUpdate",
+            "RenegociationUpdate",
+            "RecordingStatusUpdate",
+            "MeetingActivityDeleted",
+            "MeetingActivityUpdated",
+            "MeetingActivityAdded",
+            "MeetingReadTimeStampUpdated",
+            "InvitationReceived",
+            "MeetingEventAddedOrUpdated",
+            "FileDeleted",
+            "FileAdded",
+            "QualityUpdatedEvent",
+            "WhisperInviteReceivedEvent",
+            "WhisperInviteAcceptedEvent",
+            "WhisperInviteDeclinedEvent",
+            "WhisperLeftEvent",
+            "OwnUserInvitedEvent",
+            "UserInvitedEvent",
+            "ConferenceUserSwitchEvent",
+            "ConferenceUserAddedEvent",
+            "OwnConferenceUserSwitchEvent",
+            "ConferenceEndedEvent",
+            "ConferenceUpdatedEvent",
+            "FileConvertedEvent",
+            "ContactAddedEvent",
+            "PeerConnectionStatusUpdatedEvent",
+            "ConferenceTimeoutUserJoinedEvent",
+            "ConferenceUserCallDeclinedEvent"
+    };
+
+    @NonNull
+    private final EventTraceBuffer mBuffer;
+
+    public EventDebugger() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity the number of events kept, the oldest are overwritten
+     */
+    public EventDebugger(int capacity) {
+        mBuffer = new EventTraceBuffer(capacity);
+    }
 
     public void register() {
         if (!EventBus.getDefault().isRegistered(this))
@@ -66,204 +167,222 @@ public class EventDebugger {
             EventBus.getDefault().unregister(this);
     }
 
-    @Subscribe(threadMode = ThreadMode.MAIN)
-    public void onEvent(OfferCreatedEvent event) {
-        OfferCreated offer = event.offer();
-        //Log.d(TAG, "onEvent: OfferCreatedEvent " + offer.getUserId() + " " + offer.getExternalId() + " " + offer.getType() + " " + offer.getDescription().getType() + " " + offer.getCandidates().size());
+    public void clear() {
+        mBuffer.clear();
+    }
 
-        Log.d(TAG, "onEvent: time := " + System.currentTimeMillis());
-        Log.d(TAG, "onEvent: userId := " + offer.getUserId());
-        Log.d(TAG, "onEvent: sdp := " + offer.getDescription().getSdp());
+    /**
+     * Dump the recorded events into a compact binary file, see EventTraceBuffer for the format
+     *
+     * @param file the file to write to
+     * @throws IOException if the file could not be written
+     */
+    public void dump(@NonNull File file) throws IOException {
+        mBuffer.writeBinary(file, NAMES);
+    }
+
+    /**
+     * Dump the recorded events into a Chrome trace JSON file
+     *
+     * @param file the file to write to
+     * @throws IOException if the file could not be written
+     */
+    public void dumpChromeTrace(@NonNull File file) throws IOException {
+        mBuffer.writeChromeTrace(file, NAMES);
+    }
 
+    @Subscribe(threadMode = ThreadMode.POSTING)
+    public void onEvent(OfferCreatedEvent event) {
+        mBuffer.record(OFFER_CREATED_EVENT);
     }
 
-    @Subscribe(threadMode = ThreadMode.MAIN)
+    @Subscribe(threadMode = ThreadMode.POSTING)
     public void onEvent(ConferenceDestroyedPushEvent event) {
-        Log.d(TAG, "onEvent: ConferenceDestroyedPushEvent " + event + " internal call !");
+        mBuffer.record(CONFERENCE_DESTROYED_PUSH_EVENT);
     }
 
-    @Subscribe(threadMode = ThreadMode.MAIN)
+    @Subscribe(threadMode = ThreadMode.POSTING)
     public void onEvent(ConferenceDestroyedPush event) {
-        Log.d(TAG, "onEvent: ConferenceDestroyedPushEvent " + event);
+        mBuffer.record(CONFERENCE_DESTROYED_PUSH);
     }
 
-    @Subscribe(threadMode = ThreadMode.MAIN)
+    @Subscribe(threadMode = ThreadMode.POSTING)
     public void onEvent(ProfileUpdated event) {
-        Log.d(TAG, "onEvent: ProfileUpdated " + event);
+        mBuffer.record(PROFILE_UPDATED);
     }
 
-    @Subscribe(threadMode = ThreadMode.MAIN)
+    @Subscribe(threadMode = ThreadMode.POSTING)
     public void onEvent(ParticipantUpdatedEvent event) {
-        Log.d(TAG, "onEvent: ParticipantUpdatedEvent " + event + " " + event.getUserId() + " " + event.getStatus() + " " + event.getConfId());
+        mBuffer.record(PARTICIPANT_UPDATED_EVENT);
     }
 
-    @Subscribe(threadMode = ThreadMode.MAIN)
+    @Subscribe(threadMode = ThreadMode.POSTING)
     public void onEvent(OwnConferenceStartedEvent event) {
-        Log.d(TAG, "onEvent: OwnConferenceStartedEvent " + event);
+        mBuffer.record(OWN_CONFERENCE_STARTED_EVENT);
     }
 
-    @Subscribe(threadMode = ThreadMode.MAIN)
+    @Subscribe(threadMode = ThreadMode.POSTING)
     public void onEvent(OwnProfileUpdatedEvent event) {
-        Log.d(TAG, "onEvent: OwnProfileUpdatedEvent " + event.getEvent().getType());
+        mBuffer.record(OWN_PROFILE_UPDATED_EVENT);
     }
 
-    @Subscribe(threadMode = ThreadMode.MAIN)
+    @Subscribe(threadMode = ThreadMode.POSTING)
     public void onEvent(OwnExternalInvitationSent event) {
-        Log.d(TAG, "onEvent: OwnExternalInvitationSent " + event);
+        mBuffer.record(OWN_EXTERNAL_INVITATION_SENT);
     }
 
-    @Subscribe(threadMode = ThreadMode.MAIN)
+    @Subscribe(threadMode = ThreadMode.POSTING)
     public void onEvent(OwnContactRemoved event) {
-        Log.d(TAG, "onEvent: OwnContactRemoved " + event);
+        mBuffer.record(OWN_CONTACT_REMOVED);
     }
 
-    @Subscribe(threadMode = ThreadMode.MAIN)
+    @Subscribe(threadMode = ThreadMode.POSTING)
     public void onEvent(MeetingAddedOrUpdatedEvent event) {
-        Log.d(TAG, "onEvent: MeetingAddedOrUpdated " + event.getType());
+        mBuffer.record(MEETING_ADDED_OR_UPDATED_EVENT);
     }
 
-    @Subscribe(threadMode = ThreadMode.MAIN)
+    @Subscribe(threadMode = ThreadMode.POSTING)
     public void onEvent(MeetingDeleted event) {
-        Log.d(TAG, "onEvent: MeetingDeleted " + event);
+        mBuffer.record(MEETING_DELETED);
     }
 
-    @Subscribe(threadMode = ThreadMode.MAIN)
+    @Subscribe(threadMode = ThreadMode.POSTING)
     public void onEvent(BadgeUpdate event) {
-        Log.d(TAG, "onEvent: BadgeUpdate " + event);
+        mBuffer.record(BADGE_UPDATE);
     }
 
-    @Subscribe(threadMode = ThreadMode.MAIN)
+    @Subscribe(threadMode = ThreadMode.POSTING)
     public void onEvent(RenegociationUpdate event) {
-        Log.d(TAG, "onEvent: RenegociationUpdate " + event);
+        mBuffer.record(RENEGOCIATION_UPDATE);
     }
 
-    @Subscribe(threadMode = ThreadMode.MAIN)
+    @Subscribe(threadMode = ThreadMode.POSTING)
     public void onEvent(RecordingStatusUpdate event) {
-        Log.d(TAG, "onEvent: RecordingStatusUpdate " + event);
+        mBuffer.record(RECORDING_STATUS_UPDATE);
     }
 
-    @Subscribe(threadMode = ThreadMode.MAIN)
+    @Subscribe(threadMode = ThreadMode.POSTING)
     public void onEvent(MeetingActivityDeleted event) {
-        Log.d(TAG, "onEvent: MeetingActivityDeleted " + event);
+        mBuffer.record(MEETING_ACTIVITY_DELETED);
     }
 
-    @Subscribe(threadMode = ThreadMode.MAIN)
+    @Subscribe(threadMode = ThreadMode.POSTING)
     public void onEvent(MeetingActivityUpdated event) {
-        Log.d(TAG, "onEvent: MeetingActivityUpdated " + event);
+        mBuffer.record(MEETING_ACTIVITY_UPDATED);
     }
 
-    @Subscribe(threadMode = ThreadMode.MAIN)
+    @Subscribe(threadMode = ThreadMode.POSTING)
     public void onEvent(MeetingActivityAdded event) {
-        Log.d(TAG, "onEvent: MeetingActivityAdded " + event);
+        mBuffer.record(MEETING_ACTIVITY_ADDED);
     }
 
-    @Subscribe(threadMode = ThreadMode.MAIN)
+    @Subscribe(threadMode = ThreadMode.POSTING)
     public void onEvent(MeetingReadTimeStampUpdated event) {
-        Log.d(TAG, "onEvent: MeetingReadTimeStampUpdated " + event);
+        mBuffer.record(MEETING_READ_TIME_STAMP_UPDATED);
     }
 
-    @Subscribe(threadMode = ThreadMode.MAIN)
+    @Subscribe(threadMode = ThreadMode.POSTING)
     public void onEvent(InvitationReceived event) {
-        Log.d(TAG, "onEvent: InvitationReceived " + event);
+        mBuffer.record(INVITATION_RECEIVED);
     }
 
-    @Subscribe(threadMode = ThreadMode.MAIN)
+    @Subscribe(threadMode = ThreadMode.POSTING)
     public void onEvent(MeetingEventAddedOrUpdated event) {
-        Log.d(TAG, "onEvent: MeetingEventAddedOrUpdated " + event);
+        mBuffer.record(MEETING_EVENT_ADDED_OR_UPDATED);
     }
 
-    @Subscribe(threadMode = ThreadMode.MAIN)
+    @Subscribe(threadMode = ThreadMode.POSTING)
     public void onEvent(FileDeleted event) {
-        Log.d(TAG, "onEvent: FileDeleted " + event);
+        mBuffer.record(FILE_DELETED);
     }
 
-    @Subscribe(threadMode = ThreadMode.MAIN)
+    @Subscribe(threadMode = ThreadMode.POSTING)
     public void onEvent(FileAdded event) {
-        Log.d(TAG, "onEvent: FileAdded " + event);
+        mBuffer.record(FILE_ADDED);
     }
 
-    @Subscribe(threadMode = ThreadMode.MAIN)
+    @Subscribe(threadMode = ThreadMode.POSTING)
     public void onEvent(QualityUpdatedEvent event) {
-        Log.d(TAG, "onEvent: QualityUpdatedEvent " + event);
+        mBuffer.record(QUALITY_UPDATED_EVENT);
     }
 
-    @Subscribe(threadMode = ThreadMode.MAIN)
+    @Subscribe(threadMode = ThreadMode.POSTING)
     public void onEvent(WhisperInviteReceivedEvent event) {
-        Log.d(TAG, "onEvent: WhisperInviteReceivedEvent " + event);
+        mBuffer.record(WHISPER_INVITE_RECEIVED_EVENT);
     }
 
-    @Subscribe(threadMode = ThreadMode.MAIN)
+    @Subscribe(threadMode = ThreadMode.POSTING)
     public void onEvent(WhisperInviteAcceptedEvent event) {
-        Log.d(TAG, "onEvent: WhisperInviteAcceptedEvent " + event);
+        mBuffer.record(WHISPER_INVITE_ACCEPTED_EVENT);
     }
 
-    @Subscribe(threadMode = ThreadMode.MAIN)
+    @Subscribe(threadMode = ThreadMode.POSTING)
     public void onEvent(WhisperInviteDeclinedEvent event) {
-        Log.d(TAG, "onEvent: WhisperInviteDeclinedEvent " + event);
+        mBuffer.record(WHISPER_INVITE_DECLINED_EVENT);
     }
 
-    @Subscribe(threadMode = ThreadMode.MAIN)
+    @Subscribe(threadMode = ThreadMode.POSTING)
     public void onEvent(WhisperLeftEvent event) {
-        Log.d(TAG, "onEvent: WhisperLeftEvent " + event);
+        mBuffer.record(WHISPER_LEFT_EVENT);
     }
 
-    @Subscribe(threadMode = ThreadMode.MAIN)
+    @Subscribe(threadMode = ThreadMode.POSTING)
     public void onEvent(OwnUserInvitedEvent event) {
-        Log.d(TAG, "onEvent: OwnUserInvitedEvent " + event);
+        mBuffer.record(OWN_USER_INVITED_EVENT);
     }
 
-    @Subscribe(threadMode = ThreadMode.MAIN)
+    @Subscribe(threadMode = ThreadMode.POSTING)
     public void onEvent(UserInvitedEvent event) {
-        Log.d(TAG, "onEvent: UserInvitedEvent " + event);
+        mBuffer.record(USER_INVITED_EVENT);
     }
 
-    @Subscribe(threadMode = ThreadMode.MAIN)
+    @Subscribe(threadMode = ThreadMode.POSTING)
     public void onEvent(ConferenceUserSwitchEvent event) {
-        Log.d(TAG, "onEvent: ConferenceUserSwitchEvent " + event);
+        mBuffer.record(CONFERENCE_USER_SWITCH_EVENT);
     }
 
-    @Subscribe(threadMode = ThreadMode.MAIN)
+    @Subscribe(threadMode = ThreadMode.POSTING)
     public void onEvent(ConferenceUserAddedEvent event) {
-        Log.d(TAG, "onEvent: ConferenceUserAddedEvent " + event.getEvent().getUserId() + " " + event.getEvent().getExternalId() + " " + event.getEvent().getStatus());
+        mBuffer.record(CONFERENCE_USER_ADDED_EVENT);
     }
 
-    @Subscribe(threadMode = ThreadMode.MAIN)
+    @Subscribe(threadMode = ThreadMode.POSTING)
     public void onEvent(OwnConferenceUserSwitchEvent event) {
-        Log.d(TAG, "onEvent: OwnConferenceUserSwitchEvent " + event.getEvent().getType());
+        mBuffer.record(OWN_CONFERENCE_USER_SWITCH_EVENT);
     }
 
-    @Subscribe(threadMode = ThreadMode.MAIN)
+    @Subscribe(threadMode = ThreadMode.POSTING)
     public void onEvent(ConferenceEndedEvent event) {
-        Log.d(TAG, "onEvent: ConferenceEnded " + event);
+        mBuffer.record(CONFERENCE_ENDED_EVENT);
     }
 
-    @Subscribe(threadMode = ThreadMode.MAIN)
+    @Subscribe(threadMode = ThreadMode.POSTING)
     public void onEvent(ConferenceUpdatedEvent event) {
-        Log.d(TAG, "onEvent: ConferenceUpdated " + event);
+        mBuffer.record(CONFERENCE_UPDATED_EVENT);
     }
 
-    @Subscribe(threadMode = ThreadMode.MAIN)
+    @Subscribe(threadMode = ThreadMode.POSTING)
     public void onEvent(FileConvertedEvent event) {
-        Log.d(TAG, "onEvent: FileConvertedEvent " + event.getEvent().getType());
+        mBuffer.record(FILE_CONVERTED_EVENT);
     }
 
-    @Subscribe(threadMode = ThreadMode.MAIN)
+    @Subscribe(threadMode = ThreadMode.POSTING)
     public void onEvent(ContactAddedEvent event) {
-        Log.d(TAG, "onEvent: ContactAddedEvent " + event);
+        mBuffer.record(CONTACT_ADDED_EVENT);
     }
 
-    @Subscribe(threadMode = ThreadMode.MAIN)
+    @Subscribe(threadMode = ThreadMode.POSTING)
     public void onEvent(PeerConnectionStatusUpdatedEvent event) {
-        Log.d(TAG, "onEvent: PeerConnectionStatusUpdatedEvent " + event);
+        mBuffer.record(PEER_CONNECTION_STATUS_UPDATED_EVENT);
     }
 
-    @Subscribe(threadMode = ThreadMode.MAIN)
+    @Subscribe(threadMode = ThreadMode.POSTING)
     public void onEvent(ConferenceTimeoutUserJoinedEvent event) {
-        Log.d(TAG, "onEvent: ConferenceTimeoutUserJoinedEvent " + event);
+        mBuffer.record(CONFERENCE_TIMEOUT_USER_JOINED_EVENT);
     }
 
-    @Subscribe(threadMode = ThreadMode.MAIN)
+    @Subscribe(threadMode = ThreadMode.POSTING)
     public void onEvent(ConferenceUserCallDeclinedEvent event) {
-        Log.d(TAG, "onEvent: ConferenceUserCallDeclinedEvent " + event);
+        mBuffer.record(CONFERENCE_USER_CALL_DECLINED_EVENT);
     }
 }
@@ -0,0 +1,168 @@
+package com.voxeet.toolkit.utils;
+
+import android.support.annotation.NonNull;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+/**
+ * Ring buffer of timestamped event type ids
+ * <p>
+ * Recording an event writes two preallocated arrays and never allocates, once full the oldest
+ * events are overwritten. Timestamps are monotonic, from System.nanoTime()
+ * <p>
+ * The buffer can be dumped on demand :
+ * - to a compact binary file : magic, version, type names, dropped and event counts then for each
+ * event its type as a short and the delay since the previous one in microseconds as a varint
+ * - to a Chrome trace JSON file, to be opened in chrome://tracing
+ */
+public class EventTraceBuffer {
+
+    private final static int MAGIC = 0x56455654;
+    private final static int VERSION = 1;
+
+    @NonNull
+    private final int[] mTypes;
+
+    @NonNull
+    private final long[] mTimes;
+
+    private int mNext;
+    private long mCount;
+
+    public EventTraceBuffer(int capacity) {
+        mTypes = new int[capacity];
+        mTimes = new long[capacity];
+    }
+
+    /**
+     * Record an event, can be called from any thread
+     *
+     * @param type the id of the event type
+     */
+    public void record(int type) {
+        long now = System.nanoTime();
+
+        synchronized (this) {
+            mTypes[mNext] = type;
+            mTimes[mNext] = now;
+            mNext = (mNext + 1) % mTypes.length;
+            mCount++;
+        }
+    }
+
+    public synchronized void clear() {
+        mNext = 0;
+        mCount = 0;
+    }
+
+    /**
+     * Write the recorded events into a compact binary file
+     *
+     * @param file  the file to write to
+     * @param names the names of the types, indexed by id
+     * @throws IOException if the file could not be written
+     */
+    public void writeBinary(@NonNull File file, @NonNull String[] names) throws IOException {
+        Snapshot snapshot = snapshot();
+
+        DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        try {
+            stream.writeInt(MAGIC);
+            stream.writeInt(VERSION);
+
+            stream.writeShort(names.length);
+            for (String name : names) stream.writeUTF(name);
+
+            stream.writeLong(snapshot.dropped);
+            stream.writeInt(snapshot.types.length);
+            if (snapshot.types.length > 0) stream.writeLong(snapshot.times[0]);
+
+            long previous = snapshot.types.length > 0 ? snapshot.times[0] : 0;
+            for (int i = 0; i < snapshot.types.length; i++) {
+                stream.writeShort(snapshot.types[i]);
+                writeVarLong(stream, (snapshot.times[i] - previous) / 1000);
+                previous = snapshot.times[i];
+            }
+        } finally {
+            stream.close();
+        }
+    }
+
+    /**
+     * Write the recorded events as instant events of a Chrome trace JSON file
+     *
+     * @param file  the file to write to
+     * @param names the names of the types, indexed by id
+     * @throws IOException if the file could not be written
+     */
+    public void writeChromeTrace(@NonNull File file, @NonNull String[] names) throws IOException {
+        Snapshot snapshot = snapshot();
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"));
+        try {
+            writer.write("{\"traceEvents\":[");
+            for (int i = 0; i < snapshot.types.length; i++) {
+                int type = snapshot.types[i];
+                String name = type >= 0 && type < names.length ? names[type] : String.valueOf(type);
+
+                if (i > 0) writer.write(',');
+                writer.write("{\"name\":\"");
+                writer.write(name);
+                writer.write("\",\"ph\":\"i\",\"s\":\"g\",\"pid\":0,\"tid\":0,\"ts\":");
+                writer.write(String.valueOf(snapshot.times[i] / 1000));
+                writer.write('}');
+            }
+            writer.write("],\"otherData\":{\"dropped\":\"");
+            writer.write(String.valueOf(snapshot.dropped));
+            writer.write("\"}}");
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Copy the recorded events, oldest first
+     */
+    @NonNull
+    private synchronized Snapshot snapshot() {
+        int size = (int) Math.min(mCount, mTypes.length);
+        int start = mCount > mTypes.length ? mNext : 0;
+
+        Snapshot snapshot = new Snapshot(size, mCount - size);
+        for (int i = 0; i < size; i++) {
+            int index = (start + i) % mTypes.length;
+            snapshot.types[i] = mTypes[index];
+            snapshot.times[i] = mTimes[index];
+        }
+        return snapshot;
+    }
+
+    private static void writeVarLong(@NonNull DataOutputStream stream, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            stream.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        stream.writeByte((int) value);
+    }
+
+    private static class Snapshot {
+        @NonNull
+        final int[] types;
+        @NonNull
+        final long[] times;
+        final long dropped;
+
+        Snapshot(int size, long dropped) {
+            types = new int[size];
+            times = new long[size];
+            this.dropped = dropped;
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package com.voxeet.toolkit.utils;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.view.Choreographer;
+import android.view.View;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Shared clock for the time-driven toolkit views
+ * <p>
+ * Subscribers are called on the main thread, aligned on the display frames, at the interval
+ * they asked for. Subscribers sharing an interval are woken up by the same frame.
+ * <p>
+ * The ticker only runs while at least one subscribed view is attached and shown. It suspends
+ * itself otherwise and resumes when a subscribed view is attached again or when
+ * {@link #wakeUp()} is called (e.g. after a visibility change).
+ * <p>
+ * The subscriptions of a detached view are only weakly referenced by the ticker : a view
+ * destroyed without unsubscribing is not kept with its activity.
+ * <p>
+ * Every method must be called from the main thread
+ */
+public class FrameTicker {
+
+    /**
+     * Interval to use to be called on every frame
+     */
+    public final static long EVERY_FRAME = 0;
+
+    private final static long FRAME_DURATION = 16;
+
+    private static FrameTicker sInstance;
+
+    @NonNull
+    private final List<Subscription> mSubscriptions = new ArrayList<>();
+
+    //subscriptions of the detached views, only held by their owner
+    @NonNull
+    private final List<WeakReference<Subscription>> mDetached = new ArrayList<>();
+
+    @NonNull
+    private final List<Subscription> mDispatching = new ArrayList<>();
+
+    @NonNull
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    private ChoreographerCallback mChoreographerCallback;
+
+    private boolean mScheduled;
+
+    private Runnable mHandlerCallback = new Runnable() {
+        @Override
+        public void run() {
+            onFrame(SystemClock.uptimeMillis());
+        }
+    };
+
+    public static synchronized FrameTicker getInstance() {
+        if (null == sInstance) sInstance = new FrameTicker();
+        return sInstance;
+    }
+
+    private FrameTicker() {
+
+    }
+
+    /**
+     * Register a listener, called while the owner is attached and shown
+     * <p>
+     * Subscribing an already subscribed listener only updates its interval
+     *
+     * @param owner    the view which drives the subscription
+     * @param listener the listener to call
+     * @param interval the minimum interval between two calls in milliseconds
+     */
+    public void subscribe(@NonNull View owner, @NonNull Listener listener, long interval) {
+        Subscription subscription = find(listener);
+
+        if (null == subscription) {
+            subscription = new Subscription(owner, listener);
+            if (null != owner.getWindowToken()) {
+                mSubscriptions.add(subscription);
+            } else {
+                mDetached.add(new WeakReference<>(subscription));
+            }
+        }
+
+        subscription.interval = Math.max(EVERY_FRAME, interval);
+        subscription.lastTick = -1;
+
+        wakeUp();
+    }
+
+    /**
+     * Remove a listener, no-op if the listener was not subscribed
+     *
+     * @param listener the listener to remove
+     */
+    public void unsubscribe(@NonNull Listener listener) {
+        Subscription subscription = find(listener);
+
+        if (null != subscription) {
+            mSubscriptions.remove(subscription);
+            removeDetached(subscription);
+            subscription.release();
+        }
+    }
+
+    /**
+     * Resume the ticker if it was suspended
+     * <p>
+     * To be called when a subscribed view has been made visible again
+     */
+    public void wakeUp() {
+        if (hasActiveSubscription()) {
+            //a pending frame may be far away, check the subscriptions as soon as possible
+            schedule(0);
+        }
+    }
+
+    private void onFrame(long now) {
+        mScheduled = false;
+
+        long next = -1;
+
+        //copy to let listeners unsubscribe while being called
+        mDispatching.addAll(mSubscriptions);
+        for (Subscription subscription : mDispatching) {
+            if (subscription.released || !subscription.isActive()) continue;
+
+            if (subscription.lastTick < 0 || now - subscription.lastTick >= subscription.interval) {
+                //keep the cadence unless we are too late
+                if (subscription.lastTick < 0 || now - subscription.lastTick >= 2 * subscription.interval) {
+                    subscription.lastTick = now;
+                } else {
+                    subscription.lastTick += subscription.interval;
+                }
+                subscription.listener.onTick(now);
+            }
+
+            if (!subscription.released) {
+                long delay = Math.max(0, subscription.lastTick + subscription.interval - now);
+                if (next < 0 || delay < next) next = delay;
+            }
+        }
+        mDispatching.clear();
+
+        //nothing visible is interested in ticks, suspend until wakeUp()
+        //a listener subscribing during the dispatch already scheduled the next frame
+        if (next >= 0 && !mScheduled) schedule(next);
+    }
+
+    private void schedule(long delay) {
+        if (mScheduled) cancel();
+        mScheduled = true;
+
+        //the frame callback will run on the next frame, remove its duration from the delay
+        delay = delay > FRAME_DURATION ? delay - FRAME_DURATION : 0;
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            if (null == mChoreographerCallback) mChoreographerCallback = new ChoreographerCallback();
+            mChoreographerCallback.post(delay);
+        } else {
+            mHandler.postDelayed(mHandlerCallback, Math.max(FRAME_DURATION, delay));
+        }
+    }
+
+    private void cancel() {
+        mScheduled = false;
+
+        if (null != mChoreographerCallback) mChoreographerCallback.cancel();
+        mHandler.removeCallbacks(mHandlerCallback);
+    }
+
+    private boolean hasActiveSubscription() {
+        for (Subscription subscription : mSubscriptions) {
+            if (subscription.isActive()) return true;
+        }
+        return false;
+    }
+
+    private Subscription find(@NonNull Listener listener) {
+        for (Subscription subscription : mSubscriptions) {
+            if (subscription.listener == listener) return subscription;
+        }
+        for (WeakReference<Subscription> reference : mDetached) {
+            Subscription subscription = reference.get();
+            if (null != subscription && subscription.listener == listener) return subscription;
+        }
+        return null;
+    }
+
+    /**
+     * Remove a subscription from the detached ones, and the references already cleared
+     */
+    private boolean removeDetached(@NonNull Subscription subscription) {
+        boolean found = false;
+        for (Iterator<WeakReference<Subscription>> iterator = mDetached.iterator(); iterator.hasNext(); ) {
+            Subscription detached = iterator.next().get();
+            if (null == detached || detached == subscription) {
+                found |= null != detached;
+                iterator.remove();
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Callback called by the ticker
+     */
+    public interface Listener {
+
+        /**
+         * @param frameTimeMillis the time of the frame, in the {@link SystemClock#uptimeMillis()} base
+         */
+        void onTick(long frameTimeMillis);
+    }
+
+    private class Subscription implements View.OnAttachStateChangeListener {
+        private final View owner;
+        private final Listener listener;
+        private long interval;
+        private long lastTick = -1;
+        private boolean released;
+
+        private Subscription(@NonNull View owner, @NonNull Listener listener) {
+            this.owner = owner;
+            this.listener = listener;
+
+            owner.addOnAttachStateChangeListener(this);
+        }
+
+        private boolean isActive() {
+            return null != owner.getWindowToken() && owner.isShown();
+        }
+
+        private void release() {
+            released = true;
+            owner.removeOnAttachStateChangeListener(this);
+        }
+
+        @Override
+        public void onViewAttachedToWindow(View v) {
+            if (!released && removeDetached(this)) {
+                lastTick = -1;
+                mSubscriptions.add(this);
+            }
+            wakeUp();
+        }
+
+        @Override
+        public void onViewDetachedFromWindow(View v) {
+            //only the owner keeps the subscription, the next frame will suspend the ticker if needed
+            if (!released && mSubscriptions.remove(this)) {
+                removeDetached(this);
+                mDetached.add(new WeakReference<>(this));
+            }
+        }
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private class ChoreographerCallback implements Choreographer.FrameCallback {
+
+        private void post(long delay) {
+            if (delay > 0) {
+                Choreographer.getInstance().postFrameCallbackDelayed(this, delay);
+            } else {
+                Choreographer.getInstance().postFrameCallback(this);
+            }
+        }
+
+        private void cancel() {
+            Choreographer.getInstance().removeFrameCallback(this);
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            onFrame(frameTimeNanos / 1000000);
+        }
+    }
+}
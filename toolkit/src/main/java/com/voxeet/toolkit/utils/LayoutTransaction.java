@@ -0,0 +1,229 @@
+package com.voxeet.toolkit.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Group the view changes made while handling an event so that they cost a single layout pass
+ * <p>
+ * Between begin() and commit(), visibility changes are recorded instead of applied : only the
+ * last visibility of each view is applied on commit, and only if it differs from the current one.
+ * Hiding then showing a view while an event is processed does not trigger any layout anymore.
+ * Actions like a list refresh are deduplicated and run once on commit as well.
+ * <p>
+ * Transactions can be nested, the changes are applied when the outermost one is committed,
+ * before the next traversal of the view hierarchy. Outside of a transaction, changes are applied
+ * immediately.
+ * <p>
+ * In debug, the layout passes following a commit are counted until the hierarchy is idle - no
+ * layout for a few frames - and logged against the event, to check that an event does not cause
+ * more than one pass. The passes caused later by the event, e.g. a posted notification or a
+ * renderer resized, are included. Events committed while the previous one is still measured share
+ * its count and are logged together. Every method must be called from the main thread
+ */
+public final class LayoutTransaction {
+
+    private final static String TAG = LayoutTransaction.class.getSimpleName();
+
+    //a hierarchy without layout during this delay is idle, about three frames
+    private final static long IDLE_DELAY = 50;
+    //an event never settling is logged anyway
+    private final static long MAX_MEASURE = 1000;
+
+    private static LayoutTransaction sInstance;
+
+    @NonNull
+    private final Map<View, Integer> mVisibilities = new LinkedHashMap<>();
+
+    @NonNull
+    private final LinkedHashSet<Runnable> mActions = new LinkedHashSet<>();
+
+    @NonNull
+    private final List<Runnable> mRunning = new ArrayList<>();
+
+    private int mDepth;
+
+    //layout pass counter, only used in debug
+    @Nullable
+    private String mEvent;
+    private int mLayoutPasses;
+    private boolean mMeasuring;
+    private long mCommittedAt;
+
+    @Nullable
+    private WeakReference<View> mTracked;
+
+    @NonNull
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    @NonNull
+    private final ViewTreeObserver.OnGlobalLayoutListener mLayoutListener = new ViewTreeObserver.OnGlobalLayoutListener() {
+        @Override
+        public void onGlobalLayout() {
+            mLayoutPasses++;
+            if (mMeasuring) scheduleIdleCheck();
+        }
+    };
+
+    @NonNull
+    private final Runnable mIdle = new Runnable() {
+        @Override
+        public void run() {
+            logLayoutPasses();
+        }
+    };
+
+    public static synchronized LayoutTransaction getInstance() {
+        if (null == sInstance) sInstance = new LayoutTransaction();
+        return sInstance;
+    }
+
+    private LayoutTransaction() {
+
+    }
+
+    /**
+     * Start recording the changes made for an event
+     *
+     * @param event the name of the event, used by the layout pass counter
+     */
+    public void begin(@NonNull String event) {
+        if (0 == mDepth++) {
+            if (mMeasuring) {
+                //the previous event is still laid out, the passes can not be told apart
+                mEvent = mEvent + ", " + event;
+            } else {
+                mEvent = event;
+                mLayoutPasses = 0;
+            }
+        }
+    }
+
+    /**
+     * Apply the recorded changes if the outermost transaction is committed
+     */
+    public void commit() {
+        if (mDepth <= 0) {
+            ToolkitLog.w(TAG, "commit: no transaction started");
+            return;
+        }
+        if (--mDepth > 0) return;
+
+        for (Map.Entry<View, Integer> entry : mVisibilities.entrySet()) {
+            View view = entry.getKey();
+            int visibility = entry.getValue();
+            if (view.getVisibility() != visibility) view.setVisibility(visibility);
+        }
+        mVisibilities.clear();
+
+        //actions can record new changes, they are applied directly
+        mRunning.addAll(mActions);
+        mActions.clear();
+        for (Runnable action : mRunning) action.run();
+        mRunning.clear();
+
+        measureUntilIdle();
+    }
+
+    public boolean isRecording() {
+        return mDepth > 0;
+    }
+
+    /**
+     * Change the visibility of a view, on commit if a transaction is started
+     *
+     * @param view       the view to update
+     * @param visibility View.VISIBLE, View.INVISIBLE or View.GONE
+     */
+    public void setVisibility(@NonNull View view, int visibility) {
+        if (mDepth > 0) {
+            //keep the order of the first change, the last value wins
+            mVisibilities.put(view, visibility);
+        } else if (view.getVisibility() != visibility) {
+            view.setVisibility(visibility);
+        }
+    }
+
+    /**
+     * Run an action on commit if a transaction is started, only once whatever the number of calls
+     *
+     * @param action the action, compared by identity
+     */
+    public void runOnCommit(@NonNull Runnable action) {
+        if (mDepth > 0) mActions.add(action);
+        else action.run();
+    }
+
+    /**
+     * Count the layout passes of a view hierarchy, only when debug logs are enabled
+     *
+     * @param view a view of the hierarchy, attached to its window
+     */
+    public void trackLayoutPasses(@NonNull View view) {
+        if (!ToolkitLog.isLoggable(Log.DEBUG)) return;
+
+        ViewTreeObserver observer = view.getViewTreeObserver();
+        observer.removeGlobalOnLayoutListener(mLayoutListener);
+        observer.addOnGlobalLayoutListener(mLayoutListener);
+        mTracked = new WeakReference<>(view);
+    }
+
+    public void untrackLayoutPasses(@NonNull View view) {
+        ViewTreeObserver observer = view.getViewTreeObserver();
+        observer.removeGlobalOnLayoutListener(mLayoutListener);
+
+        if (null != mTracked && mTracked.get() == view) {
+            mTracked = null;
+            mMeasuring = false;
+            mHandler.removeCallbacks(mIdle);
+        }
+    }
+
+    /**
+     * @return the number of layout passes since the beginning of the last event
+     */
+    public int getLayoutPasses() {
+        return mLayoutPasses;
+    }
+
+    private void measureUntilIdle() {
+        View view = null != mTracked ? mTracked.get() : null;
+        if (null == view) return;
+
+        if (!mMeasuring) {
+            mMeasuring = true;
+            mCommittedAt = SystemClock.uptimeMillis();
+        }
+        scheduleIdleCheck();
+    }
+
+    private void scheduleIdleCheck() {
+        mHandler.removeCallbacks(mIdle);
+        if (SystemClock.uptimeMillis() - mCommittedAt >= MAX_MEASURE) {
+            logLayoutPasses();
+        } else {
+            mHandler.postDelayed(mIdle, IDLE_DELAY);
+        }
+    }
+
+    private void logLayoutPasses() {
+        mHandler.removeCallbacks(mIdle);
+        mMeasuring = false;
+        if (null != mEvent) {
+            ToolkitLog.d(TAG, "%s caused %s layout pass(es)", mEvent, mLayoutPasses);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.voxeet.toolkit.utils;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Printer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Opt-in watchdog of the messages dispatched by the main Looper
+ * <p>
+ * Every message taking longer than the budget is a stall. Stalls are attributed to the toolkit
+ * component which posted the message, or to the last component marked while it was dispatched,
+ * other stalls are ignored. When the budget is exceeded, the main thread stack is captured from
+ * a background thread so that the offending code can be found
+ * <p>
+ * It uses the message logging of the main Looper, and so replaces any Printer set there
+ */
+public class MainThreadWatchdog implements Printer {
+
+    private final static String TAG = MainThreadWatchdog.class.getSimpleName();
+
+    public final static long DEFAULT_BUDGET = 16;
+
+    private final static String TOOLKIT_PACKAGE = "com.voxeet.toolkit";
+    private final static int MAX_STALLS = 32;
+
+    private static MainThreadWatchdog sInstance;
+
+    /**
+     * Description of a stall
+     */
+    public static class Stall {
+        @NonNull
+        public final String component;
+        public final long duration;
+        @Nullable
+        public final StackTraceElement[] stack;
+
+        private Stall(@NonNull String component, long duration, @Nullable StackTraceElement[] stack) {
+            this.component = component;
+            this.duration = duration;
+            this.stack = stack;
+        }
+    }
+
+    @NonNull
+    private final Map<String, Integer> mCounts = new HashMap<>();
+
+    @NonNull
+    private final LinkedList<Stall> mStalls = new LinkedList<>();
+
+    @Nullable
+    private HandlerThread mSamplerThread;
+
+    @Nullable
+    private Handler mSampler;
+
+    private volatile boolean mStarted;
+    private long mBudget = DEFAULT_BUDGET;
+    private int mStallCount;
+
+    //state of the message being dispatched, only modified on the main thread
+    @Nullable
+    private String mMessage;
+    @Nullable
+    private String mComponent;
+    private long mDispatchStart;
+
+    @Nullable
+    private volatile StackTraceElement[] mCapturedStack;
+
+    @NonNull
+    private final Runnable mCapture = new Runnable() {
+        @Override
+        public void run() {
+            mCapturedStack = Looper.getMainLooper().getThread().getStackTrace();
+        }
+    };
+
+    public static synchronized MainThreadWatchdog getInstance() {
+        if (null == sInstance) sInstance = new MainThreadWatchdog();
+        return sInstance;
+    }
+
+    private MainThreadWatchdog() {
+
+    }
+
+    /**
+     * Start watching the main thread
+     *
+     * @param budget the maximum duration in ms of a message
+     */
+    public synchronized void start(long budget) {
+        mBudget = budget;
+        if (mStarted) return;
+
+        mSamplerThread = new HandlerThread(TAG);
+        mSamplerThread.start();
+        mSampler = new Handler(mSamplerThread.getLooper());
+
+        mStarted = true;
+        Looper.getMainLooper().setMessageLogging(this);
+    }
+
+    public synchronized void stop() {
+        if (!mStarted) return;
+
+        mStarted = false;
+        Looper.getMainLooper().setMessageLogging(null);
+
+        if (null != mSamplerThread) mSamplerThread.quit();
+        mSamplerThread = null;
+        mSampler = null;
+    }
+
+    public boolean isStarted() {
+        return mStarted;
+    }
+
+    /**
+     * Attribute the message being dispatched to a component, for toolkit code called by
+     * messages posted by the framework
+     *
+     * @param component the name of the component
+     */
+    public void mark(@NonNull String component) {
+        if (mStarted && Looper.myLooper() == Looper.getMainLooper()) {
+            mComponent = component;
+        }
+    }
+
+    public synchronized int getStallCount() {
+        return mStallCount;
+    }
+
+    /**
+     * Get the number of stalls per component
+     *
+     * @return a copy of the counts
+     */
+    @NonNull
+    public synchronized Map<String, Integer> getStallCounts() {
+        return Collections.unmodifiableMap(new HashMap<>(mCounts));
+    }
+
+    /**
+     * Get the last stalls, oldest first
+     *
+     * @return a copy of the stalls
+     */
+    @NonNull
+    public synchronized List<Stall> getStalls() {
+        return Collections.unmodifiableList(new ArrayList<>(mStalls));
+    }
+
+    public synchronized void reset() {
+        mCounts.clear();
+        mStalls.clear();
+        mStallCount = 0;
+    }
+
+    @Override
+    public void println(String x) {
+        if (null == x) return;
+
+        Handler sampler = mSampler;
+        if (x.startsWith(">>>>>")) {
+            mMessage = x;
+            mComponent = null;
+            mCapturedStack = null;
+            mDispatchStart = SystemClock.uptimeMillis();
+            if (null != sampler) sampler.postDelayed(mCapture, mBudget);
+        } else if (x.startsWith("<<<<<") && null != mMessage) {
+            if (null != sampler) sampler.removeCallbacks(mCapture);
+
+            long duration = SystemClock.uptimeMillis() - mDispatchStart;
+            if (duration > mBudget) {
+                String component = null != mComponent ? mComponent : findComponent(mMessage);
+                if (null != component) onStall(component, duration, mCapturedStack);
+            }
+            mMessage = null;
+            mComponent = null;
+        }
+    }
+
+    private synchronized void onStall(@NonNull String component, long duration, @Nullable StackTraceElement[] stack) {
+        ToolkitLog.w(TAG, "onStall: %s blocked the main thread for %sms", component, duration);
+
+        mStallCount++;
+        Integer count = mCounts.get(component);
+        mCounts.put(component, null == count ? 1 : count + 1);
+
+        mStalls.add(new Stall(component, duration, stack));
+        if (mStalls.size() > MAX_STALLS) mStalls.removeFirst();
+    }
+
+    /**
+     * Find the toolkit class in ">>>>> Dispatching to Handler (target) {hash} callback: what"
+     *
+     * @param message the message printed by the Looper
+     * @return the class name or null if the message was not posted by the toolkit
+     */
+    @Nullable
+    private static String findComponent(@NonNull String message) {
+        int start = message.indexOf(TOOLKIT_PACKAGE);
+        if (start < 0) return null;
+
+        int end = start;
+        while (end < message.length()) {
+            char c = message.charAt(end);
+            if (c == '@' || c == ' ' || c == ')' || c == ':' || c == '}') break;
+            end++;
+        }
+        return message.substring(start, end);
+    }
+}
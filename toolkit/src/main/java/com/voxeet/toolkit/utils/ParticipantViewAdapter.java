@@ -5,8 +5,6 @@ import android.graphics.Typeface;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.v7.widget.RecyclerView;
-import android.text.TextUtils;
-import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -14,19 +12,17 @@ import android.view.animation.AlphaAnimation;
 import android.widget.ImageView;
 import android.widget.TextView;
 
-import com.squareup.picasso.Picasso;
 import com.voxeet.android.media.MediaStream;
 import com.voxeet.toolkit.R;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import com.voxeet.toolkit.views.internal.rounded.RoundedImageView;
 import com.voxeet.toolkit.views.VideoView;
+import com.voxeet.toolkit.views.video.VideoTileBudgetManager;
 
-import voxeet.com.sdk.core.VoxeetSdk;
 import voxeet.com.sdk.models.ConferenceUserStatus;
 import voxeet.com.sdk.models.impl.DefaultConferenceUser;
 
@@ -41,6 +37,13 @@ public class ParticipantViewAdapter extends RecyclerView.Adapter<ParticipantView
 
     private List<DefaultConferenceUser> users;
 
+    /**
+     * Streams available for each user, in the same order as users
+     */
+    private List<StreamAvailability.Entry> availabilities;
+
+    private StreamAvailability streamAvailability;
+
     private Context context;
 
     private int avatarSize;
@@ -61,6 +64,16 @@ public class ParticipantViewAdapter extends RecyclerView.Adapter<ParticipantView
 
     private String mRequestUserIdChanged;
 
+    /**
+     * Bind again when tiles were granted or revoked, to switch between videos and avatars
+     */
+    private VideoTileBudgetManager.Listener mTilesListener = new VideoTileBudgetManager.Listener() {
+        @Override
+        public void onTilesChanged() {
+            notifyDataSetChanged();
+        }
+    };
+
     private ParticipantViewAdapter() {
         //mScreenShareMediaStreams = new HashMap<>();
         //mMediaStreamMap = new HashMap<>();
@@ -78,6 +91,8 @@ public class ParticipantViewAdapter extends RecyclerView.Adapter<ParticipantView
         this.context = context;
 
         this.users = new ArrayList<>();
+        this.availabilities = new ArrayList<>();
+        this.streamAvailability = new StreamAvailability();
 
         this.namesEnabled = true;
 
@@ -90,8 +105,12 @@ public class ParticipantViewAdapter extends RecyclerView.Adapter<ParticipantView
      * @param conferenceUser the conference user
      */
     public void removeUser(DefaultConferenceUser conferenceUser) {
-        if (users.contains(conferenceUser))
-            users.remove(conferenceUser);
+        int index = users.indexOf(conferenceUser);
+        if (index >= 0) {
+            users.remove(index);
+            availabilities.remove(index);
+            streamAvailability.remove(conferenceUser.getUserId());
+        }
     }
 
     /**
@@ -100,8 +119,10 @@ public class ParticipantViewAdapter extends RecyclerView.Adapter<ParticipantView
      * @param conferenceUser the conference user
      */
     public void addUser(DefaultConferenceUser conferenceUser) {
-        if (!users.contains(conferenceUser))
+        if (!users.contains(conferenceUser)) {
             users.add(conferenceUser);
+            availabilities.add(streamAvailability.get(conferenceUser.getUserId()));
+        }
     }
 
     /**
@@ -113,6 +134,18 @@ public class ParticipantViewAdapter extends RecyclerView.Adapter<ParticipantView
         overlayColor = color;
     }
 
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        VideoTileBudgetManager.getInstance(context).addListener(mTilesListener);
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView);
+        VideoTileBudgetManager.getInstance(context).removeListener(mTilesListener);
+    }
+
     @Override
     public ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
         View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.view_participant_view_cell, parent, false);
@@ -127,8 +160,9 @@ public class ParticipantViewAdapter extends RecyclerView.Adapter<ParticipantView
     @Override
     public void onBindViewHolder(final ViewHolder holder, final int position) {
         final DefaultConferenceUser user = getItem(position);
+        final StreamAvailability.Entry availability = availabilities.get(position);
 
-        Log.d(TAG, "onBindViewHolder: " + position + " " + user.getConferenceStatus());
+        ToolkitLog.d(TAG, "onBindViewHolder: %d %s", position, user.getConferenceStatus());
 
         boolean on_air = ConferenceUserStatus.ON_AIR.equals(user.getConferenceStatus());
         if (user.getStatus() != null && !user.getStatus().equalsIgnoreCase(ConferenceUserStatus.ON_AIR.name())) {
@@ -143,9 +177,9 @@ public class ParticipantViewAdapter extends RecyclerView.Adapter<ParticipantView
         }
         holder.name.setVisibility(namesEnabled ? View.VISIBLE : View.GONE);
 
-        loadViaPicasso(user, holder.avatar);
+        loadAvatar(user, holder.avatar);
 
-        Log.d(TAG, "onBindViewHolder: ");
+        ToolkitLog.d(TAG, "onBindViewHolder: ");
         if (on_air) {
             holder.avatar.setAlpha(1.0f);
         } else {
@@ -181,26 +215,19 @@ public class ParticipantViewAdapter extends RecyclerView.Adapter<ParticipantView
         });
 
         if (null != mRequestUserIdChanged && mRequestUserIdChanged.equals(user.getUserId())) {
-            String userId = mRequestUserIdChanged;
             VideoView.MediaStreamType type = null;
             MediaStream stream = null;
-            if (VideoView.MediaStreamType.NONE.equals(type)) {
-                if (hasScreenShareMediaStream(userId)) {
-                    type = getPrevious(userId, VideoView.MediaStreamType.SCREEN_SHARE);
-                } else if (hasCameraMediaStream(userId)) {
-                    type = getPrevious(userId, VideoView.MediaStreamType.VIDEO);
-                }
-            } else if (hasScreenShareMediaStream(userId)) {
-                stream = getScreenShareMediaStream(userId);
-                type = getPrevious(userId, VideoView.MediaStreamType.SCREEN_SHARE);
-            } else if (hasCameraMediaStream(userId)) {
-                stream = getCameraMediaStream(userId);
-                type = getPrevious(userId, VideoView.MediaStreamType.VIDEO);
+            if (availability.hasScreenShare()) {
+                stream = availability.getScreenShareStream();
+                type = availability.getPrevious(VideoView.MediaStreamType.SCREEN_SHARE);
+            } else if (availability.hasCamera()) {
+                stream = availability.getCameraStream();
+                type = availability.getPrevious(VideoView.MediaStreamType.VIDEO);
             }
 
-            Log.d(TAG, "onBindViewHolder: load previous " + type);
+            ToolkitLog.d(TAG, "onBindViewHolder: load previous %s", type);
 
-            loadStreamOnto(mRequestUserIdChanged, type, holder);
+            loadStreamOnto(availability, type, holder);
 
             if (listener != null)
                 listener.onParticipantSelected(user, stream);
@@ -208,51 +235,33 @@ public class ParticipantViewAdapter extends RecyclerView.Adapter<ParticipantView
             //prevent any modification until next event
             mRequestUserIdChanged = null;
         } else {
-            String userId = user.getUserId();
-            VideoView.MediaStreamType type = getCurrentType(holder.videoView, userId);
-            //if (VideoView.MediaStreamType.NONE.equals(type)) {
-            if (hasScreenShareMediaStream(userId)) {
-                type = VideoView.MediaStreamType.SCREEN_SHARE;
-            } else if (hasCameraMediaStream(userId)) {
-                type = VideoView.MediaStreamType.VIDEO;
-            }
+            VideoView.MediaStreamType type = availability.getCurrent(holder.videoView.getCurrentMediaStreamType());
 
-            Log.d(TAG, "onBindViewHolder: loading stream ? " + type);
-            loadStreamOnto(userId, type, holder);
-            //}
+            ToolkitLog.d(TAG, "onBindViewHolder: loading stream ? %s", type);
+            loadStreamOnto(availability, type, holder);
         }
 
         holder.itemView.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View v) {
                 if (!on_air) {
-                    Log.d(TAG, "onClick: click on an invalid user, we can't select him");
+                    ToolkitLog.d(TAG, "onClick: click on an invalid user, we can't select him");
                     return;
                 }
 
-                String userId = user.getUserId();
                 //toggle media screen call next stream
                 VideoView.MediaStreamType current_type = holder.videoView.getCurrentMediaStreamType();
 
-                VideoView.MediaStreamType next = getNext(user.getUserId(), current_type);
+                VideoView.MediaStreamType next = availability.getNext(current_type);
 
-                Log.d(TAG, "onClick: loading stream type " + next);
-                loadStreamOnto(userId, next, holder);
+                ToolkitLog.d(TAG, "onClick: loading stream type %s", next);
+                loadStreamOnto(availability, next, holder);
 
                 //now get the one for the main view
-                next = getNext(user.getUserId(), next);
-
-                MediaStream stream = null;
+                next = availability.getNext(next);
 
-                switch (next) {
-                    case SCREEN_SHARE:
-                        stream = getScreenShareMediaStream(userId);
-                        break;
-                    case VIDEO:
-                        stream = getCameraMediaStream(userId);
-                        break;
-                }
-                Log.d(TAG, "onClick: sending stream type to listener " + next);
+                MediaStream stream = availability.getStream(next);
+                ToolkitLog.d(TAG, "onClick: sending stream type to listener %s", next);
 
                 if (listener != null)
                     listener.onParticipantSelected(user, stream);
@@ -262,7 +271,7 @@ public class ParticipantViewAdapter extends RecyclerView.Adapter<ParticipantView
         setAnimation(holder.itemView, position);
     }
 
-    private void loadStreamOnto(String userId, @Nullable VideoView.MediaStreamType type, ViewHolder holder) {
+    private void loadStreamOnto(@NonNull StreamAvailability.Entry availability, @Nullable VideoView.MediaStreamType type, ViewHolder holder) {
         if (null == type) type = VideoView.MediaStreamType.NONE;
         holder.videoView.setAutoUnAttach(true);
         switch (type) {
@@ -272,89 +281,23 @@ public class ParticipantViewAdapter extends RecyclerView.Adapter<ParticipantView
                 holder.avatar.setVisibility(View.VISIBLE);
                 break;
             case SCREEN_SHARE:
-                holder.videoView.attach(userId, getScreenShareMediaStream(userId), true);
-                holder.videoView.setVisibility(View.VISIBLE);
-                holder.avatar.setVisibility(View.GONE);
+                holder.videoView.attach(availability.userId, availability.getScreenShareStream(), true);
+                showVideoOrAvatar(holder);
                 break;
             case VIDEO:
-                holder.videoView.attach(userId, getCameraMediaStream(userId), true);
-                holder.videoView.setVisibility(View.VISIBLE);
-                holder.avatar.setVisibility(View.GONE);
-                break;
-        }
-    }
-
-    private VideoView.MediaStreamType getCurrentType(VideoView videoView, String userId) {
-        VideoView.MediaStreamType type = videoView.getCurrentMediaStreamType();
-
-        switch (type) {
-            case NONE:
-                if (hasScreenShareMediaStream(userId))
-                    return VideoView.MediaStreamType.SCREEN_SHARE;
-                if (hasCameraMediaStream(userId))
-                    return VideoView.MediaStreamType.VIDEO;
-                break;
-            case SCREEN_SHARE:
-                if (hasScreenShareMediaStream(userId))
-                    return VideoView.MediaStreamType.SCREEN_SHARE;
-                if (hasCameraMediaStream(userId))
-                    return VideoView.MediaStreamType.VIDEO;
-                break;
-            case VIDEO:
-                if (hasScreenShareMediaStream(userId))
-                    return VideoView.MediaStreamType.SCREEN_SHARE;
-                if (hasCameraMediaStream(userId))
-                    return VideoView.MediaStreamType.VIDEO;
-        }
-        return VideoView.MediaStreamType.NONE;
-    }
-
-    @NonNull
-    private VideoView.MediaStreamType getPrevious(String userId, VideoView.MediaStreamType type) {
-        switch (type) {
-            case NONE:
-                if (hasCameraMediaStream(userId))
-                    return VideoView.MediaStreamType.VIDEO;
-                if (hasScreenShareMediaStream(userId))
-                    return VideoView.MediaStreamType.SCREEN_SHARE;
-                break;
-            case SCREEN_SHARE:
-                if (hasCameraMediaStream(userId))
-                    return VideoView.MediaStreamType.VIDEO;
-                if (hasScreenShareMediaStream(userId))
-                    return VideoView.MediaStreamType.SCREEN_SHARE;
+                holder.videoView.attach(availability.userId, availability.getCameraStream(), true);
+                showVideoOrAvatar(holder);
                 break;
-            case VIDEO:
-                if (hasScreenShareMediaStream(userId))
-                    return VideoView.MediaStreamType.SCREEN_SHARE;
-                if (hasCameraMediaStream(userId))
-                    return VideoView.MediaStreamType.VIDEO;
         }
-        return VideoView.MediaStreamType.NONE;
     }
 
-    @NonNull
-    private VideoView.MediaStreamType getNext(String userId, VideoView.MediaStreamType type) {
-        switch (type) {
-            case NONE:
-                if (hasCameraMediaStream(userId))
-                    return VideoView.MediaStreamType.VIDEO;
-                if (hasScreenShareMediaStream(userId))
-                    return VideoView.MediaStreamType.SCREEN_SHARE;
-                break;
-            case VIDEO:
-                if (hasScreenShareMediaStream(userId))
-                    return VideoView.MediaStreamType.SCREEN_SHARE;
-                if (hasCameraMediaStream(userId))
-                    return VideoView.MediaStreamType.VIDEO;
-                break;
-            case SCREEN_SHARE:
-                if (hasCameraMediaStream(userId))
-                    return VideoView.MediaStreamType.VIDEO;
-                if (hasScreenShareMediaStream(userId))
-                    return VideoView.MediaStreamType.SCREEN_SHARE;
-        }
-        return VideoView.MediaStreamType.NONE;
+    /**
+     * Show the avatar instead of the video when the tile budget did not let the view attach
+     */
+    private void showVideoOrAvatar(@NonNull ViewHolder holder) {
+        boolean attached = holder.videoView.isAttached();
+        holder.videoView.setVisibility(attached ? View.VISIBLE : View.GONE);
+        holder.avatar.setVisibility(attached ? View.GONE : View.VISIBLE);
     }
 
     /**
@@ -384,26 +327,25 @@ public class ParticipantViewAdapter extends RecyclerView.Adapter<ParticipantView
      * @param conferenceUser
      * @param imageView
      */
-    private void loadViaPicasso(DefaultConferenceUser conferenceUser, ImageView imageView) {
-        try {
-            String url = conferenceUser.getUserInfo().getAvatarUrl();
-            Log.d(TAG, "loadViaPicasso: loading " + url + " for user " + conferenceUser.getUserInfo().getExternalId() + " instance := " + Picasso.get());
-            if (!TextUtils.isEmpty(url)) {
-                Picasso.get()
-                        .load(url)
-                        .noFade()
-                        .resize(avatarSize, avatarSize)
-                        .placeholder(R.drawable.default_avatar)
-                        .error(R.color.red)
-                        .into(imageView);
-            } else {
-                Picasso.get()
-                        .load(R.drawable.default_avatar)
-                        .into(imageView);
-            }
-        } catch (Exception e) {
-            Log.e(TAG, "error " + e.getMessage());
-        }
+    private void loadAvatar(DefaultConferenceUser conferenceUser, ImageView imageView) {
+        AvatarCache.getInstance(context).load(getAvatarUrl(conferenceUser), avatarSize, imageView);
+    }
+
+    /**
+     * Load in background the avatar of an user, as it will be displayed in the list
+     *
+     * @param context        the context used to resolve the avatar size
+     * @param conferenceUser the user who will be displayed
+     */
+    public static void prefetchAvatar(@NonNull Context context, @NonNull DefaultConferenceUser conferenceUser) {
+        //same size and shape as the avatar in view_participant_view_cell
+        int size = context.getResources().getDimensionPixelSize(R.dimen.meeting_list_avatar_double);
+        AvatarCache.getInstance(context).prefetch(getAvatarUrl(conferenceUser), size, true, 0);
+    }
+
+    @Nullable
+    private static String getAvatarUrl(@NonNull DefaultConferenceUser conferenceUser) {
+        return null != conferenceUser.getUserInfo() ? conferenceUser.getUserInfo().getAvatarUrl() : null;
     }
 
     @Override
@@ -427,6 +369,9 @@ public class ParticipantViewAdapter extends RecyclerView.Adapter<ParticipantView
      */
     public void onMediaStreamUpdated(@Nullable String userId, @NonNull Map<String, MediaStream> mediaStreams) {
         //mMediaStreamMap = mediaStreams;
+        if (null != userId) streamAvailability.refresh(userId);
+        else streamAvailability.refreshAll();
+
         if (null != userId && mediaStreams.containsKey(userId)) {
             MediaStream stream = mediaStreams.get(userId);
             if (null != stream && stream.videoTracks().size() > 0) {
@@ -439,6 +384,7 @@ public class ParticipantViewAdapter extends RecyclerView.Adapter<ParticipantView
 
     public void onScreenShareMediaStreamUpdated(String userId, Map<String, MediaStream> screenSharemediaStreams) {
         //mScreenShareMediaStreams = screenSharemediaStreams;
+        streamAvailability.refresh(userId);
 
         if (screenSharemediaStreams.containsKey(userId)) {
             MediaStream stream = screenSharemediaStreams.get(userId);
@@ -455,6 +401,16 @@ public class ParticipantViewAdapter extends RecyclerView.Adapter<ParticipantView
      */
     public void clearParticipants() {
         this.users.clear();
+        this.availabilities.clear();
+        streamAvailability.clear();
+    }
+
+    /**
+     * Refresh the streams available for every user, when the streams were replaced altogether
+     * instead of being updated for a given user
+     */
+    public void onStreamsReset() {
+        streamAvailability.refreshAll();
     }
 
     /**
@@ -499,44 +455,4 @@ public class ParticipantViewAdapter extends RecyclerView.Adapter<ParticipantView
             avatar = (RoundedImageView) view.findViewById(R.id.avatar);
         }
     }
-
-    @Nullable
-    private MediaStream getScreenShareMediaStream(@NonNull String userId) {
-        //if (null != mScreenShareMediaStreams && mScreenShareMediaStreams.containsKey(userId))
-        //    return mScreenShareMediaStreams.get(userId);
-        //return null;
-        HashMap<String, MediaStream> streams = VoxeetSdk.getInstance()
-                .getConferenceService().getMapOfScreenShareStreams();
-        return streams.containsKey(userId) ? streams.get(userId) : null;
-    }
-
-    @Nullable
-    private MediaStream getCameraMediaStream(@NonNull String userId) {
-        //if (hasCameraMediaStream(userId)) return mMediaStreamMap.get(userId);
-        //return null;
-        HashMap<String, MediaStream> streams = VoxeetSdk.getInstance()
-                .getConferenceService().getMapOfStreams();
-        return streams.containsKey(userId) ? streams.get(userId) : null;
-    }
-
-    private boolean hasScreenShareMediaStream(@NonNull String userId) {
-        MediaStream stream = getScreenShareMediaStream(userId);
-        return null != stream;
-    }
-
-    private boolean hasCameraMediaStream(@NonNull String userId) {
-        MediaStream stream = getMediaStream(userId);
-        if (null != stream) return stream.videoTracks().size() > 0;
-        return false;
-    }
-
-    @Nullable
-    private MediaStream getMediaStream(@NonNull String userId) {
-        //if (null != mMediaStreamMap && mMediaStreamMap.containsKey(userId))
-        //    return mMediaStreamMap.get(userId);
-        //return null;
-        HashMap<String, MediaStream> streams = VoxeetSdk.getInstance()
-                .getConferenceService().getMapOfStreams();
-        return streams.containsKey(userId) ? streams.get(userId) : null;
-    }
 }
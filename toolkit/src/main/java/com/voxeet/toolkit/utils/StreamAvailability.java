@@ -0,0 +1,202 @@
+package com.voxeet.toolkit.utils;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.voxeet.android.media.MediaStream;
+import com.voxeet.toolkit.views.VideoView;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import voxeet.com.sdk.core.VoxeetSdk;
+
+/**
+ * Streams available for each user, as a bitmask, with the streams themselves
+ * <p>
+ * An entry is only refreshed from the SDK maps when a stream event concerns its user. Cycling
+ * between the streams of a user is then a lookup in a table indexed by the mask and the current
+ * type, without any map access
+ */
+public class StreamAvailability {
+
+    public final static int CAMERA = 1;
+    public final static int SCREEN_SHARE = 2;
+    public final static int AUDIO_ONLY = 4;
+
+    private final static int VIDEO_MASK = CAMERA | SCREEN_SHARE;
+
+    private final static VideoView.MediaStreamType[] TYPES = VideoView.MediaStreamType.values();
+
+    /**
+     * [video mask][current type] : the stream to display
+     */
+    private final static VideoView.MediaStreamType[][] CURRENT = new VideoView.MediaStreamType[VIDEO_MASK + 1][TYPES.length];
+
+    /**
+     * [video mask][current type] : the stream to display next, from the camera to the screen
+     * share and back. With two kinds of video the previous stream is the next one
+     */
+    private final static VideoView.MediaStreamType[][] NEXT = new VideoView.MediaStreamType[VIDEO_MASK + 1][TYPES.length];
+
+    static {
+        for (int mask = 0; mask <= VIDEO_MASK; mask++) {
+            boolean camera = (mask & CAMERA) != 0;
+            boolean screenShare = (mask & SCREEN_SHARE) != 0;
+
+            VideoView.MediaStreamType current = screenShare ? VideoView.MediaStreamType.SCREEN_SHARE
+                    : camera ? VideoView.MediaStreamType.VIDEO
+                    : VideoView.MediaStreamType.NONE;
+
+            for (VideoView.MediaStreamType type : TYPES) {
+                CURRENT[mask][type.ordinal()] = current;
+
+                //from the video, the screen share comes first
+                boolean screenShareFirst = VideoView.MediaStreamType.VIDEO.equals(type);
+                VideoView.MediaStreamType next;
+                if (screenShareFirst) {
+                    next = screenShare ? VideoView.MediaStreamType.SCREEN_SHARE
+                            : camera ? VideoView.MediaStreamType.VIDEO
+                            : VideoView.MediaStreamType.NONE;
+                } else {
+                    next = camera ? VideoView.MediaStreamType.VIDEO
+                            : screenShare ? VideoView.MediaStreamType.SCREEN_SHARE
+                            : VideoView.MediaStreamType.NONE;
+                }
+                NEXT[mask][type.ordinal()] = next;
+            }
+        }
+    }
+
+    /**
+     * Availability of the streams of one user
+     */
+    public static class Entry {
+        @NonNull
+        public final String userId;
+        private int mMask;
+        @Nullable
+        private MediaStream mCamera;
+        @Nullable
+        private MediaStream mScreenShare;
+
+        private Entry(@NonNull String userId) {
+            this.userId = userId;
+        }
+
+        public int getMask() {
+            return mMask;
+        }
+
+        public boolean hasCamera() {
+            return (mMask & CAMERA) != 0;
+        }
+
+        public boolean hasScreenShare() {
+            return (mMask & SCREEN_SHARE) != 0;
+        }
+
+        @Nullable
+        public MediaStream getCameraStream() {
+            return mCamera;
+        }
+
+        @Nullable
+        public MediaStream getScreenShareStream() {
+            return mScreenShare;
+        }
+
+        @NonNull
+        public VideoView.MediaStreamType getCurrent(@NonNull VideoView.MediaStreamType type) {
+            return CURRENT[mMask & VIDEO_MASK][type.ordinal()];
+        }
+
+        @NonNull
+        public VideoView.MediaStreamType getNext(@NonNull VideoView.MediaStreamType type) {
+            return NEXT[mMask & VIDEO_MASK][type.ordinal()];
+        }
+
+        @NonNull
+        public VideoView.MediaStreamType getPrevious(@NonNull VideoView.MediaStreamType type) {
+            return NEXT[mMask & VIDEO_MASK][type.ordinal()];
+        }
+
+        @Nullable
+        public MediaStream getStream(@NonNull VideoView.MediaStreamType type) {
+            switch (type) {
+                case VIDEO:
+                    return mCamera;
+                case SCREEN_SHARE:
+                    return mScreenShare;
+                default:
+                    return null;
+            }
+        }
+    }
+
+    @NonNull
+    private final Map<String, Entry> mEntries = new HashMap<>();
+
+    /**
+     * Get the entry of a user, created and refreshed from the SDK when unknown
+     *
+     * @param userId the user
+     * @return a valid entry, updated in place by the next refreshes
+     */
+    @NonNull
+    public Entry get(@NonNull String userId) {
+        Entry entry = mEntries.get(userId);
+        if (null == entry) {
+            entry = new Entry(userId);
+            mEntries.put(userId, entry);
+            refresh(entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Refresh the entry of a user after a stream event
+     *
+     * @param userId the user whose streams changed
+     */
+    public void refresh(@NonNull String userId) {
+        Entry entry = mEntries.get(userId);
+        if (null != entry) refresh(entry);
+    }
+
+    /**
+     * Refresh every entry, when the streams were replaced altogether
+     */
+    public void refreshAll() {
+        for (Entry entry : mEntries.values()) refresh(entry);
+    }
+
+    public void remove(@NonNull String userId) {
+        mEntries.remove(userId);
+    }
+
+    public void clear() {
+        mEntries.clear();
+    }
+
+    private void refresh(@NonNull Entry entry) {
+        VoxeetSdk sdk = VoxeetSdk.getInstance();
+        if (null == sdk) {
+            entry.mCamera = null;
+            entry.mScreenShare = null;
+            entry.mMask = 0;
+            return;
+        }
+
+        MediaStream camera = sdk.getConferenceService().getMapOfStreams().get(entry.userId);
+        MediaStream screenShare = sdk.getConferenceService().getMapOfScreenShareStreams().get(entry.userId);
+
+        int mask = 0;
+        if (null != camera) mask |= camera.videoTracks().size() > 0 ? CAMERA : AUDIO_ONLY;
+        if (null != screenShare) mask |= SCREEN_SHARE;
+
+        entry.mCamera = camera;
+        entry.mScreenShare = screenShare;
+        entry.mMask = mask;
+    }
+}
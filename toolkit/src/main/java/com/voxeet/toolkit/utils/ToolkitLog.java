@@ -0,0 +1,132 @@
+package com.voxeet.toolkit.utils;
+
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import java.util.Locale;
+
+/**
+ * Logging facade used by the toolkit
+ * <p>
+ * Messages under the current level are dropped before being built. The formatted variants only
+ * format their arguments (using String.format) when the message is logged, so hot paths must
+ * pass their values as arguments instead of concatenating them
+ * <p>
+ * Only warnings and errors are logged unless the application is debuggable, its flag is read when
+ * the toolkit is initialized (the BuildConfig of the toolkit is the one of its release artifact).
+ * The debug and verbose calls are also removed by the consumer ProGuard rules of the toolkit
+ * when the application is minified
+ */
+public final class ToolkitLog {
+
+    private static volatile int sLevel = Log.WARN;
+    private static volatile boolean sLevelSet;
+
+    private ToolkitLog() {
+
+    }
+
+    /**
+     * Change the minimum level logged
+     *
+     * @param level one of Log.VERBOSE, Log.DEBUG, Log.INFO, Log.WARN, Log.ERROR
+     */
+    public static void setLevel(int level) {
+        sLevel = level;
+        sLevelSet = true;
+    }
+
+    /**
+     * Log everything if the application is debuggable, unless a level was set with setLevel()
+     *
+     * @param context a context of the application
+     */
+    public static void setDefaultLevel(@NonNull Context context) {
+        if (sLevelSet) return;
+
+        boolean debuggable = 0 != (context.getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE);
+        sLevel = debuggable ? Log.VERBOSE : Log.WARN;
+    }
+
+    public static boolean isLoggable(int level) {
+        return level >= sLevel;
+    }
+
+    public static void v(@NonNull String tag, @NonNull String message) {
+        if (isLoggable(Log.VERBOSE)) Log.v(tag, message);
+    }
+
+    public static void v(@NonNull String tag, @NonNull String format, @Nullable Object arg) {
+        if (isLoggable(Log.VERBOSE)) Log.v(tag, format(format, arg));
+    }
+
+    public static void d(@NonNull String tag, @NonNull String message) {
+        if (isLoggable(Log.DEBUG)) Log.d(tag, message);
+    }
+
+    public static void d(@NonNull String tag, @NonNull String format, @Nullable Object arg) {
+        if (isLoggable(Log.DEBUG)) Log.d(tag, format(format, arg));
+    }
+
+    public static void d(@NonNull String tag, @NonNull String format, @Nullable Object arg1,
+                         @Nullable Object arg2) {
+        if (isLoggable(Log.DEBUG)) Log.d(tag, format(format, arg1, arg2));
+    }
+
+    public static void d(@NonNull String tag, @NonNull String format, @Nullable Object arg1,
+                         @Nullable Object arg2, @Nullable Object arg3) {
+        if (isLoggable(Log.DEBUG)) Log.d(tag, format(format, arg1, arg2, arg3));
+    }
+
+    public static void d(@NonNull String tag, @NonNull String format, @Nullable Object arg1,
+                         @Nullable Object arg2, @Nullable Object arg3, @Nullable Object arg4) {
+        if (isLoggable(Log.DEBUG)) Log.d(tag, format(format, arg1, arg2, arg3, arg4));
+    }
+
+    public static void i(@NonNull String tag, @NonNull String message) {
+        if (isLoggable(Log.INFO)) Log.i(tag, message);
+    }
+
+    public static void w(@NonNull String tag, @NonNull String message) {
+        if (isLoggable(Log.WARN)) Log.w(tag, message);
+    }
+
+    public static void w(@NonNull String tag, @NonNull String message, @Nullable Throwable throwable) {
+        if (isLoggable(Log.WARN)) Log.w(tag, message, throwable);
+    }
+
+    public static void w(@NonNull String tag, @NonNull String format, @Nullable Object arg,
+                         @Nullable Throwable throwable) {
+        if (isLoggable(Log.WARN)) Log.w(tag, format(format, arg), throwable);
+    }
+
+    public static void w(@NonNull String tag, @NonNull String format, @Nullable Object arg1,
+                         @Nullable Object arg2) {
+        if (isLoggable(Log.WARN)) Log.w(tag, format(format, arg1, arg2));
+    }
+
+    public static void e(@NonNull String tag, @NonNull String message) {
+        if (isLoggable(Log.ERROR)) Log.e(tag, message);
+    }
+
+    public static void e(@NonNull String tag, @NonNull String message, @Nullable Throwable throwable) {
+        if (isLoggable(Log.ERROR)) Log.e(tag, message, throwable);
+    }
+
+    public static void e(@NonNull String tag, @NonNull String format, @Nullable Object arg) {
+        if (isLoggable(Log.ERROR)) Log.e(tag, format(format, arg));
+    }
+
+    public static void e(@NonNull String tag, @NonNull String format, @Nullable Object arg1,
+                         @Nullable Object arg2, @Nullable Object arg3) {
+        if (isLoggable(Log.ERROR)) Log.e(tag, format(format, arg1, arg2, arg3));
+    }
+
+    @NonNull
+    private static String format(@NonNull String format, @NonNull Object... args) {
+        return String.format(Locale.US, format, args);
+    }
+}
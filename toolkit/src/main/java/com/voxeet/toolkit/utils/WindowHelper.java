@@ -14,6 +14,12 @@ import android.view.inputmethod.InputMethodManager;
 
 public class WindowHelper {
 
+    /**
+     * Get the real size of the display, whatever the size of the window
+     *
+     * @param context a valid context
+     * @param size    the point to set
+     */
     public static void getSize(@NonNull Context context, @NonNull Point size) {
         WindowManager wm = (WindowManager) context.getSystemService(Context.WINDOW_SERVICE);
         if (wm != null) {
@@ -27,6 +33,17 @@ public class WindowHelper {
         }
     }
 
+    /**
+     * Get the size of the window the overlay is displayed in, smaller than the display in
+     * split-screen or freeform mode
+     *
+     * @param context a valid context
+     * @param size    the point to set
+     */
+    public static void getWindowSize(@NonNull Context context, @NonNull Point size) {
+        WindowMetricsTracker.getInstance().getSize(context, size);
+    }
+
     public static float dpToPx(@NonNull Context context, float dp) {
         return TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, dp,
                 context.getResources().getDisplayMetrics());
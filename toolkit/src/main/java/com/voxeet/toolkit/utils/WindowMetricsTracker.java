@@ -0,0 +1,212 @@
+package com.voxeet.toolkit.utils;
+
+import android.content.Context;
+import android.content.res.Configuration;
+import android.graphics.Point;
+import android.graphics.Rect;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.view.View;
+import android.view.WindowManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import voxeet.com.sdk.utils.ScreenHelper;
+
+/**
+ * Geometry of the window the overlay is displayed in
+ * <p>
+ * In split-screen, in a freeform window or when a foldable changes its posture, the window is
+ * not the display and it is resized many times in a row. The geometry is read from the container
+ * of the overlay and cached until the container is resized or the configuration changes. The
+ * listeners are told once per window change, when the size is stable. Until a container is
+ * tracked, the size of the display is used. Every method must be called from the main thread
+ */
+public final class WindowMetricsTracker {
+
+    private final static String TAG = WindowMetricsTracker.class.getSimpleName();
+
+    //a window being resized lays its content out on every frame
+    private final static long DEBOUNCE = 150;
+
+    private static WindowMetricsTracker sInstance;
+
+    public interface Listener {
+        /**
+         * Called once the window stopped changing
+         *
+         * @param bounds the area in which the overlay can be moved, must not be modified
+         * @param size   the size of the window, must not be modified
+         */
+        void onWindowChanged(@NonNull Rect bounds, @NonNull Point size);
+    }
+
+    @NonNull
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    @NonNull
+    private final List<Listener> mListeners = new ArrayList<>();
+
+    @Nullable
+    private View mContainer;
+
+    @Nullable
+    private Configuration mConfiguration;
+    private boolean mValid;
+    private int mVersion;
+    private int mNotifiedVersion;
+
+    private final Rect mBounds = new Rect();
+    private final Point mSize = new Point();
+
+    private final Rect mNextBounds = new Rect();
+    private final Point mNextSize = new Point();
+    private final Rect mVisibleFrame = new Rect();
+    private final int[] mLocation = new int[2];
+
+    @NonNull
+    private final View.OnLayoutChangeListener mLayoutListener = new View.OnLayoutChangeListener() {
+        @Override
+        public void onLayoutChange(View view, int left, int top, int right, int bottom,
+                                   int oldLeft, int oldTop, int oldRight, int oldBottom) {
+            if (right - left == oldRight - oldLeft && bottom - top == oldBottom - oldTop) return;
+
+            mHandler.removeCallbacks(mUpdate);
+            mHandler.postDelayed(mUpdate, DEBOUNCE);
+        }
+    };
+
+    @NonNull
+    private final Runnable mUpdate = new Runnable() {
+        @Override
+        public void run() {
+            View container = mContainer;
+            if (null == container) return;
+
+            mValid = false;
+            update(container.getContext());
+            notifyIfChanged();
+        }
+    };
+
+    public static synchronized WindowMetricsTracker getInstance() {
+        if (null == sInstance) sInstance = new WindowMetricsTracker();
+        return sInstance;
+    }
+
+    private WindowMetricsTracker() {
+
+    }
+
+    /**
+     * Follow the size of the view the overlay is laid out in, replacing the previous one
+     *
+     * @param container the parent of the overlay, attached to its window
+     */
+    public void track(@NonNull View container) {
+        if (container == mContainer) return;
+
+        if (null != mContainer) mContainer.removeOnLayoutChangeListener(mLayoutListener);
+        mContainer = container;
+        container.addOnLayoutChangeListener(mLayoutListener);
+
+        //the new window may not have the geometry of the previous one
+        mValid = false;
+        mHandler.removeCallbacks(mUpdate);
+        mHandler.post(mUpdate);
+    }
+
+    public void untrack(@NonNull View container) {
+        if (container != mContainer) return;
+
+        container.removeOnLayoutChangeListener(mLayoutListener);
+        mContainer = null;
+        mValid = false;
+        mHandler.removeCallbacks(mUpdate);
+    }
+
+    public void addListener(@NonNull Listener listener) {
+        if (!mListeners.contains(listener)) mListeners.add(listener);
+    }
+
+    public void removeListener(@NonNull Listener listener) {
+        mListeners.remove(listener);
+    }
+
+    /**
+     * Get the area in which the overlay can be moved, in the coordinates of its container
+     *
+     * @param context a valid context
+     * @return the cached bounds, must not be modified
+     */
+    @NonNull
+    public Rect getBounds(@NonNull Context context) {
+        update(context);
+        return mBounds;
+    }
+
+    /**
+     * Get the size of the window, or of the display if no container is tracked
+     *
+     * @param context a valid context
+     * @param size    the point to set
+     */
+    public void getSize(@NonNull Context context, @NonNull Point size) {
+        update(context);
+        size.set(mSize.x, mSize.y);
+    }
+
+    /**
+     * @return a number incremented every time the geometry changes
+     */
+    public int getVersion() {
+        return mVersion;
+    }
+
+    private void update(@NonNull Context context) {
+        Configuration configuration = context.getResources().getConfiguration();
+        if (mValid && null != mConfiguration && mConfiguration.equals(configuration)) return;
+
+        mConfiguration = new Configuration(configuration);
+        mValid = true;
+
+        View container = mContainer;
+        if (null != container && container.getWidth() > 0 && container.getHeight() > 0) {
+            mNextSize.set(container.getWidth(), container.getHeight());
+
+            //the status bar only covers the window when it is at the top of the screen
+            container.getWindowVisibleDisplayFrame(mVisibleFrame);
+            container.getLocationOnScreen(mLocation);
+            int top = Math.max(0, Math.min(mVisibleFrame.top - mLocation[1], mNextSize.y));
+
+            mNextBounds.set(0, top, mNextSize.x, mNextSize.y);
+        } else {
+            WindowManager windowManager = (WindowManager) context.getSystemService(Context.WINDOW_SERVICE);
+            if (null != windowManager) {
+                windowManager.getDefaultDisplay().getSize(mNextSize);
+            }
+
+            mNextBounds.set(0, ScreenHelper.getStatusBarHeight(context), mNextSize.x, mNextSize.y);
+        }
+
+        if (mNextBounds.equals(mBounds) && mNextSize.equals(mSize)) return;
+
+        mBounds.set(mNextBounds);
+        mSize.set(mNextSize.x, mNextSize.y);
+        mVersion++;
+        ToolkitLog.d(TAG, "update: window %sx%s, bounds %s", mSize.x, mSize.y, mBounds);
+    }
+
+    private void notifyIfChanged() {
+        if (mNotifiedVersion == mVersion) return;
+        mNotifiedVersion = mVersion;
+
+        //listeners can unregister themselves
+        for (Listener listener : new ArrayList<>(mListeners)) {
+            listener.onWindowChanged(mBounds, mSize);
+        }
+    }
+}
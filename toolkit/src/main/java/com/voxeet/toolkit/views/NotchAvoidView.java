@@ -9,14 +9,15 @@ import android.graphics.Rect;
 import android.os.Build;
 import android.support.annotation.Nullable;
 import android.util.AttributeSet;
-import android.util.Log;
 import android.view.DisplayCutout;
 import android.view.View;
 import android.view.Window;
 import android.view.WindowManager;
 
 import com.voxeet.toolkit.R;
+import com.voxeet.toolkit.utils.ActivityContextWrapper;
 import com.voxeet.toolkit.utils.WindowHelper;
+import com.voxeet.toolkit.utils.ToolkitLog;
 
 public class NotchAvoidView extends View {
     private static final String TAG = NotchAvoidView.class.getSimpleName();
@@ -112,13 +113,15 @@ public class NotchAvoidView extends View {
      */
     protected boolean isTranslucentStatusBar() {
         if (below_system_bar) {
-            Log.d(TAG, "isTranslucentStatusBar: we have below_system_bar, so true in fact");
+            ToolkitLog.d(TAG, "isTranslucentStatusBar: we have below_system_bar, so true in fact");
             return true;
         }
 
-        if (null != getContext() && getContext() instanceof Activity
+        //the overlay is inflated in a wrapper of its current activity
+        Activity activity = ActivityContextWrapper.getActivity(getContext());
+        if (null != activity
                 && android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.KITKAT) {
-            Window window = ((Activity) getContext()).getWindow();
+            Window window = activity.getWindow();
             int flags = window.getAttributes().flags;
             int translucent = WindowManager.LayoutParams.FLAG_TRANSLUCENT_STATUS;
             return (flags & translucent) == translucent;
@@ -9,9 +9,11 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.text.TextUtils;
 import android.util.AttributeSet;
-import android.util.Log;
+import android.view.GestureDetector;
 import android.view.Gravity;
 import android.view.LayoutInflater;
+import android.view.MotionEvent;
+import android.view.ScaleGestureDetector;
 import android.view.View;
 import android.widget.FrameLayout;
 
@@ -19,7 +21,14 @@ import com.voxeet.android.media.EglBaseRefreshEvent;
 import com.voxeet.android.media.MediaStream;
 import com.voxeet.toolkit.R;
 import com.voxeet.toolkit.views.internal.rounded.RoundedFrameLayout;
+import com.voxeet.toolkit.views.video.IVoxeetRenderer;
+import com.voxeet.toolkit.views.video.RendererBackend;
+import com.voxeet.toolkit.views.video.RendererPool;
+import com.voxeet.toolkit.views.video.VideoResolutionHints;
+import com.voxeet.toolkit.views.video.VideoTileBudgetManager;
 import com.voxeet.toolkit.views.video.VoxeetRenderer;
+import com.voxeet.toolkit.utils.LayoutTransaction;
+import com.voxeet.toolkit.utils.ToolkitLog;
 
 import org.greenrobot.eventbus.EventBus;
 import org.greenrobot.eventbus.Subscribe;
@@ -40,6 +49,8 @@ public class VideoView extends FrameLayout implements RendererCommon.RendererEve
     private static final int SCALE_FILL = 1;
     private static final int SCALE_BALANCED = 2;
 
+    private static final float MAX_ZOOM = 4f;
+
     private final String TAG = VideoView.class.getSimpleName();
 
     private boolean mIsAttached = false;
@@ -49,7 +60,10 @@ public class VideoView extends FrameLayout implements RendererCommon.RendererEve
      * The Voxeet renderer.
      */
     //protected SurfaceViewRenderer mRenderer;
-    protected VoxeetRenderer mRenderer;
+    protected IVoxeetRenderer mRenderer;
+
+    @NonNull
+    private RendererBackend mRendererBackend = RendererBackend.TEXTURE_VIEW;
 
     private String mPeerId;
 
@@ -72,6 +86,63 @@ public class VideoView extends FrameLayout implements RendererCommon.RendererEve
     private float mCornerRadius;
     private boolean enableRefreshEglBase = false;
 
+    //stream asked by the last attach, kept while the tile budget does not allow to render it
+    private String mRequestedPeerId;
+    private MediaStream mRequestedStream;
+    private boolean mTilePinned;
+
+    //the renderer was given to the RendererPool when the activity was recreated
+    private boolean mRendererRetained;
+    //the renderer kept its surface, to be given to the RendererPool once this view is detached
+    private boolean mRetainOnDetach;
+
+    @NonNull
+    private final VoxeetRenderer.OnDetachingListener mRendererDetachingListener = new VoxeetRenderer.OnDetachingListener() {
+        @Override
+        public void onDetaching(@NonNull VoxeetRenderer renderer) {
+            //the children are detached first, the surface must be kept before this view is
+            if (renderer == mRenderer && isAttached() && null != mPeerId && null != mMediaStream
+                    && RendererPool.getInstance().isChangingConfigurations(getContext())) {
+                mRetainOnDetach = true;
+                renderer.retainSurfaceOnDetach();
+            }
+        }
+    };
+
+    @NonNull
+    private final Runnable mReleaseDetachedTile = new Runnable() {
+        @Override
+        public void run() {
+            //still detached, the tile goes to the views displayed. The request is kept
+            if (null != getWindowToken()) return;
+
+            VideoTileBudgetManager.getInstance(getContext()).release(VideoView.this);
+            detachStream();
+        }
+    };
+
+    //zoom of the screen shares, kept while the same user's screen share is attached again
+    private boolean mZoomEnabled;
+    private float mZoom = 1f;
+    private float mZoomCenterX = 0.5f;
+    private float mZoomCenterY = 0.5f;
+    @Nullable
+    private String mZoomPeerId;
+    @Nullable
+    private ScaleGestureDetector mZoomDetector;
+    @Nullable
+    private GestureDetector mPanDetector;
+
+    @NonNull
+    private final IVoxeetRenderer.OnDesiredResolutionListener mDesiredResolutionListener = new IVoxeetRenderer.OnDesiredResolutionListener() {
+        @Override
+        public void onDesiredResolution(int maxWidth, int maxHeight, int maxFps) {
+            if (isAttached() && null != mPeerId) {
+                VideoResolutionHints.update(VideoView.this, mPeerId, isScreenShare(), maxWidth, maxHeight, maxFps);
+            }
+        }
+    };
+
     /**
      * Instantiates a new Video view.
      *
@@ -102,10 +173,37 @@ public class VideoView extends FrameLayout implements RendererCommon.RendererEve
         EventBus.getDefault().register(this);
 
         super.onAttachedToWindow();
+
+        //this view survived the configuration change or gave its tile back, attach the stream again
+        mHandler.removeCallbacks(mReleaseDetachedTile);
+        mRendererRetained = false;
+        if (!isAttached() && null != mRequestedPeerId && null != mRequestedStream) {
+            attach(mRequestedPeerId, mRequestedStream);
+        }
+    }
+
+    @Override
+    protected void onVisibilityChanged(@NonNull View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+
+        //the visible tiles are ranked first, also called once attached
+        if (null != mRequestedPeerId) {
+            VideoTileBudgetManager.getInstance(getContext()).invalidate();
+        }
     }
 
     @Override
     protected void onDetachedFromWindow() {
+        //the children are already detached, the renderer kept its surface
+        if (mRetainOnDetach) {
+            mRetainOnDetach = false;
+            retainRenderer();
+        } else if (null != mRequestedPeerId) {
+            //posted, the overlay moved to an other activity is attached again right away
+            mHandler.removeCallbacks(mReleaseDetachedTile);
+            mHandler.post(mReleaseDetachedTile);
+        }
+
         super.onDetachedFromWindow();
 
         EventBus.getDefault().unregister(this);
@@ -127,6 +225,9 @@ public class VideoView extends FrameLayout implements RendererCommon.RendererEve
         mIsCircle = attributes.getBoolean(R.styleable.VideoView_circle, false);
         mCornerRadius = attributes.getDimension(R.styleable.VideoView_cornerRadius, 0);
 
+        int backend = attributes.getInteger(R.styleable.VideoView_rendererBackend, RendererBackend.TEXTURE_VIEW.ordinal());
+        mRendererBackend = RendererBackend.values()[backend];
+
         attributes.recycle();
     }
 
@@ -214,11 +315,8 @@ public class VideoView extends FrameLayout implements RendererCommon.RendererEve
 
     private void updateFlip() {
         if (null != mFlip && null != mRenderer) {
-            if (showFlip && isAttached() && mRenderer.isFirstFrameRendered()) {
-                mFlip.setVisibility(View.VISIBLE);
-            } else {
-                mFlip.setVisibility(View.GONE);
-            }
+            boolean show = showFlip && isAttached() && mRenderer.isFirstFrameRendered();
+            LayoutTransaction.getInstance().setVisibility(mFlip, show ? View.VISIBLE : View.GONE);
         }
     }
 
@@ -318,12 +416,55 @@ public class VideoView extends FrameLayout implements RendererCommon.RendererEve
     /**
      * Returns the renderer.
      *
-     * @return the renderer
+     * @return the renderer, null if not created yet or when rendering with a SurfaceView
      */
+    @Nullable
     public VoxeetRenderer getRenderer() {
+        return mRenderer instanceof VoxeetRenderer ? (VoxeetRenderer) mRenderer : null;
+    }
+
+    /**
+     * Returns the renderer, whatever its backend
+     *
+     * @return the renderer or null if not created yet
+     */
+    @Nullable
+    public IVoxeetRenderer getRendererView() {
         return mRenderer;
     }
 
+    /**
+     * Choose the view rendering the stream. A SurfaceView has a lower latency and power use but can
+     * not be animated, made translucent or rounded : it fits a main stage only.
+     * <p>
+     * The renderer is created again if needed, an attached stream is kept
+     *
+     * @param backend the backend to use
+     */
+    @MainThread
+    public void setRendererBackend(@NonNull RendererBackend backend) {
+        if (mRendererBackend == backend) return;
+        mRendererBackend = backend;
+
+        if (null == mRenderer) return;
+
+        String peerId = mPeerId;
+        MediaStream stream = mMediaStream;
+        boolean attached = isAttached();
+
+        detachStream();
+        removeRender();
+
+        if (attached && null != peerId && null != stream) {
+            attachStream(peerId, stream);
+        }
+    }
+
+    @NonNull
+    public RendererBackend getRendererBackend() {
+        return mRendererBackend;
+    }
+
     private void setAttached(boolean attached) {
         mIsAttached = attached;
     }
@@ -355,62 +496,96 @@ public class VideoView extends FrameLayout implements RendererCommon.RendererEve
      * @param force       force the update
      */
     public void attach(String peerId, MediaStream mediaStream, boolean force) {
-        Log.d(TAG, "attach: " + mMediaStream + " " + mediaStream + " " + peerId + " " + this);
+        ToolkitLog.d(TAG, "attach: %s %s %s %s", mMediaStream, mediaStream, peerId, this);
         if (isAttached() && mPeerId != null && mPeerId.equals(peerId)) {// this user is already attached.
-            Log.d(TAG, "attach: isattached and peer id equals " + force + " " + this);
+            ToolkitLog.d(TAG, "attach: isattached and peer id equals %s %s", force, this);
             if (force) {
                 //nothing, go on
                 if (mediaStream != mMediaStream || mediaStream == null) {
-                    Log.d(TAG, "attach: we unattach, it's different");
-                    unAttach();
+                    ToolkitLog.d(TAG, "attach: we unattach, it's different");
+                    detachStream();
                 } else {
-                    Log.d(TAG, "attach: we don't unattach - exactly the same");
+                    ToolkitLog.d(TAG, "attach: we don't unattach - exactly the same");
                     return;
                 }
             } else if (null != mMediaStream && null != mediaStream && !force) {
                 return;
             } else if (null == mediaStream) {
-                Log.d(TAG, "attach: unattaching > was null");
+                ToolkitLog.d(TAG, "attach: unattaching > was null");
                 unAttach();
                 return;
             }
         }
 
         if (autoUnAttach && isAttached())
-            unAttach();
+            detachStream();
 
         if (!isAttached() && peerId != null && mediaStream != null && (mediaStream.videoTracks().size() > 0 || mediaStream.isScreenShare())) {
-            setAttached(true);
-            //reinit();
+            mRequestedPeerId = peerId;
+            mRequestedStream = mediaStream;
 
-            mPeerId = peerId;
+            if (!VideoTileBudgetManager.getInstance(getContext()).request(this)) {
+                ToolkitLog.d(TAG, "attach: over the tile budget %s", peerId);
+                return;
+            }
+
+            attachStream(peerId, mediaStream);
+        } else if (!isAttached()) {
+            //nothing to render anymore
+            unAttach();
+        }
+    }
 
-            mMediaStream = mediaStream;
+    private void attachStream(@NonNull String peerId, @NonNull MediaStream mediaStream) {
+        setAttached(true);
+        //reinit();
 
-            createRendererIfNeeded();
+        mPeerId = peerId;
 
-            if (null != mRenderer) {
-                mRenderer.setVisibility(View.VISIBLE);
-                boolean result = VoxeetSdk.getInstance().getMediaService().attachMediaStream(mediaStream, mRenderer);
+        mMediaStream = mediaStream;
 
-                Log.d(TAG, "attach: result := " + result + " " + this);
-                setVisibility(View.VISIBLE);
+        boolean reclaimed = reclaimRenderer(peerId, mediaStream);
+        createRendererIfNeeded();
 
-                forceLayout();
-                mRenderer.forceLayout();
-                requestLayout();
-                mRenderer.requestLayout();
+        if (null != mRenderer) {
+            if (mediaStream.isScreenShare()) {
+                if (!peerId.equals(mZoomPeerId)) {
+                    mZoomPeerId = peerId;
+                    resetZoomState();
+                }
+                mRenderer.setZoom(mZoom, mZoomCenterX, mZoomCenterY);
+            } else {
+                mRenderer.resetZoom();
             }
+            //screen shares are mostly static, unchanged frames are not drawn again
+            mRenderer.setContentAdaptive(mediaStream.isScreenShare());
 
-            updateFlip();
+            LayoutTransaction transaction = LayoutTransaction.getInstance();
+            transaction.setVisibility(mRenderer.getView(), View.VISIBLE);
+            boolean result = reclaimed
+                    || VoxeetSdk.getInstance().getMediaService().attachMediaStream(mediaStream, mRenderer);
+
+            ToolkitLog.d(TAG, "attach: result := %s %s", result, this);
+            //showing the views requests the layout, the renderer requests it again on resolution changes
+            transaction.setVisibility(this, View.VISIBLE);
         }
+
+        updateFlip();
     }
 
     /**
      * Un attach the stream from the videoView.
      */
     public void unAttach() {
-        createRendererIfNeeded();
+        mRequestedPeerId = null;
+        mRequestedStream = null;
+        VideoTileBudgetManager.getInstance(getContext()).release(this);
+
+        detachStream();
+    }
+
+    private void detachStream() {
+        if (isAttached()) createRendererIfNeeded();
 
         if (isAttached() && mPeerId != null) {
             if (mMediaStream != null) {
@@ -421,14 +596,162 @@ public class VideoView extends FrameLayout implements RendererCommon.RendererEve
             mMediaStream = null;
 
             setAttached(false);
+            VideoResolutionHints.remove(this);
         }
 
         if (null != mRenderer) {
-            mRenderer.setVisibility(View.GONE);
+            LayoutTransaction.getInstance().setVisibility(mRenderer.getView(), View.GONE);
             updateFlip();
         }
     }
 
+    /**
+     * Called by the VideoTileBudgetManager when this view can render the requested stream
+     */
+    public void onTileGranted() {
+        if (!isAttached() && null != mRequestedPeerId && null != mRequestedStream) {
+            attachStream(mRequestedPeerId, mRequestedStream);
+        }
+    }
+
+    /**
+     * Called by the VideoTileBudgetManager when a better ranked view needs the tile, the request
+     * is kept to render again once a tile is available
+     */
+    public void onTileRevoked() {
+        detachStream();
+    }
+
+    /**
+     * Rank this view before the others when the tile budget is reached, for instance for the
+     * main video of a conference
+     *
+     * @param pinned true to pin this view
+     */
+    public void setTilePinned(boolean pinned) {
+        mTilePinned = pinned;
+    }
+
+    public boolean isTilePinned() {
+        return mTilePinned;
+    }
+
+    /**
+     * Get the user whose stream this view wants to render, even if not attached yet
+     *
+     * @return the peer id or null
+     */
+    @Nullable
+    public String getRequestedPeerId() {
+        return mRequestedPeerId;
+    }
+
+    public boolean isScreenShareRequested() {
+        return null != mRequestedStream && mRequestedStream.isScreenShare();
+    }
+
+    /**
+     * Let the user pinch to zoom and pan on the screen shares rendered by this view, a double tap
+     * zooms out. Only the visible region of the frames is drawn, the view is not scaled
+     *
+     * @param enabled true to handle the gestures
+     */
+    @MainThread
+    public void setZoomEnabled(boolean enabled) {
+        mZoomEnabled = enabled;
+        if (!enabled || null != mZoomDetector) return;
+
+        mZoomDetector = new ScaleGestureDetector(getContext(), new ScaleGestureDetector.SimpleOnScaleGestureListener() {
+            @Override
+            public boolean onScale(ScaleGestureDetector detector) {
+                View view = mRenderer.getView();
+                float zoom = Math.max(1f, Math.min(MAX_ZOOM, mZoom * detector.getScaleFactor()));
+
+                //keep the point under the fingers at the same place
+                float focusX = (detector.getFocusX() - getOffsetX(view)) / view.getWidth() - 0.5f;
+                float focusY = (detector.getFocusY() - getOffsetY(view)) / view.getHeight() - 0.5f;
+                mZoomCenterX += focusX * (1f / mZoom - 1f / zoom);
+                mZoomCenterY += focusY * (1f / mZoom - 1f / zoom);
+                mZoom = zoom;
+
+                applyZoom();
+                return true;
+            }
+        });
+
+        mPanDetector = new GestureDetector(getContext(), new GestureDetector.SimpleOnGestureListener() {
+            @Override
+            public boolean onDown(MotionEvent e) {
+                return true;
+            }
+
+            @Override
+            public boolean onScroll(MotionEvent e1, MotionEvent e2, float distanceX, float distanceY) {
+                if (mZoom <= 1f) return false;
+
+                View view = mRenderer.getView();
+                mZoomCenterX += distanceX / (view.getWidth() * mZoom);
+                mZoomCenterY += distanceY / (view.getHeight() * mZoom);
+                applyZoom();
+                return true;
+            }
+
+            @Override
+            public boolean onDoubleTap(MotionEvent e) {
+                resetZoomState();
+                applyZoom();
+                return true;
+            }
+        });
+    }
+
+    public boolean isZoomEnabled() {
+        return mZoomEnabled;
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (!mZoomEnabled || null == mZoomDetector || null == mPanDetector || null == mRenderer
+                || !isAttached() || !isScreenShare() || mRenderer.getView().getWidth() == 0) {
+            return super.onTouchEvent(event);
+        }
+
+        boolean handled = mZoomDetector.onTouchEvent(event);
+        handled |= mPanDetector.onTouchEvent(event);
+        return handled || super.onTouchEvent(event);
+    }
+
+    private void resetZoomState() {
+        mZoom = 1f;
+        mZoomCenterX = 0.5f;
+        mZoomCenterY = 0.5f;
+    }
+
+    private void applyZoom() {
+        //the visible region stays inside the frame
+        float half = 0.5f / mZoom;
+        mZoomCenterX = Math.max(half, Math.min(1f - half, mZoomCenterX));
+        mZoomCenterY = Math.max(half, Math.min(1f - half, mZoomCenterY));
+
+        if (null != mRenderer) mRenderer.setZoom(mZoom, mZoomCenterX, mZoomCenterY);
+    }
+
+    private float getOffsetX(@NonNull View view) {
+        float offset = 0;
+        for (View current = view; null != current && current != this; current = (View) current.getParent()) {
+            offset += current.getLeft();
+        }
+        return offset;
+    }
+
+    private float getOffsetY(@NonNull View view) {
+        float offset = 0;
+        for (View current = view; null != current && current != this; current = (View) current.getParent()) {
+            offset += current.getTop();
+        }
+        return offset;
+    }
+
     /**
      * Gets the currently attached conference user's peer id.
      *
@@ -505,21 +828,19 @@ public class VideoView extends FrameLayout implements RendererCommon.RendererEve
             //don't setup if no context
             if (null != context) {
 
-                mInternalVideoView = LayoutInflater.from(getContext())
-                        .inflate(R.layout.voxeet_internal_videoview, this, false);
-                addView(mInternalVideoView);
-
-                mCornerRadiusView = mInternalVideoView.findViewById(R.id.voxeet_videoview_cornerradius);
-                mRenderer = mInternalVideoView.findViewById(R.id.voxeet_videoview_renderer);//new VoxeetRenderer(getContext());
-                mFlip = mInternalVideoView.findViewById(R.id.voxeet_videoview_flip);
-
-                mCornerRadiusView.setIsCircle(mIsCircle);
-                mCornerRadiusView.setCornerRadius(mCornerRadius);
+                LayoutInflater inflater = LayoutInflater.from(getContext());
+                int layout = R.layout.voxeet_internal_videoview_surface;
+                if (RendererBackend.TEXTURE_VIEW == mRendererBackend) {
+                    //the renderer can be kept on configuration changes, see RendererPool
+                    inflater = inflater.cloneInContext(RendererPool.wrap(getContext()));
+                    layout = R.layout.voxeet_internal_videoview;
+                }
+                bindInternalView(inflater.inflate(layout, this, false));
 
-                updateFlip();
                 mRenderer.init(context, this);
 
                 mRenderer.setScalingType(getScalingType());
+                mRenderer.setOnDesiredResolutionListener(mDesiredResolutionListener);
             }
         } else if (null != mRenderer) {
             LayoutParams param = new LayoutParams(
@@ -532,22 +853,98 @@ public class VideoView extends FrameLayout implements RendererCommon.RendererEve
                 @Override
                 public void run() {
                     if (null != mRenderer) {
-                        mRenderer.setLayoutParams(param);
+                        mRenderer.getView().setLayoutParams(param);
                     }
                 }
             });
         }
     }
 
+    private void bindInternalView(@NonNull View internalVideoView) {
+        mInternalVideoView = internalVideoView;
+        addView(mInternalVideoView);
+
+        mCornerRadiusView = mInternalVideoView.findViewById(R.id.voxeet_videoview_cornerradius);
+        mRenderer = (IVoxeetRenderer) mInternalVideoView.findViewById(R.id.voxeet_videoview_renderer);//new VoxeetRenderer(getContext());
+        mFlip = mInternalVideoView.findViewById(R.id.voxeet_videoview_flip);
+
+        if (mRenderer instanceof VoxeetRenderer) {
+            ((VoxeetRenderer) mRenderer).setOnDetachingListener(mRendererDetachingListener);
+        }
+
+        //the surface_view backend has no rounded wrapper, its corners are not clipped
+        if (null != mCornerRadiusView) {
+            mCornerRadiusView.setIsCircle(mIsCircle);
+            mCornerRadiusView.setCornerRadius(mCornerRadius);
+        }
+
+        updateFlip();
+    }
+
+    /**
+     * Take the renderer kept for this stream when the previous activity was destroyed, if any
+     *
+     * @return true if the renderer, already attached to the stream, is now displayed by this view
+     */
+    private boolean reclaimRenderer(@NonNull String peerId, @NonNull MediaStream mediaStream) {
+        if (null != mRenderer || RendererBackend.TEXTURE_VIEW != mRendererBackend) return false;
+
+        RendererPool.Entry entry = RendererPool.getInstance().claim(peerId, mediaStream, getContext());
+        if (null == entry) return false;
+
+        bindInternalView(entry.view);
+        entry.renderer.setRendererEvents(this);
+
+        setSurfaceViewRenderer();
+        mRenderer.setOnDesiredResolutionListener(mDesiredResolutionListener);
+        return true;
+    }
+
+    /**
+     * Give the renderer, still attached to its stream, to the RendererPool while the activity is
+     * recreated. The stream is attached again when this view is
+     */
+    private void retainRenderer() {
+        VoxeetRenderer renderer = (VoxeetRenderer) mRenderer;
+        renderer.setOnDesiredResolutionListener(null);
+        renderer.setOnDetachingListener(null);
+        renderer.setRendererEvents(null);
+        VideoResolutionHints.remove(this);
+
+        removeView(mInternalVideoView);
+        RendererPool.getInstance().retain(mPeerId, mMediaStream, mInternalVideoView, renderer);
+
+        mInternalVideoView = null;
+        mCornerRadiusView = null;
+        mFlip = null;
+        mRenderer = null;
+
+        mPeerId = null;
+        mMediaStream = null;
+        setAttached(false);
+        mRendererRetained = true;
+
+        //the request is kept, the tile is given back for the views of the new activity
+        VideoTileBudgetManager.getInstance(getContext()).release(this);
+    }
+
     private void removeRender() {
         if (mRenderer != null) {
+            mRenderer.setOnDesiredResolutionListener(null);
+            if (mRenderer instanceof VoxeetRenderer) {
+                ((VoxeetRenderer) mRenderer).setOnDetachingListener(null);
+            }
+            VideoResolutionHints.remove(this);
             try {
                 mRenderer.release();
             } catch (Exception e) {
 
             }
 
-            removeView(mRenderer);
+            removeView(mInternalVideoView);
+            mInternalVideoView = null;
+            mCornerRadiusView = null;
+            mFlip = null;
             mRenderer = null;
         }
     }
@@ -570,12 +967,18 @@ public class VideoView extends FrameLayout implements RendererCommon.RendererEve
         return mRenderer.getBitmap(width, height);
     }
 
+    /**
+     * Clip the video to a circle, not supported and ignored with RendererBackend.SURFACE_VIEW
+     */
     public VideoView setIsCircle(boolean isCircle) {
         mIsCircle = isCircle;
         if (null != mCornerRadiusView) mCornerRadiusView.setIsCircle(isCircle);
         return this;
     }
 
+    /**
+     * Round the corners of the video, not supported and ignored with RendererBackend.SURFACE_VIEW
+     */
     public VideoView setCornerRadius(float cornerRadius) {
         mCornerRadius = cornerRadius;
         if (null != mCornerRadiusView) mCornerRadiusView.setCornerRadius(mCornerRadius);
@@ -588,7 +991,7 @@ public class VideoView extends FrameLayout implements RendererCommon.RendererEve
 
     @Subscribe(threadMode = ThreadMode.MAIN)
     public void onEvent(EglBaseRefreshEvent event) {
-        Log.d(TAG, "onEvent: EglBaseRefreshEvent, received a call to refresh it !");
+        ToolkitLog.d(TAG, "onEvent: EglBaseRefreshEvent, received a call to refresh it !");
         if (!enableRefreshEglBase || null == VoxeetSdk.getInstance() || null == mRenderer) {
             return;
         }
@@ -10,6 +10,7 @@ import android.widget.FrameLayout;
 
 import com.voxeet.toolkit.R;
 
+import com.voxeet.toolkit.utils.FrameTicker;
 import com.voxeet.toolkit.views.internal.rounded.RoundedImageView;
 
 /**
@@ -35,6 +36,22 @@ public class VoxeetIncomingCallButton extends FrameLayout {
 
     private IncomingCallListener incomingCallListener;
 
+    /**
+     * Scale accumulated from the touch events, applied once per frame
+     */
+    private float pendingOverlayScale;
+
+    private FrameTicker.Listener overlayScaleListener = new FrameTicker.Listener() {
+        @Override
+        public void onTick(long frameTimeMillis) {
+            if (pendingOverlayScale != 0) {
+                backgroundIncomingOverlay.setScaleX(backgroundIncomingOverlay.getScaleX() + pendingOverlayScale);
+                backgroundIncomingOverlay.setScaleY(backgroundIncomingOverlay.getScaleY() + pendingOverlayScale);
+                pendingOverlayScale = 0;
+            }
+        }
+    };
+
     /**
      * Instantiates a new Voxeet incoming call button.
      *
@@ -132,8 +149,15 @@ public class VoxeetIncomingCallButton extends FrameLayout {
                         backgroundIncoming.animate().scaleX(scaleUpRatio).scaleY(scaleUpRatio).setDuration(scaleAnimationLength).start();
 
                         image.animate().alpha(instantAnimationLength).setDuration(scaleAnimationLength);
+
+                        pendingOverlayScale = 0;
+                        FrameTicker.getInstance().subscribe(VoxeetIncomingCallButton.this, overlayScaleListener, FrameTicker.EVERY_FRAME);
                         break;
                     case MotionEvent.ACTION_UP:
+                    case MotionEvent.ACTION_CANCEL:
+                        FrameTicker.getInstance().unsubscribe(overlayScaleListener);
+                        pendingOverlayScale = 0;
+
                         backgroundIncoming.animate().scaleX(defaultScale).scaleY(defaultScale).setDuration(scaleAnimationLength).start();
 
                         backgroundIncomingOverlay.animate().scaleX(defaultScale).scaleY(defaultScale).setDuration(scaleAnimationLength).start();
@@ -143,10 +167,10 @@ public class VoxeetIncomingCallButton extends FrameLayout {
                     case MotionEvent.ACTION_MOVE:
                         switch ((shouldScale(event))) {
                             case SCALE_UP:
-                                backgroundIncomingOverlay.animate().scaleXBy(scaleRatio).scaleYBy(scaleRatio).setDuration(instantAnimationLength).start();
+                                pendingOverlayScale += scaleRatio;
                                 break;
                             case SCALE_DOWN:
-                                backgroundIncomingOverlay.animate().scaleXBy(-scaleRatio).scaleYBy(-scaleRatio).setDuration(instantAnimationLength).start();
+                                pendingOverlayScale -= scaleRatio;
                                 break;
                             case SCALE_SAME:
                             default:
@@ -168,7 +192,8 @@ public class VoxeetIncomingCallButton extends FrameLayout {
             }
 
             private boolean hasClicked() {
-                return Math.abs(backgroundIncomingOverlay.getScaleX()) > (scaleUpRatio * 2 + 1) && incomingCallListener != null;
+                float scale = backgroundIncomingOverlay.getScaleX() + pendingOverlayScale;
+                return Math.abs(scale) > (scaleUpRatio * 2 + 1) && incomingCallListener != null;
             }
 
             private int shouldScale(MotionEvent event) {
@@ -0,0 +1,119 @@
+package com.voxeet.toolkit.views.internal.rounded;
+
+import android.annotation.TargetApi;
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.os.Build;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pool of the bitmaps created to convert drawables into RoundedDrawable
+ * <p>
+ * From KitKat, bitmaps are allocated with their size rounded up to the next bucket and
+ * reconfigured on reuse, so that a released bitmap can serve any smaller request.
+ * Before, only bitmaps with the exact same size and config are reused.
+ */
+final class BitmapPool {
+
+  private static final int BUCKET = 32;
+  private static final int MAX_POOL_SIZE = 4 * 1024 * 1024;
+
+  private static final List<Bitmap> sPool = new ArrayList<>();
+  private static int sPoolSize = 0;
+
+  private BitmapPool() {
+
+  }
+
+  /**
+   * Get a mutable and transparent bitmap of the given size
+   *
+   * @param width  the width of the bitmap
+   * @param height the height of the bitmap
+   * @param config the config of the bitmap
+   * @return a valid bitmap, reused or newly allocated
+   */
+  @NonNull
+  static synchronized Bitmap acquire(int width, int height, @NonNull Bitmap.Config config) {
+    for (int i = 0; i < sPool.size(); i++) {
+      Bitmap bitmap = sPool.get(i);
+      if (fits(bitmap, width, height, config)) {
+        sPool.remove(i);
+        sPoolSize -= sizeOf(bitmap);
+
+        if (bitmap.getWidth() != width || bitmap.getHeight() != height || bitmap.getConfig() != config) {
+          reconfigure(bitmap, width, height, config);
+        }
+        bitmap.eraseColor(Color.TRANSPARENT);
+        return bitmap;
+      }
+    }
+
+    return allocate(width, height, config);
+  }
+
+  /**
+   * Give a bitmap back to the pool. It must not be used by its previous owner anymore
+   *
+   * @param bitmap the bitmap to reuse
+   */
+  static synchronized void release(@Nullable Bitmap bitmap) {
+    if (null == bitmap || bitmap.isRecycled() || !bitmap.isMutable() || sPool.contains(bitmap)) return;
+
+    int size = sizeOf(bitmap);
+    //pool is full, let the GC reclaim it
+    if (sPoolSize + size > MAX_POOL_SIZE) return;
+
+    sPool.add(bitmap);
+    sPoolSize += size;
+  }
+
+  private static boolean fits(@NonNull Bitmap bitmap, int width, int height, @NonNull Bitmap.Config config) {
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+      return sizeOf(bitmap) >= width * height * bytesPerPixel(config);
+    }
+    return bitmap.getWidth() == width && bitmap.getHeight() == height && bitmap.getConfig() == config;
+  }
+
+  @NonNull
+  private static Bitmap allocate(int width, int height, @NonNull Bitmap.Config config) {
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+      Bitmap bitmap = Bitmap.createBitmap(bucket(width), bucket(height), config);
+      reconfigure(bitmap, width, height, config);
+      return bitmap;
+    }
+    return Bitmap.createBitmap(width, height, config);
+  }
+
+  @TargetApi(Build.VERSION_CODES.KITKAT)
+  private static void reconfigure(@NonNull Bitmap bitmap, int width, int height, @NonNull Bitmap.Config config) {
+    bitmap.reconfigure(width, height, config);
+  }
+
+  private static int sizeOf(@NonNull Bitmap bitmap) {
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+      return bitmap.getAllocationByteCount();
+    }
+    return bitmap.getRowBytes() * bitmap.getHeight();
+  }
+
+  private static int bucket(int value) {
+    return ((value + BUCKET - 1) / BUCKET) * BUCKET;
+  }
+
+  private static int bytesPerPixel(@NonNull Bitmap.Config config) {
+    switch (config) {
+      case ALPHA_8:
+        return 1;
+      case RGB_565:
+      case ARGB_4444:
+        return 2;
+      default:
+        return 4;
+    }
+  }
+}
@@ -18,28 +18,53 @@ import android.graphics.drawable.Drawable;
 import android.graphics.drawable.LayerDrawable;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
-import android.util.Log;
 import android.widget.ImageView.ScaleType;
 
+import com.voxeet.toolkit.utils.ToolkitLog;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
 @SuppressWarnings("UnusedDeclaration")
 public class RoundedDrawable extends Drawable {
 
   public static final String TAG = "RoundedDrawable";
   public static final int DEFAULT_BORDER_COLOR = Color.BLACK;
 
+  /**
+   * Shader and paint shared by the instances drawing the same bitmap
+   */
+  private static final Map<Bitmap, WeakReference<SharedPaint>> sSharedPaints = new WeakHashMap<>();
+
+  /**
+   * Layer drawables mutated by fromDrawable, with the number of times they were returned by it
+   */
+  private static final Map<Drawable, Integer> sOwnedLayers = new WeakHashMap<>();
+
+  private static boolean sPreferRgb565 = false;
+
   private final RectF mBounds = new RectF();
   private final RectF mDrawableRect = new RectF();
   private final RectF mBitmapRect = new RectF();
+  private final RectF mBitmapDrawRect = new RectF();
   @NonNull
-  private final BitmapShader mBitmapShader;
+  private final SharedPaint mSharedPaint;
   @NonNull
-  private final Paint mBitmapPaint;
+  private Paint mBitmapPaint;
+  private boolean mOwnsBitmapPaint = false;
+  @Nullable
+  private Bitmap mPooledBitmap;
+  // times this instance was returned by fromDrawable and not released yet, guarded by the class
+  private int mReferences = 1;
   private final int mBitmapWidth;
   private final int mBitmapHeight;
   private final RectF mBorderRect = new RectF();
   @NonNull
   private final Paint mBorderPaint;
   private final Matrix mShaderMatrix = new Matrix();
+  private final Matrix mInverseShaderMatrix = new Matrix();
+  private final float[] mShaderMatrixValues = new float[9];
 
   private float mCornerRadius = 0;
   private boolean mOval = false;
@@ -55,13 +80,8 @@ public class RoundedDrawable extends Drawable {
     mBitmapHeight = bitmap.getHeight();
     mBitmapRect.set(0, 0, mBitmapWidth, mBitmapHeight);
 
-    mBitmapShader = new BitmapShader(bitmap, Shader.TileMode.CLAMP, Shader.TileMode.CLAMP);
-    mBitmapShader.setLocalMatrix(mShaderMatrix);
-
-    mBitmapPaint = new Paint();
-    mBitmapPaint.setStyle(Paint.Style.FILL);
-    mBitmapPaint.setAntiAlias(true);
-    mBitmapPaint.setShader(mBitmapShader);
+    mSharedPaint = obtainSharedPaint(bitmap);
+    mBitmapPaint = mSharedPaint.paint;
 
     mBorderPaint = new Paint();
     mBorderPaint.setStyle(Paint.Style.STROKE);
@@ -70,6 +90,100 @@ public class RoundedDrawable extends Drawable {
     mBorderPaint.setStrokeWidth(mBorderWidth);
   }
 
+  /**
+   * Use RGB_565 instead of ARGB_8888 when converting opaque drawables, halving their memory
+   *
+   * @param prefer true to use RGB_565 for opaque drawables
+   */
+  public static void setPreferRgb565(boolean prefer) {
+    sPreferRgb565 = prefer;
+  }
+
+  /**
+   * Give back to the pool the bitmaps created when the drawable was converted
+   * <p>
+   * Each drawable returned by fromDrawable holds a reference, the bitmaps are only given back
+   * once every view it was returned to released it. The layers of a layer drawable are only
+   * released if it was mutated by the conversion, they could be drawn by an other drawable
+   * sharing its state otherwise
+   *
+   * @param drawable a drawable returned by {@link #fromDrawable(Drawable)}, not drawn anymore by
+   *                 the caller
+   */
+  public static void release(@Nullable Drawable drawable) {
+    if (drawable instanceof RoundedDrawable) {
+      RoundedDrawable rounded = (RoundedDrawable) drawable;
+      Bitmap bitmap = releaseReference(rounded);
+      if (null != bitmap) {
+        //the shader of the previous content must not be used once the bitmap is reused
+        forgetSharedPaint(bitmap);
+        BitmapPool.release(bitmap);
+      }
+    } else if (drawable instanceof LayerDrawable && releaseOwnedLayers(drawable)) {
+      LayerDrawable ld = (LayerDrawable) drawable;
+      for (int i = 0, layers = ld.getNumberOfLayers(); i < layers; i++) {
+        release(ld.getDrawable(i));
+      }
+    }
+  }
+
+  @NonNull
+  private static synchronized SharedPaint obtainSharedPaint(@NonNull Bitmap bitmap) {
+    WeakReference<SharedPaint> reference = sSharedPaints.get(bitmap);
+    SharedPaint shared = null != reference ? reference.get() : null;
+
+    if (null == shared) {
+      shared = new SharedPaint(bitmap);
+      sSharedPaints.put(bitmap, new WeakReference<>(shared));
+    }
+    return shared;
+  }
+
+  private static synchronized void forgetSharedPaint(@NonNull Bitmap bitmap) {
+    sSharedPaints.remove(bitmap);
+  }
+
+  private static synchronized void retain(@NonNull RoundedDrawable drawable) {
+    drawable.mReferences++;
+  }
+
+  /**
+   * @return the pooled bitmap to give back if this was the last reference, null otherwise
+   */
+  @Nullable
+  private static synchronized Bitmap releaseReference(@NonNull RoundedDrawable drawable) {
+    if (drawable.mReferences > 0) drawable.mReferences--;
+    if (drawable.mReferences > 0) return null;
+
+    Bitmap bitmap = drawable.mPooledBitmap;
+    drawable.mPooledBitmap = null;
+    return bitmap;
+  }
+
+  /**
+   * @return true if the layers were already converted, the reference is then counted
+   */
+  private static synchronized boolean retainOwnedLayers(@NonNull Drawable drawable) {
+    Integer references = sOwnedLayers.get(drawable);
+    sOwnedLayers.put(drawable, null != references ? references + 1 : 1);
+    return null != references;
+  }
+
+  /**
+   * @return true if the last reference to the converted layers was released
+   */
+  private static synchronized boolean releaseOwnedLayers(@NonNull Drawable drawable) {
+    Integer references = sOwnedLayers.get(drawable);
+    if (null == references) return false;
+
+    if (references > 1) {
+      sOwnedLayers.put(drawable, references - 1);
+      return false;
+    }
+    sOwnedLayers.remove(drawable);
+    return true;
+  }
+
   @Nullable
   public static RoundedDrawable fromBitmap(@Nullable Bitmap bitmap) {
     if (bitmap != null) {
@@ -79,14 +193,25 @@ public class RoundedDrawable extends Drawable {
     }
   }
 
+  /**
+   * Convert a drawable, the result must be given to {@link #release(Drawable)} once not displayed
+   * anymore. A RoundedDrawable or converted layer drawable is returned as is, shared with the views
+   * already displaying it
+   *
+   * @param drawable the drawable to convert
+   * @return the converted drawable, or the given one if it can not be converted
+   */
   @Nullable
   public static Drawable fromDrawable(@Nullable Drawable drawable) {
     if (drawable != null) {
       if (drawable instanceof RoundedDrawable) {
-        // just return if it's already a RoundedDrawable
+        // just return if it's already a RoundedDrawable, its bitmap is now shared
+        retain((RoundedDrawable) drawable);
         return drawable;
       } else if (drawable instanceof LayerDrawable) {
-        LayerDrawable ld = (LayerDrawable) drawable;
+        // the layers are replaced in the state of this drawable only
+        LayerDrawable ld = (LayerDrawable) drawable.mutate();
+        if (retainOwnedLayers(ld)) return ld;
         int num = ld.getNumberOfLayers();
 
         // loop through layers to and changePage to RoundedDrawables if possible
@@ -100,9 +225,12 @@ public class RoundedDrawable extends Drawable {
       // try to get a bitmap from the drawable and
       Bitmap bm = drawableToBitmap(drawable);
       if (bm != null) {
-        return new RoundedDrawable(bm);
+        RoundedDrawable rounded = new RoundedDrawable(bm);
+        // the bitmap only belongs to this instance if it was created for the conversion
+        if (!(drawable instanceof BitmapDrawable)) rounded.mPooledBitmap = bm;
+        return rounded;
       } else {
-        Log.w(TAG, "Failed to create bitmap from drawable!");
+        ToolkitLog.w(TAG, "Failed to create bitmap from drawable!");
       }
     }
     return drawable;
@@ -117,8 +245,13 @@ public class RoundedDrawable extends Drawable {
     Bitmap bitmap;
     int width = Math.max(drawable.getIntrinsicWidth(), 1);
     int height = Math.max(drawable.getIntrinsicHeight(), 1);
+    Config config = Config.ARGB_8888;
+    if (sPreferRgb565 && drawable.getOpacity() == PixelFormat.OPAQUE) {
+      config = Config.RGB_565;
+    }
+
     try {
-      bitmap = Bitmap.createBitmap(width, height, Config.ARGB_8888);
+      bitmap = BitmapPool.acquire(width, height, config);
       Canvas canvas = new Canvas(bitmap);
       drawable.setBounds(0, 0, canvas.getWidth(), canvas.getHeight());
       drawable.draw(canvas);
@@ -239,7 +372,11 @@ public class RoundedDrawable extends Drawable {
     }
 
     mDrawableRect.set(mBorderRect);
-    mBitmapShader.setLocalMatrix(mShaderMatrix);
+
+    // the shader is shared and kept untransformed, the canvas is transformed instead
+    mShaderMatrix.invert(mInverseShaderMatrix);
+    mInverseShaderMatrix.mapRect(mBitmapDrawRect, mDrawableRect);
+    mShaderMatrix.getValues(mShaderMatrixValues);
   }
 
   @Override
@@ -253,25 +390,51 @@ public class RoundedDrawable extends Drawable {
 
   @Override
   public void draw(@NonNull Canvas canvas) {
+    drawBitmap(canvas);
 
-    if (mOval) {
-      if (mBorderWidth > 0) {
-        canvas.drawOval(mDrawableRect, mBitmapPaint);
+    if (mBorderWidth > 0) {
+      if (mOval) {
         canvas.drawOval(mBorderRect, mBorderPaint);
       } else {
-        canvas.drawOval(mDrawableRect, mBitmapPaint);
-      }
-    } else {
-      if (mBorderWidth > 0) {
-        canvas.drawRoundRect(mDrawableRect, Math.max(mCornerRadius, 0),
-            Math.max(mCornerRadius, 0), mBitmapPaint);
         canvas.drawRoundRect(mBorderRect, mCornerRadius, mCornerRadius, mBorderPaint);
-      } else {
-        canvas.drawRoundRect(mDrawableRect, mCornerRadius, mCornerRadius, mBitmapPaint);
       }
     }
   }
 
+  private void drawBitmap(@NonNull Canvas canvas) {
+    int saveCount = canvas.save();
+    canvas.concat(mShaderMatrix);
+
+    if (mOval) {
+      canvas.drawOval(mBitmapDrawRect, mBitmapPaint);
+    } else {
+      // the matrix only scales and translates, bring the radius back into the bitmap space
+      float radius = Math.max(mCornerRadius, 0);
+      float scaleX = mShaderMatrixValues[Matrix.MSCALE_X];
+      float scaleY = mShaderMatrixValues[Matrix.MSCALE_Y];
+      canvas.drawRoundRect(mBitmapDrawRect,
+          scaleX != 0 ? radius / scaleX : radius,
+          scaleY != 0 ? radius / scaleY : radius,
+          mBitmapPaint);
+    }
+
+    canvas.restoreToCount(saveCount);
+  }
+
+  /**
+   * Get a paint which can be modified without impacting the other instances
+   *
+   * @return the paint of this instance
+   */
+  @NonNull
+  private Paint getOwnBitmapPaint() {
+    if (!mOwnsBitmapPaint) {
+      mBitmapPaint = new Paint(mSharedPaint.paint);
+      mOwnsBitmapPaint = true;
+    }
+    return mBitmapPaint;
+  }
+
   @Override
   public int getOpacity() {
     return PixelFormat.TRANSLUCENT;
@@ -279,23 +442,24 @@ public class RoundedDrawable extends Drawable {
 
   @Override
   public void setAlpha(int alpha) {
-    mBitmapPaint.setAlpha(alpha);
+    if (mBitmapPaint.getAlpha() == alpha) return;
+    getOwnBitmapPaint().setAlpha(alpha);
     invalidateSelf();
   }
 
   @Override
   public void setColorFilter(ColorFilter cf) {
-    mBitmapPaint.setColorFilter(cf);
+    getOwnBitmapPaint().setColorFilter(cf);
     invalidateSelf();
   }
 
   @Override public void setDither(boolean dither) {
-    mBitmapPaint.setDither(dither);
+    getOwnBitmapPaint().setDither(dither);
     invalidateSelf();
   }
 
   @Override public void setFilterBitmap(boolean filter) {
-    mBitmapPaint.setFilterBitmap(filter);
+    getOwnBitmapPaint().setFilterBitmap(filter);
     invalidateSelf();
   }
 
@@ -382,4 +546,16 @@ public class RoundedDrawable extends Drawable {
   public Bitmap toBitmap() {
     return drawableToBitmap(this);
   }
+
+  private static class SharedPaint {
+    @NonNull
+    private final Paint paint;
+
+    private SharedPaint(@NonNull Bitmap bitmap) {
+      paint = new Paint();
+      paint.setStyle(Paint.Style.FILL);
+      paint.setAntiAlias(true);
+      paint.setShader(new BitmapShader(bitmap, Shader.TileMode.CLAMP, Shader.TileMode.CLAMP));
+    }
+  }
 }
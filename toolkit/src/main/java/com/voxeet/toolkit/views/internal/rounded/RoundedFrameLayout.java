@@ -1,8 +1,10 @@
 package com.voxeet.toolkit.views.internal.rounded;
 
 import android.content.Context;
+import android.annotation.TargetApi;
 import android.content.res.TypedArray;
 import android.graphics.Canvas;
+import android.graphics.Outline;
 import android.graphics.Path;
 import android.graphics.RectF;
 import android.os.Build;
@@ -10,16 +12,19 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.annotation.RequiresApi;
 import android.util.AttributeSet;
-import android.util.Log;
+import android.view.View;
+import android.view.ViewOutlineProvider;
 import android.widget.FrameLayout;
 
 import com.voxeet.toolkit.R;
+import com.voxeet.toolkit.utils.ToolkitLog;
 
 /**
  * RoundedFrameLayout :: simple view to manage corners
  * <p>
- * not as optimised as a Shadder/Program in the Renderer but will ensure compatibilities
- * in the first releases of this feature
+ * From Lollipop, the corners are clipped by the RenderThread using the view outline, which keeps
+ * the children (e.g. the video renderers) on the hardware path. The path clipping in the draw pass
+ * is only used on older releases
  */
 
 public class RoundedFrameLayout extends FrameLayout {
@@ -28,6 +33,7 @@ public class RoundedFrameLayout extends FrameLayout {
     private RectF rect = new RectF();
     private boolean isCircle;
     private float cornerRadius;
+    private boolean useOutline;
 
     public RoundedFrameLayout(@NonNull Context context) {
         super(context);
@@ -60,7 +66,31 @@ public class RoundedFrameLayout extends FrameLayout {
         cornerRadius = attributes.getDimension(R.styleable.RoundedFrameLayout_roundedCornerRadius, 0);
         attributes.recycle();
 
-        Log.d(TAG, "init: " + cornerRadius);
+        useOutline = Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP;
+        if (useOutline) initOutline();
+
+        ToolkitLog.d(TAG, "init: %s", cornerRadius);
+    }
+
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    private void initOutline() {
+        setOutlineProvider(new ViewOutlineProvider() {
+            @Override
+            public void getOutline(View view, Outline outline) {
+                int width = view.getWidth();
+                int height = view.getHeight();
+
+                if (isCircle) {
+                    int size = Math.min(width, height);
+                    int left = (width - size) / 2;
+                    int top = (height - size) / 2;
+                    outline.setOval(left, top, left + size, top + size);
+                } else {
+                    outline.setRoundRect(0, 0, width, height, cornerRadius);
+                }
+            }
+        });
+        setClipToOutline(true);
     }
 
     @Override
@@ -72,6 +102,12 @@ public class RoundedFrameLayout extends FrameLayout {
 
     @Override
     protected void dispatchDraw(Canvas canvas) {
+        //already clipped by the outline, or nothing to clip
+        if (useOutline || (!isCircle && cornerRadius <= 0)) {
+            super.dispatchDraw(canvas);
+            return;
+        }
+
         int save = canvas.save();
         canvas.clipPath(path);
         super.dispatchDraw(canvas);
@@ -93,6 +129,11 @@ public class RoundedFrameLayout extends FrameLayout {
     }
 
     private void invalidatePath() {
+        if (useOutline) {
+            invalidateShape();
+            return;
+        }
+
         int width = getWidth();
         int height = getHeight();
 
@@ -102,7 +143,17 @@ public class RoundedFrameLayout extends FrameLayout {
         }
     }
 
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    private void invalidateShape() {
+        invalidateOutline();
+    }
+
     private void updateSize(int width, int height) {
+        if (useOutline) {
+            invalidateShape();
+            return;
+        }
+
         if (isCircle) {
             float halfWidth = width / 2f;
             float halfHeight = height / 2f;
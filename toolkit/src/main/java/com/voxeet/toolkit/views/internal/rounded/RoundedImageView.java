@@ -1,20 +1,26 @@
 package com.voxeet.toolkit.views.internal.rounded;
 
+import android.annotation.TargetApi;
 import android.content.Context;
 import android.content.res.ColorStateList;
 import android.content.res.Resources;
 import android.content.res.TypedArray;
 import android.graphics.Bitmap;
+import android.graphics.Outline;
+import android.graphics.drawable.BitmapDrawable;
 import android.graphics.drawable.Drawable;
 import android.graphics.drawable.LayerDrawable;
 import android.net.Uri;
+import android.os.Build;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.util.AttributeSet;
-import android.util.Log;
+import android.view.View;
+import android.view.ViewOutlineProvider;
 import android.widget.ImageView;
 
 import com.voxeet.toolkit.R;
+import com.voxeet.toolkit.utils.ToolkitLog;
 
 @SuppressWarnings("UnusedDeclaration")
 public class RoundedImageView extends ImageView {
@@ -46,8 +52,11 @@ public class RoundedImageView extends ImageView {
   private Drawable mDrawable;
   @Nullable
   private Drawable mBackgroundDrawable;
+  // true if mBackgroundDrawable was returned by RoundedDrawable.fromDrawable and holds a reference
+  private boolean mBackgroundConverted;
 
   private ScaleType mScaleType;
+  private boolean mPreRounded = false;
 
   public RoundedImageView(Context context) {
     super(context);
@@ -150,26 +159,58 @@ public class RoundedImageView extends ImageView {
   @Override
   public void setImageDrawable(Drawable drawable) {
     mResource = 0;
+    Drawable previous = mDrawable;
     mDrawable = RoundedDrawable.fromDrawable(drawable);
     updateDrawableAttrs();
     super.setImageDrawable(mDrawable);
+    releaseDrawable(previous);
   }
 
   @Override
   public void setImageBitmap(Bitmap bm) {
     mResource = 0;
+    Drawable previous = mDrawable;
     mDrawable = RoundedDrawable.fromBitmap(bm);
     updateDrawableAttrs();
     super.setImageDrawable(mDrawable);
+    releaseDrawable(previous);
+  }
+
+  /**
+   * Display a bitmap which already has the shape of this view, without wrapping it
+   * into a RoundedDrawable
+   *
+   * @param bm the bitmap, already rounded
+   */
+  public void setRoundedBitmap(@Nullable Bitmap bm) {
+    mResource = 0;
+    Drawable previous = mDrawable;
+    mDrawable = null != bm ? new BitmapDrawable(getResources(), bm) : null;
+    mPreRounded = true;
+    updateClipping();
+    super.setImageDrawable(mDrawable);
+    releaseDrawable(previous);
   }
 
   @Override
   public void setImageResource(int resId) {
     if (mResource != resId) {
       mResource = resId;
+      Drawable previous = mDrawable;
       mDrawable = resolveResource();
       updateDrawableAttrs();
       super.setImageDrawable(mDrawable);
+      releaseDrawable(previous);
+    }
+  }
+
+  /**
+   * Give back the reference of this view to the previous drawable. The current one holds its own
+   * reference, even if it is the same instance
+   */
+  private static void releaseDrawable(@Nullable Drawable previous) {
+    if (previous != null) {
+      RoundedDrawable.release(previous);
     }
   }
 
@@ -188,7 +229,7 @@ public class RoundedImageView extends ImageView {
       try {
         d = rsrc.getDrawable(mResource);
       } catch (Exception e) {
-        Log.w(TAG, "Unable to find resource: " + mResource, e);
+        ToolkitLog.w(TAG, "Unable to find resource: %s", mResource, e);
         // Don't try again.
         mResource = 0;
       }
@@ -202,13 +243,37 @@ public class RoundedImageView extends ImageView {
   }
 
   private void updateDrawableAttrs() {
+    mPreRounded = false;
     updateAttrs(mDrawable);
+    updateClipping();
+  }
+
+  /**
+   * Drawables which could not be converted into a RoundedDrawable (e.g. without intrinsic size)
+   * are clipped using the view outline from Lollipop
+   */
+  private void updateClipping() {
+    if (Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP) return;
+
+    boolean rounded = mPreRounded || mDrawable == null
+        || mDrawable instanceof RoundedDrawable || mDrawable instanceof LayerDrawable;
+    updateOutline(!rounded && (isOval || cornerRadius > 0));
+  }
+
+  @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+  private void updateOutline(boolean clip) {
+    if (clip && !(getOutlineProvider() instanceof RoundedOutlineProvider)) {
+      setOutlineProvider(new RoundedOutlineProvider());
+    }
+    if (clip) invalidateOutline();
+    setClipToOutline(clip);
   }
 
   private void updateBackgroundDrawableAttrs(boolean convert) {
     if (mutateBackground) {
-      if (convert) {
+      if (convert && !mBackgroundConverted) {
         mBackgroundDrawable = RoundedDrawable.fromDrawable(mBackgroundDrawable);
+        mBackgroundConverted = true;
       }
       updateAttrs(mBackgroundDrawable);
     }
@@ -236,9 +301,13 @@ public class RoundedImageView extends ImageView {
   @Override
   @Deprecated
   public void setBackgroundDrawable(Drawable background) {
+    Drawable previous = mBackgroundDrawable;
+    boolean converted = mBackgroundConverted;
     mBackgroundDrawable = background;
+    mBackgroundConverted = false;
     updateBackgroundDrawableAttrs(true);
     super.setBackgroundDrawable(mBackgroundDrawable);
+    if (converted) releaseDrawable(previous);
   }
 
   public float getCornerRadius() {
@@ -321,4 +390,24 @@ public class RoundedImageView extends ImageView {
     updateBackgroundDrawableAttrs(true);
     invalidate();
   }
+
+  @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+  /**
+   * Outline clipping the view, only rectangles and round rectangles can clip. An oval outline only
+   * clips when it is a circle, a non square oval view is clipped as a pill instead : a round
+   * rectangle whose radius is half of its smallest side
+   */
+  private class RoundedOutlineProvider extends ViewOutlineProvider {
+    @Override
+    public void getOutline(View view, Outline outline) {
+      int width = view.getWidth();
+      int height = view.getHeight();
+
+      if (isOval) {
+        outline.setRoundRect(0, 0, width, height, Math.min(width, height) / 2f);
+      } else {
+        outline.setRoundRect(0, 0, width, height, cornerRadius);
+      }
+    }
+  }
 }
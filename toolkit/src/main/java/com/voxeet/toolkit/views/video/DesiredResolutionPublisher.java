@@ -0,0 +1,71 @@
+package com.voxeet.toolkit.views.video;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.view.View;
+
+/**
+ * Compute the resolution and framerate worth sending to a renderer from its size
+ * <p>
+ * Resizes and overlay animations lay the view out many times in a row, the result is published
+ * once the size is stable. Main thread only
+ */
+final class DesiredResolutionPublisher implements Runnable {
+
+    private final static long DEBOUNCE = 300;
+
+    //tiles smaller than this on their short side do not need the full framerate
+    private final static int SMALL_TILE_DP = 160;
+    private final static int SMALL_TILE_FPS = 15;
+    private final static int FULL_FPS = 30;
+
+    @NonNull
+    private final View mView;
+
+    @NonNull
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    @Nullable
+    private IVoxeetRenderer.OnDesiredResolutionListener mListener;
+
+    DesiredResolutionPublisher(@NonNull View view) {
+        mView = view;
+    }
+
+    void setListener(@Nullable IVoxeetRenderer.OnDesiredResolutionListener listener) {
+        mListener = listener;
+        if (null == listener) cancel();
+        else schedule();
+    }
+
+    void schedule() {
+        if (null == mListener) return;
+
+        mHandler.removeCallbacks(this);
+        mHandler.postDelayed(this, DEBOUNCE);
+    }
+
+    void cancel() {
+        mHandler.removeCallbacks(this);
+    }
+
+    @Override
+    public void run() {
+        IVoxeetRenderer.OnDesiredResolutionListener listener = mListener;
+        if (null == listener) return;
+
+        //the renderers are measured to the aspect ratio of the frames, their size is the drawn size
+        int width = 0;
+        int height = 0;
+        int fps = 0;
+        if (mView.isShown() && mView.getWidth() > 0 && mView.getHeight() > 0) {
+            width = mView.getWidth();
+            height = mView.getHeight();
+            float density = mView.getResources().getDisplayMetrics().density;
+            fps = Math.min(width, height) < SMALL_TILE_DP * density ? SMALL_TILE_FPS : FULL_FPS;
+        }
+        listener.onDesiredResolution(width, height, fps);
+    }
+}
@@ -0,0 +1,97 @@
+package com.voxeet.toolkit.views.video;
+
+import android.graphics.Bitmap;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.view.View;
+
+import org.webrtc.EglBase;
+import org.webrtc.RendererCommon;
+import org.webrtc.VideoRenderer;
+import org.webrtc.VideoSink;
+
+/**
+ * Common interface of the views rendering a video stream
+ * <p>
+ * - VoxeetRenderer, TextureView based, supports transforms, alpha and rounded corners
+ * - VoxeetSurfaceRenderer, SurfaceView based, composited without copy for a lower latency and power
+ */
+public interface IVoxeetRenderer extends VideoRenderer.Callbacks, VideoSink {
+
+    /**
+     * Receive the resolution and framerate worth sending to this view, computed from its size
+     */
+    interface OnDesiredResolutionListener {
+        /**
+         * Called on the main thread, with 0 values when the view is not displayed
+         */
+        void onDesiredResolution(int maxWidth, int maxHeight, int maxFps);
+    }
+
+    /**
+     * Get the view displaying the frames
+     *
+     * @return the renderer itself
+     */
+    @NonNull
+    View getView();
+
+    void init(EglBase.Context sharedContext, RendererCommon.RendererEvents rendererEvents);
+
+    void release();
+
+    void setEnableHardwareScaler(boolean enabled);
+
+    void setOnDesiredResolutionListener(@Nullable OnDesiredResolutionListener listener);
+
+    void setMirror(boolean mirror);
+
+    boolean isMirror();
+
+    boolean isFirstFrameRendered();
+
+    void setScalingType(RendererCommon.ScalingType scalingType);
+
+    @Nullable
+    RendererCommon.ScalingType getScalingType();
+
+    /**
+     * Draw only a region of the frames, see SafeRenderFrameEglRenderer.setZoom
+     *
+     * @param zoom    the zoom factor, 1 to draw the whole frame
+     * @param centerX the horizontal center of the region in the frame, from 0 to 1
+     * @param centerY the vertical center of the region in the frame, from 0 to 1
+     */
+    void setZoom(float zoom, float centerX, float centerY);
+
+    void resetZoom();
+
+    /**
+     * Skip the frames whose content did not change, for mostly static streams like screen shares
+     *
+     * @param enabled true to skip the unchanged frames
+     */
+    void setContentAdaptive(boolean enabled);
+
+    void setFpsReduction(float fps);
+
+    void disableFpsReduction();
+
+    void pauseVideo();
+
+    void clearImage();
+
+    /**
+     * Get the last rendered frame, not available for every renderer
+     *
+     * @return the bitmap or null
+     */
+    @Nullable
+    Bitmap getBitmap();
+
+    @Nullable
+    Bitmap getBitmap(@NonNull Bitmap bitmap);
+
+    @Nullable
+    Bitmap getBitmap(int width, int height);
+}
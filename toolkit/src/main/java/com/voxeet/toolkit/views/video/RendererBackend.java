@@ -0,0 +1,17 @@
+package com.voxeet.toolkit.views.video;
+
+/**
+ * The view a VideoView renders its stream with
+ */
+public enum RendererBackend {
+    /**
+     * VoxeetRenderer : can be animated, made translucent and clipped, default for every tile
+     */
+    TEXTURE_VIEW,
+
+    /**
+     * VoxeetSurfaceRenderer : lower latency and power, for a main stage which is not transformed.
+     * The circle and cornerRadius of the VideoView are ignored, a SurfaceView is not clipped
+     */
+    SURFACE_VIEW
+}
@@ -0,0 +1,318 @@
+package com.voxeet.toolkit.views.video;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Point;
+import android.os.Build;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.view.Display;
+import android.view.View;
+import android.view.WindowManager;
+
+import org.webrtc.EglBase;
+import org.webrtc.Logging;
+import org.webrtc.RendererCommon;
+import org.webrtc.SafeRenderFrameEglRenderer;
+import org.webrtc.ThreadUtils;
+
+/**
+ * State and logic shared by VoxeetRenderer and VoxeetSurfaceRenderer
+ * <p>
+ * The renderers extend TextureView and SurfaceView, they can not share a base class. They own
+ * their surface, everything else is done here : the EGL renderer lifecycle, the frame dimensions
+ * reported to the RendererEvents, the measure and the size of the surface to render into.
+ * <p>
+ * The frames are received from the webrtc threads, everything else happens on the main thread.
+ */
+final class RendererDelegate {
+
+    @NonNull
+    private final View mView;
+
+    @NonNull
+    private final String mTag;
+
+    // Cached resource name.
+    @NonNull
+    private final String mResourceName;
+
+    @NonNull
+    private final SafeRenderFrameEglRenderer mEglRenderer;
+
+    @NonNull
+    private final RendererCommon.VideoLayoutMeasure mVideoLayoutMeasure =
+            new RendererCommon.VideoLayoutMeasure();
+
+    @NonNull
+    private final DesiredResolutionPublisher mDesiredResolution;
+
+    // Posted on the view when the rotated size of the frames changed.
+    @NonNull
+    private final Runnable mOnFrameSizeChanged;
+
+    // Size of the display, the measure is capped to it. Main thread only.
+    @NonNull
+    private final Point mScreenSize = new Point();
+
+    // Callback for reporting renderer events. Only changed when a kept renderer is reclaimed.
+    @Nullable
+    private volatile RendererCommon.RendererEvents mRendererEvents;
+
+    private final Object mLayoutLock = new Object();
+    private boolean mIsRenderingPaused = false;
+    private boolean mIsFirstFrameRendered;
+    private int mRotatedFrameWidth;
+    private int mRotatedFrameHeight;
+    private int mFrameRotation;
+
+    // Guarded by mEglRenderer.
+    private boolean mIsEglRendererInitialized;
+
+    @Nullable
+    private RendererCommon.ScalingType mScalingType;
+
+    /**
+     * @param view               the renderer
+     * @param tag                the tag of its logs
+     * @param onFrameSizeChanged posted on the view when the rotated size of the frames changed
+     */
+    RendererDelegate(@NonNull View view, @NonNull String tag, @NonNull Runnable onFrameSizeChanged) {
+        mView = view;
+        mTag = tag;
+        mResourceName = getResourceName(view);
+        mEglRenderer = new SafeRenderFrameEglRenderer(mResourceName);
+        mDesiredResolution = new DesiredResolutionPublisher(view);
+        mOnFrameSizeChanged = onFrameSizeChanged;
+    }
+
+    @NonNull
+    SafeRenderFrameEglRenderer getEglRenderer() {
+        return mEglRenderer;
+    }
+
+    /**
+     * Initialize the EGL renderer, unless already done
+     *
+     * @return true if it was initialized by this call
+     */
+    boolean init(EglBase.Context sharedContext, RendererCommon.RendererEvents rendererEvents,
+                 int[] configAttributes, RendererCommon.GlDrawer drawer) {
+        synchronized (mEglRenderer) {
+            if (mIsEglRendererInitialized) return false;
+
+            ThreadUtils.checkIsOnMainThread();
+            mRendererEvents = rendererEvents;
+            synchronized (mLayoutLock) {
+                mIsFirstFrameRendered = false;
+                mRotatedFrameWidth = 0;
+                mRotatedFrameHeight = 0;
+                mFrameRotation = 0;
+            }
+            mEglRenderer.init(sharedContext, configAttributes, drawer);
+            mIsEglRendererInitialized = true;
+            return true;
+        }
+    }
+
+    boolean isInitialized() {
+        synchronized (mEglRenderer) {
+            return mIsEglRendererInitialized;
+        }
+    }
+
+    /**
+     * Release the EGL renderer, the renderers release their surface before while holding the
+     * lock of getEglRenderer()
+     */
+    void release() {
+        synchronized (mEglRenderer) {
+            if (!mIsEglRendererInitialized) return;
+
+            mIsEglRendererInitialized = false;
+            mDesiredResolution.cancel();
+            mEglRenderer.release();
+        }
+    }
+
+    void setRendererEvents(@Nullable RendererCommon.RendererEvents rendererEvents) {
+        mRendererEvents = rendererEvents;
+    }
+
+    void setOnDesiredResolutionListener(@Nullable IVoxeetRenderer.OnDesiredResolutionListener listener) {
+        ThreadUtils.checkIsOnMainThread();
+        mDesiredResolution.setListener(listener);
+    }
+
+    /**
+     * Tell the size or the visibility of the view changed
+     */
+    void onLayoutChanged() {
+        mDesiredResolution.schedule();
+    }
+
+    void onAttachedToWindow() {
+        WindowManager wm = (WindowManager) mView.getContext().getSystemService(Context.WINDOW_SERVICE);
+        if (wm != null) {
+            Display display = wm.getDefaultDisplay();
+
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+                display.getRealSize(mScreenSize);
+            } else {
+                display.getSize(mScreenSize);
+            }
+        }
+    }
+
+    int getScreenWidth() {
+        return mScreenSize.x;
+    }
+
+    int getScreenHeight() {
+        return mScreenSize.y;
+    }
+
+    boolean isFirstFrameRendered() {
+        return mIsFirstFrameRendered;
+    }
+
+    void setScalingType(RendererCommon.ScalingType scalingTypeMatchOrientation,
+                        RendererCommon.ScalingType scalingTypeMismatchOrientation) {
+        ThreadUtils.checkIsOnMainThread();
+        mScalingType = scalingTypeMatchOrientation;
+        mVideoLayoutMeasure.setScalingType(scalingTypeMatchOrientation, scalingTypeMismatchOrientation);
+        mEglRenderer.setScalingType(scalingTypeMatchOrientation);
+    }
+
+    @Nullable
+    RendererCommon.ScalingType getScalingType() {
+        return mScalingType;
+    }
+
+    void setFpsReduction(float fps) {
+        synchronized (mLayoutLock) {
+            mIsRenderingPaused = fps == 0f;
+        }
+        mEglRenderer.setFpsReduction(fps);
+    }
+
+    void disableFpsReduction() {
+        synchronized (mLayoutLock) {
+            mIsRenderingPaused = false;
+        }
+        mEglRenderer.disableFpsReduction();
+    }
+
+    void pauseVideo() {
+        synchronized (mLayoutLock) {
+            mIsRenderingPaused = true;
+        }
+        mEglRenderer.pauseVideo();
+    }
+
+    /**
+     * Measure the view to the aspect ratio of the frames, capped to the size of the display
+     *
+     * @return the measured size
+     */
+    @NonNull
+    Point measure(int widthSpec, int heightSpec) {
+        ThreadUtils.checkIsOnMainThread();
+        final Point measured;
+        synchronized (mLayoutLock) {
+            measured = mVideoLayoutMeasure.measure(widthSpec, heightSpec, mRotatedFrameWidth, mRotatedFrameHeight);
+        }
+
+        if (mScreenSize.y > 0 && measured.y > mScreenSize.y) measured.y = mScreenSize.y;
+        if (mScreenSize.x > 0 && measured.x > mScreenSize.x) measured.x = mScreenSize.x;
+        return measured;
+    }
+
+    void onLayout(int left, int top, int right, int bottom) {
+        ThreadUtils.checkIsOnMainThread();
+        mEglRenderer.setLayoutAspectRatio((right - left) / (float) (bottom - top));
+        mDesiredResolution.schedule();
+    }
+
+    /**
+     * Compute the size of the surface the frames are drawn into, smaller than the view when the
+     * frames are or when small tiles are scaled
+     *
+     * @param fixedSize true if the hardware scaler is enabled
+     * @param scaling   the result of SurfaceScaling.isEnabled()
+     * @return the size, or null if the surface follows the size of the view
+     */
+    @Nullable
+    Point getSurfaceSize(boolean fixedSize, boolean scaling) {
+        ThreadUtils.checkIsOnMainThread();
+        final int viewWidth = mView.getWidth();
+        final int viewHeight = mView.getHeight();
+        synchronized (mLayoutLock) {
+            if (!(fixedSize || scaling) || mRotatedFrameWidth == 0 || mRotatedFrameHeight == 0
+                    || viewWidth == 0 || viewHeight == 0) {
+                return null;
+            }
+
+            final float layoutAspectRatio = viewWidth / (float) viewHeight;
+            final float frameAspectRatio = mRotatedFrameWidth / (float) mRotatedFrameHeight;
+            final int drawnFrameWidth;
+            final int drawnFrameHeight;
+            if (frameAspectRatio > layoutAspectRatio) {
+                drawnFrameWidth = (int) (mRotatedFrameHeight * layoutAspectRatio);
+                drawnFrameHeight = mRotatedFrameHeight;
+            } else {
+                drawnFrameWidth = mRotatedFrameWidth;
+                drawnFrameHeight = (int) (mRotatedFrameWidth / layoutAspectRatio);
+            }
+            // Aspect ratio of the drawn frame and the view is the same.
+            final float scale = scaling
+                    ? SurfaceScaling.getScale(viewWidth, viewHeight, mView.getResources().getDisplayMetrics().density)
+                    : 1f;
+            return new Point(Math.max(1, Math.round(Math.min(viewWidth, drawnFrameWidth) * scale)),
+                    Math.max(1, Math.round(Math.min(viewHeight, drawnFrameHeight) * scale)));
+        }
+    }
+
+    // Update frame dimensions and report any changes to |rendererEvents|.
+    void updateFrameDimensionsAndReportEvents(int rotatedWidth, int rotatedHeight,
+                                              int width, int height, int rotation) {
+        synchronized (mLayoutLock) {
+            if (mIsRenderingPaused) {
+                return;
+            }
+            final RendererCommon.RendererEvents rendererEvents = mRendererEvents;
+            if (!mIsFirstFrameRendered) {
+                mIsFirstFrameRendered = true;
+                logD("Reporting first rendered frame.");
+                if (rendererEvents != null) {
+                    rendererEvents.onFirstFrameRendered();
+                }
+            }
+            if (mRotatedFrameWidth != rotatedWidth || mRotatedFrameHeight != rotatedHeight
+                    || mFrameRotation != rotation) {
+                logD("Reporting frame resolution changed to " + width + "x" + height
+                        + " with rotation " + rotation);
+                if (rendererEvents != null) {
+                    rendererEvents.onFrameResolutionChanged(width, height, rotation);
+                }
+                mRotatedFrameWidth = rotatedWidth;
+                mRotatedFrameHeight = rotatedHeight;
+                mFrameRotation = rotation;
+                mView.post(mOnFrameSizeChanged);
+            }
+        }
+    }
+
+    void logD(String string) {
+        Logging.d(mTag, mResourceName + string);
+    }
+
+    @NonNull
+    private static String getResourceName(@NonNull View view) {
+        try {
+            return view.getResources().getResourceEntryName(view.getId()) + ": ";
+        } catch (Resources.NotFoundException e) {
+            return "";
+        }
+    }
+}
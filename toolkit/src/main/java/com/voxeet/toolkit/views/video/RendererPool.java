@@ -0,0 +1,216 @@
+package com.voxeet.toolkit.views.video;
+
+import android.app.Activity;
+import android.content.Context;
+import android.content.MutableContextWrapper;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.view.View;
+
+import com.voxeet.android.media.MediaStream;
+import com.voxeet.toolkit.utils.ActivityContextWrapper;
+import com.voxeet.toolkit.utils.ToolkitLog;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import voxeet.com.sdk.core.VoxeetSdk;
+
+/**
+ * Keep the renderers of the VideoView destroyed by a configuration change, e.g. a rotation
+ * <p>
+ * The renderer stays attached to its stream and keeps its EGL thread and surface. The VideoView
+ * created for the new configuration reclaims it when attaching the same stream of the same peer,
+ * the video goes on without waiting for a new first frame. The renderers which are not reclaimed
+ * in time are released.
+ * <p>
+ * Only the TextureView renderers can be kept, the surface of a SurfaceView does not survive its
+ * window. Their views are inflated in a MutableContextWrapper, switched to the context of the
+ * reclaiming VideoView so that the destroyed activity is not kept. Main thread only
+ */
+public final class RendererPool {
+
+    private final static String TAG = RendererPool.class.getSimpleName();
+
+    //the overlay is displayed again a second after the activity is resumed
+    private final static long RETAIN_TIMEOUT = 5000;
+
+    private static RendererPool sInstance;
+
+    /**
+     * A renderer waiting to be reclaimed
+     */
+    public final static class Entry {
+        @NonNull
+        public final View view;
+        @NonNull
+        public final VoxeetRenderer renderer;
+        @NonNull
+        public final MediaStream stream;
+        private final long retainedAt;
+
+        private Entry(@NonNull View view, @NonNull VoxeetRenderer renderer, @NonNull MediaStream stream) {
+            this.view = view;
+            this.renderer = renderer;
+            this.stream = stream;
+            retainedAt = SystemClock.uptimeMillis();
+        }
+    }
+
+    @NonNull
+    private final Map<String, List<Entry>> mEntries = new HashMap<>();
+
+    @NonNull
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    private boolean mEnabled = true;
+
+    @NonNull
+    private final Runnable mExpire = new Runnable() {
+        @Override
+        public void run() {
+            expire(false);
+        }
+    };
+
+    public static synchronized RendererPool getInstance() {
+        if (null == sInstance) sInstance = new RendererPool();
+        return sInstance;
+    }
+
+    private RendererPool() {
+
+    }
+
+    /**
+     * Keep the renderers on configuration changes, true by default
+     *
+     * @param enabled false to release the renderers with their views
+     */
+    public void setEnabled(boolean enabled) {
+        mEnabled = enabled;
+        if (!enabled) expire(true);
+    }
+
+    public boolean isEnabled() {
+        return mEnabled;
+    }
+
+    /**
+     * Check if a view is detached because its activity is recreated for a new configuration
+     *
+     * @param context the context of the view
+     * @return true if the renderers of the view should be kept
+     */
+    public boolean isChangingConfigurations(@Nullable Context context) {
+        if (!mEnabled) return false;
+
+        Activity activity = ActivityContextWrapper.getActivity(context);
+        return null != activity && activity.isChangingConfigurations();
+    }
+
+    /**
+     * Wrap the context used to inflate the views of a renderer, to be able to keep them
+     *
+     * @param context the context of the VideoView
+     * @return a context which can be switched to the next VideoView
+     */
+    @NonNull
+    public static Context wrap(@NonNull Context context) {
+        return new MutableContextWrapper(context);
+    }
+
+    /**
+     * Keep a renderer attached to its stream until it is reclaimed or expires
+     *
+     * @param peerId   the peer of the stream
+     * @param stream   the stream rendered
+     * @param view     the view holding the renderer, removed from its parent
+     * @param renderer the renderer
+     */
+    public void retain(@NonNull String peerId, @NonNull MediaStream stream,
+                       @NonNull View view, @NonNull VoxeetRenderer renderer) {
+        List<Entry> entries = mEntries.get(peerId);
+        if (null == entries) {
+            entries = new ArrayList<>();
+            mEntries.put(peerId, entries);
+        }
+        entries.add(new Entry(view, renderer, stream));
+
+        ToolkitLog.d(TAG, "retain: keeping the renderer of %s", peerId);
+        mHandler.removeCallbacks(mExpire);
+        mHandler.postDelayed(mExpire, RETAIN_TIMEOUT);
+    }
+
+    /**
+     * Take a renderer already attached to the stream of the peer
+     *
+     * @param peerId  the peer to display
+     * @param stream  the stream to display
+     * @param context the context of the reclaiming VideoView
+     * @return the entry or null if no renderer is kept for this stream
+     */
+    @Nullable
+    public Entry claim(@NonNull String peerId, @NonNull MediaStream stream, @NonNull Context context) {
+        List<Entry> entries = mEntries.get(peerId);
+        if (null == entries) return null;
+
+        for (Iterator<Entry> iterator = entries.iterator(); iterator.hasNext(); ) {
+            Entry entry = iterator.next();
+            if (entry.stream == stream) {
+                iterator.remove();
+                if (entries.isEmpty()) mEntries.remove(peerId);
+
+                Context wrapper = entry.view.getContext();
+                if (wrapper instanceof MutableContextWrapper) {
+                    ((MutableContextWrapper) wrapper).setBaseContext(context);
+                }
+
+                ToolkitLog.d(TAG, "claim: reusing the renderer of %s", peerId);
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private void expire(boolean all) {
+        long now = SystemClock.uptimeMillis();
+        long next = -1;
+
+        for (Iterator<List<Entry>> lists = mEntries.values().iterator(); lists.hasNext(); ) {
+            List<Entry> entries = lists.next();
+            for (Iterator<Entry> iterator = entries.iterator(); iterator.hasNext(); ) {
+                Entry entry = iterator.next();
+                long remaining = entry.retainedAt + RETAIN_TIMEOUT - now;
+                if (all || remaining <= 0) {
+                    iterator.remove();
+                    release(entry);
+                } else if (next < 0 || remaining < next) {
+                    next = remaining;
+                }
+            }
+            if (entries.isEmpty()) lists.remove();
+        }
+
+        mHandler.removeCallbacks(mExpire);
+        if (next >= 0) mHandler.postDelayed(mExpire, next);
+    }
+
+    private void release(@NonNull Entry entry) {
+        ToolkitLog.d(TAG, "release: renderer not reclaimed %s", entry.stream);
+        try {
+            if (null != VoxeetSdk.getInstance()) {
+                VoxeetSdk.getInstance().getMediaService().unAttachMediaStream(entry.stream, entry.renderer);
+            }
+            entry.renderer.release();
+        } catch (Exception e) {
+            ToolkitLog.e(TAG, "release: error while releasing the renderer", e);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.voxeet.toolkit.views.video;
+
+import android.support.annotation.NonNull;
+
+import org.webrtc.VideoFrame;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decide which frames of a mostly static stream, like a screen share, are worth presenting
+ * <p>
+ * A frame is unchanged when it has the timestamp of the previous one or, for I420 frames, when a
+ * checksum of a sparse grid of luma samples is the same. Changed frames are always presented and
+ * every frame is presented during a short period after a change. Once static, unchanged frames
+ * are presented at a capped rate, so that changes missed by the sparse checksum still show up.
+ * <p>
+ * Called from the render thread only, except invalidate()
+ */
+public final class StaticContentFilter {
+
+    private final static int GRID_COLUMNS = 32;
+    private final static int GRID_ROWS = 18;
+
+    private final static long STATIC_AFTER_NS = TimeUnit.SECONDS.toNanos(1);
+    private final static long STATIC_PERIOD_NS = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private long mLastTimestampNs;
+    private long mLastChecksum;
+    private boolean mHasChecksum;
+
+    private long mLastChangeNs;
+    private long mLastPresentNs;
+
+    private volatile boolean mInvalidated = true;
+
+    /**
+     * Present the next frame whatever its content, after a layout or surface change
+     */
+    public void invalidate() {
+        mInvalidated = true;
+    }
+
+    /**
+     * @param frame the frame received
+     * @param nowNs the current System.nanoTime()
+     * @return true if the frame must be drawn
+     */
+    public boolean shouldPresent(@NonNull VideoFrame frame, long nowNs) {
+        boolean changed = hasChanged(frame);
+        if (mInvalidated) {
+            mInvalidated = false;
+            changed = true;
+        }
+
+        if (changed) {
+            mLastChangeNs = nowNs;
+        } else if (nowNs - mLastChangeNs >= STATIC_AFTER_NS
+                && nowNs - mLastPresentNs < STATIC_PERIOD_NS) {
+            return false;
+        }
+
+        mLastPresentNs = nowNs;
+        return true;
+    }
+
+    private boolean hasChanged(@NonNull VideoFrame frame) {
+        //the legacy I420Frame are converted without timestamp
+        long timestamp = frame.getTimestampNs();
+        if (0 != timestamp) {
+            boolean duplicate = timestamp == mLastTimestampNs;
+            mLastTimestampNs = timestamp;
+            if (duplicate) return false;
+        }
+
+        VideoFrame.Buffer buffer = frame.getBuffer();
+        if (!(buffer instanceof VideoFrame.I420Buffer)) {
+            //reading a texture back is not cheap, only the timestamps are used
+            mHasChecksum = false;
+            return true;
+        }
+
+        long checksum = checksum((VideoFrame.I420Buffer) buffer);
+        boolean changed = !mHasChecksum || checksum != mLastChecksum;
+        mLastChecksum = checksum;
+        mHasChecksum = true;
+        return changed;
+    }
+
+    private static long checksum(@NonNull VideoFrame.I420Buffer buffer) {
+        ByteBuffer data = buffer.getDataY();
+        int stride = buffer.getStrideY();
+        int width = buffer.getWidth();
+        int height = buffer.getHeight();
+
+        long checksum = width * 31L + height;
+        for (int row = 0; row < GRID_ROWS; row++) {
+            int y = (2 * row + 1) * height / (2 * GRID_ROWS);
+            for (int column = 0; column < GRID_COLUMNS; column++) {
+                int x = (2 * column + 1) * width / (2 * GRID_COLUMNS);
+                checksum = checksum * 31 + (data.get(y * stride + x) & 0xff);
+            }
+        }
+        return checksum;
+    }
+}
@@ -0,0 +1,66 @@
+package com.voxeet.toolkit.views.video;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+
+/**
+ * Postpone the reallocation of the buffers of a renderer while its view is being resized
+ * <p>
+ * Resizing a window lays the renderers out on every frame, changing the size of their buffers
+ * each time would reallocate them as many times. Meanwhile the compositor scales the current
+ * buffer, the size is applied once the view stopped changing. Main thread only
+ */
+final class SurfaceResizeDebouncer implements Runnable {
+
+    private final static long DEBOUNCE = 200;
+
+    @NonNull
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    @NonNull
+    private final Runnable mApply;
+
+    private long mResizedAt;
+
+    /**
+     * @param apply called to apply the size again once the view is stable
+     */
+    SurfaceResizeDebouncer(@NonNull Runnable apply) {
+        mApply = apply;
+    }
+
+    /**
+     * Tell a view was resized, the first size of a view is applied directly
+     */
+    void onSizeChanged(int oldWidth, int oldHeight) {
+        if (oldWidth == 0 && oldHeight == 0) return;
+        mResizedAt = SystemClock.uptimeMillis();
+    }
+
+    /**
+     * Check if a new size must wait, scheduling it if so
+     *
+     * @return true if the view was resized too recently
+     */
+    boolean postpone() {
+        if (0 == mResizedAt) return false;
+
+        long remaining = mResizedAt + DEBOUNCE - SystemClock.uptimeMillis();
+        if (remaining <= 0) return false;
+
+        mHandler.removeCallbacks(this);
+        mHandler.postDelayed(this, remaining);
+        return true;
+    }
+
+    void cancel() {
+        mHandler.removeCallbacks(this);
+    }
+
+    @Override
+    public void run() {
+        mApply.run();
+    }
+}
@@ -0,0 +1,111 @@
+package com.voxeet.toolkit.views.video;
+
+import android.support.annotation.NonNull;
+
+/**
+ * Opt-in reduced resolution rendering of the small video tiles
+ * <p>
+ * When enabled, the renderers draw into a buffer capped to a maximum number of pixels per dp
+ * depending on the class of the tile, the compositor scales it up to the size of the view. Grids
+ * of thumbnails fill far less pixels and use less GPU memory, the stage keeps its full resolution
+ * by default
+ * <p>
+ * Must be configured before the renderers are laid out, from the main thread
+ */
+public final class SurfaceScaling {
+
+    public enum TileClass {
+        THUMBNAIL,
+        SMALL,
+        STAGE
+    }
+
+    //short side of the tiles, in dp, under which a tile is a thumbnail or a small tile
+    public final static int THUMBNAIL_MAX_DP = 120;
+    public final static int SMALL_MAX_DP = 240;
+
+    //pixels per dp, 0 for no limit
+    public final static float DEFAULT_THUMBNAIL_DENSITY = 1f;
+    public final static float DEFAULT_SMALL_DENSITY = 1.5f;
+    public final static float DEFAULT_STAGE_DENSITY = 0f;
+
+    private static boolean sEnabled;
+    private static float sThumbnailDensity = DEFAULT_THUMBNAIL_DENSITY;
+    private static float sSmallDensity = DEFAULT_SMALL_DENSITY;
+    private static float sStageDensity = DEFAULT_STAGE_DENSITY;
+
+    private SurfaceScaling() {
+
+    }
+
+    public static void setEnabled(boolean enabled) {
+        sEnabled = enabled;
+    }
+
+    public static boolean isEnabled() {
+        return sEnabled;
+    }
+
+    /**
+     * Set the maximum pixel density of the buffer of a class of tiles
+     *
+     * @param tileClass the class of tiles
+     * @param density   the maximum number of pixels per dp, 0 for no limit
+     */
+    public static void setMaxDensity(@NonNull TileClass tileClass, float density) {
+        switch (tileClass) {
+            case THUMBNAIL:
+                sThumbnailDensity = density;
+                break;
+            case SMALL:
+                sSmallDensity = density;
+                break;
+            default:
+                sStageDensity = density;
+        }
+    }
+
+    public static float getMaxDensity(@NonNull TileClass tileClass) {
+        switch (tileClass) {
+            case THUMBNAIL:
+                return sThumbnailDensity;
+            case SMALL:
+                return sSmallDensity;
+            default:
+                return sStageDensity;
+        }
+    }
+
+    /**
+     * Get the class of a tile from its size
+     *
+     * @param width   the width in pixels
+     * @param height  the height in pixels
+     * @param density the density of the screen
+     * @return the class of the tile
+     */
+    @NonNull
+    public static TileClass getTileClass(int width, int height, float density) {
+        float shortSide = Math.min(width, height) / density;
+        if (shortSide < THUMBNAIL_MAX_DP) return TileClass.THUMBNAIL;
+        if (shortSide < SMALL_MAX_DP) return TileClass.SMALL;
+        return TileClass.STAGE;
+    }
+
+    /**
+     * Get the scale to apply to a surface of the given size to respect the maximum density of its
+     * class
+     *
+     * @param width   the width in pixels
+     * @param height  the height in pixels
+     * @param density the density of the screen
+     * @return the scale, 1 to keep the size
+     */
+    public static float getScale(int width, int height, float density) {
+        if (width <= 0 || height <= 0 || density <= 0) return 1f;
+
+        float maxDensity = getMaxDensity(getTileClass(width, height, density));
+        if (maxDensity <= 0 || maxDensity >= density) return 1f;
+        return maxDensity / density;
+    }
+}
@@ -0,0 +1,143 @@
+package com.voxeet.toolkit.views.video;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Publish the resolution and framerate each stream is displayed at
+ * <p>
+ * Every tile rendering a stream reports its desired maximum resolution and fps, computed from its
+ * size on screen. The hints of the tiles displaying the same stream are merged, keeping the
+ * largest, and the listener is called when the result changes. A stream which is not displayed
+ * anymore is published with a 0 resolution and fps.
+ * <p>
+ * The integrating application forwards the hints to the media layer, to select the simulcast
+ * layer for instance. Must be called from the main thread
+ */
+public final class VideoResolutionHints {
+
+    public interface Listener {
+        /**
+         * @param peerId      the user whose stream is displayed
+         * @param screenShare true for the screen share stream of the user
+         * @param maxWidth    the maximum width in pixels worth receiving
+         * @param maxHeight   the maximum height in pixels worth receiving
+         * @param maxFps      the maximum framerate worth receiving
+         */
+        void onDesiredResolution(@NonNull String peerId, boolean screenShare, int maxWidth, int maxHeight, int maxFps);
+    }
+
+    private static class Hint {
+        @NonNull
+        final String key;
+        @NonNull
+        final String peerId;
+        final boolean screenShare;
+        int width;
+        int height;
+        int fps;
+
+        Hint(@NonNull String peerId, boolean screenShare) {
+            this.key = createKey(peerId, screenShare);
+            this.peerId = peerId;
+            this.screenShare = screenShare;
+        }
+    }
+
+    @Nullable
+    private static Listener sListener;
+
+    @NonNull
+    private static final Map<Object, Hint> sTiles = new IdentityHashMap<>();
+
+    @NonNull
+    private static final Map<String, Hint> sPublished = new HashMap<>();
+
+    private VideoResolutionHints() {
+
+    }
+
+    public static void setListener(@Nullable Listener listener) {
+        sListener = listener;
+    }
+
+    /**
+     * Report the resolution a tile displays its stream at
+     *
+     * @param tile        the object displaying the stream
+     * @param peerId      the user whose stream is displayed
+     * @param screenShare true for a screen share stream
+     * @param width       the maximum width, 0 if not displayed
+     * @param height      the maximum height, 0 if not displayed
+     * @param fps         the maximum framerate, 0 if not displayed
+     */
+    public static void update(@NonNull Object tile, @NonNull String peerId, boolean screenShare,
+                              int width, int height, int fps) {
+        Hint hint = sTiles.get(tile);
+        String previous = null;
+        if (null != hint && (!hint.peerId.equals(peerId) || hint.screenShare != screenShare)) {
+            //the tile displays an other stream now
+            previous = hint.key;
+            hint = null;
+        }
+
+        if (null == hint) {
+            hint = new Hint(peerId, screenShare);
+            sTiles.put(tile, hint);
+        }
+        hint.width = width;
+        hint.height = height;
+        hint.fps = fps;
+
+        if (null != previous) publish(previous);
+        publish(hint.key);
+    }
+
+    /**
+     * Tell that a tile does not display any stream anymore
+     *
+     * @param tile the object which displayed a stream
+     */
+    public static void remove(@NonNull Object tile) {
+        Hint hint = sTiles.remove(tile);
+        if (null != hint) publish(hint.key);
+    }
+
+    private static void publish(@NonNull String key) {
+        Hint merged = null;
+        for (Hint hint : sTiles.values()) {
+            if (!key.equals(hint.key)) continue;
+
+            if (null == merged) merged = new Hint(hint.peerId, hint.screenShare);
+            merged.width = Math.max(merged.width, hint.width);
+            merged.height = Math.max(merged.height, hint.height);
+            merged.fps = Math.max(merged.fps, hint.fps);
+        }
+
+        Hint last = sPublished.get(key);
+        if (null == merged) {
+            if (null == last) return;
+            //not displayed anymore
+            merged = new Hint(last.peerId, last.screenShare);
+            sPublished.remove(key);
+        } else if (null != last && last.width == merged.width && last.height == merged.height
+                && last.fps == merged.fps) {
+            return;
+        } else {
+            sPublished.put(key, merged);
+        }
+
+        if (null != sListener) {
+            sListener.onDesiredResolution(merged.peerId, merged.screenShare, merged.width, merged.height, merged.fps);
+        }
+    }
+
+    @NonNull
+    private static String createKey(@NonNull String peerId, boolean screenShare) {
+        return peerId + (screenShare ? "|screenshare" : "|video");
+    }
+}
@@ -0,0 +1,90 @@
+package com.voxeet.toolkit.views.video;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Decision logic of the number of video tiles rendered at the same time
+ * <p>
+ * Plain java, without any Android dependency, so that it can be checked without a device
+ */
+public final class VideoTileBudget {
+
+    public final static int LOW_RAM_TILES = 2;
+    public final static int LOW_END_TILES = 4;
+    public final static int MID_RANGE_TILES = 6;
+    public final static int HIGH_END_TILES = 9;
+
+    private VideoTileBudget() {
+
+    }
+
+    /**
+     * A tile asking to render a stream
+     *
+     * @param <T> the type of the object identifying the tile
+     */
+    public static class Candidate<T> {
+        public final T tile;
+        public final boolean pinned;
+        public final boolean activeSpeaker;
+        public final boolean screenShare;
+        public final boolean visible;
+
+        public Candidate(T tile, boolean pinned, boolean activeSpeaker, boolean screenShare, boolean visible) {
+            this.tile = tile;
+            this.pinned = pinned;
+            this.activeSpeaker = activeSpeaker;
+            this.screenShare = screenShare;
+            this.visible = visible;
+        }
+    }
+
+    private final static Comparator<Candidate<?>> RANKING = new Comparator<Candidate<?>>() {
+        @Override
+        public int compare(Candidate<?> left, Candidate<?> right) {
+            if (left.pinned != right.pinned) return left.pinned ? -1 : 1;
+            if (left.activeSpeaker != right.activeSpeaker) return left.activeSpeaker ? -1 : 1;
+            if (left.screenShare != right.screenShare) return left.screenShare ? -1 : 1;
+            if (left.visible != right.visible) return left.visible ? -1 : 1;
+            return 0;
+        }
+    };
+
+    /**
+     * Get the number of tiles a device can render at the same time
+     *
+     * @param lowRam      true for a low RAM device
+     * @param cores       the number of cpu cores
+     * @param memoryClass the memory class of the application in MB
+     * @return the maximum number of tiles
+     */
+    public static int getDeviceBudget(boolean lowRam, int cores, int memoryClass) {
+        if (lowRam) return LOW_RAM_TILES;
+        if (cores <= 2 || memoryClass <= 128) return LOW_END_TILES;
+        if (cores <= 4 || memoryClass <= 256) return MID_RANGE_TILES;
+        return HIGH_END_TILES;
+    }
+
+    /**
+     * Select the tiles allowed to render : pinned first, then the active speaker, the screen
+     * shares and the visible tiles. Equal candidates keep their order
+     *
+     * @param candidates the tiles asking to render, in request order
+     * @param budget     the maximum number of tiles
+     * @param <T>        the type of the object identifying the tile
+     * @return the tiles allowed to render, best ranked first
+     */
+    public static <T> List<T> select(List<Candidate<T>> candidates, int budget) {
+        List<Candidate<T>> ranked = new ArrayList<>(candidates);
+        //the sort is stable, ties keep the request order
+        Collections.sort(ranked, RANKING);
+
+        int count = Math.max(0, Math.min(budget, ranked.size()));
+        List<T> selected = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) selected.add(ranked.get(i).tile);
+        return selected;
+    }
+}
@@ -0,0 +1,260 @@
+package com.voxeet.toolkit.views.video;
+
+import android.annotation.TargetApi;
+import android.app.ActivityManager;
+import android.content.Context;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.voxeet.toolkit.utils.ToolkitLog;
+import com.voxeet.toolkit.views.VideoView;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Caps the number of VideoView rendering a stream at the same time
+ * <p>
+ * The budget depends on the device : low RAM status, cpu cores and memory class. It can be
+ * overridden. Every VideoView asks for a tile before attaching a stream, the tiles over the budget
+ * are not attached - or detached if a better ranked tile comes - until a tile is released.
+ * See VideoTileBudget for the ranking
+ * <p>
+ * Listeners are told when tiles were granted or revoked, to show avatars instead of the videos.
+ * Must be called from the main thread
+ */
+public class VideoTileBudgetManager {
+
+    private final static String TAG = VideoTileBudgetManager.class.getSimpleName();
+
+    private static VideoTileBudgetManager sInstance;
+
+    public interface Listener {
+        void onTilesChanged();
+    }
+
+    private final int mDeviceBudget;
+    private int mOverride;
+
+    @Nullable
+    private String mActiveSpeaker;
+
+    /**
+     * A view asking for a tile, weakly referenced so that a view never released can be collected
+     */
+    private static class Tile extends WeakReference<VideoView> {
+        private boolean granted;
+
+        private Tile(@NonNull VideoView view) {
+            super(view);
+        }
+    }
+
+    @NonNull
+    private final List<Tile> mTiles = new ArrayList<>();
+
+    @NonNull
+    private final List<Listener> mListeners = new ArrayList<>();
+
+    @NonNull
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+
+    private boolean mNotifyPosted;
+    private boolean mUpdatePosted;
+
+    @NonNull
+    private final Runnable mUpdate = new Runnable() {
+        @Override
+        public void run() {
+            mUpdatePosted = false;
+            update(null);
+        }
+    };
+
+    @NonNull
+    private final Runnable mNotify = new Runnable() {
+        @Override
+        public void run() {
+            mNotifyPosted = false;
+            for (Listener listener : new ArrayList<>(mListeners)) listener.onTilesChanged();
+        }
+    };
+
+    public static synchronized VideoTileBudgetManager getInstance(@NonNull Context context) {
+        if (null == sInstance) sInstance = new VideoTileBudgetManager(context.getApplicationContext());
+        return sInstance;
+    }
+
+    private VideoTileBudgetManager(@NonNull Context context) {
+        ActivityManager manager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+
+        boolean lowRam = false;
+        int memoryClass = Integer.MAX_VALUE;
+        if (null != manager) {
+            lowRam = isLowRamDevice(manager);
+            memoryClass = manager.getMemoryClass();
+        }
+
+        mDeviceBudget = VideoTileBudget.getDeviceBudget(lowRam,
+                Runtime.getRuntime().availableProcessors(), memoryClass);
+        ToolkitLog.d(TAG, "VideoTileBudgetManager: %d tiles for this device", mDeviceBudget);
+    }
+
+    /**
+     * Override the budget of the device
+     *
+     * @param maxTiles the maximum number of tiles, 0 or less to use the device budget
+     */
+    public void setOverride(int maxTiles) {
+        mOverride = maxTiles;
+        update(null);
+    }
+
+    public int getBudget() {
+        return mOverride > 0 ? mOverride : mDeviceBudget;
+    }
+
+    /**
+     * Set the user currently speaking, his tiles are ranked before the others
+     *
+     * @param peerId the id of the user, null if nobody speaks
+     */
+    public void setActiveSpeaker(@Nullable String peerId) {
+        if (null == peerId ? null == mActiveSpeaker : peerId.equals(mActiveSpeaker)) return;
+
+        mActiveSpeaker = peerId;
+        update(null);
+    }
+
+    public void addListener(@NonNull Listener listener) {
+        if (!mListeners.contains(listener)) mListeners.add(listener);
+    }
+
+    public void removeListener(@NonNull Listener listener) {
+        mListeners.remove(listener);
+    }
+
+    /**
+     * Ask for a tile, called by a VideoView before attaching a stream
+     *
+     * @param view the view which will render
+     * @return true if the view can attach its stream now
+     */
+    public boolean request(@NonNull VideoView view) {
+        Tile tile = find(view);
+        if (null == tile) {
+            tile = new Tile(view);
+            mTiles.add(tile);
+        }
+
+        update(view);
+        return tile.granted;
+    }
+
+    /**
+     * Give a tile back, called by a VideoView which does not want to render anymore
+     *
+     * @param view the view
+     */
+    public void release(@NonNull VideoView view) {
+        Iterator<Tile> iterator = mTiles.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().get() == view) {
+                iterator.remove();
+                update(view);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Rank the tiles again, called by a VideoView attached to its window or whose visibility
+     * changed. Posted, so that the views shown by the same layout are ranked once
+     */
+    public void invalidate() {
+        if (mUpdatePosted) return;
+
+        mUpdatePosted = true;
+        mHandler.post(mUpdate);
+    }
+
+    public boolean isGranted(@NonNull VideoView view) {
+        Tile tile = find(view);
+        return null != tile && tile.granted;
+    }
+
+    @Nullable
+    private Tile find(@NonNull VideoView view) {
+        for (Tile tile : mTiles) {
+            if (tile.get() == view) return tile;
+        }
+        return null;
+    }
+
+    /**
+     * Select the granted tiles again and tell the views which changed
+     *
+     * @param caller the view calling, not told since it reads the result itself
+     */
+    private void update(@Nullable VideoView caller) {
+        List<VideoTileBudget.Candidate<VideoView>> candidates = new ArrayList<>();
+
+        Iterator<Tile> iterator = mTiles.iterator();
+        while (iterator.hasNext()) {
+            VideoView view = iterator.next().get();
+            if (null == view) {
+                iterator.remove();
+                continue;
+            }
+
+            boolean speaker = null != mActiveSpeaker && mActiveSpeaker.equals(view.getRequestedPeerId());
+            candidates.add(new VideoTileBudget.Candidate<>(view, view.isTilePinned(), speaker,
+                    view.isScreenShareRequested(), view.isShown()));
+        }
+
+        Set<VideoView> granted = Collections.newSetFromMap(new IdentityHashMap<VideoView, Boolean>());
+        granted.addAll(VideoTileBudget.select(candidates, getBudget()));
+
+        //revoked first, the granted views may need the resources given back
+        List<VideoView> revoked = new ArrayList<>();
+        List<VideoView> newlyGranted = new ArrayList<>();
+        for (Tile tile : mTiles) {
+            VideoView view = tile.get();
+            if (null == view) continue;
+
+            boolean isGranted = granted.contains(view);
+            if (isGranted == tile.granted) continue;
+
+            tile.granted = isGranted;
+            if (view == caller) continue;
+            if (isGranted) {
+                newlyGranted.add(view);
+            } else {
+                revoked.add(view);
+            }
+        }
+
+        for (VideoView view : revoked) view.onTileRevoked();
+        for (VideoView view : newlyGranted) view.onTileGranted();
+        boolean changed = !revoked.isEmpty() || !newlyGranted.isEmpty();
+
+        //posted, the listeners may be bound while a layout is computed
+        if (changed && !mNotifyPosted) {
+            mNotifyPosted = true;
+            mHandler.post(mNotify);
+        }
+    }
+
+    @TargetApi(Build.VERSION_CODES.KITKAT)
+    private static boolean isLowRamDevice(@NonNull ActivityManager manager) {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT && manager.isLowRamDevice();
+    }
+}
@@ -1,28 +1,27 @@
 package com.voxeet.toolkit.views.video;
 
+import android.annotation.TargetApi;
 import android.content.Context;
-import android.content.res.Resources;
 import android.graphics.Point;
 import android.graphics.SurfaceTexture;
 import android.os.Build;
 import android.os.Handler;
 import android.os.Looper;
+import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.util.AttributeSet;
-import android.util.Log;
-import android.view.Display;
 import android.view.TextureView;
-import android.view.WindowManager;
+import android.view.View;
+
+import com.voxeet.toolkit.utils.MainThreadWatchdog;
 
 import org.webrtc.EglBase;
 import org.webrtc.GlRectDrawer;
-import org.webrtc.Logging;
 import org.webrtc.RendererCommon;
 import org.webrtc.SafeRenderFrameEglRenderer;
 import org.webrtc.ThreadUtils;
 import org.webrtc.VideoFrame;
 import org.webrtc.VideoRenderer;
-import org.webrtc.VideoSink;
 
 import java.util.concurrent.CountDownLatch;
 
@@ -34,47 +33,60 @@ import java.util.concurrent.CountDownLatch;
  * Interaction from C++ rtc::VideoSinkInterface in renderFrame.
  * Interaction from the Activity lifecycle in surfaceCreated, surfaceChanged, and surfaceDestroyed.
  * Interaction with the layout framework in onMeasure and onSizeChanged.
+ * The logic shared with VoxeetSurfaceRenderer is in RendererDelegate.
  */
 public class VoxeetRenderer extends TextureView
-        implements TextureView.SurfaceTextureListener, VideoRenderer.Callbacks, VideoSink {
+        implements TextureView.SurfaceTextureListener, IVoxeetRenderer {
     private static final String TAG = "VoxeetRenderer";
 
-    private Point size = new Point();
-
-    // Cached resource name.
-    private final String resourceName;
-    private final RendererCommon.VideoLayoutMeasure videoLayoutMeasure =
-            new RendererCommon.VideoLayoutMeasure();
+    private final RendererDelegate delegate;
     private final SafeRenderFrameEglRenderer eglRenderer;
     private Handler mHandler;
     private boolean pendingLayout = false;
 
-    // Callback for reporting renderer events. Read-only after initilization so no lock required.
-    private RendererCommon.RendererEvents rendererEvents;
-
-    private final Object layoutLock = new Object();
-    private boolean isRenderingPaused = false;
-    private boolean isFirstFrameRendered;
-    private int rotatedFrameWidth;
-    private int rotatedFrameHeight;
-    private int frameRotation;
-
     // Accessed only on the main thread.
     private boolean enableFixedSize;
     private int surfaceWidth;
     private int surfaceHeight;
-    private boolean isEglRendererInitialized;
+    // Size set on the SurfaceTexture when scaling small tiles, 0 when following the view.
+    private int bufferWidth;
+    private int bufferHeight;
+
+    // Scaled buffer size applied once the view stopped being resized, main thread only.
+    @NonNull
+    private final SurfaceResizeDebouncer surfaceResize = new SurfaceResizeDebouncer(new Runnable() {
+        @Override
+        public void run() {
+            updateSurfaceSize(false);
+        }
+    });
 
-    private RendererCommon.ScalingType setScalingType;
+    // Surface kept alive while the view moves from one window to an other, main thread only.
+    private boolean retainSurfaceOnDetach;
+    @Nullable
+    private SurfaceTexture retainedSurface;
+    @Nullable
+    private OnDetachingListener detachingListener;
+
+    /**
+     * Told when the view is detached from its window, before its surface is destroyed
+     */
+    public interface OnDetachingListener {
+        /**
+         * Last chance to call retainSurfaceOnDetach()
+         *
+         * @param renderer the renderer being detached
+         */
+        void onDetaching(@NonNull VoxeetRenderer renderer);
+    }
 
     /**
      * Standard View constructor. In order to render something, you must first call init().
      */
     public VoxeetRenderer(Context context) {
         super(context);
-        isEglRendererInitialized = false;
-        this.resourceName = getResourceName();
-        eglRenderer = new SafeRenderFrameEglRenderer(resourceName);
+        delegate = createDelegate();
+        eglRenderer = delegate.getEglRenderer();
         setSurfaceTextureListener(this);
 
         mHandler = new Handler(Looper.getMainLooper());
@@ -85,14 +97,30 @@ public class VoxeetRenderer extends TextureView
      */
     public VoxeetRenderer(Context context, AttributeSet attrs) {
         super(context, attrs);
-        isEglRendererInitialized = false;
-        this.resourceName = getResourceName();
-        eglRenderer = new SafeRenderFrameEglRenderer(resourceName);
+        delegate = createDelegate();
+        eglRenderer = delegate.getEglRenderer();
         setSurfaceTextureListener(this);
 
         mHandler = new Handler(Looper.getMainLooper());
     }
 
+    @NonNull
+    private RendererDelegate createDelegate() {
+        return new RendererDelegate(this, TAG, new Runnable() {
+            @Override
+            public void run() {
+                updateSurfaceSize();
+                requestLayoutIfNotPending();
+            }
+        });
+    }
+
+    @NonNull
+    @Override
+    public View getView() {
+        return this;
+    }
+
     /**
      * Initialize this class, sharing resources with |sharedContext|. It is allowed to call init() to
      * reinitialize the renderer after a previous init()/release() cycle.
@@ -110,36 +138,64 @@ public class VoxeetRenderer extends TextureView
     public void init(final EglBase.Context sharedContext,
                      RendererCommon.RendererEvents rendererEvents, final int[] configAttributes,
                      RendererCommon.GlDrawer drawer) {
-        synchronized (eglRenderer) {
-            if (isEglRendererInitialized) return;
-
-            ThreadUtils.checkIsOnMainThread();
-            this.rendererEvents = rendererEvents;
-            synchronized (layoutLock) {
-                isFirstFrameRendered = false;
-                rotatedFrameWidth = 0;
-                rotatedFrameHeight = 0;
-                frameRotation = 0;
-            }
-            eglRenderer.init(sharedContext, configAttributes, drawer);
-            isEglRendererInitialized = true;
-        }
+        delegate.init(sharedContext, rendererEvents, configAttributes, drawer);
+    }
+
+    /**
+     * Keep the current surface, and the EGL surface drawing into it, the next time this view is
+     * detached. It is given back to the view when attached again, no new surface is created.
+     * <p>
+     * To be called right before moving this renderer to an other window, or from the
+     * OnDetachingListener by the owner keeping this renderer. A surface kept and never attached
+     * again is only released with the renderer
+     */
+    public void retainSurfaceOnDetach() {
+        ThreadUtils.checkIsOnMainThread();
+        retainSurfaceOnDetach = Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN
+                && isAvailable();
     }
 
     @Override
     protected void onAttachedToWindow() {
         super.onAttachedToWindow();
 
-        WindowManager wm = (WindowManager) getContext().getSystemService(Context.WINDOW_SERVICE);
-        if (wm != null) {
-            Display display = wm.getDefaultDisplay();
-
-            if(Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
-                display.getRealSize(size);
-            } else {
-                display.getSize(size);
-            }
+        if (null != retainedSurface) {
+            restoreSurface(retainedSurface);
+            retainedSurface = null;
         }
+
+        delegate.onAttachedToWindow();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        //the owner decides if the surface is kept, e.g. when it gives this renderer to the RendererPool
+        if (null != detachingListener) detachingListener.onDetaching(this);
+
+        super.onDetachedFromWindow();
+    }
+
+    /**
+     * Set the listener told when this view is detached, before its surface is destroyed
+     *
+     * @param listener the listener or null
+     */
+    public void setOnDetachingListener(@Nullable OnDetachingListener listener) {
+        detachingListener = listener;
+    }
+
+    /**
+     * Change the listener given to init(), when this renderer is reclaimed by an other view
+     *
+     * @param rendererEvents the new listener
+     */
+    public void setRendererEvents(@Nullable RendererCommon.RendererEvents rendererEvents) {
+        delegate.setRendererEvents(rendererEvents);
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private void restoreSurface(SurfaceTexture surface) {
+        setSurfaceTexture(surface);
     }
 
     /**
@@ -150,18 +206,23 @@ public class VoxeetRenderer extends TextureView
      */
     public void release() {
         synchronized (eglRenderer) {
-            if (!isEglRendererInitialized) return;
+            if (!delegate.isInitialized()) return;
 
-            isEglRendererInitialized = false;
             setSurfaceTextureListener(null);
+            retainSurfaceOnDetach = false;
+            if (null != retainedSurface) {
+                retainedSurface.release();
+                retainedSurface = null;
+            }
             eglRenderer.releaseEglSurface(new Runnable() {
                 @Override
                 public void run() {
                     //nothing to do
                 }
             });
-            eglRenderer.release();
+            delegate.release();
 
+            surfaceResize.cancel();
             mHandler = null;
         }
     }
@@ -207,6 +268,14 @@ public class VoxeetRenderer extends TextureView
         updateSurfaceSize(false);
     }
 
+    /**
+     * Set the listener told about the resolution and framerate this view can display. It is
+     * called once the size of the view is stable, the resizes being debounced.
+     */
+    public void setOnDesiredResolutionListener(@Nullable OnDesiredResolutionListener listener) {
+        delegate.setOnDesiredResolutionListener(listener);
+    }
+
     /**
      * Set if the video stream should be mirrored or not.
      */
@@ -219,7 +288,7 @@ public class VoxeetRenderer extends TextureView
     }
 
     public boolean isFirstFrameRendered() {
-        return isFirstFrameRendered;
+        return delegate.isFirstFrameRendered();
     }
 
     /**
@@ -230,26 +299,40 @@ public class VoxeetRenderer extends TextureView
         surfaceHeight = 0;
         surfaceWidth = 0;
 
-        setScalingType = scalingType;
         setScalingType(scalingType, scalingType);
     }
 
     public void setScalingType(RendererCommon.ScalingType scalingTypeMatchOrientation,
                                RendererCommon.ScalingType scalingTypeMismatchOrientation) {
-        ThreadUtils.checkIsOnMainThread();
-        videoLayoutMeasure.setScalingType(scalingTypeMatchOrientation, scalingTypeMismatchOrientation);
-
-        eglRenderer.setScalingType(scalingTypeMatchOrientation);
+        delegate.setScalingType(scalingTypeMatchOrientation, scalingTypeMismatchOrientation);
     }
 
     /**
      * TODO implement a way to get both types if set
      *
-     * @return
+     * @return the scaling type used when the orientations match
      */
     @Nullable
     public RendererCommon.ScalingType getScalingType() {
-        return setScalingType;
+        return delegate.getScalingType();
+    }
+
+    /**
+     * Draw only a region of the frames, to zoom without scaling the view.
+     */
+    public void setZoom(float zoom, float centerX, float centerY) {
+        eglRenderer.setZoom(zoom, centerX, centerY);
+    }
+
+    public void resetZoom() {
+        eglRenderer.resetZoom();
+    }
+
+    /**
+     * Only present the frames whose content changed, the rate is capped once it is static.
+     */
+    public void setContentAdaptive(boolean enabled) {
+        eglRenderer.setContentAdaptive(enabled);
     }
 
     /**
@@ -259,30 +342,22 @@ public class VoxeetRenderer extends TextureView
      *            reduction.
      */
     public void setFpsReduction(float fps) {
-        synchronized (layoutLock) {
-            isRenderingPaused = fps == 0f;
-        }
-        eglRenderer.setFpsReduction(fps);
+        delegate.setFpsReduction(fps);
     }
 
     public void disableFpsReduction() {
-        synchronized (layoutLock) {
-            isRenderingPaused = false;
-        }
-        eglRenderer.disableFpsReduction();
+        delegate.disableFpsReduction();
     }
 
     public void pauseVideo() {
-        synchronized (layoutLock) {
-            isRenderingPaused = true;
-        }
-        eglRenderer.pauseVideo();
+        delegate.pauseVideo();
     }
 
     // VideoRenderer.Callbacks interface.
     @Override
     public void renderFrame(VideoRenderer.I420Frame frame) {
-        updateFrameDimensionsAndReportEvents(frame);
+        delegate.updateFrameDimensionsAndReportEvents(frame.rotatedWidth(), frame.rotatedHeight(),
+                frame.width, frame.height, frame.rotationDegree);
         eglRenderer.renderFrame(frame);
     }
 
@@ -290,7 +365,8 @@ public class VoxeetRenderer extends TextureView
     @Override
     public void onFrame(VideoFrame frame) {
         try {
-            updateFrameDimensionsAndReportEvents(frame);
+            delegate.updateFrameDimensionsAndReportEvents(frame.getRotatedWidth(), frame.getRotatedHeight(),
+                    frame.getBuffer().getWidth(), frame.getBuffer().getHeight(), frame.getRotation());
             eglRenderer.onFrame(frame);
         } catch (Exception e) {
             e.printStackTrace();
@@ -300,15 +376,7 @@ public class VoxeetRenderer extends TextureView
     // View layout interface.
     @Override
     protected void onMeasure(int widthSpec, int heightSpec) {
-        ThreadUtils.checkIsOnMainThread();
-        final Point size;
-        synchronized (layoutLock) {
-            size = videoLayoutMeasure.measure(widthSpec, heightSpec, rotatedFrameWidth, rotatedFrameHeight);
-        }
-
-        if(size.y > getScreenHeight()) size.y = getScreenHeight();
-        if(size.x > getScreenWidth()) size.x = getScreenWidth();
-
+        final Point size = delegate.measure(widthSpec, heightSpec);
         setMeasuredDimension(size.x, size.y);
 
         pendingLayout = false;
@@ -317,52 +385,77 @@ public class VoxeetRenderer extends TextureView
 
     @Override
     protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
-        ThreadUtils.checkIsOnMainThread();
-
-        eglRenderer.setLayoutAspectRatio((right - left) / (float) (bottom - top));
+        delegate.onLayout(left, top, right, bottom);
         updateSurfaceSize(false);
     }
 
+    @Override
+    protected void onVisibilityChanged(@NonNull View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        delegate.onLayoutChanged();
+    }
+
     private void updateSurfaceSize() {
         updateSurfaceSize(true);
     }
 
     private void updateSurfaceSize(boolean sendLayout) {
-        ThreadUtils.checkIsOnMainThread();
-        synchronized (layoutLock) {
-
-            if (enableFixedSize && rotatedFrameWidth != 0 && rotatedFrameHeight != 0 && getWidth() != 0
-                    && getHeight() != 0) {
-                final float layoutAspectRatio = getWidth() / (float) getHeight();
-                final float frameAspectRatio = rotatedFrameWidth / (float) rotatedFrameHeight;
-                final int drawnFrameWidth;
-                final int drawnFrameHeight;
-                if (frameAspectRatio > layoutAspectRatio) {
-                    drawnFrameWidth = (int) (rotatedFrameHeight * layoutAspectRatio);
-                    drawnFrameHeight = rotatedFrameHeight;
-                } else {
-                    drawnFrameWidth = rotatedFrameWidth;
-                    drawnFrameHeight = (int) (rotatedFrameWidth / layoutAspectRatio);
-                }
-                // Aspect ratio of the drawn frame and the view is the same.
-                final int width = Math.min(getWidth(), drawnFrameWidth);
-                final int height = Math.min(getHeight(), drawnFrameHeight);
-                if (width != surfaceWidth || height != surfaceHeight) {
-                    /*logD("updateSurfaceSize. Layout size: " + getWidth() + "x" + getHeight() + ", frame size: "
-                            + rotatedFrameWidth + "x" + rotatedFrameHeight + ",  requested surface size: " + width
-                            + "x" + height + ", old surface size: " + surfaceWidth + "x" + surfaceHeight);*/
-
-                    surfaceWidth = width;
-                    surfaceHeight = height;
-                    //getHolder().setFixedSize(width, height);
-                    if (sendLayout && surfaceWidth != 0 && surfaceHeight != 0)
-                        requestLayoutIfNotPending();
-                }
+        final boolean scaling = SurfaceScaling.isEnabled();
+        final Point size = delegate.getSurfaceSize(enableFixedSize, scaling);
+        if (null != size) {
+            if (size.x != surfaceWidth || size.y != surfaceHeight) {
+                surfaceWidth = size.x;
+                surfaceHeight = size.y;
+                if (sendLayout) requestLayoutIfNotPending();
+            }
+
+            if (scaling) {
+                // while resizing, the TextureView buffer follows the view
+                if (!surfaceResize.postpone()) applyBufferSize(size.x, size.y);
             } else {
-                surfaceWidth = surfaceHeight = 0;
-                //getHolder().setSizeFromLayout();
-                //requestLayoutIfNotPending();
+                restoreBufferSize();
             }
+        } else {
+            surfaceWidth = surfaceHeight = 0;
+            restoreBufferSize();
+        }
+    }
+
+    /**
+     * Render into a buffer of the given size, scaled up to the view by the compositor. Only set
+     * when the size changes since it is checked for every rendered frame.
+     */
+    private void applyBufferSize(int width, int height) {
+        if (width == bufferWidth && height == bufferHeight) return;
+
+        final SurfaceTexture surface = getSurfaceTexture();
+        if (null == surface) return;
+
+        bufferWidth = width;
+        bufferHeight = height;
+        surface.setDefaultBufferSize(width, height);
+    }
+
+    private void restoreBufferSize() {
+        if (bufferWidth == 0 && bufferHeight == 0) return;
+
+        bufferWidth = bufferHeight = 0;
+        final SurfaceTexture surface = getSurfaceTexture();
+        if (null != surface) surface.setDefaultBufferSize(getWidth(), getHeight());
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        surfaceResize.onSizeChanged(oldw, oldh);
+
+        // The TextureView resized the buffer to the view. While resizing, the last scaled size is
+        // kept until the debouncer applies the new one, the compositor scales it meanwhile.
+        final SurfaceTexture surface = getSurfaceTexture();
+        if (bufferWidth != 0 && bufferHeight != 0 && oldw != 0 && oldh != 0 && null != surface) {
+            surface.setDefaultBufferSize(bufferWidth, bufferHeight);
+        } else {
+            bufferWidth = bufferHeight = 0;
         }
     }
 
@@ -371,6 +464,7 @@ public class VoxeetRenderer extends TextureView
         ThreadUtils.checkIsOnMainThread();
         eglRenderer.createEglSurface(surface);
         surfaceWidth = surfaceHeight = 0;
+        bufferWidth = bufferHeight = 0;
 
         updateSurfaceSize();
     }
@@ -378,12 +472,20 @@ public class VoxeetRenderer extends TextureView
     @Override
     public void onSurfaceTextureSizeChanged(SurfaceTexture surface, int width, int height) {
         ThreadUtils.checkIsOnMainThread();
-        logD("surfaceChanged: size: " + width + "x" + height);
+        delegate.logD("surfaceChanged: size: " + width + "x" + height);
     }
 
     @Override
     public boolean onSurfaceTextureDestroyed(SurfaceTexture surface) {
         ThreadUtils.checkIsOnMainThread();
+        if (retainSurfaceOnDetach) {
+            // moving to an other window, keep rendering into the same surface
+            retainSurfaceOnDetach = false;
+            retainedSurface = surface;
+            return false;
+        }
+
+        MainThreadWatchdog.getInstance().mark("VoxeetRenderer.onSurfaceTextureDestroyed");
         final CountDownLatch completionLatch = new CountDownLatch(1);
         eglRenderer.releaseEglSurface(new Runnable() {
             @Override
@@ -403,14 +505,6 @@ public class VoxeetRenderer extends TextureView
         updateSurfaceSize(false);
     }
 
-    private String getResourceName() {
-        try {
-            return getResources().getResourceEntryName(getId()) + ": ";
-        } catch (Resources.NotFoundException e) {
-            return "";
-        }
-    }
-
     /**
      * Post a task to clear the SurfaceView to a transparent uniform color.
      */
@@ -418,80 +512,6 @@ public class VoxeetRenderer extends TextureView
         eglRenderer.clearImage();
     }
 
-    // Update frame dimensions and report any changes to |rendererEvents|.
-    private void updateFrameDimensionsAndReportEvents(VideoRenderer.I420Frame frame) {
-        synchronized (layoutLock) {
-            if (isRenderingPaused) {
-                return;
-            }
-            if (!isFirstFrameRendered) {
-                isFirstFrameRendered = true;
-                logD("Reporting first rendered frame.");
-                if (rendererEvents != null) {
-                    rendererEvents.onFirstFrameRendered();
-                }
-            }
-            if (rotatedFrameWidth != frame.rotatedWidth() || rotatedFrameHeight != frame.rotatedHeight()
-                    || frameRotation != frame.rotationDegree) {
-                logD("Reporting frame resolution changed to " + frame.width + "x" + frame.height
-                        + " with rotation " + frame.rotationDegree);
-                if (rendererEvents != null) {
-                    rendererEvents.onFrameResolutionChanged(frame.width, frame.height, frame.rotationDegree);
-                }
-                rotatedFrameWidth = frame.rotatedWidth();
-                rotatedFrameHeight = frame.rotatedHeight();
-                frameRotation = frame.rotationDegree;
-                post(new Runnable() {
-                    @Override
-                    public void run() {
-                        updateSurfaceSize();
-                        requestLayoutIfNotPending();
-                    }
-                });
-            }
-        }
-    }
-
-    // Update frame dimensions and report any changes to |rendererEvents|.
-    private void updateFrameDimensionsAndReportEvents(VideoFrame frame) {
-        synchronized (layoutLock) {
-            if (isRenderingPaused) {
-                return;
-            }
-            if (!isFirstFrameRendered) {
-                isFirstFrameRendered = true;
-                logD("Reporting first rendered frame.");
-                if (rendererEvents != null) {
-                    rendererEvents.onFirstFrameRendered();
-                }
-            }
-            if (rotatedFrameWidth != frame.getRotatedWidth()
-                    || rotatedFrameHeight != frame.getRotatedHeight()
-                    || frameRotation != frame.getRotation()) {
-                logD("Reporting frame resolution changed to " + frame.getBuffer().getWidth() + "x"
-                        + frame.getBuffer().getHeight() + " with rotation " + frame.getRotation());
-                if (rendererEvents != null) {
-                    rendererEvents.onFrameResolutionChanged(
-                            frame.getBuffer().getWidth(), frame.getBuffer().getHeight(), frame.getRotation());
-                }
-                rotatedFrameWidth = frame.getRotatedWidth();
-                rotatedFrameHeight = frame.getRotatedHeight();
-                frameRotation = frame.getRotation();
-                post(new Runnable() {
-                    @Override
-                    public void run() {
-                        updateSurfaceSize();
-                        requestLayoutIfNotPending();
-                    }
-                });
-            }
-        }
-    }
-
-    private void logD(String string) {
-        Logging.d(TAG, resourceName + string);
-    }
-
     private boolean posting = false;
 
     private void requestLayoutIfNotPending() {
@@ -512,10 +532,10 @@ public class VoxeetRenderer extends TextureView
     }
 
     public int getScreenWidth() {
-        return size.x;
+        return delegate.getScreenWidth();
     }
 
     public int getScreenHeight() {
-        return size.y;
+        return delegate.getScreenHeight();
     }
 }
@@ -0,0 +1,346 @@
+package com.voxeet.toolkit.views.video;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Point;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.AttributeSet;
+import android.view.SurfaceHolder;
+import android.view.SurfaceView;
+import android.view.View;
+
+import com.voxeet.toolkit.utils.MainThreadWatchdog;
+
+import org.webrtc.EglBase;
+import org.webrtc.GlRectDrawer;
+import org.webrtc.RendererCommon;
+import org.webrtc.SafeRenderFrameEglRenderer;
+import org.webrtc.ThreadUtils;
+import org.webrtc.VideoFrame;
+import org.webrtc.VideoRenderer;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * SurfaceView counterpart of VoxeetRenderer
+ * <p>
+ * The frames are composited by the system without the extra GPU copy of a TextureView, for a
+ * lower latency and power use. The surface can not be transformed, made translucent or clipped
+ * by its parents, it is meant for the main stage : the selected or screen share video.
+ * <p>
+ * The threading is the same as VoxeetRenderer : the frames are received from the webrtc threads,
+ * everything else happens on the main thread. Both share their logic through RendererDelegate.
+ * <p>
+ * A SurfaceView is not clipped by the outline of its parents, rounded corners and circles are
+ * not supported : VideoView ignores them with this backend.
+ */
+public class VoxeetSurfaceRenderer extends SurfaceView
+        implements SurfaceHolder.Callback, IVoxeetRenderer {
+    private static final String TAG = "VoxeetSurfaceRenderer";
+
+    private final RendererDelegate delegate;
+    private final SafeRenderFrameEglRenderer eglRenderer;
+
+    // Accessed only on the main thread.
+    private boolean enableFixedSize;
+    private int surfaceWidth;
+    private int surfaceHeight;
+
+    // Fixed size applied once the view stopped being resized, main thread only.
+    @NonNull
+    private final SurfaceResizeDebouncer surfaceResize = new SurfaceResizeDebouncer(new Runnable() {
+        @Override
+        public void run() {
+            updateSurfaceSize();
+        }
+    });
+
+    /**
+     * Standard View constructor. In order to render something, you must first call init().
+     */
+    public VoxeetSurfaceRenderer(Context context) {
+        super(context);
+        delegate = createDelegate();
+        eglRenderer = delegate.getEglRenderer();
+        getHolder().addCallback(this);
+    }
+
+    /**
+     * Standard View constructor. In order to render something, you must first call init().
+     */
+    public VoxeetSurfaceRenderer(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        delegate = createDelegate();
+        eglRenderer = delegate.getEglRenderer();
+        getHolder().addCallback(this);
+    }
+
+    @NonNull
+    private RendererDelegate createDelegate() {
+        return new RendererDelegate(this, TAG, new Runnable() {
+            @Override
+            public void run() {
+                updateSurfaceSize();
+                requestLayout();
+            }
+        });
+    }
+
+    @NonNull
+    @Override
+    public View getView() {
+        return this;
+    }
+
+    /**
+     * Initialize this class, sharing resources with |sharedContext|. It is allowed to call init() to
+     * reinitialize the renderer after a previous init()/release() cycle.
+     */
+    public void init(EglBase.Context sharedContext, RendererCommon.RendererEvents rendererEvents) {
+        init(sharedContext, rendererEvents, EglBase.CONFIG_PLAIN, new GlRectDrawer());
+    }
+
+    /**
+     * Initialize this class, sharing resources with |sharedContext|. The custom |drawer| will be used
+     * for drawing frames on the EGLSurface. This class is responsible for calling release() on
+     * |drawer|. It is allowed to call init() to reinitialize the renderer after a previous
+     * init()/release() cycle.
+     */
+    public void init(final EglBase.Context sharedContext,
+                     RendererCommon.RendererEvents rendererEvents, final int[] configAttributes,
+                     RendererCommon.GlDrawer drawer) {
+        synchronized (eglRenderer) {
+            if (!delegate.init(sharedContext, rendererEvents, configAttributes, drawer)) return;
+
+            // The surface may already exist when the renderer is initialized again.
+            final SurfaceHolder holder = getHolder();
+            if (null != holder.getSurface() && holder.getSurface().isValid()) {
+                eglRenderer.createEglSurface(holder.getSurface());
+            }
+        }
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        delegate.onAttachedToWindow();
+    }
+
+    /**
+     * Block until any pending frame is returned and all GL resources released, even if an interrupt
+     * occurs. If an interrupt occurs during release(), the interrupt flag will be set. This function
+     * should be called before the Activity is destroyed and the EGLContext is still valid. If you
+     * don't call this function, the GL resources might leak.
+     */
+    public void release() {
+        synchronized (eglRenderer) {
+            if (!delegate.isInitialized()) return;
+
+            surfaceResize.cancel();
+            delegate.release();
+        }
+    }
+
+    /**
+     * Enables fixed size for the surface. This provides better performance but might be buggy on some
+     * devices. By default this is turned off.
+     */
+    public void setEnableHardwareScaler(boolean enabled) {
+        ThreadUtils.checkIsOnMainThread();
+        enableFixedSize = enabled;
+        updateSurfaceSize();
+    }
+
+    /**
+     * Set the listener told about the resolution and framerate this view can display. It is
+     * called once the size of the view is stable, the resizes being debounced.
+     */
+    public void setOnDesiredResolutionListener(@Nullable OnDesiredResolutionListener listener) {
+        delegate.setOnDesiredResolutionListener(listener);
+    }
+
+    /**
+     * Set if the video stream should be mirrored or not.
+     */
+    public void setMirror(final boolean mirror) {
+        eglRenderer.setMirror(mirror);
+    }
+
+    public boolean isMirror() {
+        return eglRenderer.isMirror();
+    }
+
+    public boolean isFirstFrameRendered() {
+        return delegate.isFirstFrameRendered();
+    }
+
+    /**
+     * Set how the video will fill the allowed layout area.
+     */
+    public void setScalingType(RendererCommon.ScalingType scalingType) {
+        delegate.setScalingType(scalingType, scalingType);
+        requestLayout();
+    }
+
+    @Nullable
+    public RendererCommon.ScalingType getScalingType() {
+        return delegate.getScalingType();
+    }
+
+    /**
+     * Draw only a region of the frames, to zoom without scaling the view.
+     */
+    public void setZoom(float zoom, float centerX, float centerY) {
+        eglRenderer.setZoom(zoom, centerX, centerY);
+    }
+
+    public void resetZoom() {
+        eglRenderer.resetZoom();
+    }
+
+    /**
+     * Only present the frames whose content changed, the rate is capped once it is static.
+     */
+    public void setContentAdaptive(boolean enabled) {
+        eglRenderer.setContentAdaptive(enabled);
+    }
+
+    /**
+     * Limit render framerate.
+     *
+     * @param fps Limit render framerate to this value, or use Float.POSITIVE_INFINITY to disable fps
+     *            reduction.
+     */
+    public void setFpsReduction(float fps) {
+        delegate.setFpsReduction(fps);
+    }
+
+    public void disableFpsReduction() {
+        delegate.disableFpsReduction();
+    }
+
+    public void pauseVideo() {
+        delegate.pauseVideo();
+    }
+
+    /**
+     * Post a task to clear the surface to a transparent uniform color.
+     */
+    public void clearImage() {
+        eglRenderer.clearImage();
+    }
+
+    /**
+     * The content of a SurfaceView can not be read back
+     *
+     * @return null
+     */
+    @Nullable
+    public Bitmap getBitmap() {
+        return null;
+    }
+
+    @Nullable
+    public Bitmap getBitmap(@NonNull Bitmap bitmap) {
+        return null;
+    }
+
+    @Nullable
+    public Bitmap getBitmap(int width, int height) {
+        return null;
+    }
+
+    // VideoRenderer.Callbacks interface.
+    @Override
+    public void renderFrame(VideoRenderer.I420Frame frame) {
+        delegate.updateFrameDimensionsAndReportEvents(frame.rotatedWidth(), frame.rotatedHeight(),
+                frame.width, frame.height, frame.rotationDegree);
+        eglRenderer.renderFrame(frame);
+    }
+
+    // VideoSink interface.
+    @Override
+    public void onFrame(VideoFrame frame) {
+        delegate.updateFrameDimensionsAndReportEvents(frame.getRotatedWidth(), frame.getRotatedHeight(),
+                frame.getBuffer().getWidth(), frame.getBuffer().getHeight(), frame.getRotation());
+        eglRenderer.onFrame(frame);
+    }
+
+    // View layout interface.
+    @Override
+    protected void onMeasure(int widthSpec, int heightSpec) {
+        final Point measured = delegate.measure(widthSpec, heightSpec);
+        setMeasuredDimension(measured.x, measured.y);
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+        delegate.onLayout(left, top, right, bottom);
+        updateSurfaceSize();
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        surfaceResize.onSizeChanged(oldw, oldh);
+    }
+
+    @Override
+    protected void onVisibilityChanged(@NonNull View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        delegate.onLayoutChanged();
+    }
+
+    private void updateSurfaceSize() {
+        final Point size = delegate.getSurfaceSize(enableFixedSize, SurfaceScaling.isEnabled());
+        if (null != size) {
+            // the compositor scales the current surface until the view is stable
+            if ((size.x != surfaceWidth || size.y != surfaceHeight)
+                    && (0 == surfaceWidth || !surfaceResize.postpone())) {
+                delegate.logD("updateSurfaceSize. Layout size: " + getWidth() + "x" + getHeight()
+                        + ", requested surface size: " + size.x + "x" + size.y
+                        + ", old surface size: " + surfaceWidth + "x" + surfaceHeight);
+                surfaceWidth = size.x;
+                surfaceHeight = size.y;
+                getHolder().setFixedSize(size.x, size.y);
+            }
+        } else if (surfaceWidth != 0 || surfaceHeight != 0) {
+            surfaceWidth = surfaceHeight = 0;
+            getHolder().setSizeFromLayout();
+        }
+    }
+
+    // SurfaceHolder.Callback interface.
+    @Override
+    public void surfaceCreated(SurfaceHolder holder) {
+        ThreadUtils.checkIsOnMainThread();
+        synchronized (eglRenderer) {
+            if (delegate.isInitialized()) eglRenderer.createEglSurface(holder.getSurface());
+        }
+        surfaceWidth = surfaceHeight = 0;
+        updateSurfaceSize();
+    }
+
+    @Override
+    public void surfaceChanged(SurfaceHolder holder, int format, int width, int height) {
+        ThreadUtils.checkIsOnMainThread();
+        delegate.logD("surfaceChanged: format: " + format + " size: " + width + "x" + height);
+    }
+
+    @Override
+    public void surfaceDestroyed(SurfaceHolder holder) {
+        ThreadUtils.checkIsOnMainThread();
+
+        // The surface is gone once this method returns, the EGL surface must be released before.
+        MainThreadWatchdog.getInstance().mark("VoxeetSurfaceRenderer.surfaceDestroyed");
+        final CountDownLatch completionLatch = new CountDownLatch(1);
+        eglRenderer.releaseEglSurface(new Runnable() {
+            @Override
+            public void run() {
+                completionLatch.countDown();
+            }
+        });
+        ThreadUtils.awaitUninterruptibly(completionLatch);
+    }
+}
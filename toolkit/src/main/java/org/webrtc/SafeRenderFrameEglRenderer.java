@@ -19,6 +19,9 @@ import android.os.HandlerThread;
 import android.os.Looper;
 import android.view.Surface;
 
+import com.voxeet.toolkit.utils.MainThreadWatchdog;
+import com.voxeet.toolkit.views.video.StaticContentFilter;
+
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -75,6 +78,7 @@ public class SafeRenderFrameEglRenderer implements VideoRenderer.Callbacks, Vide
                 eglBase.makeCurrent();
                 // Necessary for YUV frames with odd width.
                 GLES20.glPixelStorei(GLES20.GL_UNPACK_ALIGNMENT, 1);
+                invalidateContent();
             }
         }
     }
@@ -114,6 +118,20 @@ public class SafeRenderFrameEglRenderer implements VideoRenderer.Callbacks, Vide
     private float layoutAspectRatio;
     // If true, mirrors the video stream horizontally.
     private boolean mirror;
+    // Zoom of the drawn region, its center is in frame coordinates from 0 to 1, top left origin.
+    private float zoom = 1f;
+    private float zoomCenterX = 0.5f;
+    private float zoomCenterY = 0.5f;
+    // If true, the last frame is kept to be drawn again when the zoom changes.
+    private boolean zoomable;
+
+    // Skips the presentation of unchanged frames when set, see setContentAdaptive().
+    private volatile StaticContentFilter contentFilter;
+
+    // Last rendered frame, only accessed on the render thread.
+    private VideoFrame lastFrame;
+    // Synchronized on |handlerLock|.
+    private boolean redrawPosted;
 
     // These variables are synchronized on |statisticsLock|.
     private final Object statisticsLock = new Object();
@@ -122,6 +140,8 @@ public class SafeRenderFrameEglRenderer implements VideoRenderer.Callbacks, Vide
     // Number of video frames dropped by renderFrame() because previous frame has not been rendered
     // yet.
     private int framesDropped;
+    // Number of video frames not rendered because their content did not change.
+    private int framesUnchanged;
     // Number of rendered video frames.
     private int framesRendered;
     // Start time for counting these statistics, or 0 if we haven't started measuring yet.
@@ -237,6 +257,7 @@ public class SafeRenderFrameEglRenderer implements VideoRenderer.Callbacks, Vide
      * don't call this function, the GL resources might leak.
      */
     public void release() {
+        MainThreadWatchdog.getInstance().mark("SafeRenderFrameEglRenderer.release");
         logD("Releasing." + this);
         final CountDownLatch eglCleanupBarrier = new CountDownLatch(1);
         synchronized (handlerLock) {
@@ -252,6 +273,10 @@ public class SafeRenderFrameEglRenderer implements VideoRenderer.Callbacks, Vide
                     drawer = null;
                 }
                 frameDrawer.release();
+                if (lastFrame != null) {
+                    lastFrame.release();
+                    lastFrame = null;
+                }
                 if (bitmapTextureFramebuffer != null) {
                     bitmapTextureFramebuffer.release();
                     bitmapTextureFramebuffer = null;
@@ -292,6 +317,7 @@ public class SafeRenderFrameEglRenderer implements VideoRenderer.Callbacks, Vide
             statisticsStartTimeNs = currentTimeNs;
             framesReceived = 0;
             framesDropped = 0;
+            framesUnchanged = 0;
             framesRendered = 0;
             renderTimeNs = 0;
             renderSwapBufferTimeNs = 0;
@@ -322,6 +348,7 @@ public class SafeRenderFrameEglRenderer implements VideoRenderer.Callbacks, Vide
         synchronized (layoutLock) {
             this.mirror = mirror;
         }
+        invalidateContent();
     }
 
     public boolean isMirror() {
@@ -336,6 +363,43 @@ public class SafeRenderFrameEglRenderer implements VideoRenderer.Callbacks, Vide
         synchronized (layoutLock) {
             this.layoutAspectRatio = layoutAspectRatio;
         }
+        invalidateContent();
+    }
+
+    /**
+     * Draw only a region of the frames, the same frame is drawn again right away. The region is
+     * kept inside the frame.
+     *
+     * @param zoom    the zoom factor, 1 to draw the whole frame
+     * @param centerX the horizontal center of the region in the frame, from 0 to 1
+     * @param centerY the vertical center of the region in the frame, from 0 to 1
+     */
+    public void setZoom(float zoom, float centerX, float centerY) {
+        synchronized (layoutLock) {
+            this.zoom = Math.max(1f, zoom);
+            this.zoomCenterX = centerX;
+            this.zoomCenterY = centerY;
+            this.zoomable = true;
+        }
+        synchronized (handlerLock) {
+            if (renderThreadHandler != null && !redrawPosted) {
+                redrawPosted = true;
+                renderThreadHandler.post(this::redrawOnRenderThread);
+            }
+        }
+    }
+
+    /**
+     * Draw the whole frames again and stop keeping the last frame.
+     */
+    public void resetZoom() {
+        synchronized (layoutLock) {
+            if (!zoomable) return;
+            zoom = 1f;
+            zoomCenterX = 0.5f;
+            zoomCenterY = 0.5f;
+            zoomable = false;
+        }
     }
 
     /**
@@ -542,6 +606,21 @@ public class SafeRenderFrameEglRenderer implements VideoRenderer.Callbacks, Vide
 
     public void setScalingType(RendererCommon.ScalingType type) {
         scalingType = type;
+        invalidateContent();
+    }
+
+    /**
+     * Present only the frames whose content changed, at a capped rate once the content is static.
+     * Meant for screen shares, see StaticContentFilter.
+     */
+    public void setContentAdaptive(boolean enabled) {
+        if (enabled == (contentFilter != null)) return;
+        contentFilter = enabled ? new StaticContentFilter() : null;
+    }
+
+    private void invalidateContent() {
+        final StaticContentFilter filter = contentFilter;
+        if (filter != null) filter.invalidate();
     }
 
     /**
@@ -588,10 +667,49 @@ public class SafeRenderFrameEglRenderer implements VideoRenderer.Callbacks, Vide
 
         final long startTimeNs = System.nanoTime();
 
+        final StaticContentFilter filter = contentFilter;
+        final boolean shouldPresentFrame =
+                shouldRenderFrame && (filter == null || filter.shouldPresent(frame, startTimeNs));
+        if (shouldRenderFrame && !shouldPresentFrame) {
+            synchronized (statisticsLock) {
+                ++framesUnchanged;
+            }
+        }
+
+        if (shouldPresentFrame) {
+            drawFrameOnRenderThread(frame);
+
+            final long swapBuffersStartTimeNs = System.nanoTime();
+            eglBase.swapBuffers();
+
+            final long currentTimeNs = System.nanoTime();
+            synchronized (statisticsLock) {
+                ++framesRendered;
+                renderTimeNs += (currentTimeNs - startTimeNs);
+                renderSwapBufferTimeNs += (currentTimeNs - swapBuffersStartTimeNs);
+            }
+        }
+
+        notifyCallbacks(frame, shouldPresentFrame);
+        keepOrReleaseFrame(frame);
+    }
+
+    /**
+     * Clear the surface and draw |frame| with the current layout, mirror and zoom.
+     */
+    private void drawFrameOnRenderThread(VideoFrame frame) {
         final float frameAspectRatio = frame.getRotatedWidth() / (float) frame.getRotatedHeight();
         final float drawnAspectRatio;
+        final boolean mirror;
+        final float zoom;
+        final float zoomCenterX;
+        final float zoomCenterY;
         synchronized (layoutLock) {
             drawnAspectRatio = layoutAspectRatio != 0f ? layoutAspectRatio : frameAspectRatio;
+            mirror = this.mirror;
+            zoom = this.zoom;
+            zoomCenterX = this.zoomCenterX;
+            zoomCenterY = this.zoomCenterY;
         }
 
         final float scaleX;
@@ -620,38 +738,69 @@ public class SafeRenderFrameEglRenderer implements VideoRenderer.Callbacks, Vide
                 }
         }
 
+        // Only the visible region is sampled: the texture coordinates are scaled down around the
+        // center, itself kept so that the region stays inside the frame. The drawn coordinates
+        // have a bottom left origin.
+        final float regionX = scaleX / zoom;
+        final float regionY = scaleY / zoom;
+        final float offsetX = clampOffset(zoomCenterX - 0.5f, regionX);
+        final float offsetY = clampOffset(0.5f - zoomCenterY, regionY);
 
         drawMatrix.reset();
-        drawMatrix.preTranslate(0.5f, 0.5f);
+        drawMatrix.preTranslate(0.5f + offsetX, 0.5f + offsetY);
 
         if (mirror)
             drawMatrix.preScale(-1f, 1f);
-        drawMatrix.preScale(scaleX, scaleY);
+        drawMatrix.preScale(regionX, regionY);
 
 
         drawMatrix.preTranslate(-0.5f, -0.5f);
 
-        if (shouldRenderFrame) {
-            GLES20.glClearColor(0 /* red */, 0 /* green */, 0 /* blue */, 0 /* alpha */);
-            GLES20.glClear(GLES20.GL_COLOR_BUFFER_BIT);
+        GLES20.glClearColor(0 /* red */, 0 /* green */, 0 /* blue */, 0 /* alpha */);
+        GLES20.glClear(GLES20.GL_COLOR_BUFFER_BIT);
 
-            //GLES20.glClearColor(0, 0, 0, 100);
-            frameDrawer.drawFrame(frame, drawer, drawMatrix, 0 /* viewportX */, 0 /* viewportY */,
-                    eglBase.surfaceWidth(), eglBase.surfaceHeight());
+        //GLES20.glClearColor(0, 0, 0, 100);
+        frameDrawer.drawFrame(frame, drawer, drawMatrix, 0 /* viewportX */, 0 /* viewportY */,
+                eglBase.surfaceWidth(), eglBase.surfaceHeight());
+    }
 
-            final long swapBuffersStartTimeNs = System.nanoTime();
-            eglBase.swapBuffers();
+    private static float clampOffset(float offset, float region) {
+        final float max = Math.max(0f, (1f - region) / 2f);
+        return Math.max(-max, Math.min(max, offset));
+    }
 
-            final long currentTimeNs = System.nanoTime();
-            synchronized (statisticsLock) {
-                ++framesRendered;
-                renderTimeNs += (currentTimeNs - startTimeNs);
-                renderSwapBufferTimeNs += (currentTimeNs - swapBuffersStartTimeNs);
-            }
+    /**
+     * Keep the last frame of a zoomable renderer, to draw it again on zoom changes without waiting
+     * for the next one. Texture frames are not kept: their producer waits for them to be released
+     * before delivering the next frame.
+     */
+    private void keepOrReleaseFrame(VideoFrame frame) {
+        final boolean keep;
+        synchronized (layoutLock) {
+            keep = zoomable;
+        }
+
+        if (lastFrame != null) {
+            lastFrame.release();
+            lastFrame = null;
         }
 
-        notifyCallbacks(frame, shouldRenderFrame);
-        frame.release();
+        if (keep && !(frame.getBuffer() instanceof VideoFrame.TextureBuffer)) {
+            lastFrame = frame;
+        } else {
+            frame.release();
+        }
+    }
+
+    private void redrawOnRenderThread() {
+        synchronized (handlerLock) {
+            redrawPosted = false;
+        }
+
+        if (lastFrame == null || eglBase == null || !eglBase.hasSurface()) return;
+
+        drawFrameOnRenderThread(lastFrame);
+        eglBase.swapBuffers();
     }
 
     private void notifyCallbacks(VideoFrame frame, boolean wasRendered) {
@@ -724,6 +873,7 @@ public class SafeRenderFrameEglRenderer implements VideoRenderer.Callbacks, Vide
             logD("Duration: " + TimeUnit.NANOSECONDS.toMillis(elapsedTimeNs) + " ms."
                     + " Frames received: " + framesReceived + "."
                     + " Dropped: " + framesDropped + "."
+                    + " Unchanged: " + framesUnchanged + "."
                     + " Rendered: " + framesRendered + "."
                     + " Render fps: " + String.format(Locale.US, "%.1f", renderFps) + "."
                     + " Average render time: " + averageTimeAsString(renderTimeNs, framesRendered) + "."
@@ -0,0 +1,64 @@
+package com.voxeet.toolkit.views.video;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class VideoTileBudgetTest {
+
+    @Test
+    public void deviceBudget() {
+        assertEquals(VideoTileBudget.LOW_RAM_TILES, VideoTileBudget.getDeviceBudget(true, 8, 512));
+        assertEquals(VideoTileBudget.LOW_END_TILES, VideoTileBudget.getDeviceBudget(false, 2, 512));
+        assertEquals(VideoTileBudget.LOW_END_TILES, VideoTileBudget.getDeviceBudget(false, 8, 128));
+        assertEquals(VideoTileBudget.MID_RANGE_TILES, VideoTileBudget.getDeviceBudget(false, 4, 512));
+        assertEquals(VideoTileBudget.MID_RANGE_TILES, VideoTileBudget.getDeviceBudget(false, 8, 256));
+        assertEquals(VideoTileBudget.HIGH_END_TILES, VideoTileBudget.getDeviceBudget(false, 8, 512));
+    }
+
+    @Test
+    public void selectRanksPinnedSpeakerScreenShareThenVisible() {
+        List<VideoTileBudget.Candidate<String>> candidates = new ArrayList<>();
+        candidates.add(candidate("hidden", false, false, false, false));
+        candidates.add(candidate("visible", false, false, false, true));
+        candidates.add(candidate("screenshare", false, false, true, false));
+        candidates.add(candidate("speaker", false, true, false, false));
+        candidates.add(candidate("pinned", true, false, false, false));
+
+        assertEquals(Arrays.asList("pinned", "speaker", "screenshare", "visible", "hidden"),
+                VideoTileBudget.select(candidates, 5));
+        assertEquals(Arrays.asList("pinned", "speaker"), VideoTileBudget.select(candidates, 2));
+    }
+
+    @Test
+    public void selectKeepsTheRequestOrderOfEqualCandidates() {
+        List<VideoTileBudget.Candidate<String>> candidates = new ArrayList<>();
+        candidates.add(candidate("first", false, false, false, true));
+        candidates.add(candidate("second", false, false, false, true));
+        candidates.add(candidate("third", false, false, false, true));
+
+        assertEquals(Arrays.asList("first", "second"), VideoTileBudget.select(candidates, 2));
+    }
+
+    @Test
+    public void selectWithinBounds() {
+        List<VideoTileBudget.Candidate<String>> candidates = new ArrayList<>();
+        candidates.add(candidate("only", false, false, false, true));
+
+        assertEquals(Collections.singletonList("only"), VideoTileBudget.select(candidates, 4));
+        assertEquals(Collections.<String>emptyList(), VideoTileBudget.select(candidates, 0));
+        assertEquals(Collections.<String>emptyList(), VideoTileBudget.select(candidates, -1));
+        assertEquals(Collections.<String>emptyList(),
+                VideoTileBudget.select(new ArrayList<VideoTileBudget.Candidate<String>>(), 4));
+    }
+
+    private static VideoTileBudget.Candidate<String> candidate(String tile, boolean pinned, boolean speaker,
+                                                               boolean screenShare, boolean visible) {
+        return new VideoTileBudget.Candidate<>(tile, pinned, speaker, screenShare, visible);
+    }
+}